@@ -0,0 +1,87 @@
+package by.losik.lab6omis.bench;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+import by.losik.lab6omis.entities.general.types.Request;
+import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.service.stats.AnalysisCalculations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисления ресурса анализа ({@link AnalysisCalculations}): анализ списка строк,
+ * оценка эффективности, анализ одного запроса и агрегирование пакета.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisHelpersBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private List<String> data;
+    private List<Request> requests;
+    private List<Solution> solutions;
+    private List<Map<String, Object>> batchResults;
+
+    @Setup
+    public void setUp() {
+        Language[] languages = Language.values();
+        data = new ArrayList<>(size);
+        requests = new ArrayList<>(size);
+        solutions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Language language = languages[i % languages.length];
+            data.add(i % 10 == 0 ? "" : "показание датчика номер " + i);
+            Request request = new Request(language, "Найти решение задачи " + i, 50.0 + i % 50);
+            request.setId((long) i);
+            requests.add(request);
+            solutions.add(new Solution(language, "Решение " + i + " для языка " + language));
+        }
+        batchResults = new ArrayList<>(size);
+        for (Request request : requests) {
+            batchResults.add(AnalysisCalculations.analyzeSingleRequest(request));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> statisticalAnalysis() {
+        return AnalysisCalculations.performStatisticalAnalysis(data);
+    }
+
+    @Benchmark
+    public String effectivenessScore() {
+        double score = AnalysisCalculations.calculateEffectivenessScore(requests, solutions, 75.0, 120.0);
+        return AnalysisCalculations.getEffectivenessRating(score);
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeSingleRequest() {
+        return AnalysisCalculations.analyzeSingleRequest(requests.get(size / 2));
+    }
+
+    @Benchmark
+    public Map<String, Object> aggregateBatch() {
+        return AnalysisCalculations.aggregateBatchResults(batchResults);
+    }
+}
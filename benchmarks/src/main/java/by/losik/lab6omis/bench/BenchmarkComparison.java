@@ -0,0 +1,97 @@
+package by.losik.lab6omis.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сравнение двух результатов JMH в формате JSON (например, двух коммитов).
+ * Для каждого бенчмарка с одинаковыми параметрами выводит оценки, изменение
+ * в процентах и отмечает изменения, выходящие за сумму погрешностей.
+ * Если в обоих прогонах есть выделение памяти на операцию (профилировщик gc),
+ * оно выводится строкой ниже.
+ * Возвращает код 1, если найдено значимое ухудшение больше порога
+ * ({@code -Dbench.threshold}, по умолчанию 10%).
+ *
+ * <pre>
+ * java -cp benchmarks.jar by.losik.lab6omis.bench.BenchmarkComparison target/jmh/abc123.json target/jmh/def456.json
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkComparison() {
+    }
+
+    /**
+     * Сравнивает результаты.
+     *
+     * @param args путь к исходному и новому файлу результатов
+     * @throws IOException если файл не удалось прочитать
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: BenchmarkComparison <base.json> <head.json>");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(System.getProperty("bench.threshold", "10"));
+        Map<String, JsonNode> base = load(new File(args[0]));
+        Map<String, JsonNode> head = load(new File(args[1]));
+
+        boolean regression = false;
+        System.out.printf(Locale.ROOT, "%-90s %14s %14s %9s%n", "benchmark", "base", "head", "change");
+        for (Map.Entry<String, JsonNode> entry : head.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double headScore = after.path("primaryMetric").path("score").asDouble();
+            double error = before.path("primaryMetric").path("scoreError").asDouble(0)
+                    + after.path("primaryMetric").path("scoreError").asDouble(0);
+            double change = baseScore == 0 ? 0 : (headScore - baseScore) / baseScore * 100;
+            boolean significant = Math.abs(headScore - baseScore) > error;
+
+            boolean lowerIsBetter = !after.path("mode").asText().equals("thrpt");
+            boolean worse = significant && (lowerIsBetter ? change > threshold : change < -threshold);
+            regression |= worse;
+            System.out.printf(Locale.ROOT, "%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(),
+                    baseScore, headScore, change, after.path("primaryMetric").path("scoreUnit").asText(),
+                    worse ? "  РЕГРЕССИЯ" : significant ? "  *" : "");
+
+            JsonNode baseAlloc = before.path("secondaryMetrics").path(ALLOCATION);
+            JsonNode headAlloc = after.path("secondaryMetrics").path(ALLOCATION);
+            if (!baseAlloc.isMissingNode() && !headAlloc.isMissingNode()) {
+                System.out.printf(Locale.ROOT, "%-90s %14.1f %14.1f %s%n", "  " + ALLOCATION,
+                        baseAlloc.path("score").asDouble(), headAlloc.path("score").asDouble(),
+                        headAlloc.path("scoreUnit").asText());
+            }
+        }
+        System.exit(regression ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
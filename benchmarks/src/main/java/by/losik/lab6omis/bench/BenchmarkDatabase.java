@@ -0,0 +1,70 @@
+package by.losik.lab6omis.bench;
+
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.persistence.SecondLevelCacheSettings;
+import by.losik.lab6omis.persistence.TransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Подключение бенчмарков к локальной базе PostgreSQL через persistence unit приложения.
+ * Используется та же конфигурация Hibernate и кэша второго уровня, что и в приложении;
+ * адрес и учетные данные переопределяются свойствами:
+ * <ul>
+ *   <li>{@code bench.jdbc.url} (по умолчанию jdbc:postgresql://localhost:5432/postgres)</li>
+ *   <li>{@code bench.jdbc.user}, {@code bench.jdbc.password} (по умолчанию postgres)</li>
+ * </ul>
+ * Вывод SQL в консоль отключается, чтобы не искажать измерения.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String PERSISTENCE_UNIT = "lab6omisPU";
+
+    private final EntityManagerFactory emf;
+    private final TransactionManager txManager;
+
+    /**
+     * Создает фабрику EntityManager и менеджер транзакций.
+     */
+    public BenchmarkDatabase() {
+        Map<String, Object> properties = new HashMap<>(SecondLevelCacheSettings.persistenceProperties());
+        properties.put("javax.persistence.jdbc.url",
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/postgres"));
+        properties.put("javax.persistence.jdbc.user", System.getProperty("bench.jdbc.user", "postgres"));
+        properties.put("javax.persistence.jdbc.password", System.getProperty("bench.jdbc.password", "postgres"));
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.use_sql_comments", "false");
+
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, properties);
+        txManager = new TransactionManager();
+        Wiring.inject(txManager, emf);
+        Wiring.inject(txManager, new MetricsRegistry());
+    }
+
+    /**
+     * @return менеджер транзакций, связанный с фабрикой бенчмарка
+     */
+    public TransactionManager getTransactionManager() {
+        return txManager;
+    }
+
+    /**
+     * @return фабрика EntityManager
+     */
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    @Override
+    public void close() {
+        if (emf.isOpen()) {
+            emf.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package by.losik.lab6omis.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Точка входа бенчмарков. Принимает обычные параметры JMH и по умолчанию
+ * сохраняет результаты в JSON в {@code target/jmh/<коммит>.json}, чтобы их можно
+ * было сравнить между коммитами ({@link BenchmarkComparison}).
+ * Коммит берется из свойства {@code bench.commit} или из {@code git rev-parse}.
+ * Если профилировщики не заданы, подключается {@code gc}: результаты содержат
+ * выделение памяти на операцию ({@code gc.alloc.rate.norm}) и число сборок.
+ *
+ * <p>Примеры:</p>
+ * <pre>
+ * java -jar benchmarks.jar ServiceWrapper
+ * java -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/lab6 -jar benchmarks.jar Repository
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Запускает бенчмарки.
+     *
+     * @param args параметры командной строки JMH
+     * @throws Exception если запуск завершился ошибкой
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+                || options.shouldListResultFormats() || options.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!options.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!options.getResult().hasValue()) {
+            Path result = Paths.get("target", "jmh", commit() + ".json");
+            Files.createDirectories(result.getParent());
+            builder.result(result.toString());
+        }
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * Определяет коммит, к которому относятся результаты.
+     *
+     * @return свойство {@code bench.commit}, короткий хэш HEAD или {@code unknown}
+     */
+    public static String commit() {
+        String commit = System.getProperty("bench.commit");
+        if (commit != null && !commit.isBlank()) {
+            return commit;
+        }
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                if (git.waitFor() == 0 && line != null && !line.isBlank()) {
+                    return line.trim();
+                }
+            }
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+}
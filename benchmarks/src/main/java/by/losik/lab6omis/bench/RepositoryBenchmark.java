@@ -0,0 +1,101 @@
+package by.losik.lab6omis.bench;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.repository.general.types.SensorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUD и поисковые запросы {@code BaseRepository} на примере {@link SensorRepository}
+ * против локальной базы PostgreSQL (см. {@link BenchmarkDatabase}).
+ * Перед измерением создается набор сенсоров с уникальным префиксом имени,
+ * после измерения он удаляется. Поиск по ID и по имени обслуживается
+ * кэшем второго уровня, поиск по типу и страница - запросами к базе.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int SENSORS = 200;
+    private static final String TYPE = "bench";
+
+    private BenchmarkDatabase database;
+    private SensorRepository repository;
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        repository = Wiring.inject(new SensorRepository(), database.getTransactionManager());
+        prefix = "bench-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        for (int i = 0; i < SENSORS; i++) {
+            Sensor sensor = repository.create(new Sensor(prefix + i, TYPE, "benchmark"));
+            ids.add(sensor.getId());
+            names.add(sensor.getName());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ids.forEach(repository::deleteById);
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<Sensor> findById() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public Optional<Sensor> findByNaturalId() {
+        return repository.findByName(names.get(ThreadLocalRandom.current().nextInt(names.size())));
+    }
+
+    @Benchmark
+    public List<Sensor> findByType() {
+        return repository.findByType(TYPE);
+    }
+
+    @Benchmark
+    public List<Sensor> findPage() {
+        return repository.findAll(ThreadLocalRandom.current().nextInt(SENSORS / 20), 20);
+    }
+
+    @Benchmark
+    public long count() {
+        return repository.count();
+    }
+
+    @Benchmark
+    public Long createAndDelete() {
+        Sensor sensor = repository.create(new Sensor(prefix + UUID.randomUUID(), TYPE, "benchmark"));
+        repository.deleteById(sensor.getId());
+        return sensor.getId();
+    }
+}
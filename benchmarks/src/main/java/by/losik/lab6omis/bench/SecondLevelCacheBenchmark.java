@@ -0,0 +1,159 @@
+package by.losik.lab6omis.bench;
+
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.serialization.CompactJavaSerializer;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.hibernate.type.LongType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Задержка попадания в кэш второго уровня и выделение памяти на попадание
+ * для прежней и текущей конфигурации.
+ *
+ * <p>Записи имеют тот же вид, что кладет Hibernate в регион сенсоров со стратегией
+ * read-write: ключ {@code CacheKeyImplementation}, значение {@code Item} с
+ * {@code StandardCacheEntryImpl} (разобранное состояние сущности) внутри.
+ * Конфигурации ({@link #config}):</p>
+ * <ul>
+ *   <li>{@code copyOnRead} - прежняя: Ehcache 2 с {@code copyOnRead}/{@code copyOnWrite},
+ *       каждое попадание десериализует копию записи;</li>
+ *   <li>{@code heap} - шаблон reference в ehcache.xml: только heap, запись отдается по ссылке;</li>
+ *   <li>{@code offheap} - промах кучи с чтением из offheap и сериализатором,
+ *       который обертка JSR-107 подключает по умолчанию ({@code PlainJavaSerializer});</li>
+ *   <li>{@code offheapCompact} - то же с {@code CompactJavaSerializer}, заданным
+ *       в ehcache.xml для шаблона entity.</li>
+ * </ul>
+ * <p>{@link BenchmarkRunner} по умолчанию подключает профилировщик gc, поэтому рядом
+ * со временем в результатах есть {@code gc.alloc.rate.norm} (байт на попадание)
+ * и {@code gc.count}; {@link BenchmarkComparison} сравнивает и выделение памяти.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=256m")
+public class SecondLevelCacheBenchmark {
+
+    private static final int ENTRIES = 10_000;
+    private static final String ENTITY = "by.losik.lab6omis.entities.general.types.Sensor";
+
+    @Param({"copyOnRead", "heap", "offheap", "offheapCompact"})
+    private String config;
+
+    private Object[] keys;
+    private Function<Object, Object> reader;
+    private AutoCloseable manager;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        keys = new Object[ENTRIES];
+        Object[] values = new Object[ENTRIES];
+        for (int id = 0; id < ENTRIES; id++) {
+            keys[id] = cacheKey((long) id);
+            values[id] = cacheEntry(id);
+        }
+
+        if ("copyOnRead".equals(config)) {
+            net.sf.ehcache.CacheManager legacy = net.sf.ehcache.CacheManager.newInstance(
+                    new net.sf.ehcache.config.Configuration().name("bench-" + config).updateCheck(false));
+            legacy.addCache(new net.sf.ehcache.Cache(new CacheConfiguration(ENTITY, ENTRIES * 2)
+                    .timeToIdleSeconds(1800)
+                    .timeToLiveSeconds(1800)
+                    .copyOnRead(true)
+                    .copyOnWrite(true)));
+            net.sf.ehcache.Ehcache cache = legacy.getEhcache(ENTITY);
+            for (int i = 0; i < ENTRIES; i++) {
+                cache.put(new Element(keys[i], values[i]));
+            }
+            reader = key -> cache.get(key).getObjectValue();
+            manager = legacy::shutdown;
+            return;
+        }
+
+        ResourcePoolsBuilder pools = "heap".equals(config)
+                ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(ENTRIES * 2L, EntryUnit.ENTRIES)
+                : ResourcePoolsBuilder.newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES)
+                        .offheap(64, MemoryUnit.MB);
+        CacheManager current = CacheManagerBuilder.newCacheManagerBuilder()
+                .withSerializer(Object.class, "offheapCompact".equals(config)
+                        ? CompactJavaSerializer.asTypedSerializer() : plainJavaSerializer())
+                .withCache(ENTITY, CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                        Object.class, Object.class, pools))
+                .build(true);
+        Cache<Object, Object> cache = current.getCache(ENTITY, Object.class, Object.class);
+        for (int i = 0; i < ENTRIES; i++) {
+            cache.put(keys[i], values[i]);
+        }
+        reader = cache::get;
+        manager = current;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        manager.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return reader.apply(keys[ThreadLocalRandom.current().nextInt(ENTRIES)]);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Class<PlainJavaSerializer<Object>> plainJavaSerializer() {
+        return (Class) PlainJavaSerializer.class;
+    }
+
+    /**
+     * Ключ записи, как его строит фабрика ключей Hibernate по умолчанию.
+     */
+    private static Object cacheKey(Long id) throws ReflectiveOperationException {
+        Constructor<?> constructor = Class.forName("org.hibernate.cache.internal.CacheKeyImplementation")
+                .getDeclaredConstructors()[0];
+        constructor.setAccessible(true);
+        return constructor.newInstance(id, LongType.INSTANCE, ENTITY, null, null);
+    }
+
+    /**
+     * Запись сенсора в регионе read-write: разобранное состояние
+     * (isActive, location, name, sensorDataList, type) в обертке с меткой времени.
+     */
+    private static Object cacheEntry(int id) throws ReflectiveOperationException {
+        Serializable[] state = {Boolean.TRUE, "Корпус " + (id % 7), "Датчик " + id, (long) id, "TEMPERATURE"};
+        Constructor<?> entry = Class.forName("org.hibernate.cache.spi.entry.StandardCacheEntryImpl")
+                .getDeclaredConstructor(Serializable[].class, String.class, Object.class);
+        entry.setAccessible(true);
+        Constructor<?> item = Class.forName("org.hibernate.cache.spi.support.AbstractReadWriteAccess$Item")
+                .getDeclaredConstructor(Object.class, Object.class, long.class);
+        item.setAccessible(true);
+        return item.newInstance(entry.newInstance(state, ENTITY, null), null, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,289 @@
+package by.losik.lab6omis.bench;
+
+import by.losik.lab6omis.dto.ComprehensiveStatsResponse;
+import by.losik.lab6omis.dto.SearchResponse;
+import by.losik.lab6omis.dto.StreamingSearchResponse;
+import by.losik.lab6omis.entities.general.enums.Language;
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.SearchResponseWriter;
+import by.losik.lab6omis.repository.general.types.SensorDataRepository;
+import by.losik.lab6omis.repository.general.types.SensorRepository;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сериализация ответов REST API: {@code SearchResponse} через ObjectMapper и через
+ * {@link SearchResponseWriter} (в том числе потоковый {@link StreamingSearchResponse}),
+ * список сущностей, {@code ComprehensiveStatsResponse}, а также чтение списка
+ * сущностей. Параметр {@code format} сравнивает JSON с CBOR и Smile.
+ *
+ * <p>{@code cursorReadings} и {@code materializedReadings} пишут {@code size} показаний
+ * одного сенсора из локальной базы PostgreSQL (см. {@link BenchmarkDatabase}): через
+ * курсор {@code BaseRepository.streamQuery} ({@code streamBySensorId}) и через
+ * полностью прочитанный список ({@code findBySensorId}). Показания создаются перед
+ * измерением и удаляются после него; остальным методам база не нужна. Ответ строится
+ * так же, как в {@link SearchResponseWriter} (поэлементно в массив {@code results}),
+ * но сериализатором с {@link ReadingMixIn}: у стандартного ObjectMapper нет модуля
+ * для {@code LocalDateTime}, а ленивую ссылку на сенсор читать не нужно.</p>
+ *
+ * <p>Размер полезной нагрузки каждой операции выводится счетчиком {@code payloadBytes}
+ * рядом со временем и выделением памяти.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"20", "1000", "100000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private MediaType mediaType;
+    private SearchResponseWriter writer;
+    private List<Sensor> sensors;
+    private SearchResponse<Sensor> searchResponse;
+    private ComprehensiveStatsResponse statsResponse;
+    private byte[] encodedSensors;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                mediaType = MediaType.valueOf(BinaryMediaTypes.APPLICATION_CBOR);
+                break;
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                mediaType = MediaType.valueOf(BinaryMediaTypes.APPLICATION_SMILE);
+                break;
+            default:
+                mapper = new ObjectMapper();
+                mediaType = MediaType.APPLICATION_JSON_TYPE;
+        }
+        writer = new SearchResponseWriter();
+
+        sensors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Sensor sensor = new Sensor("Датчик температуры " + i, i % 2 == 0 ? "temperature" : "humidity",
+                    "Корпус " + (i % 7) + ", помещение " + i);
+            sensor.setId((long) i + 1);
+            sensors.add(sensor);
+        }
+        searchResponse = new SearchResponse<>(sensors);
+
+        Map<Language, Long> byLanguage = new EnumMap<>(Language.class);
+        for (Language language : Language.values()) {
+            byLanguage.put(language, (long) language.ordinal() * 1000 + 17);
+        }
+        Map<String, Double> byNoise = new HashMap<>();
+        Map<Long, Long> bySensor = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            byNoise.put("noise-" + (i % 10), 440.0 + i);
+            bySensor.put((long) i, (long) i * 31);
+        }
+        statsResponse = new ComprehensiveStatsResponse(size * 10L, size * 5L, size * 100L,
+                87.5, 523.25, byLanguage, byNoise, bySensor);
+
+        encodedSensors = mapper.writeValueAsBytes(sensors);
+    }
+
+    @Benchmark
+    public int searchResponseMapper(Payload payload) throws IOException {
+        out.reset();
+        mapper.writeValue(out, searchResponse);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int searchResponseWriter(Payload payload) throws IOException {
+        out.reset();
+        writer.writeTo(searchResponse, SearchResponse.class, SearchResponse.class, NO_ANNOTATIONS,
+                mediaType, new MultivaluedHashMap<>(), out);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int streamingSearchResponseWriter(Payload payload) throws IOException {
+        out.reset();
+        writer.writeTo(new StreamingSearchResponse<>(sensors.stream()), StreamingSearchResponse.class,
+                StreamingSearchResponse.class, NO_ANNOTATIONS, mediaType, new MultivaluedHashMap<>(), out);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int cursorReadings(Readings readings, Payload payload) throws IOException {
+        out.reset();
+        try (Stream<SensorData> data = readings.repository.streamBySensorId(readings.sensorId)) {
+            readings.write(data.iterator(), out);
+        }
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int materializedReadings(Readings readings, Payload payload) throws IOException {
+        out.reset();
+        readings.write(readings.repository.findBySensorId(readings.sensorId).iterator(), out);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int entityList(Payload payload) throws IOException {
+        out.reset();
+        mapper.writeValue(out, sensors);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public int comprehensiveStats(Payload payload) throws IOException {
+        out.reset();
+        mapper.writeValue(out, statsResponse);
+        return payload.record(out.size());
+    }
+
+    @Benchmark
+    public Sensor[] decodeEntityList() throws IOException {
+        return mapper.readValue(encodedSensors, Sensor[].class);
+    }
+
+    /**
+     * Размер полезной нагрузки последней операции в байтах.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public long payloadBytes;
+
+        int record(int bytes) {
+            payloadBytes = bytes;
+            return bytes;
+        }
+    }
+
+    /**
+     * Сенсор с {@code size} показаниями в локальной базе для чтения через курсор
+     * и через список. Показания вставляются одним запросом.
+     */
+    @State(Scope.Benchmark)
+    public static class Readings {
+
+        private BenchmarkDatabase database;
+        private SensorRepository sensors;
+        private SensorDataRepository repository;
+        private Long sensorId;
+        private ObjectMapper mapper;
+        private ObjectWriter elementWriter;
+
+        @Setup(Level.Trial)
+        public void setUp(SerializationBenchmark benchmark) {
+            mapper = benchmark.mapper.copy().addMixIn(SensorData.class, ReadingMixIn.class);
+            elementWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            database = new BenchmarkDatabase();
+            sensors = Wiring.inject(new SensorRepository(), database.getTransactionManager());
+            repository = Wiring.inject(new SensorDataRepository(), database.getTransactionManager());
+            sensorId = sensors.create(new Sensor("bench-" + UUID.randomUUID().toString().substring(0, 8),
+                    "bench", "benchmark")).getId();
+            database.getTransactionManager().executeInTransaction(em -> {
+                em.createNativeQuery(
+                        "INSERT INTO lab6omis.sensor_data (created_date, timestamp, purpose, sensor_id) "
+                                + "SELECT now(), now() - make_interval(secs => g), 'Показание ' || g, :sensorId "
+                                + "FROM generate_series(1, :size) g")
+                        .setParameter("sensorId", sensorId)
+                        .setParameter("size", benchmark.size)
+                        .executeUpdate();
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            database.getTransactionManager().executeInTransaction(em -> {
+                em.createNativeQuery(
+                        "DELETE FROM lab6omis.sensor_data WHERE sensor_id = :sensorId")
+                        .setParameter("sensorId", sensorId)
+                        .executeUpdate();
+            });
+            sensors.deleteById(sensorId);
+            database.close();
+        }
+
+        void write(Iterator<SensorData> results, OutputStream out) throws IOException {
+            int count = 0;
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("results");
+                while (results.hasNext()) {
+                    elementWriter.writeValue(gen, results.next());
+                    count++;
+                }
+                gen.writeEndArray();
+                gen.writeNumberField("count", count);
+                gen.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * Показание без ссылки на сенсор, временная метка - строкой ISO-8601.
+     */
+    abstract static class ReadingMixIn {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        abstract LocalDateTime getTimestamp();
+
+        @JsonIgnore
+        abstract Sensor getSensor();
+    }
+}
@@ -0,0 +1,88 @@
+package by.losik.lab6omis.bench;
+
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.service.base.BaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Накладные расходы обертки {@code BaseService.executeWithLogging}.
+ * Сравниваются прямой вызов операции, постоянное имя, прежнее имя через
+ * {@code String.format} и шаблон с отложенным форматированием - без метрик и с ними.
+ * Выделение памяти на вызов показывает профилировщик {@code -prof gc}
+ * (метрика {@code gc.alloc.rate.norm}).
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceWrapperBenchmark {
+
+    private static final Supplier<Long> OPERATION = () -> 42L;
+
+    /**
+     * Сервис без собственной логики: измеряется только обертка.
+     */
+    public static class BenchService extends BaseService<Object, Long> {
+    }
+
+    private BenchService plain;
+    private BenchService instrumented;
+    private long id;
+    private int page;
+    private int size;
+
+    @Setup
+    public void setUp() {
+        plain = new BenchService();
+        instrumented = Wiring.inject(new BenchService(), new MetricsRegistry());
+        id = 123_456L;
+        page = 3;
+        size = 20;
+    }
+
+    @Benchmark
+    public Long direct() {
+        return OPERATION.get();
+    }
+
+    @Benchmark
+    public Long constantName() {
+        return plain.executeWithLogging("Получение всех сенсоров", OPERATION);
+    }
+
+    @Benchmark
+    public Long eagerFormat() {
+        return plain.executeWithLogging(
+                String.format("Получение сенсоров с пагинацией: page=%d, size=%d, id=%d", page, size, id),
+                OPERATION);
+    }
+
+    @Benchmark
+    public Long lazyTemplate() {
+        return plain.executeWithLogging(
+                "Получение сенсоров с пагинацией: page=%d, size=%d, id=%d", page, size, id, OPERATION);
+    }
+
+    @Benchmark
+    public Long lazyTemplateWithMetrics() {
+        return instrumented.executeWithLogging(
+                "Получение сенсоров с пагинацией: page=%d, size=%d, id=%d", page, size, id, OPERATION);
+    }
+}
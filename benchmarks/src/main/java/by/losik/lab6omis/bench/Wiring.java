@@ -0,0 +1,49 @@
+package by.losik.lab6omis.bench;
+
+import javax.inject.Inject;
+import java.lang.reflect.Field;
+
+/**
+ * Ручное связывание бинов приложения вне контейнера CDI.
+ * Бенчмарки создают сервисы и репозитории напрямую и заполняют их поля
+ * {@code @Inject} нужными экземплярами; перехватчики CDI при этом не действуют.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class Wiring {
+
+    private Wiring() {
+    }
+
+    /**
+     * Заполняет поля {@code @Inject} объекта, тип которых совместим с зависимостью.
+     *
+     * @param target объект (включая поля суперклассов)
+     * @param dependency внедряемый экземпляр
+     * @param <T> тип объекта
+     * @return тот же объект
+     * @throws IllegalArgumentException если подходящее поле не найдено
+     */
+    public static <T> T inject(T target, Object dependency) {
+        boolean injected = false;
+        for (Class<?> type = target.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Inject.class) && field.getType().isInstance(dependency)) {
+                    try {
+                        field.setAccessible(true);
+                        field.set(target, dependency);
+                        injected = true;
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Не удалось внедрить " + field, e);
+                    }
+                }
+            }
+        }
+        if (!injected) {
+            throw new IllegalArgumentException(String.format("В %s нет поля @Inject для %s",
+                    target.getClass().getName(), dependency.getClass().getName()));
+        }
+        return target;
+    }
+}
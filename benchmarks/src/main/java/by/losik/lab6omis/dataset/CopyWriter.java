@@ -0,0 +1,160 @@
+package by.losik.lab6omis.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Потоковая запись строк в таблицу через {@code COPY ... FROM STDIN} в текстовом
+ * формате PostgreSQL: поля разделяются табуляцией, строки - переводом строки,
+ * {@code \N} означает NULL. Строки не накапливаются в памяти, а сразу уходят
+ * в буфер протокола COPY.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class CopyWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final PGCopyOutputStream copy;
+    private final Writer out;
+    private boolean firstField = true;
+    private long rows;
+
+    /**
+     * Начинает операцию COPY.
+     *
+     * @param connection соединение PgJDBC
+     * @param table таблица со схемой
+     * @param columns перечень колонок в порядке полей
+     * @throws SQLException если сервер отклонил COPY
+     */
+    CopyWriter(Connection connection, String table, String columns) throws SQLException {
+        copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY " + table + " (" + columns + ") FROM STDIN", BUFFER_SIZE);
+        out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    CopyWriter field(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    CopyWriter field(boolean value) throws IOException {
+        separator();
+        out.write(value ? 't' : 'f');
+        return this;
+    }
+
+    CopyWriter field(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return nullField();
+        }
+        separator();
+        out.write(value.toString());
+        return this;
+    }
+
+    /**
+     * Записывает текстовое поле, экранируя символы формата COPY.
+     */
+    CopyWriter field(String value) throws IOException {
+        if (value == null) {
+            return nullField();
+        }
+        separator();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Записывает число с фиксированным количеством знаков после запятой
+     * (значение передается в сотых долях).
+     */
+    CopyWriter decimal(long hundredths) throws IOException {
+        separator();
+        out.write(Long.toString(hundredths / 100));
+        out.write('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            out.write('0');
+        }
+        out.write(Long.toString(fraction));
+        return this;
+    }
+
+    CopyWriter nullField() throws IOException {
+        separator();
+        out.write("\\N");
+        return this;
+    }
+
+    void endRow() throws IOException {
+        out.write('\n');
+        firstField = true;
+        rows++;
+    }
+
+    /**
+     * @return количество записанных строк
+     */
+    long getRows() {
+        return rows;
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            out.write('\t');
+        }
+        firstField = false;
+    }
+
+    /**
+     * Прерывает COPY без записи строк (после ошибки генерации).
+     */
+    void abort() {
+        try {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        } catch (SQLException ignored) {
+            // соединение уже в ошибочном состоянии, транзакция будет отменена
+        }
+    }
+
+    /**
+     * Завершает COPY; строки фиксируются только после успешного закрытия.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
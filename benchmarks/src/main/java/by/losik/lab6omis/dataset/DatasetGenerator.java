@@ -0,0 +1,518 @@
+package by.losik.lab6omis.dataset;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Генератор синтетического набора данных в схеме {@code lab6omis}: сенсоры, показания,
+ * речевые запросы, решения и звуки в объемах, близких к рабочим. Строки загружаются
+ * через {@code COPY ... FROM STDIN} блоками по {@value #CHUNK_ROWS}, блоки пишутся
+ * параллельно в отдельных соединениях.
+ *
+ * <p>Набор детерминирован: каждый блок получает свой генератор случайных чисел из
+ * {@code dataset.seed}, номера таблицы и номера блока, а время отсчитывается от
+ * {@code dataset.until}, поэтому при одинаковых параметрах и исходном состоянии базы
+ * результат не зависит от числа потоков и момента запуска.</p>
+ *
+ * <p>Распределения:</p>
+ * <ul>
+ *   <li>показания упорядочены по времени, интенсивность растет к концу интервала
+ *       ({@code dataset.growth}), нагрузка по сенсорам - по закону Ципфа ({@code dataset.skew})</li>
+ *   <li>запросы и решения - по всем значениям {@link Language} с неравными долями,
+ *       длина текста логнормальная в пределах CHECK-ограничений {@code omis6.sql}</li>
+ *   <li>частоты звуков логарифмически равномерны в слышимом диапазоне с долей ультразвука</li>
+ * </ul>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@code bench.jdbc.url}, {@code bench.jdbc.user}, {@code bench.jdbc.password} - база, как у бенчмарков</li>
+ *   <li>{@code dataset.sensors} (2000), {@code dataset.readings} (10000000), {@code dataset.requests} (1000000),
+ *       {@code dataset.solutions} (200000), {@code dataset.sounds} (50000) - количество строк</li>
+ *   <li>{@code dataset.seed} - seed набора (42)</li>
+ *   <li>{@code dataset.until} - конец интервала, ISO {@code yyyy-MM-ddTHH:mm} (начало текущих суток)</li>
+ *   <li>{@code dataset.days} - длина интервала в сутках (365)</li>
+ *   <li>{@code dataset.growth} - рост интенсивности за интервал, показатель экспоненты (2.0)</li>
+ *   <li>{@code dataset.skew} - показатель закона Ципфа для сенсоров (1.1)</li>
+ *   <li>{@code dataset.threads} - параллельных соединений COPY (до 4)</li>
+ *   <li>{@code dataset.truncate} - очистить таблицы перед загрузкой (false, иначе строки добавляются)</li>
+ *   <li>{@code dataset.defer-indexes} - удалить вторичные индексы таблицы на время загрузки
+ *       и построить заново после нее (true)</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.mainClass=by.losik.lab6omis.dataset.DatasetGenerator \
+ *     -Ddataset.truncate=true -Ddataset.sensors=5000 -Ddataset.readings=300000000
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class DatasetGenerator {
+
+    static final int CHUNK_ROWS = 1_000_000;
+
+    private static final String SCHEMA = "lab6omis";
+
+    private static final long SENSORS = 1;
+    private static final long READINGS = 2;
+    private static final long REQUESTS = 3;
+    private static final long SOLUTIONS = 4;
+    private static final long SOUNDS = 5;
+
+    private static final String[] SENSOR_TYPES = {
+            "temperature", "humidity", "pressure", "co2", "motion", "light", "microphone", "vibration"};
+    private static final String[] LOCATIONS = {
+            "Гостиная", "Кухня", "Спальня", "Коридор", "Ванная", "Балкон", "Гараж", "Кабинет", "Детская", "Подвал"};
+    private static final String[] NOISES = {
+            "белый шум", "розовый шум", "гул холодильника", "шум улицы", "речь", "музыка", "сигнал тревоги",
+            "шаги", "вентиляция", "дождь", "лай собаки", "звонок", "стиральная машина", "ультразвук"};
+    /** Доли языков в порядке {@link Language#values()}: RU, EN, DE, FR, ES, ZH. */
+    private static final int[] LANGUAGE_WEIGHTS = {35, 30, 10, 9, 9, 7};
+    private static final Language[] LANGUAGES = Language.values();
+
+    private final String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/postgres");
+    private final String user = System.getProperty("bench.jdbc.user", "postgres");
+    private final String password = System.getProperty("bench.jdbc.password", "postgres");
+    private final long seed = Long.getLong("dataset.seed", 42);
+    private final LocalDateTime until;
+    private final LocalDateTime start;
+    private final long spanSeconds;
+    private final double growth = Double.parseDouble(System.getProperty("dataset.growth", "2.0"));
+    private final double skew = Double.parseDouble(System.getProperty("dataset.skew", "1.1"));
+    private final int threads = Math.max(1, Integer.getInteger("dataset.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors())));
+    private final boolean deferIndexes = Boolean.parseBoolean(System.getProperty("dataset.defer-indexes", "true"));
+    private final String timeZone = ZoneId.systemDefault().getId();
+
+    private DatasetGenerator() {
+        String configured = System.getProperty("dataset.until");
+        until = configured != null ? LocalDateTime.parse(configured) : LocalDate.now().atStartOfDay();
+        if (until.isAfter(LocalDateTime.now())) {
+            // sensor_data_timestamp_check: timestamp <= CURRENT_TIMESTAMP
+            throw new IllegalArgumentException("dataset.until не может быть в будущем: " + until);
+        }
+        spanSeconds = Duration.ofDays(Long.getLong("dataset.days", 365)).getSeconds();
+        start = until.minusSeconds(spanSeconds);
+        if (LANGUAGE_WEIGHTS.length != LANGUAGES.length) {
+            throw new IllegalStateException("Доли заданы не для всех значений Language");
+        }
+    }
+
+    /**
+     * Генерирует набор данных.
+     *
+     * @param args не используются, параметры задаются системными свойствами
+     * @throws Exception если загрузка завершилась ошибкой
+     */
+    public static void main(String[] args) throws Exception {
+        new DatasetGenerator().generate(
+                Long.getLong("dataset.sensors", 2_000),
+                Long.getLong("dataset.readings", 10_000_000),
+                Long.getLong("dataset.requests", 1_000_000),
+                Long.getLong("dataset.solutions", 200_000),
+                Long.getLong("dataset.sounds", 50_000),
+                Boolean.getBoolean("dataset.truncate"));
+    }
+
+    private void generate(long sensors, long readings, long requests, long solutions, long sounds,
+                          boolean truncate) throws Exception {
+        System.out.printf("Набор: seed %d, интервал %s .. %s, %d потоков COPY%n", seed, start, until, threads);
+        if (truncate) {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE " + table("sensor_data") + ", " + table("sensors") + ", "
+                        + table("requests") + ", " + table("solutions") + ", " + table("sounds"));
+                connection.commit();
+            }
+        }
+
+        load("sensors", "id, created_date, modified_date, name, type, location, is_active",
+                sensors, SENSORS, this::writeSensor);
+
+        if (readings > 0) {
+            SensorCatalog catalog = SensorCatalog.load(this);
+            if (catalog.size() == 0) {
+                throw new IllegalStateException("Нет сенсоров для показаний, задайте dataset.sensors");
+            }
+            load("sensor_data", "id, created_date, modified_date, timestamp, purpose, sensor_id",
+                    readings, READINGS, (out, index, count, id, random) -> writeReading(out, index, count, id, random, catalog));
+        }
+
+        load("requests", "id, created_date, modified_date, language, goal, recognition_accuracy",
+                requests, REQUESTS, this::writeRequest);
+        load("solutions", "id, created_date, modified_date, language, message",
+                solutions, SOLUTIONS, this::writeSolution);
+        load("sounds", "id, created_date, modified_date, noise, frequency",
+                sounds, SOUNDS, this::writeSound);
+    }
+
+    private void writeSensor(CopyWriter out, long index, long count, long id, SplittableRandom random)
+            throws IOException {
+        String type = sensorType(id);
+        boolean active = random.nextInt(10) != 0;
+        // Сенсоры устанавливаются в течение месяца до начала интервала показаний
+        LocalDateTime created = start.minusSeconds(random.nextLong(Duration.ofDays(30).getSeconds()));
+        String location = random.nextInt(20) == 0 ? null : LOCATIONS[random.nextInt(LOCATIONS.length)];
+        out.field(id)
+                .field(created)
+                .field(active ? null : at(random.nextDouble()))
+                .field(type + "-" + id)
+                .field(type)
+                .field(location)
+                .field(active)
+                .endRow();
+    }
+
+    private void writeReading(CopyWriter out, long index, long count, long id, SplittableRandom random,
+                              SensorCatalog catalog) throws IOException {
+        LocalDateTime timestamp = at(Distributions.growthPosition((index + random.nextDouble()) / count, growth));
+        int sensor = catalog.pick(random);
+        out.field(id)
+                .field(ingested(timestamp, random))
+                .nullField()
+                .field(timestamp)
+                .field(TextGenerator.purpose(random, catalog.type(sensor)))
+                .field(catalog.id(sensor))
+                .endRow();
+    }
+
+    private void writeRequest(CopyWriter out, long index, long count, long id, SplittableRandom random)
+            throws IOException {
+        Language language = language(random);
+        // Точность распознавания сосредоточена у верхней границы с редкими провалами
+        double accuracy = Math.max(0.0, Math.min(100.0, 100.0 - Math.abs(Distributions.gaussian(random)) * 12.0));
+        out.field(id)
+                .field(at(Distributions.growthPosition((index + random.nextDouble()) / count, growth)))
+                .nullField()
+                .field(language.name())
+                .field(unique(TextGenerator.text(random, language, 40, 5, 500), id, 500))
+                .decimal(Math.round(accuracy * 100))
+                .endRow();
+    }
+
+    private void writeSolution(CopyWriter out, long index, long count, long id, SplittableRandom random)
+            throws IOException {
+        Language language = language(random);
+        out.field(id)
+                .field(at(Distributions.growthPosition((index + random.nextDouble()) / count, growth)))
+                .nullField()
+                .field(language.name())
+                .field(unique(TextGenerator.text(random, language, 250, 10, 2000), id, 2000))
+                .endRow();
+    }
+
+    /**
+     * Дописывает к тексту идентификатор строки: цель запроса и сообщение решения
+     * защищены уникальными индексами, а сгенерированные тексты могут повторяться.
+     */
+    private static String unique(String text, long id, int maxLength) {
+        String suffix = " #" + id;
+        int length = Math.min(text.length(), maxLength - suffix.length());
+        return text.substring(0, length) + suffix;
+    }
+
+    private void writeSound(CopyWriter out, long index, long count, long id, SplittableRandom random)
+            throws IOException {
+        String noise = NOISES[random.nextInt(NOISES.length)];
+        // Слышимый диапазон 20 Гц - 20 кГц равномерно по октавам, 5% - ультразвук до 200 кГц
+        double frequency = random.nextInt(20) == 0
+                ? 20_000 * Math.pow(10, random.nextDouble())
+                : 20 * Math.pow(1_000, random.nextDouble());
+        out.field(id)
+                .field(at(random.nextDouble()))
+                .nullField()
+                .field(noise)
+                .field(Math.max(1, Math.min(200_000, Math.round(frequency))))
+                .endRow();
+    }
+
+    /**
+     * Загружает таблицу блоками по {@value #CHUNK_ROWS} строк; идентификаторы
+     * продолжают текущий максимум таблицы.
+     */
+    private void load(String name, String columns, long count, long stream, RowSource rows) throws Exception {
+        if (count <= 0) {
+            return;
+        }
+        long firstId;
+        List<String> indexes;
+        try (Connection connection = connect()) {
+            firstId = nextId(connection, name);
+            indexes = deferIndexes ? dropSecondaryIndexes(connection, name) : List.of();
+            connection.commit();
+        }
+        try {
+            loadChunks(name, columns, count, stream, rows, firstId);
+        } finally {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                long started = System.nanoTime();
+                for (String index : indexes) {
+                    statement.execute(index);
+                }
+                connection.commit();
+                if (!indexes.isEmpty()) {
+                    System.out.printf("%s: %d индексов построено за %.1f с%n", name, indexes.size(),
+                            (System.nanoTime() - started) / 1e9);
+                }
+            }
+        }
+        try (Connection connection = connect()) {
+            resetIdentity(connection, name);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE " + table(name));
+            }
+            connection.commit();
+        }
+    }
+
+    private void loadChunks(String name, String columns, long count, long stream, RowSource rows, long firstId)
+            throws Exception {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (long from = 0; from < count; from += CHUNK_ROWS) {
+                long chunkStart = from;
+                long chunkEnd = Math.min(count, from + CHUNK_ROWS);
+                chunks.add(executor.submit(() -> loadChunk(name, columns, count, stream, rows,
+                        firstId, chunkStart, chunkEnd)));
+            }
+            long loaded = 0;
+            for (Future<Long> chunk : chunks) {
+                loaded += chunk.get();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%s: %d строк за %.1f с (%.0f строк/с)%n", name, loaded, seconds, loaded / seconds);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long loadChunk(String name, String columns, long count, long stream, RowSource rows,
+                           long firstId, long from, long to) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(Distributions.mix(seed, stream, from / CHUNK_ROWS));
+        try (Connection connection = connect()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET synchronous_commit = off");
+            }
+            CopyWriter out = new CopyWriter(connection, table(name), columns);
+            try {
+                for (long index = from; index < to; index++) {
+                    rows.write(out, index, count, firstId + index, random);
+                }
+                out.close();
+            } catch (IOException | RuntimeException e) {
+                out.abort();
+                throw e;
+            }
+            connection.commit();
+            return out.getRows();
+        }
+    }
+
+    Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        // TIMESTAMP без зоны сравнивается с CURRENT_TIMESTAMP в зоне сеанса - берем зону JVM, как у приложения
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET TIME ZONE '" + timeZone.replace("'", "''") + "'");
+        }
+        return connection;
+    }
+
+    static String table(String name) {
+        return SCHEMA + "." + name;
+    }
+
+    private static long nextId(Connection connection, String name) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table(name))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Удаляет индексы таблицы, не связанные с ограничениями (первичный ключ и UNIQUE
+     * остаются): при загрузке сотен миллионов строк построить индекс один раз быстрее,
+     * чем поддерживать его на каждой строке.
+     *
+     * @return определения удаленных индексов для последующего построения
+     */
+    private static List<String> dropSecondaryIndexes(Connection connection, String name) throws SQLException {
+        List<String> definitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT i.indexname, i.indexdef FROM pg_indexes i WHERE i.schemaname = ? AND i.tablename = ?"
+                        + " AND NOT EXISTS (SELECT 1 FROM pg_constraint c"
+                        + " WHERE c.conindid = format('%I.%I', i.schemaname, i.indexname)::regclass)")) {
+            statement.setString(1, SCHEMA);
+            statement.setString(2, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    definitions.add(rs.getString(2));
+                    try (Statement drop = connection.createStatement()) {
+                        drop.execute("DROP INDEX " + SCHEMA + ".\"" + rs.getString(1) + "\"");
+                    }
+                }
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Сдвигает последовательность identity/serial колонки {@code id} за загруженные строки,
+     * чтобы вставки приложения не конфликтовали с ними. Для схемы из {@code omis6.sql}
+     * без генерации идентификаторов последовательности нет, и сдвигать нечего.
+     */
+    private static void resetIdentity(Connection connection, String name) throws SQLException {
+        String sequence;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_get_serial_sequence(?, 'id')")) {
+            statement.setString(1, table(name));
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                sequence = rs.getString(1);
+            }
+        }
+        if (sequence == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT setval(?, (SELECT MAX(id) FROM " + table(name) + "))")) {
+            statement.setString(1, sequence);
+            statement.execute();
+        }
+    }
+
+    /**
+     * @param fraction доля интервала в [0, 1]
+     * @return момент внутри интервала набора
+     */
+    private LocalDateTime at(double fraction) {
+        long offset = Math.min(spanSeconds, (long) (fraction * spanSeconds));
+        return start.plusSeconds(offset);
+    }
+
+    /**
+     * Время записи показания: задержка доставки экспоненциальная со средним 2 с,
+     * но не позже конца интервала.
+     */
+    private LocalDateTime ingested(LocalDateTime timestamp, SplittableRandom random) {
+        LocalDateTime created = timestamp.plusNanos((long) (-Math.log(1.0 - random.nextDouble()) * 2e9));
+        return created.isAfter(until) ? until : created;
+    }
+
+    private static Language language(SplittableRandom random) {
+        int point = random.nextInt(100);
+        for (int i = 0; i < LANGUAGE_WEIGHTS.length; i++) {
+            point -= LANGUAGE_WEIGHTS[i];
+            if (point < 0) {
+                return LANGUAGES[i];
+            }
+        }
+        return LANGUAGES[LANGUAGES.length - 1];
+    }
+
+    /**
+     * Тип сенсора зависит только от seed и идентификатора.
+     */
+    private String sensorType(long id) {
+        return SENSOR_TYPES[(int) Math.floorMod(Distributions.mix(seed, SENSORS, id), (long) SENSOR_TYPES.length)];
+    }
+
+    /**
+     * Генератор одной строки таблицы.
+     */
+    @FunctionalInterface
+    private interface RowSource {
+
+        /**
+         * @param out запись COPY
+         * @param index номер строки в загрузке
+         * @param count строк в загрузке
+         * @param id идентификатор строки
+         * @param random генератор блока
+         */
+        void write(CopyWriter out, long index, long count, long id, SplittableRandom random) throws IOException;
+    }
+
+    /**
+     * Сенсоры, на которые ссылаются показания: все строки таблицы после загрузки
+     * сенсоров. Популярность по Ципфу назначается по случайной перестановке,
+     * чтобы самые нагруженные сенсоры не совпадали с первыми идентификаторами.
+     */
+    private static final class SensorCatalog {
+
+        private final long[] ids;
+        private final String[] types;
+        private final int[] byRank;
+        private final Distributions.Zipf zipf;
+
+        private SensorCatalog(long[] ids, String[] types, long seed, double skew) {
+            this.ids = ids;
+            this.types = types;
+            byRank = new int[ids.length];
+            for (int i = 0; i < byRank.length; i++) {
+                byRank[i] = i;
+            }
+            SplittableRandom random = new SplittableRandom(Distributions.mix(seed, SENSORS, -1));
+            for (int i = byRank.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = byRank[i];
+                byRank[i] = byRank[j];
+                byRank[j] = swap;
+            }
+            zipf = ids.length == 0 ? null : new Distributions.Zipf(ids.length, skew);
+        }
+
+        static SensorCatalog load(DatasetGenerator generator) throws SQLException {
+            List<Long> ids = new ArrayList<>();
+            List<String> types = new ArrayList<>();
+            try (Connection connection = generator.connect();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id, type FROM " + table("sensors") + " ORDER BY id")) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                    types.add(rs.getString(2));
+                }
+            }
+            return new SensorCatalog(ids.stream().mapToLong(Long::longValue).toArray(),
+                    types.toArray(new String[0]), generator.seed, generator.skew);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int pick(SplittableRandom random) {
+            return byRank[zipf.next(random)];
+        }
+
+        long id(int sensor) {
+            return ids[sensor];
+        }
+
+        String type(int sensor) {
+            return types[sensor];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package by.losik.lab6omis.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Распределения для синтетических данных. Все функции детерминированы
+ * относительно переданного генератора, поэтому один и тот же seed дает
+ * одинаковый набор данных независимо от числа потоков загрузки.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class Distributions {
+
+    private Distributions() {
+    }
+
+    /**
+     * Выводит seed блока строк из общего seed, номера таблицы и номера блока
+     * (финализатор SplitMix64).
+     *
+     * @param seed общий seed набора
+     * @param stream номер таблицы
+     * @param index номер блока
+     * @return seed блока
+     */
+    static long mix(long seed, long stream, long index) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return стандартное нормальное значение (преобразование Бокса - Мюллера)
+     */
+    static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Логнормальное целое с заданной медианой, ограниченное диапазоном.
+     *
+     * @param random генератор случайных чисел
+     * @param median медиана
+     * @param sigma разброс логарифма
+     * @param min минимум (включительно)
+     * @param max максимум (включительно)
+     * @return значение из [min, max]
+     */
+    static int logNormal(SplittableRandom random, double median, double sigma, int min, int max) {
+        long value = Math.round(median * Math.exp(sigma * gaussian(random)));
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Доля временного интервала, на которую приходится строка с относительной
+     * позицией {@code position}, при интенсивности, растущей как {@code exp(growth * t)}:
+     * строки упорядочены по времени, а последние дни плотнее первых в {@code e^growth} раз.
+     *
+     * @param position позиция строки в [0, 1)
+     * @param growth показатель роста (0 - равномерно)
+     * @return доля интервала в [0, 1)
+     */
+    static double growthPosition(double position, double growth) {
+        if (growth == 0) {
+            return position;
+        }
+        return Math.log1p(position * Math.expm1(growth)) / growth;
+    }
+
+    /**
+     * Выбор из {@code n} элементов по закону Ципфа: элемент ранга {@code k}
+     * выбирается с вероятностью, пропорциональной {@code 1 / k^exponent}.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        /**
+         * @return ранг элемента в [0, n)
+         */
+        int next(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
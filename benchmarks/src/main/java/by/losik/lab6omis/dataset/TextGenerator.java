@@ -0,0 +1,100 @@
+package by.losik.lab6omis.dataset;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор текстов на языках {@link Language} для целей запросов, сообщений
+ * решений и назначений показаний. Длина текста берется из логнормального
+ * распределения (много коротких, длинный хвост) и ограничивается диапазоном
+ * CHECK-ограничения колонки; текст собирается из слов словаря языка
+ * и обрезается по границе слова.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class TextGenerator {
+
+    private static final Map<Language, String[]> WORDS = new EnumMap<>(Language.class);
+
+    static {
+        WORDS.put(Language.RU, new String[]{
+                "включи", "свет", "в", "гостиной", "температура", "на", "кухне", "выключи", "музыку",
+                "открой", "шторы", "сколько", "градусов", "на", "улице", "поставь", "будильник", "утро",
+                "уровень", "шума", "датчик", "влажности", "проверь", "окна", "закрыты", "пожалуйста",
+                "сделай", "тише", "громче", "спальня", "коридор", "вентиляция", "режим", "ночной"});
+        WORDS.put(Language.EN, new String[]{
+                "turn", "on", "the", "lights", "in", "living", "room", "what", "is", "temperature",
+                "kitchen", "please", "play", "music", "set", "alarm", "for", "morning", "check", "windows",
+                "are", "closed", "noise", "level", "humidity", "sensor", "bedroom", "quieter", "louder",
+                "hallway", "ventilation", "night", "mode", "switch", "off"});
+        WORDS.put(Language.DE, new String[]{
+                "schalte", "das", "Licht", "im", "Wohnzimmer", "ein", "wie", "ist", "die", "Temperatur",
+                "in", "der", "Küche", "bitte", "spiele", "Musik", "stelle", "Wecker", "für", "morgen",
+                "prüfe", "Fenster", "geschlossen", "Lärmpegel", "Feuchtigkeit", "Sensor", "Schlafzimmer",
+                "leiser", "lauter", "Flur", "Lüftung", "Nachtmodus", "aus"});
+        WORDS.put(Language.FR, new String[]{
+                "allume", "la", "lumière", "dans", "le", "salon", "quelle", "est", "température",
+                "cuisine", "s'il", "te", "plaît", "joue", "musique", "règle", "réveil", "pour", "matin",
+                "vérifie", "fenêtres", "fermées", "niveau", "bruit", "humidité", "capteur", "chambre",
+                "moins", "fort", "plus", "couloir", "ventilation", "mode", "nuit", "éteins"});
+        WORDS.put(Language.ES, new String[]{
+                "enciende", "la", "luz", "en", "el", "salón", "cuál", "es", "temperatura", "cocina",
+                "por", "favor", "pon", "música", "configura", "alarma", "para", "mañana", "revisa",
+                "ventanas", "cerradas", "nivel", "de", "ruido", "humedad", "sensor", "dormitorio",
+                "más", "bajo", "alto", "pasillo", "ventilación", "modo", "noche", "apaga"});
+        WORDS.put(Language.ZH, new String[]{
+                "打开", "客厅", "的", "灯", "厨房", "温度", "是", "多少", "请", "播放", "音乐", "设置",
+                "闹钟", "明天", "早上", "检查", "窗户", "关", "了", "吗", "噪音", "水平", "湿度",
+                "传感器", "卧室", "小声", "一点", "大声", "走廊", "通风", "夜间", "模式", "关闭"});
+    }
+
+    private static final String[] PURPOSES = {
+            "мониторинг", "калибровка", "контроль", "фоновая запись", "проверка порога",
+            "диагностика", "плановый опрос", "тревога", "суточный отчет", "синхронизация"};
+
+    private TextGenerator() {
+    }
+
+    /**
+     * Генерирует текст на заданном языке.
+     *
+     * @param random генератор случайных чисел
+     * @param language язык текста
+     * @param median медианная длина в символах
+     * @param min минимальная длина (включительно)
+     * @param max максимальная длина (включительно)
+     * @return текст длиной от {@code min} до {@code max} символов
+     */
+    static String text(SplittableRandom random, Language language, int median, int min, int max) {
+        int length = Distributions.logNormal(random, median, 0.8, min, max);
+        String[] words = WORDS.get(language);
+        String separator = language == Language.ZH ? "" : " ";
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(separator);
+            }
+            text.append(words[random.nextInt(words.length)]);
+        }
+        if (text.length() > length) {
+            int cut = text.lastIndexOf(" ", length);
+            text.setLength(cut >= min ? cut : length);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Генерирует назначение показания: тип измерения и уточнение.
+     *
+     * @param random генератор случайных чисел
+     * @param sensorType тип сенсора
+     * @return текст длиной от 3 до 500 символов
+     */
+    static String purpose(SplittableRandom random, String sensorType) {
+        return PURPOSES[random.nextInt(PURPOSES.length)] + ": " + sensorType;
+    }
+}
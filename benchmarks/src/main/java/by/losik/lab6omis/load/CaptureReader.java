@@ -0,0 +1,91 @@
+package by.losik.lab6omis.load;
+
+import by.losik.lab6omis.capture.CapturedRequest;
+import by.losik.lab6omis.capture.TrafficCapture;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Чтение журнала трафика, записанного {@link TrafficCapture}: один файл
+ * или каталог с файлами {@code capture-*.jsonl.gz}. Файл, который еще пишется,
+ * читается до последней сброшенной строки.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class CaptureReader {
+
+    private static final ObjectReader READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(CapturedRequest.class);
+
+    private CaptureReader() {
+    }
+
+    /**
+     * Читает записи, упорядоченные по моменту начала.
+     *
+     * @param location файл или каталог журнала
+     * @param limit не более стольких записей (0 - все)
+     * @return записи журнала
+     * @throws IOException если журнал не удалось прочитать
+     */
+    static List<CapturedRequest> read(Path location, long limit) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        for (Path file : files(location)) {
+            readFile(file, requests);
+        }
+        requests.sort(Comparator.comparingLong(CapturedRequest::getStartMicros));
+        if (limit > 0 && requests.size() > limit) {
+            return new ArrayList<>(requests.subList(0, (int) limit));
+        }
+        return requests;
+    }
+
+    private static List<Path> files(Path location) throws IOException {
+        if (!Files.isDirectory(location)) {
+            return List.of(location);
+        }
+        try (Stream<Path> list = Files.list(location)) {
+            return list.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(TrafficCapture.FILE_PREFIX) && name.endsWith(TrafficCapture.FILE_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void readFile(Path file, List<CapturedRequest> requests) throws IOException {
+        try (InputStream in = open(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    requests.add(READER.readValue(line));
+                }
+            }
+        } catch (EOFException e) {
+            // файл еще не закрыт: строки до последнего сброса уже прочитаны
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+}
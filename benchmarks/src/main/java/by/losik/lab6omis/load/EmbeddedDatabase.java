@@ -0,0 +1,77 @@
+package by.losik.lab6omis.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Встроенный PostgreSQL для нагрузочного стенда, когда локальной базы нет.
+ * Запускается на порту из persistence.xml (по умолчанию 5432), поэтому приложение
+ * подключается к нему без изменения конфигурации; схема создается скриптом
+ * {@code omis6.sql} из ресурсов приложения. Скрипт объявляет {@code id} как BIGINT
+ * без генерации, а сущности используют {@code GenerationType.IDENTITY}, поэтому
+ * колонкам {@code id} добавляется identity, как в схеме, создаваемой Hibernate.
+ *
+ * <p>PostgreSQL не запускается от имени root: стенд с {@code load.db=embedded}
+ * нужно запускать от обычного пользователя.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class EmbeddedDatabase implements AutoCloseable {
+
+    private static final String SCHEMA_SCRIPT = "omis6.sql";
+    private static final List<String> IDENTITY_TABLES =
+            List.of("requests", "solutions", "sounds", "sensors", "sensor_data");
+
+    private final EmbeddedPostgres postgres;
+
+    /**
+     * Запускает сервер и создает схему приложения.
+     *
+     * @param port порт сервера
+     * @throws IOException если сервер не удалось запустить или скрипт не найден
+     * @throws SQLException если скрипт схемы завершился ошибкой
+     */
+    public EmbeddedDatabase(int port) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().setPort(port).start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(readSchemaScript());
+            for (String table : IDENTITY_TABLES) {
+                statement.execute("ALTER TABLE lab6omis." + table
+                        + " ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+            }
+        } catch (IOException | SQLException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    private static String readSchemaScript() throws IOException {
+        try (InputStream in = EmbeddedDatabase.class.getClassLoader().getResourceAsStream(SCHEMA_SCRIPT)) {
+            if (in == null) {
+                throw new IOException("Скрипт схемы не найден в classpath: " + SCHEMA_SCRIPT);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return порт сервера
+     */
+    public int getPort() {
+        return postgres.getPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
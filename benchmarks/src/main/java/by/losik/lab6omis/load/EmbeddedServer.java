@@ -0,0 +1,75 @@
+package by.losik.lab6omis.load;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Приложение во встроенном Tomcat в том же процессе, что и нагрузочный стенд.
+ * Дескриптор web.xml и шаблоны страниц берутся из каталога веб-приложения
+ * ({@code src/main/webapp}), классы приложения и библиотеки - из classpath стенда,
+ * поэтому Jersey ({@code HelloApplication}), Weld, фильтры, сервлеты и persistence unit
+ * поднимаются так же, как при развертывании WAR.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class EmbeddedServer implements AutoCloseable {
+
+    private final Tomcat tomcat;
+    private final URI baseUri;
+
+    /**
+     * Запускает контейнер и разворачивает приложение в корневом контексте.
+     *
+     * @param webappDir каталог веб-приложения с WEB-INF/web.xml
+     * @param port порт HTTP (0 - свободный порт)
+     * @throws IOException если не удалось создать рабочий каталог
+     * @throws LifecycleException если приложение не запустилось
+     */
+    public EmbeddedServer(Path webappDir, int port) throws IOException, LifecycleException {
+        Path baseDir = Files.createTempDirectory("lab6omis-load");
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port);
+        tomcat.setAddDefaultWebXmlToWebapp(false);
+        // Классы приложения загружаются загрузчиком стенда (в том числе под exec:java),
+        // а не системным, поэтому он же становится родителем загрузчика веб-приложения
+        tomcat.getServer().setParentClassLoader(EmbeddedServer.class.getClassLoader());
+        tomcat.getConnector();
+
+        Context context = tomcat.addWebapp("", webappDir.toAbsolutePath().toString());
+        // Аннотаций сервлетов в приложении нет, а ServletContainerInitializer Jersey и Weld
+        // находятся без сканирования jar, поэтому обход всего classpath не нужен
+        StandardJarScanner jarScanner = new StandardJarScanner();
+        jarScanner.setScanClassPath(false);
+        context.setJarScanner(jarScanner);
+
+        tomcat.start();
+        if (!context.getState().isAvailable()) {
+            tomcat.stop();
+            tomcat.destroy();
+            throw new LifecycleException("Приложение не запустилось, подробности в журнале Tomcat");
+        }
+        baseUri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort());
+    }
+
+    /**
+     * @return адрес приложения
+     */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
@@ -0,0 +1,103 @@
+package by.losik.lab6omis.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Эндпоинт нагрузочного сценария. Имя ({@code "GET /api/api/requests/{id}"}) задает
+ * строку отчета, а функции пути и тела подставляют случайные параметры,
+ * поэтому все обращения к одному шаблону попадают в одну строку.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class Endpoint {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String group;
+    private final String method;
+    private final String template;
+    private final BiFunction<SeedData, Random, String> path;
+    private final BiFunction<SeedData, Random, String> body;
+
+    private Endpoint(String group, String method, String template,
+                     BiFunction<SeedData, Random, String> path, BiFunction<SeedData, Random, String> body) {
+        this.group = group;
+        this.method = method;
+        this.template = template;
+        this.path = path;
+        this.body = body;
+    }
+
+    /**
+     * Создает GET-эндпоинт.
+     *
+     * @param group группа смеси нагрузки
+     * @param template шаблон пути для отчета
+     * @param path построение пути с параметрами
+     * @return эндпоинт
+     */
+    static Endpoint get(String group, String template, BiFunction<SeedData, Random, String> path) {
+        return new Endpoint(group, "GET", template, path, null);
+    }
+
+    /**
+     * Создает GET-эндпоинт без параметров.
+     *
+     * @param group группа смеси нагрузки
+     * @param path путь
+     * @return эндпоинт
+     */
+    static Endpoint get(String group, String path) {
+        return get(group, path, (seed, random) -> path);
+    }
+
+    /**
+     * Создает POST-эндпоинт с телом JSON.
+     *
+     * @param group группа смеси нагрузки
+     * @param path путь
+     * @param body построение тела запроса
+     * @return эндпоинт
+     */
+    static Endpoint post(String group, String path, BiFunction<SeedData, Random, String> body) {
+        return new Endpoint(group, "POST", path, (seed, random) -> path, body);
+    }
+
+    /**
+     * Строит HTTP-запрос со случайными параметрами.
+     *
+     * @param baseUri адрес приложения
+     * @param seed идентификаторы существующих данных
+     * @param random генератор случайных чисел клиента
+     * @return HTTP-запрос
+     */
+    HttpRequest newRequest(URI baseUri, SeedData seed, Random random) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path.apply(seed, random)))
+                .timeout(TIMEOUT);
+        if (body == null) {
+            return builder.GET().build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.apply(seed, random)))
+                .build();
+    }
+
+    /**
+     * @return группа смеси нагрузки
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * @return метод и шаблон пути, например {@code GET /api/api/requests/{id}}
+     */
+    public String getName() {
+        return method + " " + template;
+    }
+}
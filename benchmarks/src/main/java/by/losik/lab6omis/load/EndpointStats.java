@@ -0,0 +1,98 @@
+package by.losik.lab6omis.load;
+
+import by.losik.lab6omis.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты одного эндпоинта: гистограмма задержек и ошибки по кодам ответа.
+ * Ошибкой считается код 4xx/5xx или исключение клиента (таймаут, разрыв соединения).
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class EndpointStats {
+
+    /** Код ошибки для исключений клиента. */
+    static final String CLIENT_ERROR = "io";
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorsByCode = new ConcurrentHashMap<>();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Учитывает выполненный запрос.
+     *
+     * @param nanos задержка в наносекундах
+     * @param status код ответа или -1 при исключении клиента
+     */
+    void record(long nanos, int status) {
+        latency.record(nanos);
+        if (status < 0 || status >= 400) {
+            errors.increment();
+            errorsByCode.computeIfAbsent(status < 0 ? CLIENT_ERROR : String.valueOf(status), code -> new LongAdder())
+                    .increment();
+        }
+    }
+
+    /**
+     * @return метод и шаблон пути
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return количество выполненных запросов
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * @return количество ошибок
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return доля ошибок (0.0 при отсутствии запросов)
+     */
+    public double getErrorRate() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) getErrors() / count;
+    }
+
+    /**
+     * @param quantile квантиль в диапазоне [0, 1]
+     * @return задержка в миллисекундах
+     */
+    public double getQuantileMillis(double quantile) {
+        return latency.getQuantileSeconds(quantile) * 1000;
+    }
+
+    /**
+     * @return максимальная задержка в миллисекундах
+     */
+    public double getMaxMillis() {
+        return latency.getMaxSeconds() * 1000;
+    }
+
+    /**
+     * @return ошибки по кодам ответа ({@value #CLIENT_ERROR} - исключения клиента)
+     */
+    public Map<String, Long> getErrorsByCode() {
+        Map<String, Long> result = new TreeMap<>();
+        errorsByCode.forEach((code, count) -> result.put(code, count.sum()));
+        return result;
+    }
+}
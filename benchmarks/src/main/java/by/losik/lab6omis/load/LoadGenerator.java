@@ -0,0 +1,135 @@
+package by.losik.lab6omis.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки: множество виртуальных клиентов, каждый в своем потоке
+ * выполняет запросы смеси {@link Workload} до окончания прогона.
+ *
+ * <p>Без заданной интенсивности клиенты работают по замкнутому циклу: следующий
+ * запрос отправляется сразу после ответа (плюс пауза {@code thinkTime}).
+ * С интенсивностью {@code rate} у каждого клиента есть расписание, и задержка
+ * отсчитывается от запланированного момента отправки, а не от фактического:
+ * иначе при замедлении сервера клиенты отправляют меньше запросов и хвост
+ * распределения занижается (coordinated omission).</p>
+ *
+ * <p>Запросы периода прогрева выполняются, но в отчет не попадают.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LoadGenerator {
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Workload workload;
+    private final SeedData seed;
+
+    /**
+     * @param client HTTP-клиент, общий для виртуальных клиентов
+     * @param baseUri адрес приложения
+     * @param workload смесь нагрузки
+     * @param seed идентификаторы существующих данных
+     */
+    public LoadGenerator(HttpClient client, URI baseUri, Workload workload, SeedData seed) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.workload = workload;
+        this.seed = seed;
+    }
+
+    /**
+     * Выполняет прогон.
+     *
+     * @param clients количество виртуальных клиентов
+     * @param warmup длительность прогрева
+     * @param duration длительность измерения
+     * @param rate суммарная интенсивность, запросов в секунду (0 - замкнутый цикл)
+     * @param thinkTime пауза клиента между запросами
+     * @return отчет по эндпоинтам
+     * @throws InterruptedException если ожидание завершения прервано
+     */
+    public LoadReport run(int clients, Duration warmup, Duration duration, double rate, Duration thinkTime)
+            throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (Endpoint endpoint : workload.getEndpoints()) {
+            stats.put(endpoint.getName(), new EndpointStats(endpoint.getName()));
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * clients / rate) : 0;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients, task -> {
+            Thread thread = new Thread(task, "load-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < clients; i++) {
+            Random random = new Random(i);
+            // Расписания клиентов сдвинуты, чтобы запросы не отправлялись пачками
+            long firstSend = start + (interval > 0 ? interval * i / clients : 0);
+            executor.execute(() -> runClient(random, stats, firstSend, interval, thinkTime.toNanos(),
+                    measureFrom, end));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.plus(warmup).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        return new LoadReport(stats.values(), duration, clients, rate);
+    }
+
+    private void runClient(Random random, Map<String, EndpointStats> stats, long firstSend, long interval,
+                           long thinkNanos, long measureFrom, long end) {
+        long nextSend = firstSend;
+        while (!Thread.currentThread().isInterrupted()) {
+            long intended = interval > 0 ? nextSend : System.nanoTime();
+            if (intended >= end) {
+                return;
+            }
+            if (interval > 0) {
+                nextSend += interval;
+                parkUntil(intended);
+            }
+
+            Endpoint endpoint = workload.next(random);
+            int status;
+            try {
+                status = client.send(endpoint.newRequest(baseUri, seed, random),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (intended >= measureFrom) {
+                stats.get(endpoint.getName()).record(System.nanoTime() - intended, status);
+            }
+            if (thinkNanos > 0) {
+                LockSupport.parkNanos(thinkNanos);
+            }
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package by.losik.lab6omis.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Отчет нагрузочного прогона: пропускная способность, задержки p50/p95/p99/max
+ * и доля ошибок по каждому эндпоинту и в целом. Выводится таблицей и сохраняется
+ * в JSON для сравнения прогонов.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LoadReport {
+
+    private final List<EndpointStats> endpoints;
+    private final Duration duration;
+    private final int clients;
+    private final double rate;
+
+    LoadReport(Collection<EndpointStats> endpoints, Duration duration, int clients, double rate) {
+        this.endpoints = List.copyOf(endpoints);
+        this.duration = duration;
+        this.clients = clients;
+        this.rate = rate;
+    }
+
+    /**
+     * Выводит таблицу результатов.
+     *
+     * @param out поток вывода
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-62s %9s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        long total = 0;
+        long errors = 0;
+        for (EndpointStats stats : endpoints) {
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            total += stats.getCount();
+            errors += stats.getErrors();
+            out.printf(Locale.ROOT, "%-62s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%s%n",
+                    stats.getName(), stats.getCount(), throughput(stats.getCount()),
+                    stats.getQuantileMillis(0.5), stats.getQuantileMillis(0.95), stats.getQuantileMillis(0.99),
+                    stats.getMaxMillis(), stats.getErrorRate() * 100,
+                    stats.getErrors() > 0 ? "  " + stats.getErrorsByCode() : "");
+        }
+        out.printf(Locale.ROOT, "%-62s %9d %9.1f %47.2f%%%n", "ИТОГО (" + clients + " клиентов)",
+                total, throughput(total), total == 0 ? 0.0 : errors * 100.0 / total);
+    }
+
+    /**
+     * Сохраняет результаты в JSON.
+     *
+     * @param file файл результатов
+     * @throws IOException если файл не удалось записать
+     */
+    public void write(Path file) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (EndpointStats stats : endpoints) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", stats.getName());
+            row.put("requests", stats.getCount());
+            row.put("throughput", throughput(stats.getCount()));
+            row.put("p50Millis", stats.getQuantileMillis(0.5));
+            row.put("p95Millis", stats.getQuantileMillis(0.95));
+            row.put("p99Millis", stats.getQuantileMillis(0.99));
+            row.put("maxMillis", stats.getMaxMillis());
+            row.put("errors", stats.getErrors());
+            row.put("errorRate", stats.getErrorRate());
+            row.put("errorsByCode", stats.getErrorsByCode());
+            rows.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("rate", rate);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("endpoints", rows);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+
+    private double throughput(long count) {
+        return count / (duration.toMillis() / 1000.0);
+    }
+}
@@ -0,0 +1,86 @@
+package by.losik.lab6omis.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сравнение двух отчетов {@link LoadReport} (нагрузочных прогонов или воспроизведений
+ * журнала трафика на двух сборках). Для каждого эндпоинта, присутствующего в обоих
+ * отчетах, выводит p50/p95/p99 и изменение p99 в процентах. Возвращает код 1, если
+ * у эндпоинта с достаточным числом запросов ({@code -Dload.min-requests}, по умолчанию 100)
+ * p95 или p99 выросли больше порога ({@code -Dload.threshold}, по умолчанию 10%)
+ * или доля ошибок выросла больше чем на процентный пункт.
+ *
+ * <pre>
+ * java -cp benchmarks.jar by.losik.lab6omis.load.LoadReportComparison target/replay/abc123.json target/replay/def456.json
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LoadReportComparison {
+
+    private LoadReportComparison() {
+    }
+
+    /**
+     * Сравнивает отчеты.
+     *
+     * @param args путь к исходному и новому отчету
+     * @throws IOException если отчет не удалось прочитать
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: LoadReportComparison <base.json> <head.json>");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(System.getProperty("load.threshold", "10"));
+        long minRequests = Long.getLong("load.min-requests", 100);
+        Map<String, JsonNode> base = load(new File(args[0]));
+        Map<String, JsonNode> head = load(new File(args[1]));
+
+        boolean regression = false;
+        System.out.printf(Locale.ROOT, "%-62s %19s %19s %19s %9s%n",
+                "endpoint", "p50 ms base/head", "p95 ms base/head", "p99 ms base/head", "p99");
+        for (Map.Entry<String, JsonNode> entry : head.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            boolean enough = before.path("requests").asLong() >= minRequests
+                    && after.path("requests").asLong() >= minRequests;
+            boolean worse = enough && (change(before, after, "p95Millis") > threshold
+                    || change(before, after, "p99Millis") > threshold
+                    || after.path("errorRate").asDouble() - before.path("errorRate").asDouble() > 0.01);
+            regression |= worse;
+            System.out.printf(Locale.ROOT, "%-62s %9.2f/%-9.2f %9.2f/%-9.2f %9.2f/%-9.2f %+8.1f%%%s%n",
+                    entry.getKey(),
+                    before.path("p50Millis").asDouble(), after.path("p50Millis").asDouble(),
+                    before.path("p95Millis").asDouble(), after.path("p95Millis").asDouble(),
+                    before.path("p99Millis").asDouble(), after.path("p99Millis").asDouble(),
+                    change(before, after, "p99Millis"),
+                    worse ? "  РЕГРЕССИЯ" : enough ? "" : "  (мало запросов)");
+        }
+        System.exit(regression ? 1 : 0);
+    }
+
+    private static double change(JsonNode before, JsonNode after, String field) {
+        double baseValue = before.path(field).asDouble();
+        return baseValue == 0 ? 0 : (after.path(field).asDouble() - baseValue) / baseValue * 100;
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> endpoints = new LinkedHashMap<>();
+        for (JsonNode endpoint : new ObjectMapper().readTree(file).path("endpoints")) {
+            endpoints.put(endpoint.path("endpoint").asText(), endpoint);
+        }
+        return endpoints;
+    }
+}
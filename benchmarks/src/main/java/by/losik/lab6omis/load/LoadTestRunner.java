@@ -0,0 +1,119 @@
+package by.losik.lab6omis.load;
+
+import by.losik.lab6omis.bench.BenchmarkRunner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Точка входа нагрузочного стенда. Поднимает приложение в процессе
+ * ({@link EmbeddedServer}) или нагружает уже запущенное ({@code load.target}),
+ * подготавливает данные ({@link SeedData}), выполняет прогон смеси
+ * ({@link Workload}, {@link LoadGenerator}) и выводит отчет ({@link LoadReport}).
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@code load.target} - адрес запущенного приложения; если не задан, приложение поднимается в процессе</li>
+ *   <li>{@code load.db} - {@code local} (PostgreSQL из persistence.xml, по умолчанию) или {@code embedded}</li>
+ *   <li>{@code load.webapp} - каталог веб-приложения (по умолчанию src/main/webapp проекта)</li>
+ *   <li>{@code load.clients} - виртуальных клиентов (по умолчанию 32)</li>
+ *   <li>{@code load.warmup} и {@code load.duration} - прогрев и измерение, секунд (10 и 60)</li>
+ *   <li>{@code load.rate} - суммарная интенсивность, запросов в секунду (0 - замкнутый цикл)</li>
+ *   <li>{@code load.think.ms} - пауза клиента между запросами, мс (0)</li>
+ *   <li>{@code load.mix} - смесь нагрузки (по умолчанию {@value Workload#DEFAULT_MIX})</li>
+ *   <li>{@code load.seed} - минимум сенсоров и запросов для параметризованных эндпоинтов (20)</li>
+ *   <li>{@code load.report} - файл JSON-отчета (по умолчанию target/load/&lt;коммит&gt;.json)</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.mainClass=by.losik.lab6omis.load.LoadTestRunner \
+ *     -Dload.clients=64 -Dload.duration=120 -Dload.mix=sensor-data=70,views=30
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LoadTestRunner {
+
+    private static final int DATABASE_PORT = 5432;
+
+    private LoadTestRunner() {
+    }
+
+    /**
+     * Выполняет нагрузочный прогон.
+     *
+     * @param args не используются, параметры задаются системными свойствами
+     * @throws Exception если приложение или база не запустились
+     */
+    public static void main(String[] args) throws Exception {
+        Workload workload = Workload.parse(System.getProperty("load.mix", Workload.DEFAULT_MIX));
+        int clients = Integer.getInteger("load.clients", 32);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 60));
+        double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+        Duration thinkTime = Duration.ofMillis(Long.getLong("load.think.ms", 0));
+        int seedCount = Math.max(1, Integer.getInteger("load.seed", 20));
+        Path reportFile = Paths.get(System.getProperty("load.report",
+                Paths.get("target", "load", BenchmarkRunner.commit() + ".json").toString()));
+
+        String target = System.getProperty("load.target");
+        EmbeddedDatabase database = null;
+        EmbeddedServer server = null;
+        try {
+            URI baseUri;
+            if (target != null && !target.isBlank()) {
+                baseUri = URI.create(target);
+            } else {
+                if ("embedded".equals(System.getProperty("load.db", "local"))) {
+                    database = new EmbeddedDatabase(DATABASE_PORT);
+                    System.out.println("Встроенный PostgreSQL запущен на порту " + database.getPort());
+                }
+                server = new EmbeddedServer(webappDir(), Integer.getInteger("load.port", 0));
+                baseUri = server.getBaseUri();
+                System.out.println("Приложение запущено: " + baseUri);
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            SeedData seed = SeedData.collect(client, baseUri, seedCount);
+
+            System.out.printf("Прогон: %d клиентов, прогрев %d с, измерение %d с, смесь %s%n", clients,
+                    warmup.toSeconds(), duration.toSeconds(), System.getProperty("load.mix", Workload.DEFAULT_MIX));
+            LoadReport report = new LoadGenerator(client, baseUri, workload, seed)
+                    .run(clients, warmup, duration, rate, thinkTime);
+            report.print(System.out);
+            report.write(reportFile);
+            System.out.println("Отчет сохранен: " + reportFile.toAbsolutePath());
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            if (database != null) {
+                database.close();
+            }
+        }
+        // Фоновые потоки приложения (прогрев кэша, планировщики) не должны удерживать JVM
+        System.exit(0);
+    }
+
+    private static Path webappDir() {
+        String configured = System.getProperty("load.webapp");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        for (String candidate : new String[]{"src/main/webapp", "../src/main/webapp"}) {
+            Path dir = Paths.get(candidate);
+            if (Files.isRegularFile(dir.resolve("WEB-INF/web.xml"))) {
+                return dir;
+            }
+        }
+        throw new IllegalStateException("Каталог веб-приложения не найден, укажите -Dload.webapp");
+    }
+}
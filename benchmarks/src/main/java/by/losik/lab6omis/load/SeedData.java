@@ -0,0 +1,125 @@
+package by.losik.lab6omis.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Идентификаторы сенсоров и запросов, подставляемые в параметризованные эндпоинты.
+ * Берутся из уже существующих данных; недостающие создаются через REST API,
+ * поэтому стенд работает и на пустой базе.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class SeedData {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<Long> sensorIds;
+    private final List<Long> requestIds;
+
+    private SeedData(List<Long> sensorIds, List<Long> requestIds) {
+        this.sensorIds = List.copyOf(sensorIds);
+        this.requestIds = List.copyOf(requestIds);
+    }
+
+    /**
+     * Собирает не меньше {@code count} сенсоров и запросов.
+     *
+     * @param client HTTP-клиент
+     * @param baseUri адрес приложения
+     * @param count требуемое количество записей каждого типа
+     * @return идентификаторы для нагрузки
+     * @throws IOException если приложение вернуло ошибку
+     * @throws InterruptedException если ожидание ответа прервано
+     */
+    public static SeedData collect(HttpClient client, URI baseUri, int count)
+            throws IOException, InterruptedException {
+        List<Long> sensorIds = existingIds(client, baseUri.resolve("/api/api/sensors/page/0/size/" + count));
+        long run = System.currentTimeMillis();
+        for (int i = sensorIds.size(); i < count; i++) {
+            String body = String.format(Locale.ROOT,
+                    "{\"name\":\"load-%d-%d\",\"type\":\"TEMPERATURE\",\"location\":\"room-%d\",\"isActive\":true}",
+                    run, i, i % 10);
+            sensorIds.add(create(client, baseUri.resolve("/api/api/sensors"), body));
+        }
+
+        List<Long> requestIds = existingIds(client, baseUri.resolve("/api/api/requests/page/0/size/" + count));
+        for (int i = requestIds.size(); i < count; i++) {
+            requestIds.add(create(client, baseUri.resolve("/api/api/requests"), requestBody(i)));
+        }
+        return new SeedData(sensorIds, requestIds);
+    }
+
+    /**
+     * Формирует тело запроса на создание речевого запроса.
+     *
+     * @param n порядковый номер (определяет язык и точность)
+     * @return JSON-документ
+     */
+    static String requestBody(long n) {
+        String[] languages = {"RU", "EN", "DE", "FR", "ES", "ZH"};
+        return String.format(Locale.ROOT,
+                "{\"language\":\"%s\",\"goal\":\"Нагрузочный запрос %d\",\"recognitionAccuracy\":%.1f}",
+                languages[(int) (n % languages.length)], n, 50.0 + n % 50);
+    }
+
+    private static List<Long> existingIds(HttpClient client, URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri).timeout(TIMEOUT).header("Accept", "application/json").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(response);
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode entity : MAPPER.readTree(response.body())) {
+            ids.add(entity.path("id").asLong());
+        }
+        return ids;
+    }
+
+    private static long create(HttpClient client, URI uri, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri).timeout(TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(response);
+        return MAPPER.readTree(response.body()).path("id").asLong();
+    }
+
+    private static void check(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException("Подготовка данных: " + response.request().method() + " " + response.uri()
+                    + " вернул " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    /**
+     * @param random генератор случайных чисел клиента
+     * @return идентификатор случайного сенсора
+     */
+    public long randomSensorId(Random random) {
+        return sensorIds.get(random.nextInt(sensorIds.size()));
+    }
+
+    /**
+     * @param random генератор случайных чисел клиента
+     * @return идентификатор случайного запроса
+     */
+    public long randomRequestId(Random random) {
+        return requestIds.get(random.nextInt(requestIds.size()));
+    }
+}
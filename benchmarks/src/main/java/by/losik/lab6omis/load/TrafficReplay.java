@@ -0,0 +1,221 @@
+package by.losik.lab6omis.load;
+
+import by.losik.lab6omis.bench.BenchmarkRunner;
+import by.losik.lab6omis.capture.CapturedRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Воспроизведение журнала трафика ({@link by.losik.lab6omis.capture.TrafficCapture})
+ * на тестовом экземпляре приложения. Каждый запрос отправляется в момент, смещенный
+ * от начала так же, как в журнале (с ускорением {@code replay.speed}), не дожидаясь
+ * ответов на предыдущие, поэтому одновременность запросов сохраняется. Задержка
+ * отсчитывается от запланированного момента отправки, как в режиме с интенсивностью
+ * {@link LoadGenerator}.
+ *
+ * <p>Отчет совпадает по формату с {@link LoadReport}; эндпоинты группируются по шаблону
+ * пути (числовые сегменты заменяются на {@code {id}}), в колонке клиентов - наибольшее
+ * число одновременных запросов. Два отчета (например, двух сборок) сравнивает
+ * {@link LoadReportComparison}.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@code replay.capture} - файл или каталог журнала (обязательно)</li>
+ *   <li>{@code replay.target} - адрес приложения вместе с контекстом (обязательно)</li>
+ *   <li>{@code replay.speed} - ускорение воспроизведения (по умолчанию 1.0)</li>
+ *   <li>{@code replay.limit} - не более стольких запросов (0 - все)</li>
+ *   <li>{@code replay.report} - файл JSON-отчета (по умолчанию target/replay/&lt;коммит&gt;.json)</li>
+ *   <li>{@code replay.baseline} - дополнительно сохранить отчет по времени обработки из журнала</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.mainClass=by.losik.lab6omis.load.TrafficReplay \
+ *     -Dreplay.capture=/var/tmp/lab6omis-capture -Dreplay.target=http://test:8080/lab6omis -Dreplay.speed=4
+ * </pre>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class TrafficReplay {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String target;
+    private final double speed;
+
+    private TrafficReplay(HttpClient client, String target, double speed) {
+        this.client = client;
+        this.target = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+        this.speed = speed;
+    }
+
+    /**
+     * Воспроизводит журнал.
+     *
+     * @param args не используются, параметры задаются системными свойствами
+     * @throws Exception если журнал не удалось прочитать или отчет записать
+     */
+    public static void main(String[] args) throws Exception {
+        Path capture = Paths.get(required("replay.capture"));
+        String target = required("replay.target");
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1.0"));
+        if (speed <= 0) {
+            throw new IllegalArgumentException("replay.speed должно быть положительным: " + speed);
+        }
+        Path reportFile = Paths.get(System.getProperty("replay.report",
+                Paths.get("target", "replay", BenchmarkRunner.commit() + ".json").toString()));
+
+        List<CapturedRequest> requests = CaptureReader.read(capture, Long.getLong("replay.limit", 0));
+        if (requests.isEmpty()) {
+            System.out.println("Журнал пуст: " + capture.toAbsolutePath());
+            return;
+        }
+
+        String baseline = System.getProperty("replay.baseline");
+        if (baseline != null) {
+            LoadReport captured = baselineReport(requests);
+            System.out.println("Журнал (время обработки на сервере):");
+            captured.print(System.out);
+            captured.write(Paths.get(baseline));
+        }
+
+        ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "replay-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        System.out.printf("Воспроизведение %d запросов на %s, ускорение %.1fx%n", requests.size(), target, speed);
+        LoadReport report = new TrafficReplay(client, target, speed).replay(requests);
+        report.print(System.out);
+        report.write(reportFile);
+        System.out.println("Отчет сохранен: " + reportFile.toAbsolutePath());
+        executor.shutdownNow();
+    }
+
+    private LoadReport replay(List<CapturedRequest> requests) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+        CountDownLatch completed = new CountDownLatch(requests.size());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        long firstMicros = requests.get(0).getStartMicros();
+        long begin = System.nanoTime();
+        for (CapturedRequest request : requests) {
+            long intended = begin + (long) ((request.getStartMicros() - firstMicros) * 1000 / speed);
+            parkUntil(intended);
+            EndpointStats endpoint = stats.computeIfAbsent(name(request), EndpointStats::new);
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            client.sendAsync(newRequest(request), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        endpoint.record(System.nanoTime() - intended, error == null ? response.statusCode() : -1);
+                        inFlight.decrementAndGet();
+                        completed.countDown();
+                    });
+        }
+        if (!completed.await(TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.out.println("Не дождались ответа на " + completed.getCount() + " запросов");
+        }
+        Duration duration = Duration.ofNanos(Math.max(1, System.nanoTime() - begin));
+        return new LoadReport(stats.values(), duration, peak.get(), requests.size() / (duration.toNanos() / 1e9));
+    }
+
+    private HttpRequest newRequest(CapturedRequest request) {
+        String query = request.getQuery() != null ? "?" + request.getQuery() : "";
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target + request.getPath() + query))
+                .timeout(TIMEOUT);
+        if (request.getContentType() != null) {
+            builder.header("Content-Type", request.getContentType());
+        }
+        if (request.getAccept() != null) {
+            builder.header("Accept", request.getAccept());
+        }
+        HttpRequest.BodyPublisher body;
+        if (request.getBody() == null) {
+            body = HttpRequest.BodyPublishers.noBody();
+        } else if (request.isBodyBase64()) {
+            body = HttpRequest.BodyPublishers.ofByteArray(Base64.getDecoder().decode(request.getBody()));
+        } else {
+            body = HttpRequest.BodyPublishers.ofString(request.getBody(), StandardCharsets.UTF_8);
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    /**
+     * Отчет по времени обработки, записанному в журнале: распределение на сервере-источнике
+     * без сетевой задержки, для сравнения с воспроизведением.
+     */
+    private static LoadReport baselineReport(List<CapturedRequest> requests) {
+        Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+        List<long[]> intervals = new ArrayList<>();
+        for (CapturedRequest request : requests) {
+            stats.computeIfAbsent(name(request), EndpointStats::new)
+                    .record(request.getDurationMicros() * 1000, request.getStatus());
+            intervals.add(new long[]{request.getStartMicros(), request.getStartMicros() + request.getDurationMicros()});
+        }
+        CapturedRequest last = requests.get(requests.size() - 1);
+        long spanMicros = Math.max(1, last.getStartMicros() + last.getDurationMicros() - requests.get(0).getStartMicros());
+        return new LoadReport(stats.values(), Duration.ofNanos(spanMicros * 1000), peakConcurrency(intervals), 0);
+    }
+
+    private static int peakConcurrency(List<long[]> intervals) {
+        List<long[]> events = new ArrayList<>();
+        for (long[] interval : intervals) {
+            events.add(new long[]{interval[0], 1});
+            events.add(new long[]{interval[1], -1});
+        }
+        // при совпадении времени завершение учитывается раньше начала
+        events.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        int current = 0;
+        int peak = 0;
+        for (long[] event : events) {
+            current += (int) event[1];
+            peak = Math.max(peak, current);
+        }
+        return peak;
+    }
+
+    private static String name(CapturedRequest request) {
+        return request.getMethod() + " " + NUMERIC_SEGMENT.matcher(request.getPath()).replaceAll("/{id}");
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Не задано свойство " + property);
+        }
+        return value;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package by.losik.lab6omis.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Смесь нагрузки: группы эндпоинтов с весами. Группа выбирается пропорционально
+ * весу, эндпоинт внутри группы - равновероятно.
+ *
+ * <p>Группы:</p>
+ * <ul>
+ *   <li>{@code sensor-data} - чтение показаний сенсоров ({@code /api/api/sensor-data})</li>
+ *   <li>{@code requests} - чтение и создание речевых запросов ({@code /api/api/requests})</li>
+ *   <li>{@code analysis} - аналитические эндпоинты ({@code /api/api/analysis/*})</li>
+ *   <li>{@code views} - страницы веб-интерфейса ({@code ViewServlet})</li>
+ * </ul>
+ * Смесь задается строкой вида {@code sensor-data=40,requests=30,analysis=20,views=10}.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class Workload {
+
+    /** Смесь по умолчанию. */
+    public static final String DEFAULT_MIX = "sensor-data=40,requests=30,analysis=20,views=10";
+
+    private static final String[] LANGUAGES = {"RU", "EN", "DE", "FR", "ES", "ZH"};
+
+    private final List<List<Endpoint>> groups = new ArrayList<>();
+    private final double[] cumulativeWeights;
+
+    private Workload(Map<String, Integer> weights) {
+        Map<String, List<Endpoint>> catalog = catalog();
+        cumulativeWeights = new double[weights.size()];
+        double total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        double cumulative = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            List<Endpoint> endpoints = catalog.get(weight.getKey());
+            if (endpoints == null) {
+                throw new IllegalArgumentException("Неизвестная группа нагрузки: " + weight.getKey()
+                        + ", допустимые: " + catalog.keySet());
+            }
+            groups.add(endpoints);
+            cumulative += weight.getValue() / total;
+            cumulativeWeights[i++] = cumulative;
+        }
+    }
+
+    /**
+     * Разбирает описание смеси.
+     *
+     * @param mix строка вида {@code группа=вес,группа=вес}
+     * @return смесь нагрузки
+     * @throws IllegalArgumentException если группа неизвестна или вес не положителен
+     */
+    public static Workload parse(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = pair.length == 2 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Вес группы должен быть положительным: " + part);
+            }
+            weights.put(pair[0].trim(), weight);
+        }
+        return new Workload(weights);
+    }
+
+    /**
+     * Выбирает следующий эндпоинт.
+     *
+     * @param random генератор случайных чисел клиента
+     * @return эндпоинт
+     */
+    Endpoint next(Random random) {
+        double point = random.nextDouble();
+        int group = 0;
+        while (group < cumulativeWeights.length - 1 && point >= cumulativeWeights[group]) {
+            group++;
+        }
+        List<Endpoint> endpoints = groups.get(group);
+        return endpoints.get(random.nextInt(endpoints.size()));
+    }
+
+    /**
+     * @return эндпоинты всех групп смеси в порядке объявления
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        groups.forEach(endpoints::addAll);
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    private static Map<String, List<Endpoint>> catalog() {
+        Map<String, List<Endpoint>> catalog = new LinkedHashMap<>();
+        catalog.put("sensor-data", List.of(
+                Endpoint.get("sensor-data", "/api/api/sensor-data/page/{page}/size/20",
+                        (seed, random) -> "/api/api/sensor-data/page/" + random.nextInt(5) + "/size/20"),
+                Endpoint.get("sensor-data", "/api/api/sensor-data/sensor/{sensorId}/page/0/size/20",
+                        (seed, random) -> "/api/api/sensor-data/sensor/" + seed.randomSensorId(random) + "/page/0/size/20"),
+                Endpoint.get("sensor-data", "/api/api/sensor-data/count/sensor/{sensorId}",
+                        (seed, random) -> "/api/api/sensor-data/count/sensor/" + seed.randomSensorId(random)),
+                Endpoint.get("sensor-data", "/api/api/sensor-data/recent/7"),
+                Endpoint.get("sensor-data", "/api/api/sensor-data/latest-per-sensor"),
+                Endpoint.get("sensor-data", "/api/api/sensor-data/stats/count-by-sensor")
+        ));
+        catalog.put("requests", List.of(
+                Endpoint.get("requests", "/api/api/requests/page/{page}/size/20",
+                        (seed, random) -> "/api/api/requests/page/" + random.nextInt(5) + "/size/20"),
+                Endpoint.get("requests", "/api/api/requests/{id}",
+                        (seed, random) -> "/api/api/requests/" + seed.randomRequestId(random)),
+                Endpoint.get("requests", "/api/api/requests/language/{language}",
+                        (seed, random) -> "/api/api/requests/language/" + language(random)),
+                Endpoint.get("requests", "/api/api/requests/count"),
+                Endpoint.post("requests", "/api/api/requests",
+                        (seed, random) -> SeedData.requestBody(random.nextInt(Integer.MAX_VALUE)))
+        ));
+        catalog.put("analysis", List.of(
+                Endpoint.get("analysis", "/api/api/analysis/comprehensive"),
+                Endpoint.get("analysis", "/api/api/analysis/trends"),
+                Endpoint.get("analysis", "/api/api/analysis/correlation/accuracy-length"),
+                Endpoint.get("analysis", "/api/api/analysis/language/{language}/effectiveness",
+                        (seed, random) -> "/api/api/analysis/language/" + language(random) + "/effectiveness"),
+                Endpoint.post("analysis", "/api/api/analysis/statistical",
+                        (seed, random) -> "[\"температура 21.5\",\"влажность 40\",\"шум " + random.nextInt(100) + "\"]")
+        ));
+        catalog.put("views", List.of(
+                Endpoint.get("views", "/dashboard"),
+                Endpoint.get("views", "/sensors"),
+                Endpoint.get("views", "/sensors/view/{id}",
+                        (seed, random) -> "/sensors/view/" + seed.randomSensorId(random)),
+                Endpoint.get("views", "/solutions"),
+                Endpoint.get("views", "/analysis"),
+                Endpoint.get("views", "/sounds")
+        ));
+        return catalog;
+    }
+
+    private static String language(Random random) {
+        return LANGUAGES[random.nextInt(LANGUAGES.length)];
+    }
+}
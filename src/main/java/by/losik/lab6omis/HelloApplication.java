@@ -3,8 +3,16 @@ package by.losik.lab6omis;
 import by.losik.lab6omis.exception.BadRequestExceptionMapper;
 import by.losik.lab6omis.exception.GeneralExceptionMapper;
 import by.losik.lab6omis.exception.NotFoundExceptionMapper;
+import by.losik.lab6omis.provider.ConditionalGetFilter;
+import by.losik.lab6omis.provider.GzipWriterInterceptor;
+import by.losik.lab6omis.provider.HttpMetricsFilter;
+import by.losik.lab6omis.provider.SearchResponseWriter;
+import by.losik.lab6omis.provider.StatementTrackingFilter;
 import by.losik.lab6omis.resource.CacheResource;
+import by.losik.lab6omis.resource.DashboardResource;
+import by.losik.lab6omis.resource.HealthResource;
 import by.losik.lab6omis.resource.HelloResource;
+import by.losik.lab6omis.resource.MetricsResource;
 import by.losik.lab6omis.resource.general.types.AnalysisResource;
 import by.losik.lab6omis.resource.general.types.DialogResource;
 import by.losik.lab6omis.resource.general.types.RequestResource;
@@ -12,10 +20,13 @@ import by.losik.lab6omis.resource.general.types.ResponseResource;
 import by.losik.lab6omis.resource.general.types.SensorDataResource;
 import by.losik.lab6omis.resource.general.types.SensorResource;
 import by.losik.lab6omis.resource.general.types.SolutionResource;
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
 
 import javax.ws.rs.ApplicationPath;
 import javax.ws.rs.core.Application;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 @ApplicationPath("/api")
@@ -26,6 +37,9 @@ public class HelloApplication extends Application {
         Set<Class<?>> classes = new HashSet<>();
         classes.add(HelloResource.class);
         classes.add(CacheResource.class);
+        classes.add(DashboardResource.class);
+        classes.add(HealthResource.class);
+        classes.add(MetricsResource.class);
         classes.add(AnalysisResource.class);
         classes.add(RequestResource.class);
         classes.add(ResponseResource.class);
@@ -36,6 +50,18 @@ public class HelloApplication extends Application {
         classes.add(BadRequestExceptionMapper.class);
         classes.add(NotFoundExceptionMapper.class);
         classes.add(GeneralExceptionMapper.class);
+        classes.add(SearchResponseWriter.class);
+        classes.add(JacksonCBORProvider.class);
+        classes.add(JacksonSmileProvider.class);
+        classes.add(ConditionalGetFilter.class);
+        classes.add(HttpMetricsFilter.class);
+        classes.add(StatementTrackingFilter.class);
+        classes.add(GzipWriterInterceptor.class);
         return classes;
     }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        return Map.of(GzipWriterInterceptor.THRESHOLD_PROPERTY, 1024);
+    }
 }
\ No newline at end of file
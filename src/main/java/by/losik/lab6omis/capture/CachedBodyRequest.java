@@ -0,0 +1,103 @@
+package by.losik.lab6omis.capture;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Запрос с телом, прочитанным заранее: тело сохраняется в журнал трафика
+ * и затем отдается приложению так же, как из исходного потока.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    /**
+     * @param request исходный запрос
+     * @throws IOException если тело не удалось прочитать
+     */
+    public CachedBodyRequest(HttpServletRequest request) throws IOException {
+        super(request);
+        body = request.getInputStream().readAllBytes();
+    }
+
+    /**
+     * Сохраняет тело в запись журнала: текстовые типы (JSON, XML, text/*) - строкой,
+     * остальные (CBOR, Smile) - в Base64. Тело больше {@code maxBytes} не сохраняется.
+     *
+     * @param captured запись журнала
+     * @param maxBytes максимальный размер сохраняемого тела
+     */
+    public void storeBody(CapturedRequest captured, int maxBytes) {
+        if (body.length == 0 || body.length > maxBytes) {
+            return;
+        }
+        if (isText(getContentType())) {
+            captured.setBody(new String(body, charset()));
+        } else {
+            captured.setBody(Base64.getEncoder().encodeToString(body));
+            captured.setBodyBase64(true);
+        }
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml");
+    }
+
+    private Charset charset() {
+        String encoding = getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException("Асинхронное чтение сохраненного тела не поддерживается");
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return in.read(buffer, offset, length);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+    }
+}
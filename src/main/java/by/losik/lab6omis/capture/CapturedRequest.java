@@ -0,0 +1,133 @@
+package by.losik.lab6omis.capture;
+
+/**
+ * Запись журнала трафика: один выполненный запрос REST API.
+ * Сериализуется в JSON построчно; заголовки, кроме типов содержимого,
+ * не сохраняются (в них могут быть куки и учетные данные).
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class CapturedRequest {
+
+    private long startMicros;
+    private String method;
+    private String path;
+    private String query;
+    private String contentType;
+    private String accept;
+    private String body;
+    private boolean bodyBase64;
+    private int status;
+    private long durationMicros;
+
+    /**
+     * @return момент начала обработки, микросекунды от эпохи
+     */
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    public void setStartMicros(long startMicros) {
+        this.startMicros = startMicros;
+    }
+
+    /**
+     * @return HTTP-метод
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * @return путь относительно контекста приложения, например {@code /api/api/requests/5}
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return строка запроса без {@code ?} или null
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    /**
+     * @return заголовок Content-Type или null
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return заголовок Accept или null
+     */
+    public String getAccept() {
+        return accept;
+    }
+
+    public void setAccept(String accept) {
+        this.accept = accept;
+    }
+
+    /**
+     * @return тело запроса (текст или Base64, см. {@link #isBodyBase64()}) или null
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    /**
+     * @return true если тело двоичное и закодировано в Base64
+     */
+    public boolean isBodyBase64() {
+        return bodyBase64;
+    }
+
+    public void setBodyBase64(boolean bodyBase64) {
+        this.bodyBase64 = bodyBase64;
+    }
+
+    /**
+     * @return код ответа
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return время обработки на сервере, микросекунды
+     */
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public void setDurationMicros(long durationMicros) {
+        this.durationMicros = durationMicros;
+    }
+}
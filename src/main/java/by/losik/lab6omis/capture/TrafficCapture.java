@@ -0,0 +1,260 @@
+package by.losik.lab6omis.capture;
+
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Журнал трафика REST API для воспроизведения на тестовом стенде.
+ * Отобранные запросы ({@link #sample()}) записываются фоновым потоком в файлы
+ * JSON Lines со сжатием gzip; файл сменяется по достижении размера, старые файлы
+ * удаляются сверх заданного числа. Обработка запроса не ждет записи: если очередь
+ * переполнена, запись отбрасывается и учитывается в метрике
+ * {@value #DROPPED}.
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - включить запись (по умолчанию false)</li>
+ *   <li>{@value #SAMPLE_RATE} - доля записываемых запросов от 0 до 1 (по умолчанию 0.01)</li>
+ *   <li>{@value #DIRECTORY} - каталог журналов (по умолчанию java.io.tmpdir/lab6omis-capture)</li>
+ *   <li>{@value #MAX_FILE_MB} - размер сжатого файла до смены, МБ (по умолчанию 64)</li>
+ *   <li>{@value #MAX_FILES} - сколько файлов хранить (по умолчанию 10)</li>
+ *   <li>{@value #MAX_BODY_BYTES} - тела больше этого размера не сохраняются (по умолчанию 65536)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TrafficCapture {
+
+    public static final String ENABLED = "lab6omis.capture.enabled";
+    public static final String SAMPLE_RATE = "lab6omis.capture.sample-rate";
+    public static final String DIRECTORY = "lab6omis.capture.dir";
+    public static final String MAX_FILE_MB = "lab6omis.capture.max-file-mb";
+    public static final String MAX_FILES = "lab6omis.capture.max-files";
+    public static final String MAX_BODY_BYTES = "lab6omis.capture.max-body-bytes";
+
+    public static final String RECORDED = "lab6omis_capture_recorded";
+    public static final String DROPPED = "lab6omis_capture_dropped";
+
+    /** Префикс и суффикс имен файлов журнала. */
+    public static final String FILE_PREFIX = "capture-";
+    public static final String FILE_SUFFIX = ".jsonl.gz";
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrafficCapture.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final long FLUSH_INTERVAL_MILLIS = 1_000;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    private final ObjectWriter writer = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writerFor(CapturedRequest.class);
+    private final BlockingQueue<CapturedRequest> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private boolean enabled;
+    private double sampleRate;
+    private Path directory;
+    private long maxFileBytes;
+    private int maxFiles;
+    private int maxBodyBytes;
+    private Thread thread;
+    private volatile boolean running;
+
+    private CountingOutputStream file;
+    private OutputStream out;
+    private int fileNumber;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.getBoolean(ENABLED);
+        sampleRate = Math.max(0.0, Math.min(1.0, Double.parseDouble(System.getProperty(SAMPLE_RATE, "0.01"))));
+        directory = Paths.get(System.getProperty(DIRECTORY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "lab6omis-capture").toString()));
+        maxFileBytes = Long.getLong(MAX_FILE_MB, 64) * 1024 * 1024;
+        maxFiles = Math.max(1, Integer.getInteger(MAX_FILES, 10));
+        maxBodyBytes = Integer.getInteger(MAX_BODY_BYTES, 65_536);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::writeLoop, "traffic-capture");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Запись трафика включена: доля {}, каталог {}", sampleRate, directory);
+    }
+
+    /**
+     * Останавливает запись и закрывает текущий файл.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Решает, записывать ли очередной запрос.
+     *
+     * @return true если запись включена и запрос попал в выборку
+     */
+    public boolean sample() {
+        return enabled && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * @return максимальный размер сохраняемого тела, байт
+     */
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Ставит запись в очередь на сохранение, не блокируя поток запроса.
+     *
+     * @param request выполненный запрос
+     */
+    public void record(CapturedRequest request) {
+        if (queue.offer(request)) {
+            metrics.counter(RECORDED, "Запросы, записанные в журнал трафика").labels().increment();
+        } else {
+            metrics.counter(DROPPED, "Запросы, не записанные из-за переполнения очереди журнала").labels().increment();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                CapturedRequest request;
+                try {
+                    request = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // при остановке дописываем то, что уже в очереди
+                    running = false;
+                    continue;
+                }
+                if (request == null) {
+                    flush();
+                    continue;
+                }
+                write(request);
+            }
+        } catch (IOException e) {
+            LOG.error("Запись трафика остановлена: {}", e.getMessage(), e);
+        } finally {
+            closeFile();
+        }
+    }
+
+    private void write(CapturedRequest request) throws IOException {
+        if (out == null || file.getCount() >= maxFileBytes) {
+            rotate();
+        }
+        out.write(writer.writeValueAsBytes(request));
+        out.write('\n');
+    }
+
+    private void flush() throws IOException {
+        if (out != null) {
+            // синхронный сброс gzip: записанные строки читаются, даже если файл не закрыт
+            out.flush();
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        Files.createDirectories(directory);
+        String name = FILE_PREFIX + LocalDateTime.now().format(FILE_TIME)
+                + String.format("-%04d", fileNumber++ % 10_000) + FILE_SUFFIX;
+        file = new CountingOutputStream(Files.newOutputStream(directory.resolve(name)));
+        out = new BufferedOutputStream(new GZIPOutputStream(file, 64 * 1024, true), 64 * 1024);
+        deleteOldFiles();
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.warn("Не удалось закрыть файл журнала трафика: {}", e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Поток, считающий записанные байты (размер сжатого файла).
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package by.losik.lab6omis.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок показателей панели управления.
+ * Содержит общее количество записей по основным сущностям на момент построения.
+ * Снимки строятся в фоне и отдаются страницам и SSE-подписчикам без обращения к БД.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class DashboardSnapshot {
+    private final long version;
+    private final long generatedAt;
+    private final long totalSensors;
+    private final long totalSolutions;
+    private final long totalRequests;
+    private final long totalSounds;
+    private final long totalSensorData;
+
+    /**
+     * Создает снимок показателей.
+     *
+     * @param version порядковый номер снимка
+     * @param generatedAt время построения (мс с начала эпохи)
+     * @param totalSensors количество сенсоров
+     * @param totalSolutions количество решений
+     * @param totalRequests количество запросов
+     * @param totalSounds количество звуков
+     * @param totalSensorData количество показаний сенсоров
+     */
+    public DashboardSnapshot(long version, long generatedAt, long totalSensors, long totalSolutions,
+                             long totalRequests, long totalSounds, long totalSensorData) {
+        this.version = version;
+        this.generatedAt = generatedAt;
+        this.totalSensors = totalSensors;
+        this.totalSolutions = totalSolutions;
+        this.totalRequests = totalRequests;
+        this.totalSounds = totalSounds;
+        this.totalSensorData = totalSensorData;
+    }
+
+    /**
+     * Возвращает порядковый номер снимка.
+     *
+     * @return номер снимка
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Возвращает время построения снимка.
+     *
+     * @return время в миллисекундах с начала эпохи
+     */
+    public long getGeneratedAt() {
+        return generatedAt;
+    }
+
+    /**
+     * Возвращает количество сенсоров.
+     *
+     * @return количество сенсоров
+     */
+    public long getTotalSensors() {
+        return totalSensors;
+    }
+
+    /**
+     * Возвращает количество решений.
+     *
+     * @return количество решений
+     */
+    public long getTotalSolutions() {
+        return totalSolutions;
+    }
+
+    /**
+     * Возвращает количество запросов.
+     *
+     * @return количество запросов
+     */
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    /**
+     * Возвращает количество звуков.
+     *
+     * @return количество звуков
+     */
+    public long getTotalSounds() {
+        return totalSounds;
+    }
+
+    /**
+     * Возвращает количество показаний сенсоров.
+     *
+     * @return количество показаний
+     */
+    public long getTotalSensorData() {
+        return totalSensorData;
+    }
+
+    /**
+     * Возвращает показатели, изменившиеся относительно предыдущего снимка.
+     * В результат всегда входят {@code version} и {@code generatedAt}.
+     *
+     * @param previous предыдущий снимок (null - вернуть все показатели)
+     * @return изменившиеся показатели по именам полей
+     */
+    public Map<String, Object> diff(DashboardSnapshot previous) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("version", version);
+        delta.put("generatedAt", generatedAt);
+        putIfChanged(delta, "totalSensors", totalSensors, previous == null ? null : previous.totalSensors);
+        putIfChanged(delta, "totalSolutions", totalSolutions, previous == null ? null : previous.totalSolutions);
+        putIfChanged(delta, "totalRequests", totalRequests, previous == null ? null : previous.totalRequests);
+        putIfChanged(delta, "totalSounds", totalSounds, previous == null ? null : previous.totalSounds);
+        putIfChanged(delta, "totalSensorData", totalSensorData, previous == null ? null : previous.totalSensorData);
+        return delta;
+    }
+
+    /**
+     * Проверяет, совпадают ли показатели двух снимков (без учета номера и времени).
+     *
+     * @param other другой снимок
+     * @return true если все счетчики равны
+     */
+    public boolean sameCounters(DashboardSnapshot other) {
+        return other != null
+                && totalSensors == other.totalSensors
+                && totalSolutions == other.totalSolutions
+                && totalRequests == other.totalRequests
+                && totalSounds == other.totalSounds
+                && totalSensorData == other.totalSensorData;
+    }
+
+    private static void putIfChanged(Map<String, Object> delta, String name, long value, Long previous) {
+        if (previous == null || previous != value) {
+            delta.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package by.losik.lab6omis.dto;
+
+import java.util.List;
+
+/**
+ * DTO класс прореженного временного ряда показаний сенсора для графиков.
+ * В режиме {@code buckets} ряд состоит из {@link SeriesBucket}, в режиме
+ * {@code lttb} - из {@link SeriesPoint}; в обоих случаях элементов не больше
+ * запрошенного числа точек.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class SensorSeriesResponse {
+    private final Long sensorId;
+    private final String mode;
+    private final String from;
+    private final String to;
+    private final int points;
+    private final long readings;
+    private final Long bucketMillis;
+    private final List<?> series;
+
+    /**
+     * Создает ответ с рядом.
+     *
+     * @param sensorId ID сенсора
+     * @param mode режим прореживания (buckets или lttb)
+     * @param from начало периода (ISO-8601, включительно)
+     * @param to конец периода (ISO-8601, не включительно)
+     * @param points наибольшее число элементов ряда
+     * @param readings число показаний сенсора за период
+     * @param bucketMillis длина интервала агрегации в мс (только для buckets)
+     * @param series элементы ряда по возрастанию времени
+     */
+    public SensorSeriesResponse(Long sensorId, String mode, String from, String to, int points,
+                                long readings, Long bucketMillis, List<?> series) {
+        this.sensorId = sensorId;
+        this.mode = mode;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+        this.readings = readings;
+        this.bucketMillis = bucketMillis;
+        this.series = series;
+    }
+
+    /**
+     * @return ID сенсора
+     */
+    public Long getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * @return режим прореживания (buckets или lttb)
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * @return начало периода (ISO-8601, включительно)
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * @return конец периода (ISO-8601, не включительно)
+     */
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * @return наибольшее число элементов ряда
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * @return число показаний сенсора за период
+     */
+    public long getReadings() {
+        return readings;
+    }
+
+    /**
+     * @return длина интервала агрегации в мс или null
+     */
+    public Long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * @return элементы ряда по возрастанию времени
+     */
+    public List<?> getSeries() {
+        return series;
+    }
+}
@@ -0,0 +1,58 @@
+package by.losik.lab6omis.dto;
+
+/**
+ * DTO класс агрегата показаний сенсора за интервал времени.
+ * Содержит число показаний интервала, первое и последнее из них.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class SeriesBucket {
+    private final String start;
+    private final long count;
+    private final SeriesPoint first;
+    private final SeriesPoint last;
+
+    /**
+     * Создает агрегат интервала.
+     *
+     * @param start начало интервала (ISO-8601)
+     * @param count число показаний в интервале
+     * @param first первое показание интервала
+     * @param last последнее показание интервала
+     */
+    public SeriesBucket(String start, long count, SeriesPoint first, SeriesPoint last) {
+        this.start = start;
+        this.count = count;
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @return начало интервала (ISO-8601)
+     */
+    public String getStart() {
+        return start;
+    }
+
+    /**
+     * @return число показаний в интервале
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return первое показание интервала
+     */
+    public SeriesPoint getFirst() {
+        return first;
+    }
+
+    /**
+     * @return последнее показание интервала
+     */
+    public SeriesPoint getLast() {
+        return last;
+    }
+}
@@ -0,0 +1,62 @@
+package by.losik.lab6omis.dto;
+
+/**
+ * DTO класс точки прореженного ряда показаний сенсора.
+ * Точка - это реальное показание: прореживание выбирает показания, а не усредняет их.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class SeriesPoint {
+    private final Long id;
+    private final String timestamp;
+    private final String purpose;
+    private final Long intervalMillis;
+
+    /**
+     * Создает точку ряда.
+     *
+     * @param id ID показания
+     * @param timestamp временная метка показания (ISO-8601)
+     * @param purpose назначение показания
+     * @param intervalMillis интервал от предыдущего показания сенсора в мс или null
+     */
+    public SeriesPoint(Long id, String timestamp, String purpose, Long intervalMillis) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.purpose = purpose;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * @return ID показания
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return временная метка показания (ISO-8601)
+     */
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return назначение показания
+     */
+    public String getPurpose() {
+        return purpose;
+    }
+
+    /**
+     * Возвращает интервал от предыдущего показания того же сенсора в пределах периода.
+     * Именно по нему LTTB выбирает точки, поэтому пропуски и всплески показаний
+     * сохраняются на графике. В агрегатах по интервалам не заполняется.
+     *
+     * @return интервал в мс или null
+     */
+    public Long getIntervalMillis() {
+        return intervalMillis;
+    }
+}
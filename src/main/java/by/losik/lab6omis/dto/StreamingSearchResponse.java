@@ -0,0 +1,47 @@
+package by.losik.lab6omis.dto;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковый ответ с результатами поиска.
+ * В отличие от {@link SearchResponse} не хранит список результатов: элементы
+ * читаются из источника (курсора запроса) в момент сериализации, а количество
+ * подсчитывается по ходу записи и выводится в конце документа.
+ * Структура документа совпадает с {@link SearchResponse}: {@code {"results":[...],"count":N}}
+ * (в JSON и в бинарных форматах CBOR/Smile).
+ *
+ * @param <T> тип возвращаемых объектов
+ * @see by.losik.lab6omis.provider.SearchResponseWriter
+ */
+public class StreamingSearchResponse<T> implements AutoCloseable {
+    private final Stream<T> source;
+
+    /**
+     * Создает потоковый ответ поверх источника результатов.
+     * Источник будет закрыт после сериализации ответа.
+     *
+     * @param source поток найденных объектов
+     */
+    public StreamingSearchResponse(Stream<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * Возвращает итератор по результатам поиска.
+     * Может быть вызван только один раз.
+     *
+     * @return итератор результатов поиска
+     */
+    public Iterator<T> iterator() {
+        return source.iterator();
+    }
+
+    /**
+     * Закрывает источник результатов и освобождает связанные с ним ресурсы.
+     */
+    @Override
+    public void close() {
+        source.close();
+    }
+}
@@ -1,5 +1,8 @@
 package by.losik.lab6omis.entities.base;
 
+import by.losik.lab6omis.persistence.EntityChangeListener;
+
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -14,6 +17,7 @@ import javax.persistence.MappedSuperclass;
  *   <li>Использует стратегию генерации IDENTITY</li>
  *   <li>Может быть унаследован любыми сущностями JPA</li>
  *   <li>Не является самостоятельной сущностью (@MappedSuperclass)</li>
+ *   <li>Изменения сущностей инвалидируют кэш результатов сервисов ({@link EntityChangeListener})</li>
  * </ul>
  *
  * <p>Пример использования:</p>
@@ -34,6 +38,7 @@ import javax.persistence.MappedSuperclass;
  * @version 1.0
  */
 @MappedSuperclass
+@EntityListeners(EntityChangeListener.class)
 public abstract class BaseEntity {
 
     /**
@@ -3,6 +3,8 @@ package by.losik.lab6omis.entities.general.types;
 import by.losik.lab6omis.entities.base.BaseEntity;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -24,6 +26,8 @@ import java.util.List;
  * <p>Особенности сущности:</p>
  * <ul>
  *   <li>Использует кэширование Hibernate второго уровня</li>
+ *   <li>Имя является естественным идентификатором: поиск по имени разрешается
+ *       через кэш естественных идентификаторов без запроса к БД</li>
  *   <li>Находится в схеме "lab6omis"</li>
  *   <li>Содержит валидационные аннотации</li>
  *   <li>Управляет коллекцией данных сенсора через каскадные операции</li>
@@ -45,12 +49,16 @@ import java.util.List;
 @Entity
 @Table(name = "sensors", schema = "lab6omis")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "by.losik.lab6omis.entities.general.types.Sensor")
+@NaturalIdCache(region = "by.losik.lab6omis.entities.general.types.Sensor##NaturalId")
 public class Sensor extends BaseEntity {
 
     /**
      * Название сенсора.
      * Обязательное поле с ограничением длины от 2 до 100 символов.
+     * Уникально (sensors_name_unique) и может изменяться, поэтому отображено
+     * как изменяемый естественный идентификатор.
      */
+    @NaturalId(mutable = true)
     @NotBlank(message = "Имя сенсора не может быть пустым")
     @Size(min = 2, max = 100, message = "Имя сенсора должно содержать от 2 до 100 символов")
     @Column(name = "name", nullable = false)
@@ -5,6 +5,7 @@ import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 /**
@@ -19,7 +20,8 @@ public class EncodingFilter implements Filter {
 
     /**
      * Устанавливает кодировку UTF-8 для запроса и ответа.
-     * Настраивает тип контента ответа как HTML с кодировкой UTF-8.
+     * Для страниц веб-интерфейса настраивает тип контента ответа как HTML с кодировкой UTF-8;
+     * для REST API (/api/*) тип контента определяет JAX-RS по {@code @Produces} ресурса.
      * Передает запрос и ответ дальше по цепочке фильтров.
      *
      * @param request  ServletRequest объект входящего запроса
@@ -34,8 +36,21 @@ public class EncodingFilter implements Filter {
 
         request.setCharacterEncoding("UTF-8");
         response.setCharacterEncoding("UTF-8");
-        response.setContentType("text/html;charset=UTF-8");
+        if (!isApiRequest(request)) {
+            response.setContentType("text/html;charset=UTF-8");
+        }
 
         chain.doFilter(request, response);
     }
+
+    /**
+     * Проверяет, относится ли запрос к REST API.
+     *
+     * @param request ServletRequest объект входящего запроса
+     * @return true если запрос адресован сервлету Jersey (/api/*)
+     */
+    private boolean isApiRequest(ServletRequest request) {
+        return request instanceof HttpServletRequest
+                && ((HttpServletRequest) request).getServletPath().startsWith("/api");
+    }
 }
\ No newline at end of file
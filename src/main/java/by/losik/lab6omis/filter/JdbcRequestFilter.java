@@ -0,0 +1,48 @@
+package by.losik.lab6omis.filter;
+
+import by.losik.lab6omis.persistence.jdbc.JdbcMetrics;
+import by.losik.lab6omis.persistence.jdbc.JdbcRequestLog;
+
+import javax.inject.Inject;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Фильтр, открывающий журнал JDBC-операторов на время обработки запроса REST API.
+ * Журнал охватывает вызов ресурса и сериализацию ответа (ленивые связи,
+ * загружаемые при записи JSON); по завершении запроса итоги передаются
+ * в {@link JdbcMetrics}. Имя эндпоинта задает
+ * {@link by.losik.lab6omis.provider.StatementTrackingFilter} после сопоставления ресурса.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class JdbcRequestFilter implements Filter {
+
+    private static final String UNMATCHED = "unmatched";
+
+    @Inject
+    private JdbcMetrics jdbcMetrics;
+
+    /**
+     * Выполняет запрос с открытым журналом JDBC и учитывает его итоги.
+     *
+     * @param request  ServletRequest объект входящего запроса
+     * @param response ServletResponse объект для ответа
+     * @param chain    FilterChain для передачи запроса следующему фильтру или сервлету
+     * @throws IOException      если происходит ошибка ввода-вывода
+     * @throws ServletException если происходит ошибка сервлета
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        try (JdbcRequestLog log = JdbcRequestLog.begin(UNMATCHED)) {
+            chain.doFilter(request, response);
+            jdbcMetrics.complete(log);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package by.losik.lab6omis.filter;
+
+import by.losik.lab6omis.capture.CachedBodyRequest;
+import by.losik.lab6omis.capture.CapturedRequest;
+import by.losik.lab6omis.capture.TrafficCapture;
+
+import javax.inject.Inject;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Фильтр записи трафика REST API для последующего воспроизведения
+ * ({@link TrafficCapture}). Выключен по умолчанию; для запросов, не попавших
+ * в выборку, сводится к одной проверке. У отобранных запросов сохраняются метод,
+ * путь, строка запроса, тело, код ответа и время обработки.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class TrafficCaptureFilter implements Filter {
+
+    @Inject
+    private TrafficCapture capture;
+
+    /**
+     * Выполняет запрос и, если он попал в выборку, записывает его в журнал трафика.
+     *
+     * @param request  ServletRequest объект входящего запроса
+     * @param response ServletResponse объект для ответа
+     * @param chain    FilterChain для передачи запроса следующему фильтру или сервлету
+     * @throws IOException      если происходит ошибка ввода-вывода
+     * @throws ServletException если происходит ошибка сервлета
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        if (!capture.sample() || !(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        CapturedRequest captured = new CapturedRequest();
+        captured.setStartMicros(ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+        captured.setMethod(httpRequest.getMethod());
+        captured.setPath(httpRequest.getRequestURI().substring(httpRequest.getContextPath().length()));
+        captured.setQuery(httpRequest.getQueryString());
+        captured.setContentType(httpRequest.getContentType());
+        captured.setAccept(httpRequest.getHeader("Accept"));
+
+        ServletRequest target = request;
+        // Тело формы разбирает контейнер из исходного потока, поэтому формы сохраняются без тела
+        if (hasBody(httpRequest) && !isForm(httpRequest)) {
+            CachedBodyRequest cached = new CachedBodyRequest(httpRequest);
+            cached.storeBody(captured, capture.getMaxBodyBytes());
+            target = cached;
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(target, response);
+            failed = false;
+        } finally {
+            captured.setDurationMicros((System.nanoTime() - started) / 1000);
+            // необработанное исключение контейнер превратит в 500 уже после фильтра
+            captured.setStatus(failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                    : ((HttpServletResponse) response).getStatus());
+            capture.record(captured);
+        }
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && (contentType.startsWith("application/x-www-form-urlencoded")
+                || contentType.startsWith("multipart/"));
+    }
+}
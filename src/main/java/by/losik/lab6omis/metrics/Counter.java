@@ -0,0 +1,37 @@
+package by.losik.lab6omis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Монотонный счетчик без блокировок.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Увеличивает счетчик на единицу.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Увеличивает счетчик.
+     *
+     * @param amount неотрицательное приращение
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * @return текущее значение
+     */
+    public long get() {
+        return value.sum();
+    }
+}
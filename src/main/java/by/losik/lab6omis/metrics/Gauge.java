@@ -0,0 +1,44 @@
+package by.losik.lab6omis.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Показатель текущего значения (глубина очереди, размер пакета).
+ * Значение либо устанавливается явно, либо читается при выгрузке
+ * из привязанного источника.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class Gauge {
+
+    private final AtomicLong value = new AtomicLong();
+    private volatile LongSupplier source;
+
+    /**
+     * Устанавливает текущее значение.
+     *
+     * @param newValue значение
+     */
+    public void set(long newValue) {
+        value.set(newValue);
+    }
+
+    /**
+     * Привязывает источник значения; после этого {@link #get()} читает источник.
+     *
+     * @param newSource функция, возвращающая текущее значение
+     */
+    public void bind(LongSupplier newSource) {
+        source = newSource;
+    }
+
+    /**
+     * @return текущее значение
+     */
+    public long get() {
+        LongSupplier current = source;
+        return current != null ? current.getAsLong() : value.get();
+    }
+}
@@ -0,0 +1,128 @@
+package by.losik.lab6omis.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с логарифмически-линейными корзинами (в духе HdrHistogram).
+ * Значения хранятся в микросекундах: каждая степень двойки делится на
+ * {@value #SUB_BUCKETS} равных корзин, поэтому относительная погрешность
+ * квантилей не превышает 1/{@value #SUB_BUCKETS} на всем диапазоне
+ * от 1 мкс до ~19 часов. Запись выполняется без блокировок:
+ * один инкремент корзины и два сумматора.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Записывает одно измерение.
+     *
+     * @param nanos длительность в наносекундах
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets.incrementAndGet(bucketIndex(Math.min(value / 1000, MAX_MICROS)));
+        count.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Записывает длительность, прошедшую с момента {@code startNanos}.
+     *
+     * @param startNanos значение {@link System#nanoTime()} в начале операции
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return количество измерений
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return сумма измерений в секундах
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return максимальное измерение в секундах
+     */
+    public double getMaxSeconds() {
+        return maxNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Оценивает квантиль распределения.
+     *
+     * @param quantile квантиль от 0.0 до 1.0
+     * @return значение квантиля в секундах (0.0 при отсутствии измерений)
+     */
+    public double getQuantileSeconds(double quantile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                double micros = Math.min(bucketMidpoint(i), maxNanos.get() / 1000.0);
+                return micros / TimeUnit.SECONDS.toMicros(1);
+            }
+        }
+        return getMaxSeconds();
+    }
+
+    /**
+     * Номер корзины: значения до {@value #SUB_BUCKETS} мкс хранятся точно,
+     * далее каждая степень двойки делится на {@value #SUB_BUCKETS} корзин.
+     */
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int group = exponent - SUB_BITS + 1;
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return group * SUB_BUCKETS + sub;
+    }
+
+    private static double bucketMidpoint(int index) {
+        int group = index / SUB_BUCKETS;
+        if (group == 0) {
+            return index;
+        }
+        int shift = group - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        long width = 1L << shift;
+        return lower + (width - 1) / 2.0;
+    }
+}
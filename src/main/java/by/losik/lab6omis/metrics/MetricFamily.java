@@ -0,0 +1,93 @@
+package by.losik.lab6omis.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Семейство метрик с общим именем и набором меток.
+ * Каждой комбинации значений меток соответствует отдельный экземпляр метрики,
+ * создаваемый при первом обращении.
+ *
+ * @param <M> тип метрики ({@link Counter}, {@link Gauge} или {@link LatencyHistogram})
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class MetricFamily<M> {
+
+    /**
+     * Тип семейства в формате Prometheus.
+     */
+    public enum Type {
+        COUNTER, GAUGE, SUMMARY
+    }
+
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final List<String> labelNames;
+    private final Supplier<M> factory;
+    private final Map<List<String>, M> series = new ConcurrentHashMap<>();
+
+    MetricFamily(String name, String help, Type type, List<String> labelNames, Supplier<M> factory) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labelNames = labelNames;
+        this.factory = factory;
+    }
+
+    /**
+     * Возвращает метрику для значений меток, создавая ее при необходимости.
+     *
+     * @param labelValues значения меток в порядке их объявления
+     * @return метрика
+     * @throws IllegalArgumentException если число значений не совпадает с числом меток
+     */
+    public M labels(String... labelValues) {
+        if (labelValues.length != labelNames.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Метрика %s ожидает метки %s, получено %s", name, labelNames, Arrays.toString(labelValues)));
+        }
+        List<String> key = Arrays.asList(labelValues);
+        M metric = series.get(key);
+        return metric != null ? metric : series.computeIfAbsent(List.of(labelValues), k -> factory.get());
+    }
+
+    /**
+     * @return имя семейства
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return описание семейства
+     */
+    public String getHelp() {
+        return help;
+    }
+
+    /**
+     * @return тип семейства
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return имена меток
+     */
+    public List<String> getLabelNames() {
+        return labelNames;
+    }
+
+    /**
+     * @return метрики по значениям меток
+     */
+    public Map<List<String>, M> getSeries() {
+        return series;
+    }
+}
@@ -0,0 +1,178 @@
+package by.losik.lab6omis.metrics;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Реестр метрик приложения.
+ * Хранит семейства счетчиков, показателей и гистограмм задержек и выгружает их
+ * в текстовом формате Prometheus. Семейства регистрируются по имени
+ * при первом обращении; повторная регистрация возвращает существующее семейство.
+ *
+ * <p>Основные семейства:</p>
+ * <ul>
+ *   <li>{@value #SERVICE_OPERATIONS} - операции сервисов ({@code BaseService})</li>
+ *   <li>{@value #HTTP_REQUESTS} - HTTP-запросы по методам ресурсов</li>
+ *   <li>{@value #TRANSACTIONS} - операции {@code TransactionManager}</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class MetricsRegistry {
+
+    public static final String SERVICE_OPERATIONS = "lab6omis_service_operation_seconds";
+    public static final String HTTP_REQUESTS = "lab6omis_http_request_seconds";
+    public static final String TRANSACTIONS = "lab6omis_transaction_seconds";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, MetricFamily<?>> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Возвращает семейство гистограмм задержек, регистрируя его при первом обращении.
+     *
+     * @param name имя семейства
+     * @param help описание
+     * @param labelNames имена меток
+     * @return семейство гистограмм
+     */
+    @SuppressWarnings("unchecked")
+    public MetricFamily<LatencyHistogram> summary(String name, String help, String... labelNames) {
+        return (MetricFamily<LatencyHistogram>) families.computeIfAbsent(name, key -> new MetricFamily<>(
+                name, help, MetricFamily.Type.SUMMARY, List.of(labelNames), LatencyHistogram::new));
+    }
+
+    /**
+     * Возвращает семейство счетчиков, регистрируя его при первом обращении.
+     *
+     * @param name имя семейства
+     * @param help описание
+     * @param labelNames имена меток
+     * @return семейство счетчиков
+     */
+    @SuppressWarnings("unchecked")
+    public MetricFamily<Counter> counter(String name, String help, String... labelNames) {
+        return (MetricFamily<Counter>) families.computeIfAbsent(name, key -> new MetricFamily<>(
+                name, help, MetricFamily.Type.COUNTER, List.of(labelNames), Counter::new));
+    }
+
+    /**
+     * Возвращает семейство показателей текущего значения, регистрируя его при первом обращении.
+     *
+     * @param name имя семейства
+     * @param help описание
+     * @param labelNames имена меток
+     * @return семейство показателей
+     */
+    @SuppressWarnings("unchecked")
+    public MetricFamily<Gauge> gauge(String name, String help, String... labelNames) {
+        return (MetricFamily<Gauge>) families.computeIfAbsent(name, key -> new MetricFamily<>(
+                name, help, MetricFamily.Type.GAUGE, List.of(labelNames), Gauge::new));
+    }
+
+    /**
+     * Семейство задержек операций сервисов.
+     *
+     * @return семейство с метками service, operation, outcome
+     */
+    public MetricFamily<LatencyHistogram> serviceOperations() {
+        return summary(SERVICE_OPERATIONS, "Длительность операций сервисов", "service", "operation", "outcome");
+    }
+
+    /**
+     * Семейство задержек HTTP-запросов.
+     *
+     * @return семейство с метками method, resource, status
+     */
+    public MetricFamily<LatencyHistogram> httpRequests() {
+        return summary(HTTP_REQUESTS, "Длительность HTTP-запросов", "method", "resource", "status");
+    }
+
+    /**
+     * Семейство задержек операций менеджера транзакций.
+     *
+     * @return семейство с метками kind, outcome
+     */
+    public MetricFamily<LatencyHistogram> transactions() {
+        return summary(TRANSACTIONS, "Длительность операций с базой данных", "kind", "outcome");
+    }
+
+    /**
+     * Выгружает все метрики в текстовом формате Prometheus 0.0.4.
+     *
+     * @return текст выгрузки
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (MetricFamily<?> family : families.values()) {
+            out.append("# HELP ").append(family.getName()).append(' ').append(family.getHelp()).append('\n');
+            out.append("# TYPE ").append(family.getName()).append(' ')
+                    .append(family.getType().name().toLowerCase(Locale.ROOT)).append('\n');
+
+            for (Map.Entry<List<String>, ?> series : family.getSeries().entrySet()) {
+                String labels = formatLabels(family.getLabelNames(), series.getKey());
+                Object metric = series.getValue();
+                if (metric instanceof Counter) {
+                    sample(out, family.getName() + "_total", labels, null, ((Counter) metric).get());
+                } else if (metric instanceof Gauge) {
+                    sample(out, family.getName(), labels, null, ((Gauge) metric).get());
+                } else {
+                    LatencyHistogram histogram = (LatencyHistogram) metric;
+                    for (double quantile : QUANTILES) {
+                        sample(out, family.getName(), labels, "quantile=\"" + quantile + "\"",
+                                histogram.getQuantileSeconds(quantile));
+                    }
+                    sample(out, family.getName() + "_sum", labels, null, histogram.getSumSeconds());
+                    sample(out, family.getName() + "_count", labels, null, histogram.getCount());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extra, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.append('{').append(labels);
+            if (extra != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String formatLabels(List<String> names, List<String> values) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(names.get(i)).append("=\"");
+            String value = values.get(i);
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    labels.append('\\').append(c);
+                } else if (c == '\n') {
+                    labels.append("\\n");
+                } else {
+                    labels.append(c);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.toString();
+    }
+}
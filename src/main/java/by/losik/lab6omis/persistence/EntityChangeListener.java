@@ -0,0 +1,42 @@
+package by.losik.lab6omis.persistence;
+
+import org.hibernate.Hibernate;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Слушатель жизненного цикла сущностей JPA.
+ * После вставки, обновления или удаления сущности сбрасывает тег ее класса
+ * в {@link EntityChangeTags}, тем самым инвалидируя зависящие от него
+ * закэшированные результаты сервисов.
+ *
+ * <p>Обратные вызовы срабатывают при сбросе изменений, до фиксации транзакции,
+ * поэтому {@link EntityChangeTags} откладывает отметки до ее завершения.</p>
+ *
+ * <p>Обновления, удаления и вставки вне {@link EntityChangeTags#appending}
+ * дополнительно увеличивают поколение перезаписей класса.</p>
+ *
+ * @see by.losik.lab6omis.entities.base.BaseEntity
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class EntityChangeListener {
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        Class<?> entityClass = Hibernate.getClass(entity);
+        if (EntityChangeTags.isAppending(entityClass)) {
+            EntityChangeTags.invalidate(entityClass);
+        } else {
+            EntityChangeTags.invalidateRewrite(entityClass);
+        }
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        EntityChangeTags.invalidateRewrite(Hibernate.getClass(entity));
+    }
+}
@@ -0,0 +1,180 @@
+package by.losik.lab6omis.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Реестр поколений тегов инвалидации.
+ * Тегом служит класс сущности: любое изменение сущностей класса увеличивает
+ * его поколение. Кэш результатов запоминает поколения своих тегов на момент
+ * вычисления и считает запись устаревшей, как только хотя бы одно из них изменилось.
+ *
+ * <p>Поколения увеличиваются из {@link EntityChangeListener} (изменения через
+ * EntityManager) и из массовых DML-операций репозиториев, которые обходят
+ * жизненный цикл сущностей.</p>
+ *
+ * <p>Отметки, сделанные внутри транзакции {@link TransactionManager}, откладываются
+ * до ее завершения: иначе пересчет, начатый между отметкой и фиксацией, запомнил бы
+ * новое поколение вместе со старыми данными. После отката отметки тоже публикуются -
+ * лишний пересчет безопасен.</p>
+ *
+ * <p>Отдельно ведется поколение перезаписей - изменений уже существующих строк:
+ * обновлений, удалений, массовых DML-операций и вставок вне {@link #appending}.
+ * По нему структуры, которые сами дополняются новыми строками (например, горячее
+ * окно показаний), понимают, что их содержимое разошлось с базой данных.</p>
+ *
+ * @see EntityChangeListener
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class EntityChangeTags {
+
+    private static final Map<Class<?>, AtomicLong> GENERATIONS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, AtomicLong> REWRITES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Class<?>> APPENDING = new ThreadLocal<>();
+    private static final ThreadLocal<Deferred> DEFERRED = new ThreadLocal<>();
+
+    private EntityChangeTags() {
+    }
+
+    /**
+     * Отмечает изменение сущностей класса.
+     *
+     * @param entityClass класс измененной сущности
+     */
+    public static void invalidate(Class<?> entityClass) {
+        Deferred deferred = DEFERRED.get();
+        if (deferred != null) {
+            deferred.changes.putIfAbsent(entityClass, Boolean.FALSE);
+            return;
+        }
+        GENERATIONS.computeIfAbsent(entityClass, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Отмечает изменение существующих сущностей класса (перезапись).
+     * Увеличивает и поколение тега, и поколение перезаписей.
+     *
+     * @param entityClass класс измененной сущности
+     */
+    public static void invalidateRewrite(Class<?> entityClass) {
+        Deferred deferred = DEFERRED.get();
+        if (deferred != null) {
+            deferred.changes.put(entityClass, Boolean.TRUE);
+            return;
+        }
+        invalidate(entityClass);
+        REWRITES.computeIfAbsent(entityClass, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Начинает откладывать отметки текущего потока. Вызывается в начале транзакции;
+     * вложенные транзакции публикуют отметки вместе с внешней.
+     */
+    static void beginTransaction() {
+        Deferred deferred = DEFERRED.get();
+        if (deferred == null) {
+            deferred = new Deferred();
+            DEFERRED.set(deferred);
+        }
+        deferred.depth++;
+    }
+
+    /**
+     * Публикует отложенные отметки, когда завершается внешняя транзакция потока.
+     * Вызывается после фиксации или отката.
+     */
+    static void endTransaction() {
+        Deferred deferred = DEFERRED.get();
+        if (deferred == null || --deferred.depth > 0) {
+            return;
+        }
+        DEFERRED.remove();
+        deferred.changes.forEach((entityClass, rewrite) -> {
+            if (rewrite) {
+                invalidateRewrite(entityClass);
+            } else {
+                invalidate(entityClass);
+            }
+        });
+    }
+
+    /**
+     * Возвращает текущее поколение перезаписей класса сущности.
+     *
+     * @param entityClass класс сущности
+     * @return поколение перезаписей
+     */
+    public static long rewriteGeneration(Class<?> entityClass) {
+        AtomicLong generation = REWRITES.get(entityClass);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    /**
+     * Выполняет операцию, вставляющую новые сущности класса, которые вызывающий
+     * код сам передаст подписанным на вставки структурам. Вставки этого класса
+     * внутри операции не считаются перезаписью.
+     *
+     * @param <R> тип результата
+     * @param entityClass класс вставляемых сущностей
+     * @param operation операция вставки
+     * @return результат операции
+     */
+    public static <R> R appending(Class<?> entityClass, Supplier<R> operation) {
+        Class<?> previous = APPENDING.get();
+        APPENDING.set(entityClass);
+        try {
+            return operation.get();
+        } finally {
+            if (previous != null) {
+                APPENDING.set(previous);
+            } else {
+                APPENDING.remove();
+            }
+        }
+    }
+
+    /**
+     * @param entityClass класс сущности
+     * @return true если текущий поток выполняет {@link #appending} для этого класса
+     */
+    public static boolean isAppending(Class<?> entityClass) {
+        return APPENDING.get() == entityClass;
+    }
+
+    /**
+     * Возвращает текущее поколение тега.
+     *
+     * @param entityClass класс сущности
+     * @return поколение тега
+     */
+    public static long generation(Class<?> entityClass) {
+        AtomicLong generation = GENERATIONS.get(entityClass);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    /**
+     * Возвращает текущие поколения тегов.
+     *
+     * @param tags классы сущностей
+     * @return поколения в порядке тегов
+     */
+    public static long[] generations(Class<?>[] tags) {
+        long[] result = new long[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            result[i] = generation(tags[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Отметки транзакции потока: класс сущности и признак перезаписи.
+     */
+    private static final class Deferred {
+        private final Map<Class<?>, Boolean> changes = new LinkedHashMap<>();
+        private int depth;
+    }
+}
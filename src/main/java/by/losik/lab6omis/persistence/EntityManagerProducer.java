@@ -34,12 +34,14 @@ public class EntityManagerProducer {
     /**
      * Инициализирует EntityManagerFactory при создании бина.
      * Создает фабрику EntityManager с использованием persistence unit "lab6omisPU".
+     * Конфигурация кэша второго уровня выбирается {@link SecondLevelCacheSettings}.
      *
      * @throws javax.persistence.PersistenceException если не удается создать EntityManagerFactory
      */
     @PostConstruct
     public void init() {
-        emf = Persistence.createEntityManagerFactory("lab6omisPU");
+        emf = Persistence.createEntityManagerFactory("lab6omisPU",
+                SecondLevelCacheSettings.persistenceProperties());
     }
 
     /**
@@ -0,0 +1,145 @@
+package by.losik.lab6omis.persistence;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Настройки уровней кэша второго уровня (Ehcache 3 через JCache).
+ * Размеры уровней и путь дискового хранилища подставляются в ehcache.xml
+ * при построении менеджера кэшей, который передается Hibernate готовым;
+ * для незаданных свойств используются значения по умолчанию, поэтому
+ * приложение запускается без дополнительных параметров на любой ОС.
+ * Системные свойства только читаются.
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #HEAP_ENTRIES} - записей в куче на регион (по умолчанию {@value #DEFAULT_HEAP_ENTRIES})</li>
+ *   <li>{@value #OFFHEAP_MB} - МБ вне кучи на регион (по умолчанию {@value #DEFAULT_OFFHEAP_MB})</li>
+ *   <li>{@value #DISK_ENABLED} - включить постоянный дисковый уровень (по умолчанию false)</li>
+ *   <li>{@value #DISK_MB} - МБ на диске на регион (по умолчанию {@value #DEFAULT_DISK_MB})</li>
+ *   <li>{@value #DISK_PATH} - каталог дискового уровня (по умолчанию java.io.tmpdir/lab6omis-cache)</li>
+ * </ul>
+ * <p>Память вне кучи ограничена {@code -XX:MaxDirectMemorySize}: его значение должно
+ * покрывать {@value #OFFHEAP_MB}, умноженное на число регионов. В ehcache.xml
+ * объявлено 9 регионов с уровнем offheap, то есть по умолчанию нужно 288 МБ;
+ * регионы, созданные по шаблону, добавляют к этому еще по {@value #OFFHEAP_MB}.</p>
+ *
+ * @see EntityManagerProducer
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class SecondLevelCacheSettings {
+
+    public static final String HEAP_ENTRIES = "lab6omis.cache.heap.entries";
+    public static final String OFFHEAP_MB = "lab6omis.cache.offheap.mb";
+    public static final String DISK_ENABLED = "lab6omis.cache.disk.enabled";
+    public static final String DISK_MB = "lab6omis.cache.disk.mb";
+    public static final String DISK_PATH = "lab6omis.cache.disk.path";
+
+    private static final String DEFAULT_HEAP_ENTRIES = "10000";
+    private static final String DEFAULT_OFFHEAP_MB = "32";
+    private static final String DEFAULT_DISK_MB = "256";
+
+    private static final String CACHE_MANAGER = "hibernate.javax.cache.cache_manager";
+    private static final String CONFIG = "ehcache.xml";
+    private static final String PERSISTENT_CONFIG = "ehcache-persistent.xml";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private SecondLevelCacheSettings() {
+    }
+
+    /**
+     * Строит менеджер кэшей по выбранной конфигурации Ehcache и возвращает
+     * настройки persistence unit, передающие его Hibernate.
+     * Менеджер закрывается вместе с фабрикой регионов.
+     *
+     * @return переопределяемые свойства persistence unit
+     */
+    public static Map<String, Object> persistenceProperties() {
+        Map<String, String> values = Map.of(
+                HEAP_ENTRIES, System.getProperty(HEAP_ENTRIES, DEFAULT_HEAP_ENTRIES),
+                OFFHEAP_MB, System.getProperty(OFFHEAP_MB, DEFAULT_OFFHEAP_MB),
+                DISK_MB, System.getProperty(DISK_MB, DEFAULT_DISK_MB),
+                DISK_PATH, System.getProperty(DISK_PATH,
+                        Paths.get(System.getProperty("java.io.tmpdir"), "lab6omis-cache").toString()));
+
+        boolean diskEnabled = Boolean.parseBoolean(System.getProperty(DISK_ENABLED, "false"));
+        return Map.of(CACHE_MANAGER, cacheManager(diskEnabled ? PERSISTENT_CONFIG : CONFIG, values));
+    }
+
+    /**
+     * Читает конфигурацию Ehcache, подставляет значения вместо {@code ${...}}
+     * и создает по ней менеджер кэшей JCache.
+     */
+    private static CacheManager cacheManager(String resource, Map<String, String> values) {
+        ClassLoader loader = SecondLevelCacheSettings.class.getClassLoader();
+        URL url = loader.getResource(resource);
+        if (url == null) {
+            throw new IllegalStateException("Не найдена конфигурация кэша второго уровня: " + resource);
+        }
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            Document document;
+            try (InputStream in = url.openStream()) {
+                document = factory.newDocumentBuilder().parse(in);
+            }
+            substitute(document.getDocumentElement(), values);
+
+            EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                    EhcacheCachingProvider.class.getName(), loader);
+            return provider.getCacheManager(url.toURI(), new XmlConfiguration(document, loader));
+        } catch (IOException | SAXException | ParserConfigurationException | URISyntaxException e) {
+            throw new IllegalStateException("Не удалось прочитать конфигурацию кэша " + resource, e);
+        }
+    }
+
+    private static void substitute(Node node, Map<String, String> values) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            node.setNodeValue(resolve(node.getNodeValue(), values));
+            return;
+        }
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Node attribute = attributes.item(i);
+                attribute.setNodeValue(resolve(attribute.getNodeValue(), values));
+            }
+        }
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            substitute(children.item(i), values);
+        }
+    }
+
+    private static String resolve(String text, Map<String, String> values) {
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String value = values.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalStateException("Неизвестное свойство в конфигурации кэша: " + matcher.group(1));
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+        }
+        return matcher.appendTail(result).toString();
+    }
+}
@@ -0,0 +1,91 @@
+package by.losik.lab6omis.persistence;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сервис водяных знаков (watermark) таблиц.
+ * Возвращает компактное строковое представление состояния таблиц, которое меняется
+ * при любой вставке, обновлении или удалении строк. Используется для построения
+ * ETag без выполнения самих (дорогих) запросов статистики.
+ *
+ * <p>Водяной знак таблицы - сумма счетчиков {@code lab6omis.table_changes}, которые
+ * увеличивает триггер {@code count_table_change} из omis6.sql после каждой
+ * DML-операции (в том числе массовой и {@code TRUNCATE}). Счетчик меняется в той же
+ * транзакции, что и данные: новый водяной знак виден ровно тогда же, когда и изменение,
+ * поэтому ETag не может остаться прежним при измененных данных.</p>
+ *
+ * @see TransactionManager
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TableWatermarkService {
+
+    private static final String CHANGES_QUERY =
+            "SELECT table_name, SUM(changes) FROM lab6omis.table_changes " +
+            "WHERE table_name IN (:tables) GROUP BY table_name";
+
+    @Inject
+    private TransactionManager txManager;
+
+    private final Map<Class<?>, String> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает водяной знак для таблиц указанных сущностей.
+     * Все таблицы опрашиваются одним запросом.
+     *
+     * @param entityClasses классы сущностей, таблицы которых нужно учесть
+     * @return строка, меняющаяся при любом изменении данных в таблицах
+     * @throws PersistenceException если запрос завершился с ошибкой
+     */
+    public String getWatermark(Collection<Class<?>> entityClasses) {
+        List<String> names = new ArrayList<>(entityClasses.size());
+        for (Class<?> entityClass : entityClasses) {
+            names.add(tableFor(entityClass));
+        }
+
+        Map<String, Object> changes = txManager.executeQuery(em -> {
+            Map<String, Object> result = new HashMap<>();
+            for (Object row : em.createNativeQuery(CHANGES_QUERY)
+                    .setParameter("tables", names)
+                    .getResultList()) {
+                Object[] columns = (Object[]) row;
+                result.put((String) columns[0], columns[1]);
+            }
+            return result;
+        });
+
+        StringBuilder watermark = new StringBuilder();
+        for (Class<?> entityClass : entityClasses) {
+            watermark.append(entityClass.getSimpleName())
+                    .append('@').append(changes.getOrDefault(tableFor(entityClass), 0))
+                    .append(';');
+        }
+        return watermark.toString();
+    }
+
+    /**
+     * Возвращает (и кэширует) имя таблицы сущности.
+     *
+     * @param entityClass класс сущности
+     * @return имя таблицы, как его передает триггеру {@code TG_TABLE_NAME}
+     */
+    private String tableFor(Class<?> entityClass) {
+        return tables.computeIfAbsent(entityClass, cls -> {
+            Table table = cls.getAnnotation(Table.class);
+            if (table == null) {
+                throw new PersistenceException("Не указана таблица для сущности " + cls.getName());
+            }
+            return table.name();
+        });
+    }
+}
@@ -1,13 +1,18 @@
 package by.losik.lab6omis.persistence;
 
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import org.hibernate.Session;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
 import javax.persistence.PersistenceException;
+import java.sql.Statement;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Менеджер транзакций для управления операциями с базой данных.
@@ -18,8 +23,10 @@ import java.util.function.Function;
  * <ul>
  *   <li>Выполнение запросов к базе данных</li>
  *   <li>Управление транзакциями с автоматическим commit/rollback</li>
+ *   <li>Публикация отметок {@link EntityChangeTags} после завершения транзакции</li>
  *   <li>Проверка существования сущностей</li>
  *   <li>Автоматическое управление ресурсами EntityManager</li>
+ *   <li>Учет длительности операций в {@link MetricsRegistry#transactions()}</li>
  * </ul>
  *
  * @see EntityManager
@@ -29,9 +36,15 @@ import java.util.function.Function;
 @ApplicationScoped
 public class TransactionManager {
 
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
     @Inject
     private EntityManagerFactory emf;
 
+    @Inject
+    private MetricsRegistry metrics;
+
     /**
      * Выполняет операцию чтения (запрос) без транзакции.
      * Создает новый EntityManager, выполняет операцию и автоматически закрывает его.
@@ -43,11 +56,70 @@ public class TransactionManager {
      * @throws PersistenceException если операция завершилась с ошибкой
      */
     public <R> R executeQuery(Function<EntityManager, R> operation) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
         EntityManager em = emf.createEntityManager();
         try {
-            return operation.apply(em);
+            R result = operation.apply(em);
+            outcome = OUTCOME_SUCCESS;
+            return result;
         } catch (Exception e) {
             throw new PersistenceException("Query failed", e);
+        } finally {
+            if (em != null && em.isOpen()) {
+                em.close();
+            }
+            record("query", start, outcome);
+        }
+    }
+
+    /**
+     * Выполняет потоковый запрос чтения.
+     * В отличие от {@link #executeQuery(Function)}, EntityManager и транзакция остаются
+     * открытыми до закрытия возвращаемого потока: PostgreSQL отдает строки серверным
+     * курсором только внутри транзакции, поэтому результат читается порциями
+     * по мере потребления, а не материализуется списком целиком.
+     * Транзакция только читающая и при закрытии потока откатывается.
+     * Вызывающий код обязан закрыть поток (например, через try-with-resources).
+     *
+     * @param <R> тип элементов потока
+     * @param operation функция, возвращающая поток результатов запроса
+     * @return поток результатов, освобождающий ресурсы при своем закрытии
+     * @throws PersistenceException если запрос не удалось открыть
+     */
+    public <R> Stream<R> streamQuery(Function<EntityManager, Stream<R>> operation) {
+        long start = System.nanoTime();
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = null;
+
+        try {
+            tx = em.getTransaction();
+            tx.begin();
+
+            EntityTransaction activeTx = tx;
+            return operation.apply(em).onClose(() -> {
+                rollbackAndClose(em, activeTx);
+                record("stream", start, OUTCOME_SUCCESS);
+            });
+
+        } catch (Exception e) {
+            rollbackAndClose(em, tx);
+            record("stream", start, OUTCOME_ERROR);
+            throw new PersistenceException("Stream query failed", e);
+        }
+    }
+
+    /**
+     * Откатывает читающую транзакцию и закрывает EntityManager.
+     *
+     * @param em EntityManager читающей операции
+     * @param tx транзакция читающей операции (может быть null)
+     */
+    private void rollbackAndClose(EntityManager em, EntityTransaction tx) {
+        try {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
         } finally {
             if (em != null && em.isOpen()) {
                 em.close();
@@ -67,9 +139,12 @@ public class TransactionManager {
      * @throws PersistenceException если операция завершилась с ошибкой
      */
     public <R> R executeInTransaction(Function<EntityManager, R> operation) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
         EntityManager em = emf.createEntityManager();
         EntityTransaction tx = null;
 
+        EntityChangeTags.beginTransaction();
         try {
             tx = em.getTransaction();
             tx.begin();
@@ -77,6 +152,7 @@ public class TransactionManager {
             R result = operation.apply(em);
 
             tx.commit();
+            outcome = OUTCOME_SUCCESS;
             return result;
 
         } catch (Exception e) {
@@ -88,6 +164,8 @@ public class TransactionManager {
             if (em != null && em.isOpen()) {
                 em.close();
             }
+            EntityChangeTags.endTransaction();
+            record("transaction", start, outcome);
         }
     }
 
@@ -101,9 +179,12 @@ public class TransactionManager {
      * @throws PersistenceException если операция завершилась с ошибкой
      */
     public void executeInTransaction(Consumer<EntityManager> operation) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
         EntityManager em = emf.createEntityManager();
         EntityTransaction tx = null;
 
+        EntityChangeTags.beginTransaction();
         try {
             tx = em.getTransaction();
             tx.begin();
@@ -111,6 +192,7 @@ public class TransactionManager {
             operation.accept(em);
 
             tx.commit();
+            outcome = OUTCOME_SUCCESS;
 
         } catch (Exception e) {
             if (tx != null && tx.isActive()) {
@@ -121,9 +203,60 @@ public class TransactionManager {
             if (em != null && em.isOpen()) {
                 em.close();
             }
+            EntityChangeTags.endTransaction();
+            record("transaction", start, outcome);
+        }
+    }
+
+    /**
+     * Выполняет читающую операцию в согласованном снимке данных.
+     * Все запросы операции выполняются в одной транзакции уровня REPEATABLE READ
+     * только для чтения, поэтому видят одно и то же состояние базы данных
+     * независимо от параллельных изменений. По завершении транзакция откатывается.
+     *
+     * @param <R> тип возвращаемого значения
+     * @param operation функция, содержащая запросы к базе данных
+     * @return результат выполнения операции
+     * @throws PersistenceException если операция завершилась с ошибкой
+     */
+    public <R> R executeInSnapshot(Function<EntityManager, R> operation) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = null;
+
+        try {
+            tx = em.getTransaction();
+            tx.begin();
+            em.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ READ ONLY");
+                }
+            });
+
+            R result = operation.apply(em);
+            outcome = OUTCOME_SUCCESS;
+            return result;
+
+        } catch (Exception e) {
+            throw new PersistenceException("Snapshot query failed", e);
+        } finally {
+            rollbackAndClose(em, tx);
+            record("snapshot", start, outcome);
         }
     }
 
+    /**
+     * Записывает длительность операции в метрики.
+     *
+     * @param kind вид операции (query, stream, transaction, snapshot)
+     * @param start значение {@link System#nanoTime()} в начале операции
+     * @param outcome исход операции
+     */
+    private void record(String kind, long start, String outcome) {
+        metrics.transactions().labels(kind, outcome).recordSince(start);
+    }
+
     /**
      * Проверяет существование сущности в базе данных по её идентификатору.
      * Выполняет запрос без транзакции для проверки наличия сущности.
@@ -0,0 +1,35 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Поставщик соединений Hibernate, выдающий инструментированные соединения.
+ * Пул и настройки ({@code hibernate.connection.*}) остаются прежними;
+ * при {@value JdbcInstrumentation#ENABLED}=true выдаваемые соединения оборачиваются
+ * прокси, измеряющим операторы, а при возврате в пул прокси снимается.
+ * Без этого свойства соединения пула выдаются как есть.
+ *
+ * <p>Подключается свойством {@code hibernate.connection.provider_class} в persistence.xml.</p>
+ *
+ * @see JdbcRequestLog
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class InstrumentedConnectionProvider extends DriverManagerConnectionProviderImpl {
+
+    private final boolean enabled = JdbcInstrumentation.isEnabled();
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return enabled ? JdbcProxies.wrap(connection) : connection;
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        super.closeConnection(JdbcProxies.unwrap(connection));
+    }
+}
@@ -0,0 +1,88 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+/**
+ * Точка подключения слушателя JDBC-операторов и общие настройки инструментирования.
+ * Прокси соединений создаются Hibernate вне контекста CDI, поэтому слушатель
+ * регистрируется статически (см. {@link JdbcMetrics}).
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - оборачивать соединения JDBC-прокси (по умолчанию false:
+ *   прокси вызываются через отражение на каждый вызов соединения, оператора
+ *   и результирующего набора, поэтому включаются только для поиска N+1 и проверки бюджетов)</li>
+ *   <li>{@value #N_PLUS_ONE_THRESHOLD} - число повторов одной формы SELECT в запросе,
+ *   начиная с которого она считается N+1 (по умолчанию 5)</li>
+ *   <li>{@value #STRICT} - при превышении {@code @StatementBudget} завершать запрос
+ *   ошибкой вместо записи в журнал (режим тестов, по умолчанию false)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class JdbcInstrumentation {
+
+    public static final String ENABLED = "lab6omis.jdbc.instrumentation.enabled";
+    public static final String N_PLUS_ONE_THRESHOLD = "lab6omis.jdbc.n-plus-one.threshold";
+    public static final String STRICT = "lab6omis.jdbc.strict";
+
+    /**
+     * Слушатель выполненных операторов.
+     */
+    @FunctionalInterface
+    public interface StatementListener {
+
+        /**
+         * Вызывается после выполнения оператора в потоке, выполнившем оператор.
+         *
+         * @param kind вид оператора (query, update, batch, execute)
+         * @param nanos длительность в наносекундах
+         */
+        void onStatement(String kind, long nanos);
+    }
+
+    private static volatile StatementListener listener;
+
+    private JdbcInstrumentation() {
+    }
+
+    /**
+     * Регистрирует слушателя операторов (заменяет предыдущего).
+     *
+     * @param statementListener слушатель или null
+     */
+    public static void setListener(StatementListener statementListener) {
+        listener = statementListener;
+    }
+
+    /**
+     * @return true если соединения оборачиваются инструментирующими прокси
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED);
+    }
+
+    /**
+     * @return порог обнаружения N+1
+     */
+    public static int getNPlusOneThreshold() {
+        return Integer.getInteger(N_PLUS_ONE_THRESHOLD, 5);
+    }
+
+    /**
+     * @return true если превышение бюджета операторов должно завершать запрос ошибкой
+     */
+    public static boolean isStrict() {
+        return Boolean.getBoolean(STRICT);
+    }
+
+    static void statementExecuted(String sql, String kind, long nanos, long rows) {
+        JdbcRequestLog log = JdbcRequestLog.current();
+        if (log != null) {
+            log.record(sql, nanos, rows);
+        }
+        StatementListener current = listener;
+        if (current != null) {
+            current.onStatement(kind, nanos);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.Map;
+
+/**
+ * Метрики JDBC-операторов и итоги журналов запросов.
+ * При старте регистрируется слушателем {@link JdbcInstrumentation} и записывает
+ * длительность каждого оператора; по завершении HTTP-запроса
+ * ({@link #complete(JdbcRequestLog)}) учитывает число операторов, строк и время
+ * на эндпоинт, сообщает о формах запросов, повторенных N+1 раз, и проверяет
+ * бюджет операторов эндпоинта.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class JdbcMetrics {
+
+    public static final String STATEMENTS = "lab6omis_jdbc_statement_seconds";
+    public static final String REQUEST_TIME = "lab6omis_jdbc_request_seconds";
+    public static final String REQUEST_STATEMENTS = "lab6omis_jdbc_request_statements";
+    public static final String REQUEST_ROWS = "lab6omis_jdbc_request_rows";
+    public static final String N_PLUS_ONE = "lab6omis_jdbc_n_plus_one";
+    public static final String BUDGET_VIOLATIONS = "lab6omis_jdbc_budget_violations";
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcMetrics.class);
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    /**
+     * Подключает слушателя операторов при старте приложения.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        JdbcInstrumentation.setListener(this::onStatement);
+    }
+
+    /**
+     * Отключает слушателя операторов.
+     */
+    @PreDestroy
+    public void shutdown() {
+        JdbcInstrumentation.setListener(null);
+    }
+
+    private void onStatement(String kind, long nanos) {
+        metrics.summary(STATEMENTS, "Длительность SQL-операторов", "kind").labels(kind).record(nanos);
+    }
+
+    /**
+     * Учитывает итоги журнала завершенного запроса.
+     *
+     * @param log журнал запроса
+     * @throws StatementBudgetExceededException если превышен бюджет эндпоинта в строгом режиме
+     */
+    public void complete(JdbcRequestLog log) {
+        if (log.getStatementCount() == 0) {
+            return;
+        }
+        String endpoint = log.getEndpoint();
+        metrics.summary(REQUEST_TIME, "Суммарное время SQL-операторов запроса", "endpoint")
+                .labels(endpoint).record(log.getTotalNanos());
+        metrics.counter(REQUEST_STATEMENTS, "SQL-операторы по эндпоинтам", "endpoint")
+                .labels(endpoint).add(log.getStatementCount());
+        metrics.counter(REQUEST_ROWS, "Строки, прочитанные и измененные по эндпоинтам", "endpoint")
+                .labels(endpoint).add(log.getRowCount());
+        LOG.debug("{}: {} SQL-операторов, {} строк, {} мкс", endpoint,
+                log.getStatementCount(), log.getRowCount(), log.getTotalNanos() / 1000);
+
+        Map<String, Integer> repeated = log.getRepeatedShapes(JdbcInstrumentation.getNPlusOneThreshold());
+        if (!repeated.isEmpty()) {
+            metrics.counter(N_PLUS_ONE, "Запросы с повторяющимися формами SELECT (N+1)", "endpoint")
+                    .labels(endpoint).increment();
+            repeated.forEach((shape, count) ->
+                    LOG.warn("N+1 в {}: запрос выполнен {} раз: {}", endpoint, count, shape));
+        }
+
+        if (log.getBudget() >= 0 && log.getStatementCount() > log.getBudget()) {
+            metrics.counter(BUDGET_VIOLATIONS, "Превышения бюджета SQL-операторов", "endpoint")
+                    .labels(endpoint).increment();
+            if (JdbcInstrumentation.isStrict()) {
+                throw new StatementBudgetExceededException(String.format(
+                        "%s: выполнено %d SQL-операторов при бюджете %d; повторы: %s",
+                        endpoint, log.getStatementCount(), log.getBudget(), log.getRepeatedShapes(2)));
+            }
+            LOG.error("{}: выполнено {} SQL-операторов при бюджете {}",
+                    endpoint, log.getStatementCount(), log.getBudget());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Динамические прокси JDBC, измеряющие выполнение операторов.
+ * Прокси соединения оборачивает создаваемые операторы; прокси оператора
+ * измеряет {@code execute*} и оборачивает результирующие наборы, которые
+ * считают прочитанные строки. Остальные вызовы передаются без изменений.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class JdbcProxies {
+
+    private static final ClassLoader LOADER = JdbcProxies.class.getClassLoader();
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of(
+            "createStatement", "prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private JdbcProxies() {
+    }
+
+    /**
+     * Оборачивает соединение.
+     *
+     * @param connection соединение драйвера
+     * @return инструментированное соединение
+     */
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * Возвращает исходное соединение драйвера.
+     *
+     * @param connection соединение (инструментированное или нет)
+     * @return соединение драйвера
+     */
+    static Connection unwrap(Connection connection) {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler) {
+            return ((ConnectionHandler) Proxy.getInvocationHandler(connection)).target;
+        }
+        return connection;
+    }
+
+    /**
+     * Вызывает метод исходного объекта. Сравнение и хеш-код вычисляются по
+     * самому прокси: Hibernate хранит операторы и наборы в хеш-таблицах.
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcProxies.invoke(proxy, target, method, args);
+            if (result instanceof Statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(LOADER, new Class<?>[]{type},
+                        new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!EXECUTE_METHODS.contains(name)) {
+                if ("addBatch".equals(name) && args != null && args.length == 1) {
+                    batchSql = (String) args[0];
+                }
+                Object result = JdbcProxies.invoke(proxy, target, method, args);
+                return "getResultSet".equals(name) && result != null ? wrapResultSet((ResultSet) result) : result;
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String
+                    ? (String) args[0] : preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            Object result = JdbcProxies.invoke(proxy, target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            JdbcInstrumentation.statementExecuted(sql, kind(name), elapsed, affectedRows(result));
+            return result instanceof ResultSet ? wrapResultSet((ResultSet) result) : result;
+        }
+
+        private static String kind(String method) {
+            if (method.equals("executeQuery")) {
+                return "query";
+            }
+            if (method.endsWith("Batch")) {
+                return "batch";
+            }
+            return method.endsWith("Update") ? "update" : "execute";
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Number) {
+                return Math.max(0L, ((Number) result).longValue());
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(0L, count);
+                }
+            }
+            return rows;
+        }
+
+        private static ResultSet wrapResultSet(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(LOADER, new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+
+        ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcProxies.invoke(proxy, target, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                JdbcRequestLog log = JdbcRequestLog.current();
+                if (log != null) {
+                    log.addRows(1);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Журнал JDBC-операций одного HTTP-запроса (или другой единицы работы).
+ * Журнал привязывается к текущему потоку методом {@link #begin(String)}
+ * и собирает число выполненных операторов, их суммарное время, число
+ * прочитанных или измененных строк и счетчики по формам запросов.
+ * Операторы попадают в журнал, только если включено инструментирование
+ * ({@value JdbcInstrumentation#ENABLED}).
+ *
+ * <p>Экземпляр не потокобезопасен: операторы, выполненные в других потоках
+ * (фоновые задачи, пул соединений), в журнал текущего потока не попадают.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class JdbcRequestLog implements AutoCloseable {
+
+    private static final ThreadLocal<JdbcRequestLog> CURRENT = new ThreadLocal<>();
+
+    private final JdbcRequestLog previous;
+    private final Map<String, int[]> selectShapes = new LinkedHashMap<>();
+    private String endpoint;
+    private int budget = -1;
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private JdbcRequestLog(String endpoint, JdbcRequestLog previous) {
+        this.endpoint = endpoint;
+        this.previous = previous;
+    }
+
+    /**
+     * Начинает новый журнал и привязывает его к текущему потоку.
+     * Предыдущий журнал потока восстанавливается при закрытии нового.
+     *
+     * @param endpoint имя единицы работы (например, метод ресурса)
+     * @return открытый журнал
+     */
+    public static JdbcRequestLog begin(String endpoint) {
+        JdbcRequestLog log = new JdbcRequestLog(endpoint, CURRENT.get());
+        CURRENT.set(log);
+        return log;
+    }
+
+    /**
+     * Возвращает журнал текущего потока.
+     *
+     * @return журнал или null, если журнал не открыт
+     */
+    public static JdbcRequestLog current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Отвязывает журнал от потока и восстанавливает предыдущий.
+     */
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    void record(String sql, long elapsedNanos, long affectedRows) {
+        statements++;
+        nanos += elapsedNanos;
+        rows += affectedRows;
+        String shape = SqlShapes.shape(sql);
+        if (SqlShapes.isSelect(shape)) {
+            selectShapes.computeIfAbsent(shape, key -> new int[1])[0]++;
+        }
+    }
+
+    void addRows(long count) {
+        rows += count;
+    }
+
+    /**
+     * @return имя единицы работы
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Задает имя единицы работы (например, после сопоставления метода ресурса).
+     *
+     * @param endpoint имя единицы работы
+     */
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return допустимое число операторов или -1, если ограничение не задано
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Задает допустимое число операторов для единицы работы.
+     *
+     * @param budget допустимое число операторов (-1 - без ограничения)
+     */
+    public void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return число выполненных операторов (пакет считается одним оператором)
+     */
+    public int getStatementCount() {
+        return statements;
+    }
+
+    /**
+     * @return число прочитанных и измененных строк
+     */
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return суммарное время выполнения операторов в наносекундах
+     */
+    public long getTotalNanos() {
+        return nanos;
+    }
+
+    /**
+     * Возвращает формы SELECT-запросов, выполненные не менее {@code threshold} раз.
+     *
+     * @param threshold минимальное число повторений
+     * @return число выполнений по формам запросов
+     */
+    public Map<String, Integer> getRepeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selectShapes.forEach((shape, count) -> {
+            if (count[0] >= threshold) {
+                repeated.put(shape, count[0]);
+            }
+        });
+        return Collections.unmodifiableMap(repeated);
+    }
+}
@@ -0,0 +1,69 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Приведение SQL к "форме" запроса: комментарии удаляются, пробелы схлопываются,
+ * литералы и списки параметров IN заменяются одним {@code ?}.
+ * Запросы одной формы отличаются только значениями параметров, поэтому
+ * многократное повторение одной формы в рамках запроса - признак N+1.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class SqlShapes {
+
+    private static final int CACHE_LIMIT = 4096;
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    private SqlShapes() {
+    }
+
+    /**
+     * Возвращает форму запроса. Результат кэшируется: Hibernate повторно
+     * использует одни и те же строки SQL с параметрами {@code ?}.
+     *
+     * @param sql текст запроса
+     * @return форма запроса
+     */
+    static String shape(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = SHAPES.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (SHAPES.size() < CACHE_LIMIT) {
+                SHAPES.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Проверяет, является ли форма читающим запросом.
+     *
+     * @param shape форма запроса
+     * @return true для SELECT
+     */
+    static boolean isSelect(String shape) {
+        return shape.regionMatches(true, 0, "select", 0, 6);
+    }
+
+    private static String normalize(String sql) {
+        String shape = COMMENT.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,20 @@
+package by.losik.lab6omis.persistence.jdbc;
+
+/**
+ * Исключение, выбрасываемое в строгом режиме ({@value JdbcInstrumentation#STRICT})
+ * при превышении допустимого числа SQL-операторов эндпоинта.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public class StatementBudgetExceededException extends IllegalStateException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message описание нарушения
+     */
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package by.losik.lab6omis.provider;
+
+import com.fasterxml.jackson.jaxrs.cbor.CBORMediaTypes;
+import com.fasterxml.jackson.jaxrs.smile.SmileMediaTypes;
+
+/**
+ * Бинарные типы содержимого REST API.
+ * Клиенты с большими объемами данных (агенты сбора показаний, аналитические задания)
+ * могут обмениваться теми же документами, что и в JSON, в формате CBOR или Smile,
+ * указав нужный тип в заголовках {@code Accept} и {@code Content-Type}.
+ * JSON остается типом по умолчанию.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class BinaryMediaTypes {
+
+    /**
+     * Concise Binary Object Representation (RFC 8949).
+     */
+    public static final String APPLICATION_CBOR = CBORMediaTypes.APPLICATION_JACKSON_CBOR;
+
+    /**
+     * Бинарный формат Smile, совместимый с моделью данных JSON.
+     */
+    public static final String APPLICATION_SMILE = SmileMediaTypes.APPLICATION_JACKSON_SMILE;
+
+    private BinaryMediaTypes() {
+    }
+}
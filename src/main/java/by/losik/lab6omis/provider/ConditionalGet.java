@@ -0,0 +1,46 @@
+package by.losik.lab6omis.provider;
+
+import javax.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает GET-эндпоинт как поддерживающий условные запросы.
+ * Для помеченных методов {@link ConditionalGetFilter} вычисляет слабый ETag
+ * по водяным знакам таблиц и отвечает 304 Not Modified на совпадающий
+ * {@code If-None-Match}, не вызывая сам метод ресурса.
+ *
+ * <p>Если список сущностей пуст, используется сущность ресурса
+ * (первый параметр типа {@link by.losik.lab6omis.resource.base.BaseResource}).</p>
+ *
+ * <p>ETag не учитывает текущее время, поэтому аннотация не ставится на эндпоинты,
+ * ответ которых зависит от него (период "за последние N дней", отметка времени
+ * в ответе). Если зависимость есть только без некоторых параметров запроса,
+ * они перечисляются в {@link #requires()}.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ConditionalGet {
+
+    /**
+     * Сущности, от таблиц которых зависит ответ.
+     *
+     * @return классы сущностей
+     */
+    Class<?>[] value() default {};
+
+    /**
+     * Параметры запроса, без которых ответ зависит от текущего времени
+     * (например, конец периода по умолчанию - текущий момент). Если хотя бы
+     * одного нет, запрос обрабатывается без ETag.
+     *
+     * @return имена параметров запроса
+     */
+    String[] requires() default {};
+}
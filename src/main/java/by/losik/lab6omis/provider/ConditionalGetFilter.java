@@ -0,0 +1,185 @@
+package by.losik.lab6omis.provider;
+
+import by.losik.lab6omis.persistence.TableWatermarkService;
+import by.losik.lab6omis.resource.base.BaseResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Фильтр условных GET-запросов для эндпоинтов, помеченных {@link ConditionalGet}.
+ * До вызова метода ресурса вычисляет слабый ETag по водяным знакам таблиц
+ * ({@link TableWatermarkService}), адресу запроса и заголовку Accept. При совпадении
+ * с {@code If-None-Match} запрос прерывается ответом 304 без выполнения запросов к данным;
+ * иначе ETag добавляется к успешному ответу.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Provider
+@ConditionalGet
+@Priority(Priorities.HEADER_DECORATOR)
+public class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConditionalGetFilter.class);
+    private static final String ETAG_PROPERTY = ConditionalGetFilter.class.getName() + ".etag";
+
+    private static final CacheControl REVALIDATE = new CacheControl();
+
+    static {
+        REVALIDATE.setNoCache(true);
+        REVALIDATE.setNoTransform(false);
+    }
+
+    private final Map<Method, List<Class<?>>> entitiesByMethod = new ConcurrentHashMap<>();
+    private final Map<Method, List<String>> requiredByMethod = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Inject
+    private TableWatermarkService watermarkService;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return;
+        }
+
+        List<Class<?>> entities = entitiesByMethod.computeIfAbsent(
+                resourceInfo.getResourceMethod(), m -> resolveEntities());
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<String> required = requiredByMethod.computeIfAbsent(
+                resourceInfo.getResourceMethod(), m -> List.of(annotation().requires()));
+        MultivaluedMap<String, String> parameters = request.getUriInfo().getQueryParameters();
+        for (String parameter : required) {
+            if (!parameters.containsKey(parameter)) {
+                return;
+            }
+        }
+
+        String watermark = watermarkService.getWatermark(entities);
+        EntityTag tag = new EntityTag(digest(
+                request.getUriInfo().getRequestUri().getRawPath(),
+                request.getUriInfo().getRequestUri().getRawQuery(),
+                request.getHeaderString(HttpHeaders.ACCEPT),
+                watermark), true);
+
+        Response.ResponseBuilder notModified = request.getRequest().evaluatePreconditions(tag);
+        if (notModified != null) {
+            LOG.debug("Данные не изменились, ответ 304: {}", request.getUriInfo().getPath());
+            request.abortWith(notModified.tag(tag).cacheControl(REVALIDATE).build());
+            return;
+        }
+
+        request.setProperty(ETAG_PROPERTY, tag);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object tag = request.getProperty(ETAG_PROPERTY);
+        if (tag != null && response.getStatus() == Response.Status.OK.getStatusCode()) {
+            response.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+            response.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        }
+    }
+
+    /**
+     * Определяет сущности, от которых зависит ответ текущего метода ресурса.
+     *
+     * @return список классов сущностей (пустой, если определить не удалось)
+     */
+    private List<Class<?>> resolveEntities() {
+        ConditionalGet annotation = annotation();
+        if (annotation.value().length > 0) {
+            return List.of(annotation.value());
+        }
+
+        Class<?> resourceEntity = resolveResourceEntity(resourceInfo.getResourceClass());
+        return resourceEntity != null ? List.of(resourceEntity) : List.of();
+    }
+
+    /**
+     * @return аннотация метода ресурса или, если ее нет, класса ресурса
+     */
+    private ConditionalGet annotation() {
+        ConditionalGet annotation = resourceInfo.getResourceMethod().getAnnotation(ConditionalGet.class);
+        return annotation != null ? annotation : resourceInfo.getResourceClass().getAnnotation(ConditionalGet.class);
+    }
+
+    /**
+     * Определяет тип сущности ресурса-наследника {@link BaseResource}.
+     *
+     * @param resourceClass класс ресурса
+     * @return класс сущности или null
+     */
+    private Class<?> resolveResourceEntity(Class<?> resourceClass) {
+        Class<?> current = resourceClass;
+        while (current != null && current != Object.class) {
+            Type superclass = current.getGenericSuperclass();
+            if (superclass instanceof ParameterizedType
+                    && ((ParameterizedType) superclass).getRawType() == BaseResource.class) {
+                Type entityType = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+                return entityType instanceof Class ? (Class<?>) entityType : null;
+            }
+            current = current.getSuperclass();
+        }
+        return null;
+    }
+
+    /**
+     * Вычисляет значение ETag по составляющим представления.
+     *
+     * @param parts составляющие (null допускаются)
+     * @return шестнадцатеричный SHA-256
+     */
+    private static String digest(String... parts) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                if (part != null) {
+                    sha.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                sha.update((byte) 0);
+            }
+            byte[] hash = Arrays.copyOf(sha.digest(), 16);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
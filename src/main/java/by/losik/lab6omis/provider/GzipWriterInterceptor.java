@@ -0,0 +1,221 @@
+package by.losik.lab6omis.provider;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие ответов REST API в gzip.
+ * Сжимает тело ответа, если клиент указал gzip в {@code Accept-Encoding}
+ * и размер тела превышает порог {@link #THRESHOLD_PROPERTY}. Пока порог не достигнут,
+ * вывод накапливается в буфере, поэтому решение принимается до отправки заголовков
+ * и подходит для потоковых ответов неизвестной длины.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class GzipWriterInterceptor implements WriterInterceptor {
+
+    /**
+     * Свойство приложения с порогом сжатия в байтах.
+     */
+    public static final String THRESHOLD_PROPERTY = "lab6omis.compression.threshold";
+
+    private static final int DEFAULT_THRESHOLD = 1024;
+    private static final String GZIP = "gzip";
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Context
+    private Configuration configuration;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || isEventStream(context) || !acceptsGzip()) {
+            context.proceed();
+            return;
+        }
+
+        ThresholdGzipOutputStream out =
+                new ThresholdGzipOutputStream(context.getOutputStream(), getThreshold(), headers);
+        context.setOutputStream(out);
+        context.proceed();
+        out.finish();
+    }
+
+    /**
+     * Проверяет, относится ли запись к потоку Server-Sent Events.
+     * События отправляются по одному и должны доходить до клиента сразу,
+     * поэтому такой поток не буферизуется и не сжимается.
+     *
+     * @param context контекст записи
+     * @return true для text/event-stream
+     */
+    private boolean isEventStream(WriterInterceptorContext context) {
+        return context.getMediaType() != null
+                && MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(context.getMediaType());
+    }
+
+    /**
+     * Проверяет, принимает ли клиент ответ в gzip.
+     *
+     * @return true если gzip указан в Accept-Encoding без q=0
+     */
+    private boolean acceptsGzip() {
+        String acceptEncoding = requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String token : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!GZIP.equals(parts[0].trim()) && !"*".equals(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && isZeroQuality(param.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, запрещает ли параметр качества кодировку (q=0).
+     *
+     * @param quality значение параметра q
+     * @return true если значение равно нулю
+     */
+    private boolean isZeroQuality(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает порог сжатия из свойств приложения.
+     *
+     * @return порог в байтах
+     */
+    private int getThreshold() {
+        Object value = configuration.getProperty(THRESHOLD_PROPERTY);
+        if (value == null) {
+            return DEFAULT_THRESHOLD;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+    }
+
+    /**
+     * Поток, переключающийся на gzip после накопления порогового объема данных.
+     * До переключения заголовки ответа еще не отправлены, поэтому
+     * {@code Content-Encoding} выставляется в момент переключения.
+     */
+    private static final class ThresholdGzipOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private final byte[] pending;
+        /** Буфер одного байта для gzip: DeflaterOutputStream выделяет его на каждый вызов. */
+        private final byte[] single = new byte[1];
+        private int pendingSize;
+        private GZIPOutputStream gzip;
+        private boolean finished;
+
+        ThresholdGzipOutputStream(OutputStream target, int threshold, MultivaluedMap<String, Object> headers) {
+            this.target = target;
+            this.headers = headers;
+            this.pending = new byte[Math.max(threshold, 1)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (gzip == null && pendingSize < pending.length) {
+                pending[pendingSize++] = (byte) b;
+                return;
+            }
+            if (gzip == null) {
+                startGzip();
+            }
+            single[0] = (byte) b;
+            gzip.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (gzip != null) {
+                gzip.write(bytes, offset, length);
+                return;
+            }
+            if (length <= pending.length - pendingSize) {
+                System.arraycopy(bytes, offset, pending, pendingSize, length);
+                pendingSize += length;
+                return;
+            }
+
+            startGzip();
+            gzip.write(bytes, offset, length);
+        }
+
+        /**
+         * Переключает поток на gzip и сжимает накопленный буфер.
+         */
+        private void startGzip() throws IOException {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            gzip = new GZIPOutputStream(target, 8192);
+            gzip.write(pending, 0, pendingSize);
+            pendingSize = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (gzip != null) {
+                gzip.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        /**
+         * Завершает запись: дописывает gzip-трейлер или сбрасывает несжатый буфер.
+         *
+         * @throws IOException если происходит ошибка записи
+         */
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (gzip != null) {
+                gzip.finish();
+            } else if (pendingSize > 0) {
+                target.write(pending, 0, pendingSize);
+            }
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package by.losik.lab6omis.provider;
+
+import by.losik.lab6omis.metrics.LatencyHistogram;
+import by.losik.lab6omis.metrics.MetricFamily;
+import by.losik.lab6omis.metrics.MetricsRegistry;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Фильтр, измеряющий длительность HTTP-запросов.
+ * Время фиксируется до вызова метода ресурса и после формирования ответа;
+ * измерение записывается в {@link MetricsRegistry#httpRequests()} с метками
+ * HTTP-метода, метода ресурса ({@code Класс.метод}) и кода ответа.
+ * Запросы, не сопоставленные ни одному ресурсу, учитываются с меткой {@code unmatched}.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class HttpMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_PROPERTY = HttpMetricsFilter.class.getName() + ".start";
+    private static final String UNMATCHED = "unmatched";
+
+    private final Map<Method, String> resourceNames = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object start = request.getProperty(START_PROPERTY);
+        if (!(start instanceof Long)) {
+            return;
+        }
+
+        Method method = resourceInfo.getResourceMethod();
+        String resource = method == null ? UNMATCHED : resourceNames.computeIfAbsent(method,
+                m -> resourceInfo.getResourceClass().getSimpleName() + "." + m.getName());
+
+        MetricFamily<LatencyHistogram> family = metrics.httpRequests();
+        family.labels(request.getMethod(), resource, Integer.toString(response.getStatus()))
+                .recordSince((Long) start);
+    }
+}
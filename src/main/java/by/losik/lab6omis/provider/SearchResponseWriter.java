@@ -0,0 +1,196 @@
+package by.losik.lab6omis.provider;
+
+import by.losik.lab6omis.dto.SearchResponse;
+import by.losik.lab6omis.dto.StreamingSearchResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Потоковый сериализатор ответов с результатами поиска.
+ * Записывает {@code {"results":[...],"count":N}} через {@link JsonGenerator} поэлементно,
+ * не строя промежуточное дерево объектов; количество выводится в конце документа.
+ * Обрабатывает как {@link StreamingSearchResponse}, так и обычный {@link SearchResponse}.
+ * Помимо JSON поддерживает бинарные форматы {@link BinaryMediaTypes} с той же структурой документа.
+ *
+ * <p>Вывод буферизуется в массив, закрепленный за потоком-обработчиком, поэтому
+ * на каждый ответ не выделяется новый буфер.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Provider
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+public class SearchResponseWriter implements MessageBodyWriter<Object> {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+    private static final MediaType CBOR_TYPE = MediaType.valueOf(BinaryMediaTypes.APPLICATION_CBOR);
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(BinaryMediaTypes.APPLICATION_SMILE);
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return SearchResponse.class.isAssignableFrom(type)
+                || StreamingSearchResponse.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(Object response, Class<?> type, Type genericType,
+                        Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object response, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        ObjectMapper mapper = resolveMapper(type, mediaType);
+        ObjectWriter elementWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        OutputStream out = new ThreadBufferedOutputStream(entityStream, BUFFERS.get());
+
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            if (response instanceof StreamingSearchResponse) {
+                try (StreamingSearchResponse<?> streaming = (StreamingSearchResponse<?>) response) {
+                    writeResults(gen, elementWriter, streaming.iterator());
+                }
+            } else {
+                List<?> results = ((SearchResponse<?>) response).getResults();
+                writeResults(gen, elementWriter,
+                        results != null ? results.iterator() : Collections.emptyIterator());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Записывает массив результатов и их количество.
+     *
+     * @param gen генератор JSON
+     * @param elementWriter сериализатор отдельных элементов (без сброса буфера после каждого)
+     * @param results итератор по результатам
+     * @throws IOException если происходит ошибка записи
+     */
+    private void writeResults(JsonGenerator gen, ObjectWriter elementWriter, Iterator<?> results) throws IOException {
+        int count = 0;
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("results");
+        while (results.hasNext()) {
+            elementWriter.writeValue(gen, results.next());
+            count++;
+        }
+        gen.writeEndArray();
+        gen.writeNumberField("count", count);
+        gen.writeEndObject();
+    }
+
+    /**
+     * Возвращает ObjectMapper для типа содержимого ответа.
+     * Для бинарных форматов используется маппер с соответствующей фабрикой,
+     * для JSON - зарегистрированный в приложении или маппер по умолчанию.
+     *
+     * @param type тип сериализуемого объекта
+     * @param mediaType тип содержимого ответа
+     * @return маппер для сериализации
+     */
+    private ObjectMapper resolveMapper(Class<?> type, MediaType mediaType) {
+        if (CBOR_TYPE.isCompatible(mediaType)) {
+            return CBOR_MAPPER;
+        }
+        if (SMILE_TYPE.isCompatible(mediaType)) {
+            return SMILE_MAPPER;
+        }
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, mediaType);
+            if (resolver != null) {
+                ObjectMapper mapper = resolver.getContext(type);
+                if (mapper != null) {
+                    return mapper;
+                }
+            }
+        }
+        return DEFAULT_MAPPER;
+    }
+
+    /**
+     * Буферизующий поток вывода поверх переиспользуемого массива.
+     * Не владеет целевым потоком и не закрывает его.
+     */
+    private static final class ThreadBufferedOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final byte[] buffer;
+        private int position;
+
+        ThreadBufferedOutputStream(OutputStream target, byte[] buffer) {
+            this.target = target;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length >= buffer.length) {
+                drain();
+                target.write(bytes, offset, length);
+                return;
+            }
+            if (length > buffer.length - position) {
+                drain();
+            }
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void drain() throws IOException {
+            if (position > 0) {
+                target.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
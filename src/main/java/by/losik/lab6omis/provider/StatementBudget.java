@@ -0,0 +1,25 @@
+package by.losik.lab6omis.provider;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Допустимое число SQL-операторов для одного вызова метода ресурса
+ * (включая сериализацию ответа). Превышение учитывается в метриках и журнале,
+ * а при {@code -Dlab6omis.jdbc.strict=true} завершает запрос ошибкой.
+ *
+ * @see StatementTrackingFilter
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    /**
+     * @return максимальное число SQL-операторов
+     */
+    int value();
+}
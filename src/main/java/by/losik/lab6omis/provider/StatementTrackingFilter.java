@@ -0,0 +1,44 @@
+package by.losik.lab6omis.provider;
+
+import by.losik.lab6omis.persistence.jdbc.JdbcRequestLog;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+
+/**
+ * Фильтр, называющий журнал JDBC текущего запроса по методу ресурса
+ * ({@code Класс.метод}) и задающий бюджет операторов из {@link StatementBudget}.
+ * Сам журнал открывается и закрывается сервлет-фильтром
+ * {@link by.losik.lab6omis.filter.JdbcRequestFilter}, чтобы в него попадали
+ * и операторы, выполненные при сериализации ответа.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class StatementTrackingFilter implements ContainerRequestFilter {
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        JdbcRequestLog log = JdbcRequestLog.current();
+        Method method = resourceInfo.getResourceMethod();
+        if (log == null || method == null) {
+            return;
+        }
+        log.setEndpoint(resourceInfo.getResourceClass().getSimpleName() + "." + method.getName());
+        StatementBudget budget = method.getAnnotation(StatementBudget.class);
+        if (budget != null) {
+            log.setBudget(budget.value());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package by.losik.lab6omis.repository.base;
 
+import by.losik.lab6omis.persistence.EntityChangeTags;
 import by.losik.lab6omis.persistence.TransactionManager;
 
 import javax.inject.Inject;
@@ -12,9 +13,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public abstract class BaseRepository<T, ID> {
 
+    protected static final int STREAM_FETCH_SIZE = 500;
+    private static final String QUERY_CACHEABLE_HINT = "org.hibernate.cacheable";
+    private static final String QUERY_CACHE_REGION_HINT = "org.hibernate.cacheRegion";
+
     @Inject
     protected TransactionManager txManager;
 
@@ -57,6 +63,22 @@ public abstract class BaseRepository<T, ID> {
         });
     }
 
+    /**
+     * Сохраняет новые сущности одной транзакцией (групповая фиксация).
+     * При ошибке откатываются все сущности пакета.
+     *
+     * @param entities новые сущности
+     * @return те же сущности с присвоенными идентификаторами
+     */
+    public List<T> createAll(List<T> entities) {
+        return txManager.executeInTransaction(em -> {
+            for (T entity : entities) {
+                em.persist(entity);
+            }
+            return entities;
+        });
+    }
+
     public void deleteById(ID id) {
         txManager.executeInTransaction(em -> {
             T entity = em.find(entityClass, id);
@@ -126,14 +148,48 @@ public abstract class BaseRepository<T, ID> {
         return txManager.executeQuery(em -> {
             TypedQuery<T> query = em.createQuery(jpql, entityClass);
             params.forEach(query::setParameter);
+            applyQueryCacheRegion(query);
             return query.getResultList();
         });
     }
 
+    /**
+     * Включает кэш запросов, если запрос выполняется внутри метода,
+     * отмеченного {@link CacheableQuery}.
+     *
+     * @param query запрос
+     */
+    private void applyQueryCacheRegion(TypedQuery<T> query) {
+        String region = CacheableQueryInterceptor.currentRegion();
+        if (region != null) {
+            query.setHint(QUERY_CACHEABLE_HINT, true);
+            query.setHint(QUERY_CACHE_REGION_HINT, region);
+        }
+    }
+
     protected <R> R executeQuery(Function<EntityManager, R> operation) {
         return txManager.executeQuery(operation);
     }
 
+    /**
+     * Выполняет массовую операцию UPDATE/DELETE в транзакции.
+     * Такие операции обходят слушатели сущностей, поэтому после фиксации
+     * тег класса сущности сбрасывается явно.
+     *
+     * @param operation функция, возвращающая число измененных строк
+     * @param cascaded классы сущностей, строки которых база данных изменяет каскадно
+     *                 (например, по {@code ON DELETE CASCADE})
+     * @return число измененных строк
+     */
+    protected int executeBulkUpdate(Function<EntityManager, Integer> operation, Class<?>... cascaded) {
+        int updated = txManager.executeInTransaction(operation);
+        EntityChangeTags.invalidateRewrite(entityClass);
+        for (Class<?> cascadedClass : cascaded) {
+            EntityChangeTags.invalidateRewrite(cascadedClass);
+        }
+        return updated;
+    }
+
     protected List<T> executeNamedQuery(String queryName) {
         return executeNamedQuery(queryName, Collections.emptyMap());
     }
@@ -142,6 +198,7 @@ public abstract class BaseRepository<T, ID> {
         return txManager.executeQuery(em -> {
             TypedQuery<T> query = em.createNamedQuery(queryName, entityClass);
             params.forEach(query::setParameter);
+            applyQueryCacheRegion(query);
             return query.getResultList();
         });
     }
@@ -164,6 +221,28 @@ public abstract class BaseRepository<T, ID> {
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
 
+    public Stream<T> streamAll() {
+        return streamQuery("SELECT e FROM " + getEntityName() + " e", Collections.emptyMap());
+    }
+
+    protected Stream<T> streamQuery(String jpql, Map<String, Object> params) {
+        return txManager.streamQuery(em -> {
+            TypedQuery<T> query = em.createQuery(jpql, entityClass)
+                    .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+                    .setHint("org.hibernate.readOnly", true);
+            params.forEach(query::setParameter);
+            // readOnly не отсоединяет сущности: без detach контекст персистентности рос бы
+            // на весь результат. Предыдущая строка к приходу следующей уже обработана.
+            Object[] previous = new Object[1];
+            return query.getResultStream().peek(entity -> {
+                if (previous[0] != null) {
+                    em.detach(previous[0]);
+                }
+                previous[0] = entity;
+            });
+        });
+    }
+
     protected <R> List<R> executeCustomQuery(String jpql, Class<R> resultClass) {
         return executeCustomQuery(jpql, resultClass, Collections.emptyMap());
     }
@@ -0,0 +1,39 @@
+package by.losik.lab6omis.repository.base;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает метод-поиск репозитория как кэшируемый в кэше запросов Hibernate.
+ * Все JPQL-запросы, выполняемые методом через {@link BaseRepository}, получают
+ * подсказки {@code org.hibernate.cacheable} и {@code org.hibernate.cacheRegion}.
+ * Регион должен быть объявлен в ehcache.xml и ehcache-persistent.xml.
+ *
+ * <p>Пример использования:</p>
+ * <pre>
+ * {@code
+ * @CacheableQuery(QueryCacheRegions.SENSOR_BY_TYPE)
+ * public List<Sensor> findByType(String type) { ... }
+ * }
+ * </pre>
+ *
+ * @see QueryCacheRegions
+ * @see CacheableQueryInterceptor
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableQuery {
+
+    /**
+     * @return имя региона кэша запросов для семейства запросов
+     */
+    @Nonbinding
+    String value() default QueryCacheRegions.DEFAULT;
+}
@@ -0,0 +1,63 @@
+package by.losik.lab6omis.repository.base;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.io.Serializable;
+
+/**
+ * Перехватчик методов, отмеченных {@link CacheableQuery}.
+ * На время вызова делает регион доступным {@link BaseRepository}
+ * и учитывает обращение к региону в {@link QueryCacheRegions}.
+ * Вложенные вызовы других помеченных методов используют собственный регион.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@CacheableQuery
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class CacheableQueryInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<String> CURRENT_REGION = new ThreadLocal<>();
+
+    @Inject
+    private QueryCacheRegions regions;
+
+    /**
+     * Возвращает регион кэша запросов текущего вызова.
+     *
+     * @return имя региона или null, если вызов не кэшируемый
+     */
+    static String currentRegion() {
+        return CURRENT_REGION.get();
+    }
+
+    @AroundInvoke
+    public Object applyRegion(InvocationContext ctx) throws Exception {
+        CacheableQuery config = ctx.getMethod().getAnnotation(CacheableQuery.class);
+        if (config == null) {
+            config = ctx.getMethod().getDeclaringClass().getAnnotation(CacheableQuery.class);
+        }
+
+        String region = config.value();
+        if (ctx.getTarget() instanceof BaseRepository) {
+            regions.recordAccess(region, ((BaseRepository<?, ?>) ctx.getTarget()).getEntityClass());
+        }
+
+        String previous = CURRENT_REGION.get();
+        CURRENT_REGION.set(region);
+        try {
+            return ctx.proceed();
+        } finally {
+            if (previous != null) {
+                CURRENT_REGION.set(previous);
+            } else {
+                CURRENT_REGION.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package by.losik.lab6omis.repository.base;
+
+import by.losik.lab6omis.persistence.EntityChangeTags;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Регионы кэша запросов Hibernate и учет их инвалидаций.
+ * Каждое семейство запросов (один вид фильтра по одной сущности) хранится
+ * в отдельном регионе, поэтому статистику попаданий можно оценивать раздельно.
+ *
+ * <p>Hibernate сбрасывает закэшированные результаты при любом изменении таблицы,
+ * но не считает такие сбросы. Инвалидация региона засчитывается здесь, когда
+ * при обращении к уже заполненному региону обнаруживается изменение сущности
+ * с момента предыдущего обращения ({@link EntityChangeTags}).</p>
+ *
+ * @see CacheableQuery
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class QueryCacheRegions {
+
+    public static final String DEFAULT = "default-query-results-region";
+    public static final String SENSOR_BY_STATUS = "query.sensor.by-status";
+    public static final String SENSOR_BY_TYPE = "query.sensor.by-type";
+    public static final String SOLUTION_BY_LANGUAGE = "query.solution.by-language";
+    public static final String SOUND_BY_FREQUENCY = "query.sound.by-frequency";
+
+    /**
+     * Регионы семейств запросов, объявленные в конфигурации Ehcache.
+     */
+    public static final List<String> ALL = List.of(
+            SENSOR_BY_STATUS, SENSOR_BY_TYPE, SOLUTION_BY_LANGUAGE, SOUND_BY_FREQUENCY
+    );
+
+    private static final long NOT_POPULATED = -1L;
+
+    private final Map<String, AtomicLong> lastGenerations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> invalidations = new ConcurrentHashMap<>();
+
+    /**
+     * Учитывает обращение к региону.
+     *
+     * @param region имя региона
+     * @param entityClass сущность, по таблице которой выполняется запрос
+     */
+    void recordAccess(String region, Class<?> entityClass) {
+        long generation = EntityChangeTags.generation(entityClass);
+        long previous = lastGenerations
+                .computeIfAbsent(region, key -> new AtomicLong(NOT_POPULATED))
+                .getAndSet(generation);
+        if (previous != NOT_POPULATED && previous != generation) {
+            invalidations.computeIfAbsent(region, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Возвращает число инвалидаций региона.
+     *
+     * @param region имя региона
+     * @return количество обнаруженных инвалидаций
+     */
+    public long getInvalidationCount(String region) {
+        AtomicLong count = invalidations.get(region);
+        return count != null ? count.get() : 0L;
+    }
+
+    /**
+     * Отмечает все регионы как пустые, например после очистки кэшей.
+     */
+    public void reset() {
+        lastGenerations.values().forEach(generation -> generation.set(NOT_POPULATED));
+    }
+}
@@ -154,11 +154,11 @@ public class RequestRepository extends BaseRepository<Request, Long> {
      * @return true если существует, false в противном случае
      */
     public boolean existsByGoal(String goal) {
-        List<Request> results = executeQuery(
-                "SELECT r FROM Request r WHERE r.goal = :goal",
-                Map.of("goal", goal)
-        );
-        return !results.isEmpty();
+        return !executeQuery(em -> em.createQuery("SELECT 1 FROM Request r WHERE r.goal = :goal")
+                .setParameter("goal", goal)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty());
     }
 
     /**
@@ -167,7 +167,7 @@ public class RequestRepository extends BaseRepository<Request, Long> {
      * @return Количество удаленных записей
      */
     public int deleteByLanguage(Language language) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM Request r WHERE r.language = :language")
                 .setParameter("language", language)
                 .executeUpdate());
@@ -214,11 +214,11 @@ public class ResponseRepository extends BaseRepository<ResponseEntity, Long> {
      * @return true если существует, false в противном случае
      */
     public boolean existsByMessage(String message) {
-        List<ResponseEntity> results = executeQuery(
-                "SELECT r FROM ResponseEntity r WHERE r.message = :message",
-                Map.of("message", message)
-        );
-        return !results.isEmpty();
+        return !executeQuery(em -> em.createQuery("SELECT 1 FROM ResponseEntity r WHERE r.message = :message")
+                .setParameter("message", message)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty());
     }
 
     /**
@@ -227,7 +227,7 @@ public class ResponseRepository extends BaseRepository<ResponseEntity, Long> {
      * @return Количество удаленных записей (через кастомный запрос)
      */
     public int deleteByLanguage(Language language) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM ResponseEntity r WHERE r.language = :language")
                 .setParameter("language", language)
                 .executeUpdate());
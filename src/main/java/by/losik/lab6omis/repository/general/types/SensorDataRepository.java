@@ -2,19 +2,26 @@ package by.losik.lab6omis.repository.general.types;
 
 import by.losik.lab6omis.entities.general.types.Sensor;
 import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.persistence.EntityChangeTags;
 import by.losik.lab6omis.repository.base.BaseRepository;
+import by.losik.lab6omis.repository.hot.SensorDataHotWindow;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для управления данными сенсоров (SensorData).
  * Предоставляет полный набор операций CRUD, поиска, фильтрации и статистики.
+ * Запросы за недавний период обслуживает {@link SensorDataHotWindow}, если он внутри окна;
+ * вставки после фиксации дополняют окно.
  *
  * @see SensorData
  * @author Losik Yaroslav
@@ -23,9 +30,38 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class SensorDataRepository extends BaseRepository<SensorData, Long> {
 
+    @Inject
+    private SensorDataHotWindow hotWindow;
+
     @Inject
     public SensorDataRepository() {}
 
+    /**
+     * Сохраняет новые данные сенсора и добавляет их в горячее окно
+     * @param entity Новые данные сенсора
+     * @return Сохраненные данные с присвоенным идентификатором
+     */
+    @Override
+    public SensorData create(SensorData entity) {
+        long generation = hotWindow.generation();
+        SensorData saved = EntityChangeTags.appending(SensorData.class, () -> super.create(entity));
+        hotWindow.append(List.of(saved), generation);
+        return saved;
+    }
+
+    /**
+     * Сохраняет пакет новых данных одной транзакцией и добавляет его в горячее окно
+     * @param entities Новые данные сенсоров
+     * @return Те же данные с присвоенными идентификаторами
+     */
+    @Override
+    public List<SensorData> createAll(List<SensorData> entities) {
+        long generation = hotWindow.generation();
+        List<SensorData> saved = EntityChangeTags.appending(SensorData.class, () -> super.createAll(entities));
+        hotWindow.append(saved, generation);
+        return saved;
+    }
+
     /**
      * Найти данные сенсора по сенсору
      * @param sensor Сенсор
@@ -50,6 +86,18 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
         );
     }
 
+    /**
+     * Потоково прочитать данные сенсора по ID сенсора
+     * @param sensorId ID сенсора
+     * @return Поток данных указанного сенсора (должен быть закрыт вызывающим кодом)
+     */
+    public Stream<SensorData> streamBySensorId(Long sensorId) {
+        return streamQuery(
+                "SELECT sd FROM SensorData sd WHERE sd.sensor.id = :sensorId",
+                Map.of("sensorId", sensorId)
+        );
+    }
+
     /**
      * Найти данные по назначению (точное совпадение)
      * @param purpose Назначение данных
@@ -99,6 +147,19 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
         );
     }
 
+    /**
+     * Потоково прочитать данные за определенный период
+     * @param startDate Начальная дата (включительно)
+     * @param endDate Конечная дата (включительно)
+     * @return Поток данных за указанный период (должен быть закрыт вызывающим кодом)
+     */
+    public Stream<SensorData> streamByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return streamQuery(
+                "SELECT sd FROM SensorData sd WHERE sd.timestamp BETWEEN :startDate AND :endDate",
+                Map.of("startDate", startDate, "endDate", endDate)
+        );
+    }
+
     /**
      * Найти данные за последние N дней
      * @param days Количество дней
@@ -107,7 +168,19 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
     public List<SensorData> findRecentData(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         LocalDateTime endDate = LocalDateTime.now();
-        return findByTimestampBetween(startDate, endDate);
+        return hotWindow.findBetween(startDate, endDate)
+                .orElseGet(() -> findByTimestampBetween(startDate, endDate));
+    }
+
+    /**
+     * Потоково прочитать данные за последние N дней
+     * @param days Количество дней
+     * @return Поток данных за последние N дней (должен быть закрыт вызывающим кодом)
+     */
+    public Stream<SensorData> streamRecentData(int days) {
+        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
+        LocalDateTime endDate = LocalDateTime.now();
+        return streamByTimestampBetween(startDate, endDate);
     }
 
     /**
@@ -118,10 +191,11 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
      * @return Список данных сенсора за указанный период
      */
     public List<SensorData> findBySensorAndTimestampBetween(Sensor sensor, LocalDateTime startDate, LocalDateTime endDate) {
-        return executeQuery(
-                "SELECT sd FROM SensorData sd WHERE sd.sensor = :sensor AND sd.timestamp BETWEEN :startDate AND :endDate",
-                Map.of("sensor", sensor, "startDate", startDate, "endDate", endDate)
-        );
+        return hotWindow.findBySensorBetween(sensor, startDate, endDate)
+                .orElseGet(() -> executeQuery(
+                        "SELECT sd FROM SensorData sd WHERE sd.sensor = :sensor AND sd.timestamp BETWEEN :startDate AND :endDate",
+                        Map.of("sensor", sensor, "startDate", startDate, "endDate", endDate)
+                ));
     }
 
     /**
@@ -209,10 +283,14 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
      */
     public Map<String, Long> getDataCountByDay(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
+        Optional<Map<String, Long>> hot = hotWindow.countByDaySince(startDate);
+        if (hot.isPresent()) {
+            return hot.get();
+        }
 
         List<Object[]> results = executeCustomQuery(
-                "SELECT DATE(sd.timestamp), COUNT(sd) FROM SensorData sd " +
-                        "WHERE sd.timestamp >= :startDate GROUP BY DATE(sd.timestamp)",
+                "SELECT CAST(sd.timestamp AS date), COUNT(sd) FROM SensorData sd " +
+                        "WHERE sd.timestamp >= :startDate GROUP BY CAST(sd.timestamp AS date)",
                 Object[].class,
                 Map.of("startDate", startDate)
         );
@@ -270,13 +348,98 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
         return !results.isEmpty();
     }
 
+    /**
+     * Проверить, существует ли сенсор, к которому относятся данные
+     * @param sensorId ID сенсора
+     * @return true если сенсор существует, false в противном случае
+     */
+    public boolean sensorExists(Long sensorId) {
+        return txManager.exists(Sensor.class, sensorId);
+    }
+
+    /**
+     * Получить агрегаты показаний сенсора по равным интервалам времени: число показаний,
+     * первое и последнее показание интервала. Вычисляется в базе данных одним проходом
+     * по индексу (sensor_id, timestamp); интервалы без показаний не возвращаются.
+     * @param sensorId ID сенсора
+     * @param from Начало периода (включительно)
+     * @param to Конец периода (не включительно)
+     * @param bucketMillis Длина интервала в миллисекундах
+     * @return Строки [номер интервала, число, ID первого, время первого, назначение первого,
+     *         ID последнего, время последнего, назначение последнего] по возрастанию номера
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> aggregateBySensorInBuckets(Long sensorId, LocalDateTime from, LocalDateTime to,
+                                                     long bucketMillis) {
+        return executeQuery(em -> (List<Object[]>) em.createNativeQuery(
+                        "SELECT bucket, COUNT(*) AS readings_count, " +
+                                "(ARRAY_AGG(id ORDER BY timestamp, id))[1] AS first_id, " +
+                                "MIN(timestamp) AS first_timestamp, " +
+                                "(ARRAY_AGG(purpose ORDER BY timestamp, id))[1] AS first_purpose, " +
+                                "(ARRAY_AGG(id ORDER BY timestamp DESC, id DESC))[1] AS last_id, " +
+                                "MAX(timestamp) AS last_timestamp, " +
+                                "(ARRAY_AGG(purpose ORDER BY timestamp DESC, id DESC))[1] AS last_purpose " +
+                                "FROM (SELECT id, timestamp, purpose, " +
+                                "FLOOR(EXTRACT(EPOCH FROM timestamp - CAST(:from AS TIMESTAMP)) * 1000 / :bucketMillis) AS bucket " +
+                                "FROM lab6omis.sensor_data " +
+                                "WHERE sensor_id = :sensorId AND timestamp >= :from AND timestamp < :to) readings " +
+                                "GROUP BY bucket ORDER BY bucket")
+                .setParameter("sensorId", sensorId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("bucketMillis", bucketMillis)
+                .getResultList());
+    }
+
+    /**
+     * Потоково прочитать показания сенсора за период в одном согласованном снимке.
+     * Обработчик получает число показаний и поток строк [ID, временная метка, назначение]
+     * по возрастанию времени; сущности не загружаются и не накапливаются в контексте.
+     * @param sensorId ID сенсора
+     * @param from Начало периода (включительно)
+     * @param to Конец периода (не включительно)
+     * @param scan Обработчик числа и потока строк; поток закрывается после его завершения
+     * @param <R> Тип результата обработчика
+     * @return Результат обработчика
+     */
+    public <R> R scanBySensorAndTimestampRange(Long sensorId, LocalDateTime from, LocalDateTime to,
+                                               BiFunction<Long, Stream<Object[]>, R> scan) {
+        Map<String, Object> params = Map.of("sensorId", sensorId, "from", from, "to", to);
+        return txManager.executeInSnapshot(em -> {
+            TypedQuery<Long> count = em.createQuery(
+                    "SELECT COUNT(sd) FROM SensorData sd " +
+                            "WHERE sd.sensor.id = :sensorId AND sd.timestamp >= :from AND sd.timestamp < :to",
+                    Long.class);
+            TypedQuery<Object[]> rows = em.createQuery(
+                            "SELECT sd.id, sd.timestamp, sd.purpose FROM SensorData sd " +
+                                    "WHERE sd.sensor.id = :sensorId AND sd.timestamp >= :from AND sd.timestamp < :to " +
+                                    "ORDER BY sd.timestamp, sd.id",
+                            Object[].class)
+                    .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE);
+            params.forEach(count::setParameter);
+            params.forEach(rows::setParameter);
+            long total = count.getSingleResult();
+            try (Stream<Object[]> stream = rows.getResultStream()) {
+                return scan.apply(total, stream);
+            }
+        });
+    }
+
+    /**
+     * Проверить доступность базы данных простейшим запросом
+     * @throws javax.persistence.PersistenceException если база данных недоступна
+     */
+    public void ping() {
+        executeQuery(em -> em.createNativeQuery("SELECT 1").getSingleResult());
+    }
+
     /**
      * Удалить все данные для указанного сенсора
      * @param sensor Сенсор
      * @return Количество удаленных записей
      */
     public int deleteBySensor(Sensor sensor) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM SensorData sd WHERE sd.sensor = :sensor")
                 .setParameter("sensor", sensor)
                 .executeUpdate());
@@ -288,7 +451,7 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
      * @return Количество удаленных записей
      */
     public int deleteOldData(LocalDateTime cutoffDate) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM SensorData sd WHERE sd.timestamp < :cutoffDate")
                 .setParameter("cutoffDate", cutoffDate)
                 .executeUpdate());
@@ -356,6 +519,10 @@ public class SensorDataRepository extends BaseRepository<SensorData, Long> {
      * @return Карта [час (0-23), количество данных]
      */
     public Map<Integer, Long> getDataDistributionByHour() {
+        Optional<Map<Integer, Long>> hot = hotWindow.countByHour();
+        if (hot.isPresent()) {
+            return hot.get();
+        }
         List<Object[]> results = executeCustomQuery(
                 "SELECT HOUR(sd.timestamp), COUNT(sd) FROM SensorData sd GROUP BY HOUR(sd.timestamp)",
                 Object[].class
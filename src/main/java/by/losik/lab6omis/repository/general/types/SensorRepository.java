@@ -1,7 +1,11 @@
 package by.losik.lab6omis.repository.general.types;
 
 import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
 import by.losik.lab6omis.repository.base.BaseRepository;
+import by.losik.lab6omis.repository.base.CacheableQuery;
+import by.losik.lab6omis.repository.base.QueryCacheRegions;
+import org.hibernate.Session;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -25,15 +29,15 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
     public SensorRepository() {}
 
     /**
-     * Найти сенсор по имени (точное совпадение)
+     * Найти сенсор по имени (точное совпадение).
+     * Имя разрешается через кэш естественных идентификаторов, сам сенсор - через кэш второго уровня
      * @param name Имя сенсора
      * @return Optional с найденным сенсором или пустой
      */
     public Optional<Sensor> findByName(String name) {
-        return executeQuerySingle(
-                "SELECT s FROM Sensor s WHERE s.name = :name",
-                Map.of("name", name)
-        );
+        return executeQuery(em -> em.unwrap(Session.class)
+                .bySimpleNaturalId(Sensor.class)
+                .loadOptional(name));
     }
 
     /**
@@ -53,6 +57,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * @param type Тип сенсора
      * @return Список сенсоров указанного типа
      */
+    @CacheableQuery(QueryCacheRegions.SENSOR_BY_TYPE)
     public List<Sensor> findByType(String type) {
         return executeQuery(
                 "SELECT s FROM Sensor s WHERE s.type = :type",
@@ -89,6 +94,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * @param isActive Статус активности
      * @return Список сенсоров с указанным статусом активности
      */
+    @CacheableQuery(QueryCacheRegions.SENSOR_BY_STATUS)
     public List<Sensor> findByActiveStatus(Boolean isActive) {
         return executeQuery(
                 "SELECT s FROM Sensor s WHERE s.isActive = :isActive",
@@ -100,6 +106,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * Найти активные сенсоры
      * @return Список активных сенсоров
      */
+    @CacheableQuery(QueryCacheRegions.SENSOR_BY_STATUS)
     public List<Sensor> findActiveSensors() {
         return findByActiveStatus(true);
     }
@@ -108,6 +115,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * Найти неактивные сенсоры
      * @return Список неактивных сенсоров
      */
+    @CacheableQuery(QueryCacheRegions.SENSOR_BY_STATUS)
     public List<Sensor> findInactiveSensors() {
         return findByActiveStatus(false);
     }
@@ -234,38 +242,39 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
     }
 
     /**
-     * Проверить, существует ли сенсор с указанным именем
+     * Проверить, существует ли сенсор с указанным именем.
+     * Разрешает только идентификатор по имени, не загружая сенсор
      * @param name Имя сенсора
      * @return true если существует, false в противном случае
      */
     public boolean existsByName(String name) {
-        List<Sensor> results = executeQuery(
-                "SELECT s FROM Sensor s WHERE s.name = :name",
-                Map.of("name", name)
-        );
-        return !results.isEmpty();
+        return executeQuery(em -> em.unwrap(Session.class)
+                .bySimpleNaturalId(Sensor.class)
+                .getReference(name) != null);
     }
 
     /**
      * Удалить все сенсоры указанного типа
+     * Данные этих сенсоров удаляет база данных каскадно
      * @param type Тип сенсора
      * @return Количество удаленных записей
      */
     public int deleteByType(String type) {
-        return executeQuery(em -> em.createQuery("DELETE FROM Sensor s WHERE s.type = :type")
+        return executeBulkUpdate(em -> em.createQuery("DELETE FROM Sensor s WHERE s.type = :type")
                 .setParameter("type", type)
-                .executeUpdate());
+                .executeUpdate(), SensorData.class);
     }
 
     /**
      * Удалить все сенсоры в указанной локации
+     * Данные этих сенсоров удаляет база данных каскадно
      * @param location Локация
      * @return Количество удаленных записей
      */
     public int deleteByLocation(String location) {
-        return executeQuery(em -> em.createQuery("DELETE FROM Sensor s WHERE s.location = :location")
+        return executeBulkUpdate(em -> em.createQuery("DELETE FROM Sensor s WHERE s.location = :location")
                 .setParameter("location", location)
-                .executeUpdate());
+                .executeUpdate(), SensorData.class);
     }
 
     /**
@@ -339,7 +348,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * @return Количество обновленных записей
      */
     public int updateSensorActivity(Long sensorId, Boolean isActive) {
-        return executeQuery(em -> em.createQuery("UPDATE Sensor s SET s.isActive = :isActive WHERE s.id = :sensorId")
+        return executeBulkUpdate(em -> em.createQuery("UPDATE Sensor s SET s.isActive = :isActive WHERE s.id = :sensorId")
                 .setParameter("isActive", isActive)
                 .setParameter("sensorId", sensorId)
                 .executeUpdate());
@@ -351,7 +360,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * @return Количество обновленных записей
      */
     public int activateSensorsByType(String type) {
-        return executeQuery(em -> em.createQuery("UPDATE Sensor s SET s.isActive = true WHERE s.type = :type")
+        return executeBulkUpdate(em -> em.createQuery("UPDATE Sensor s SET s.isActive = true WHERE s.type = :type")
                 .setParameter("type", type)
                 .executeUpdate());
     }
@@ -362,7 +371,7 @@ public class SensorRepository extends BaseRepository<Sensor, Long> {
      * @return Количество обновленных записей
      */
     public int deactivateSensorsByType(String type) {
-        return executeQuery(em -> em.createQuery("UPDATE Sensor s SET s.isActive = false WHERE s.type = :type")
+        return executeBulkUpdate(em -> em.createQuery("UPDATE Sensor s SET s.isActive = false WHERE s.type = :type")
                 .setParameter("type", type)
                 .executeUpdate());
     }
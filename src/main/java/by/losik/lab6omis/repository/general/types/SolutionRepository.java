@@ -3,6 +3,8 @@ package by.losik.lab6omis.repository.general.types;
 import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Solution;
 import by.losik.lab6omis.repository.base.BaseRepository;
+import by.losik.lab6omis.repository.base.CacheableQuery;
+import by.losik.lab6omis.repository.base.QueryCacheRegions;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -30,6 +32,7 @@ public class SolutionRepository extends BaseRepository<Solution, Long> {
      * @param language Язык решения
      * @return Список решений на указанном языке
      */
+    @CacheableQuery(QueryCacheRegions.SOLUTION_BY_LANGUAGE)
     public List<Solution> findByLanguage(Language language) {
         return executeQuery(
                 "SELECT s FROM Solution s WHERE s.language = :language",
@@ -216,11 +219,11 @@ public class SolutionRepository extends BaseRepository<Solution, Long> {
      * @return true если существует, false в противном случае
      */
     public boolean existsByMessage(String message) {
-        List<Solution> results = executeQuery(
-                "SELECT s FROM Solution s WHERE s.message = :message",
-                Map.of("message", message)
-        );
-        return !results.isEmpty();
+        return !executeQuery(em -> em.createQuery("SELECT 1 FROM Solution s WHERE s.message = :message")
+                .setParameter("message", message)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty());
     }
 
     /**
@@ -259,7 +262,7 @@ public class SolutionRepository extends BaseRepository<Solution, Long> {
      * @return Количество удаленных записей
      */
     public int deleteByLanguage(Language language) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM Solution s WHERE s.language = :language")
                 .setParameter("language", language)
                 .executeUpdate());
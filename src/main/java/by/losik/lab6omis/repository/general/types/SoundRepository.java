@@ -2,6 +2,8 @@ package by.losik.lab6omis.repository.general.types;
 
 import by.losik.lab6omis.entities.general.types.Sound;
 import by.losik.lab6omis.repository.base.BaseRepository;
+import by.losik.lab6omis.repository.base.CacheableQuery;
+import by.losik.lab6omis.repository.base.QueryCacheRegions;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -53,6 +55,7 @@ public class SoundRepository extends BaseRepository<Sound, Long> {
      * @param frequency Частота в Гц
      * @return Список звуков с указанной частотой
      */
+    @CacheableQuery(QueryCacheRegions.SOUND_BY_FREQUENCY)
     public List<Sound> findByFrequency(Integer frequency) {
         return executeQuery(
                 "SELECT s FROM Sound s WHERE s.frequency = :frequency",
@@ -66,6 +69,7 @@ public class SoundRepository extends BaseRepository<Sound, Long> {
      * @param maxFrequency Максимальная частота
      * @return Список звуков с частотой в указанном диапазоне
      */
+    @CacheableQuery(QueryCacheRegions.SOUND_BY_FREQUENCY)
     public List<Sound> findByFrequencyBetween(Integer minFrequency, Integer maxFrequency) {
         return executeQuery(
                 "SELECT s FROM Sound s WHERE s.frequency BETWEEN :minFrequency AND :maxFrequency",
@@ -78,6 +82,7 @@ public class SoundRepository extends BaseRepository<Sound, Long> {
      * @param maxFrequency Максимальная частота
      * @return Список звуков с низкой частотой
      */
+    @CacheableQuery(QueryCacheRegions.SOUND_BY_FREQUENCY)
     public List<Sound> findByLowFrequency(Integer maxFrequency) {
         return executeQuery(
                 "SELECT s FROM Sound s WHERE s.frequency < :maxFrequency",
@@ -90,6 +95,7 @@ public class SoundRepository extends BaseRepository<Sound, Long> {
      * @param minFrequency Минимальная частота
      * @return Список звуков с высокой частотой
      */
+    @CacheableQuery(QueryCacheRegions.SOUND_BY_FREQUENCY)
     public List<Sound> findByHighFrequency(Integer minFrequency) {
         return executeQuery(
                 "SELECT s FROM Sound s WHERE s.frequency > :minFrequency",
@@ -213,7 +219,7 @@ public class SoundRepository extends BaseRepository<Sound, Long> {
      * @return Количество удаленных записей
      */
     public int deleteByFrequency(Integer frequency) {
-        return executeQuery(em ->
+        return executeBulkUpdate(em ->
                 em.createQuery("DELETE FROM Sound s WHERE s.frequency = :frequency")
                 .setParameter("frequency", frequency)
                 .executeUpdate());
@@ -0,0 +1,329 @@
+package by.losik.lab6omis.repository.hot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Колоночное хранилище недавних показаний: у каждого сенсора свой список
+ * {@link ReadingChunk}, назначения закодированы {@link PurposeDictionary}.
+ * Временная метка {@link LocalDateTime} хранится как {@code long} - число
+ * микросекунд от эпохи без учета часового пояса, той же точности, что и в PostgreSQL.
+ *
+ * <p>Хранилище гарантирует полноту начиная с нижней границы {@link #floorMicros()}:
+ * в нем есть все показания с меткой не раньше границы. Граница сдвигается
+ * вытеснением по возрасту и при превышении лимита строк; более старые показания
+ * не хранятся, но учитываются в распределении по часам суток, которое ведется
+ * по всей таблице.</p>
+ *
+ * <p>Класс не потокобезопасен: доступ упорядочивает {@link SensorDataHotWindow}.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class ColumnarReadings {
+
+    static final long MICROS_PER_SECOND = 1_000_000L;
+    static final long MICROS_PER_HOUR = 3_600L * MICROS_PER_SECOND;
+    static final long MICROS_PER_DAY = 24L * MICROS_PER_HOUR;
+
+    private static final int HOURS_PER_DAY = 24;
+
+    /**
+     * Получатель показаний при просмотре хранилища.
+     */
+    interface RowVisitor {
+        /**
+         * @param sensorId ID сенсора
+         * @param id ID показания
+         * @param micros временная метка, микросекунды эпохи
+         * @param purpose назначение
+         */
+        void visit(long sensorId, long id, long micros, String purpose);
+    }
+
+    private final Map<Long, List<ReadingChunk>> sensors = new HashMap<>();
+    private final long[] hourTotals = new long[HOURS_PER_DAY];
+    private final PurposeDictionary purposes;
+    private final long maxRows;
+    private long floorMicros;
+    private long maxMicros = Long.MIN_VALUE;
+    private long rows;
+    private int chunks;
+
+    /**
+     * @param floorMicros начальная нижняя граница полноты
+     * @param maxRows наибольшее число хранимых показаний
+     * @param maxPurposes наибольшее число различных назначений
+     */
+    ColumnarReadings(long floorMicros, long maxRows, int maxPurposes) {
+        this.floorMicros = floorMicros;
+        this.maxRows = maxRows;
+        this.purposes = new PurposeDictionary(maxPurposes);
+    }
+
+    /**
+     * Учитывает в распределении по часам показания, которые не хранятся
+     * (старше нижней границы на момент загрузки).
+     *
+     * @param hour час суток (0-23)
+     * @param count число показаний
+     */
+    void addHourBaseline(int hour, long count) {
+        hourTotals[hour] += count;
+    }
+
+    /**
+     * Добавляет показание. Показание старше нижней границы только учитывается
+     * в распределении по часам.
+     *
+     * @param id ID показания
+     * @param sensorId ID сенсора
+     * @param micros временная метка, микросекунды эпохи
+     * @param purpose назначение
+     * @return false если словарь назначений заполнен и показание не добавлено
+     */
+    boolean add(long id, long sensorId, long micros, String purpose) {
+        if (micros < floorMicros) {
+            hourTotals[hourOf(micros)]++;
+            return true;
+        }
+        int code = purposes.encode(purpose);
+        if (code < 0) {
+            return false;
+        }
+        hourTotals[hourOf(micros)]++;
+
+        List<ReadingChunk> sensorChunks = sensors.computeIfAbsent(sensorId, key -> new ArrayList<>());
+        ReadingChunk tail = sensorChunks.isEmpty() ? null : sensorChunks.get(sensorChunks.size() - 1);
+        if (tail == null || tail.isFull()) {
+            tail = new ReadingChunk();
+            sensorChunks.add(tail);
+            chunks++;
+        }
+        tail.add(id, micros, code);
+        rows++;
+        maxMicros = Math.max(maxMicros, micros);
+
+        if (rows > maxRows) {
+            evictOldest(maxRows - maxRows / 10);
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, хранится ли показание. Просматриваются только блоки сенсора,
+     * границы которых включают временную метку.
+     *
+     * @param id ID показания
+     * @param sensorId ID сенсора
+     * @param micros временная метка, микросекунды эпохи
+     * @return true если показание уже добавлено
+     */
+    boolean contains(long id, long sensorId, long micros) {
+        List<ReadingChunk> sensorChunks = sensors.get(sensorId);
+        if (sensorChunks == null) {
+            return false;
+        }
+        for (ReadingChunk chunk : sensorChunks) {
+            if (chunk.overlaps(micros, micros)) {
+                long[] ids = chunk.ids;
+                for (int i = 0; i < chunk.size; i++) {
+                    if (ids[i] == id) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Вытесняет блоки, все показания которых старше границы, и сдвигает
+     * нижнюю границу полноты.
+     *
+     * @param cutoffMicros новая нижняя граница
+     */
+    void evictBefore(long cutoffMicros) {
+        floorMicros = Math.max(floorMicros, cutoffMicros);
+        Iterator<List<ReadingChunk>> sensorIterator = sensors.values().iterator();
+        while (sensorIterator.hasNext()) {
+            List<ReadingChunk> sensorChunks = sensorIterator.next();
+            Iterator<ReadingChunk> chunkIterator = sensorChunks.iterator();
+            while (chunkIterator.hasNext()) {
+                ReadingChunk chunk = chunkIterator.next();
+                if (chunk.maxMicros < floorMicros) {
+                    chunkIterator.remove();
+                    rows -= chunk.size;
+                    chunks--;
+                }
+            }
+            if (sensorChunks.isEmpty()) {
+                sensorIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Вытесняет блоки с самыми старыми показаниями, пока строк больше {@code target}.
+     * Нижняя граница полноты сдвигается за последнее вытесненное показание.
+     */
+    private void evictOldest(long target) {
+        while (rows > target) {
+            ReadingChunk oldest = null;
+            for (List<ReadingChunk> sensorChunks : sensors.values()) {
+                for (ReadingChunk chunk : sensorChunks) {
+                    if (oldest == null || chunk.maxMicros < oldest.maxMicros) {
+                        oldest = chunk;
+                    }
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            evictBefore(oldest.maxMicros + 1);
+        }
+    }
+
+    /**
+     * Передает показания сенсора за период получателю.
+     *
+     * @param sensorId ID сенсора
+     * @param from начало периода, включительно
+     * @param to конец периода, включительно
+     * @param visitor получатель показаний
+     */
+    void scanSensor(long sensorId, long from, long to, RowVisitor visitor) {
+        List<ReadingChunk> sensorChunks = sensors.get(sensorId);
+        if (sensorChunks != null) {
+            scanChunks(sensorId, sensorChunks, from, to, visitor);
+        }
+    }
+
+    /**
+     * Передает показания всех сенсоров за период получателю,
+     * сгруппированными по сенсорам.
+     *
+     * @param from начало периода, включительно
+     * @param to конец периода, включительно
+     * @param visitor получатель показаний
+     */
+    void scan(long from, long to, RowVisitor visitor) {
+        for (Map.Entry<Long, List<ReadingChunk>> entry : sensors.entrySet()) {
+            scanChunks(entry.getKey(), entry.getValue(), from, to, visitor);
+        }
+    }
+
+    private void scanChunks(long sensorId, List<ReadingChunk> sensorChunks, long from, long to,
+                            RowVisitor visitor) {
+        for (ReadingChunk chunk : sensorChunks) {
+            if (!chunk.overlaps(from, to)) {
+                continue;
+            }
+            long[] micros = chunk.micros;
+            for (int i = 0; i < chunk.size; i++) {
+                long timestamp = micros[i];
+                if (timestamp >= from && timestamp <= to) {
+                    visitor.visit(sensorId, chunk.ids[i], timestamp, purposes.decode(chunk.purposes[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Считает показания по дням начиная с момента {@code from}.
+     *
+     * @param from начало периода, включительно
+     * @param firstDay номер дня эпохи, соответствующий {@code counts[0]}
+     * @param counts счетчики по дням; показания за пределами массива не учитываются
+     */
+    void countByDay(long from, long firstDay, long[] counts) {
+        for (List<ReadingChunk> sensorChunks : sensors.values()) {
+            for (ReadingChunk chunk : sensorChunks) {
+                if (chunk.size == 0 || chunk.maxMicros < from) {
+                    continue;
+                }
+                long[] micros = chunk.micros;
+                for (int i = 0; i < chunk.size; i++) {
+                    long timestamp = micros[i];
+                    if (timestamp >= from) {
+                        long day = Math.floorDiv(timestamp, MICROS_PER_DAY) - firstDay;
+                        if (day >= 0 && day < counts.length) {
+                            counts[(int) day]++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param hour час суток (0-23)
+     * @return число показаний всей таблицы с этим часом временной метки
+     */
+    long hourTotal(int hour) {
+        return hourTotals[hour];
+    }
+
+    /**
+     * @return нижняя граница полноты, микросекунды эпохи
+     */
+    long floorMicros() {
+        return floorMicros;
+    }
+
+    /**
+     * @return наибольшая временная метка среди добавленных показаний
+     */
+    long maxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * @return число хранимых показаний
+     */
+    long rows() {
+        return rows;
+    }
+
+    /**
+     * @return число блоков
+     */
+    int chunks() {
+        return chunks;
+    }
+
+    /**
+     * @return число различных назначений в словаре
+     */
+    int purposes() {
+        return purposes.size();
+    }
+
+    /**
+     * Кодирует временную метку с округлением до микросекунд, как PostgreSQL.
+     *
+     * @param timestamp временная метка
+     * @return микросекунды эпохи
+     */
+    static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + (timestamp.getNano() + 500) / 1000;
+    }
+
+    /**
+     * @param micros микросекунды эпохи
+     * @return временная метка
+     */
+    static LocalDateTime toLocalDateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    private static int hourOf(long micros) {
+        return (int) Math.floorMod(Math.floorDiv(micros, MICROS_PER_HOUR), HOURS_PER_DAY);
+    }
+}
@@ -0,0 +1,64 @@
+package by.losik.lab6omis.repository.hot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарь назначений показаний: каждое различное назначение хранится один раз,
+ * а блоки показаний ссылаются на него кодом {@code int}.
+ * Коды не освобождаются при вытеснении показаний; словарь строится заново
+ * вместе с окном.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class PurposeDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize наибольшее число различных назначений
+     */
+    PurposeDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Возвращает код назначения, добавляя его в словарь при необходимости.
+     *
+     * @param purpose назначение
+     * @return код назначения или -1, если словарь заполнен
+     */
+    int encode(String purpose) {
+        Integer code = codes.get(purpose);
+        if (code != null) {
+            return code;
+        }
+        if (values.size() >= maxSize) {
+            return -1;
+        }
+        int next = values.size();
+        values.add(purpose);
+        codes.put(purpose, next);
+        return next;
+    }
+
+    /**
+     * @param code код назначения
+     * @return назначение
+     */
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return число различных назначений
+     */
+    int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,69 @@
+package by.losik.lab6omis.repository.hot;
+
+import java.util.Arrays;
+
+/**
+ * Блок показаний одного сенсора в колоночном виде: идентификаторы, временные
+ * метки (микросекунды эпохи) и коды назначений лежат в отдельных примитивных
+ * массивах. Блок только дополняется; вытесняется целиком.
+ *
+ * <p>Границы {@link #minMicros}/{@link #maxMicros} позволяют пропускать блоки,
+ * не пересекающиеся с запрошенным периодом, не просматривая их строки.
+ * Массивы растут удвоением до {@link #CAPACITY}, поэтому редкий сенсор
+ * не занимает полный блок.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class ReadingChunk {
+
+    /** Наибольшее число показаний в блоке. */
+    static final int CAPACITY = 4096;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    long[] ids = new long[INITIAL_CAPACITY];
+    long[] micros = new long[INITIAL_CAPACITY];
+    int[] purposes = new int[INITIAL_CAPACITY];
+    int size;
+    long minMicros = Long.MAX_VALUE;
+    long maxMicros = Long.MIN_VALUE;
+
+    /**
+     * @return true если блок заполнен и показания нужно добавлять в новый
+     */
+    boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    /**
+     * Добавляет показание в конец блока.
+     *
+     * @param id ID показания
+     * @param timestamp временная метка, микросекунды эпохи
+     * @param purpose код назначения в словаре
+     */
+    void add(long id, long timestamp, int purpose) {
+        if (size == ids.length) {
+            int capacity = Math.min(CAPACITY, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            micros = Arrays.copyOf(micros, capacity);
+            purposes = Arrays.copyOf(purposes, capacity);
+        }
+        ids[size] = id;
+        micros[size] = timestamp;
+        purposes[size] = purpose;
+        size++;
+        minMicros = Math.min(minMicros, timestamp);
+        maxMicros = Math.max(maxMicros, timestamp);
+    }
+
+    /**
+     * @param from начало периода, включительно
+     * @param to конец периода, включительно
+     * @return true если в блоке могут быть показания периода
+     */
+    boolean overlaps(long from, long to) {
+        return size > 0 && maxMicros >= from && minMicros <= to;
+    }
+}
@@ -0,0 +1,560 @@
+package by.losik.lab6omis.repository.hot;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.metrics.Counter;
+import by.losik.lab6omis.metrics.MetricFamily;
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.persistence.EntityChangeTags;
+import by.losik.lab6omis.persistence.TransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Горячее окно недавних показаний сенсоров в памяти процесса.
+ * Показания за последние {@value #HOURS} часов хранятся в колоночном виде
+ * ({@link ColumnarReadings}): временные метки - {@code long[]}, назначения -
+ * коды словаря, блоки по сенсорам. Окно отвечает на запросы
+ * {@link by.losik.lab6omis.repository.general.types.SensorDataRepository}
+ * за период внутри окна без обращения к базе данных; запросы за более ранний
+ * период, а также все запросы до готовности окна выполняются в базе данных.
+ *
+ * <p>При запуске окно загружается одним снимком REPEATABLE READ: показания окна
+ * читаются курсором, распределение более старых показаний по часам суток - одним
+ * агрегатом. Показания, записанные во время загрузки, копятся отдельно и после нее
+ * добавляются, если снимок их не увидел. Далее окно дополняется репозиторием
+ * после фиксации каждой вставки, а блоки старше окна вытесняются раз в минуту.
+ * Вставка, начатая до ввода окна в работу, могла попасть в снимок: такие показания
+ * добавляются, только если окно их еще не содержит.</p>
+ *
+ * <p>Обновления и удаления показаний окно не повторяет: любое изменение существующих
+ * строк ({@link EntityChangeTags#rewriteGeneration}) выводит окно из работы до
+ * перезагрузки, которая начинается через секунду - после фиксации изменившей
+ * транзакции. Изменения, сделанные в обход приложения, окно не видит.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - включить окно (по умолчанию true)</li>
+ *   <li>{@value #HOURS} - длина окна, часов (по умолчанию 72)</li>
+ *   <li>{@value #MAX_ROWS} - наибольшее число показаний в окне (по умолчанию 5000000);
+ *       при превышении вытесняются самые старые блоки и окно укорачивается</li>
+ *   <li>{@value #MAX_PURPOSES} - наибольшее число различных назначений (по умолчанию 100000);
+ *       при превышении окно перезагружается, а если не помещается и после перезагрузки -
+ *       отключается до следующей попытки через 5 минут</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class SensorDataHotWindow {
+
+    public static final String ENABLED = "lab6omis.hot-window.enabled";
+    public static final String HOURS = "lab6omis.hot-window.hours";
+    public static final String MAX_ROWS = "lab6omis.hot-window.max-rows";
+    public static final String MAX_PURPOSES = "lab6omis.hot-window.max-purposes";
+
+    public static final String ROWS = "lab6omis_hot_window_rows";
+    public static final String QUERIES = "lab6omis_hot_window_queries";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensorDataHotWindow.class);
+    private static final long EVICTION_SECONDS = 60;
+    private static final long REBUILD_DELAY_MILLIS = 1000;
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int FETCH_SIZE = 1000;
+    private static final int ID_BATCH = 1000;
+
+    private static final String HOUR_BASELINE_SQL =
+            "SELECT CAST(EXTRACT(HOUR FROM timestamp) AS INTEGER) AS hour, COUNT(*) AS readings " +
+            "FROM lab6omis.sensor_data WHERE timestamp < :from GROUP BY 1";
+    private static final String LOAD_SQL =
+            "SELECT id, sensor_id, timestamp, purpose FROM lab6omis.sensor_data " +
+            "WHERE timestamp >= :from ORDER BY timestamp";
+    private static final String VISIBLE_IDS_SQL =
+            "SELECT id FROM lab6omis.sensor_data WHERE id IN (:ids)";
+
+    @Inject
+    private TransactionManager txManager;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    /** Готовое окно; null пока окно загружается или выведено из работы. */
+    private ColumnarReadings readings;
+    /** Показания, записанные во время загрузки; null вне загрузки или при переполнении. */
+    private List<SensorData> pending;
+    private long loadedRewrites;
+    /** Номер загрузки окна; меняется при каждом вводе окна в работу. */
+    private volatile long generation;
+    private volatile long rowCount;
+
+    private boolean enabled;
+    private long windowMicros;
+    private long maxRows;
+    private int maxPurposes;
+    private ScheduledExecutorService maintenance;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.parseBoolean(System.getProperty(ENABLED, "true"));
+        windowMicros = Math.max(1, Long.getLong(HOURS, 72)) * ColumnarReadings.MICROS_PER_HOUR;
+        maxRows = Math.max(ReadingChunk.CAPACITY, Long.getLong(MAX_ROWS, 5_000_000L));
+        maxPurposes = Math.max(1, Integer.getInteger(MAX_PURPOSES, 100_000));
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "sensor-data-hot-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        maintenance = executor;
+
+        MetricFamily<Counter> queries = metrics.counter(QUERIES,
+                "Запросы показаний к горячему окну по исходу", "outcome");
+        hits = queries.labels("hit");
+        misses = queries.labels("miss");
+        metrics.gauge(ROWS, "Показания в горячем окне").labels().bind(() -> rowCount);
+    }
+
+    /**
+     * Загружает окно при запуске приложения и включает вытеснение по возрасту.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (!enabled) {
+            LOG.info("Горячее окно показаний отключено ({}=false)", ENABLED);
+            return;
+        }
+        scheduleRebuild(0);
+        maintenance.scheduleWithFixedDelay(this::evict, EVICTION_SECONDS, EVICTION_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Останавливает обслуживание окна.
+     */
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+    }
+
+    /**
+     * Возвращает номер загрузки окна. Вызывается до начала транзакции вставки,
+     * результат передается в {@link #append(List, long)}.
+     *
+     * @return номер загрузки окна
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Добавляет сохраненные показания. Вызывается после фиксации транзакции вставки.
+     * Если окно было загружено заново после начала вставки, снимок загрузки мог уже
+     * включить эти показания, поэтому каждое из них проверяется перед добавлением.
+     *
+     * @param saved сохраненные показания с присвоенными идентификаторами
+     * @param startedGeneration {@link #generation()} на момент начала вставки
+     */
+    public void append(List<SensorData> saved, long startedGeneration) {
+        if (!enabled || saved.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                if (pending.size() + saved.size() > maxRows) {
+                    pending = null;
+                } else {
+                    pending.addAll(saved);
+                }
+            }
+            if (readings != null) {
+                boolean verify = startedGeneration != generation;
+                for (SensorData sensorData : saved) {
+                    long micros = ColumnarReadings.toMicros(sensorData.getTimestamp());
+                    if (verify && micros < readings.floorMicros()) {
+                        // Старое показание снимок учел бы только в распределении по часам - не проверить
+                        LOG.debug("Показание {} старше окна записано во время его загрузки, окно будет перестроено",
+                                sensorData.getId());
+                        readings = null;
+                        scheduleRebuild(0);
+                        break;
+                    }
+                    if (verify && readings.contains(sensorData.getId(), sensorData.getSensor().getId(), micros)) {
+                        continue;
+                    }
+                    if (!add(readings, sensorData)) {
+                        LOG.info("Словарь назначений горячего окна заполнен, окно будет перестроено");
+                        readings = null;
+                        scheduleRebuild(0);
+                        break;
+                    }
+                }
+                rowCount = readings != null ? readings.rows() : 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит показания сенсора за период, если период внутри окна.
+     *
+     * @param sensor сенсор
+     * @param from начало периода, включительно
+     * @param to конец периода, включительно
+     * @return показания или пустое значение, если запрос нужно выполнить в базе данных
+     */
+    public Optional<List<SensorData>> findBySensorBetween(Sensor sensor, LocalDateTime from, LocalDateTime to) {
+        long fromMicros = ColumnarReadings.toMicros(from);
+        long toMicros = ColumnarReadings.toMicros(to);
+        List<SensorData> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ColumnarReadings current = covering(fromMicros);
+            if (current == null) {
+                return miss();
+            }
+            current.scanSensor(sensor.getId(), fromMicros, toMicros,
+                    (sensorId, id, micros, purpose) -> result.add(toEntity(id, micros, purpose, sensor)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.increment();
+        return Optional.of(result);
+    }
+
+    /**
+     * Находит показания всех сенсоров за период, если период внутри окна.
+     * Сенсоры показаний - ссылки {@link EntityManager#getReference}, как у ленивой
+     * связи показаний, загруженных из базы данных.
+     *
+     * @param from начало периода, включительно
+     * @param to конец периода, включительно
+     * @return показания или пустое значение, если запрос нужно выполнить в базе данных
+     */
+    public Optional<List<SensorData>> findBetween(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = ColumnarReadings.toMicros(from);
+        long toMicros = ColumnarReadings.toMicros(to);
+        List<SensorData> result = new ArrayList<>();
+        Map<Long, Sensor> sensors = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            ColumnarReadings current = covering(fromMicros);
+            if (current == null) {
+                return miss();
+            }
+            current.scan(fromMicros, toMicros, (sensorId, id, micros, purpose) -> {
+                Sensor sensor = sensors.computeIfAbsent(sensorId, key -> {
+                    Sensor placeholder = new Sensor();
+                    placeholder.setId(key);
+                    return placeholder;
+                });
+                result.add(toEntity(id, micros, purpose, sensor));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!sensors.isEmpty()) {
+            txManager.executeQuery(em -> {
+                sensors.replaceAll((id, placeholder) -> em.getReference(Sensor.class, id));
+                return null;
+            });
+            for (SensorData sensorData : result) {
+                sensorData.setSensor(sensors.get(sensorData.getSensor().getId()));
+            }
+        }
+        hits.increment();
+        return Optional.of(result);
+    }
+
+    /**
+     * Считает показания по дням начиная с момента {@code from}, если он внутри окна.
+     *
+     * @param from начало периода, включительно
+     * @return карта [дата (yyyy-MM-dd), количество показаний] по возрастанию даты
+     *         или пустое значение, если запрос нужно выполнить в базе данных
+     */
+    public Optional<Map<String, Long>> countByDaySince(LocalDateTime from) {
+        long fromMicros = ColumnarReadings.toMicros(from);
+        long firstDay = Math.floorDiv(fromMicros, ColumnarReadings.MICROS_PER_DAY);
+        long[] counts;
+        lock.readLock().lock();
+        try {
+            ColumnarReadings current = covering(fromMicros);
+            if (current == null) {
+                return miss();
+            }
+            long lastDay = Math.floorDiv(Math.max(current.maxMicros(), fromMicros), ColumnarReadings.MICROS_PER_DAY);
+            counts = new long[(int) (lastDay - firstDay + 1)];
+            current.countByDay(fromMicros, firstDay, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(LocalDate.ofEpochDay(firstDay + i).toString(), counts[i]);
+            }
+        }
+        hits.increment();
+        return Optional.of(result);
+    }
+
+    /**
+     * Возвращает распределение всех показаний по часам суток.
+     * Окно ведет его по всей таблице, а не только за период окна.
+     *
+     * @return карта [час (0-23), количество показаний] или пустое значение,
+     *         если запрос нужно выполнить в базе данных
+     */
+    public Optional<Map<Integer, Long>> countByHour() {
+        long[] totals = new long[24];
+        lock.readLock().lock();
+        try {
+            ColumnarReadings current = current();
+            if (current == null) {
+                return miss();
+            }
+            for (int hour = 0; hour < totals.length; hour++) {
+                totals[hour] = current.hourTotal(hour);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        for (int hour = 0; hour < totals.length; hour++) {
+            if (totals[hour] > 0) {
+                result.put(hour, totals[hour]);
+            }
+        }
+        hits.increment();
+        return Optional.of(result);
+    }
+
+    /**
+     * Возвращает готовое окно, полное начиная с {@code fromMicros}.
+     * Вызывается под блокировкой чтения.
+     */
+    private ColumnarReadings covering(long fromMicros) {
+        ColumnarReadings current = current();
+        if (current == null) {
+            return null;
+        }
+        long floor = Math.max(current.floorMicros(), nowMicros() - windowMicros);
+        return fromMicros >= floor ? current : null;
+    }
+
+    /**
+     * Возвращает готовое окно, если с момента загрузки существующие показания
+     * не изменялись; иначе планирует перезагрузку. Вызывается под блокировкой чтения.
+     */
+    private ColumnarReadings current() {
+        ColumnarReadings current = readings;
+        if (current == null) {
+            return null;
+        }
+        if (EntityChangeTags.rewriteGeneration(SensorData.class) != loadedRewrites) {
+            scheduleRebuild(REBUILD_DELAY_MILLIS);
+            return null;
+        }
+        return current;
+    }
+
+    private <R> Optional<R> miss() {
+        misses.increment();
+        return Optional.empty();
+    }
+
+    private void scheduleRebuild(long delayMillis) {
+        if (enabled && rebuildScheduled.compareAndSet(false, true)) {
+            maintenance.schedule(this::rebuild, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Загружает окно заново. Выполняется в потоке обслуживания.
+     */
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        long rewrites = EntityChangeTags.rewriteGeneration(SensorData.class);
+        long fromMicros = nowMicros() - windowMicros;
+        ColumnarReadings building = new ColumnarReadings(fromMicros, maxRows, maxPurposes);
+
+        lock.writeLock().lock();
+        try {
+            readings = null;
+            rowCount = 0;
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        boolean loaded;
+        try {
+            loaded = txManager.executeInSnapshot(em ->
+                    load(em, building, ColumnarReadings.toLocalDateTime(fromMicros), rewrites));
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось загрузить горячее окно показаний: {}", e.getMessage());
+            loaded = false;
+        }
+
+        if (loaded) {
+            LOG.info("Горячее окно показаний загружено: {} показаний, {} блоков, {} назначений, {} мс",
+                    building.rows(), building.chunks(), building.purposes(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.warn("Горячее окно показаний не загружено, запросы выполняются в базе данных; " +
+                "повтор через {} мин", TimeUnit.MILLISECONDS.toMinutes(RETRY_DELAY_MILLIS));
+        scheduleRebuild(RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Читает окно в снимке и вводит его в работу вместе с показаниями,
+     * записанными во время загрузки.
+     *
+     * @return false если окно не поместилось в лимиты
+     */
+    @SuppressWarnings("unchecked")
+    private boolean load(EntityManager em, ColumnarReadings building, LocalDateTime from, long rewrites) {
+        List<Object[]> hours = em.createNativeQuery(HOUR_BASELINE_SQL)
+                .setParameter("from", from)
+                .getResultList();
+        for (Object[] row : hours) {
+            building.addHourBaseline(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+
+        try (Stream<Object[]> rows = em.createNativeQuery(LOAD_SQL)
+                .setParameter("from", from)
+                .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                long micros = ColumnarReadings.toMicros(((Timestamp) row[2]).toLocalDateTime());
+                if (!building.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        micros, (String) row[3])) {
+                    LOG.warn("Назначения показаний окна не помещаются в словарь ({}={})", MAX_PURPOSES, maxPurposes);
+                    return false;
+                }
+            }
+        }
+
+        // Под блокировкой записи: новые показания ждут, пока окно не будет введено в работу
+        lock.writeLock().lock();
+        try {
+            List<SensorData> late = pending;
+            pending = null;
+            if (late == null) {
+                LOG.warn("Показаний, записанных во время загрузки окна, больше {}={}", MAX_ROWS, maxRows);
+                return false;
+            }
+            Set<Long> visible = visibleIds(em, late);
+            for (SensorData sensorData : late) {
+                if (!visible.contains(sensorData.getId()) && !add(building, sensorData)) {
+                    return false;
+                }
+            }
+            building.evictBefore(nowMicros() - windowMicros);
+            readings = building;
+            loadedRewrites = rewrites;
+            generation++;
+            rowCount = building.rows();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы показаний, которые видит снимок загрузки.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> visibleIds(EntityManager em, List<SensorData> late) {
+        Set<Long> visible = new HashSet<>();
+        for (int from = 0; from < late.size(); from += ID_BATCH) {
+            List<Long> ids = new ArrayList<>();
+            for (SensorData sensorData : late.subList(from, Math.min(late.size(), from + ID_BATCH))) {
+                ids.add(sensorData.getId());
+            }
+            List<Number> found = em.createNativeQuery(VISIBLE_IDS_SQL)
+                    .setParameter("ids", ids)
+                    .getResultList();
+            for (Number id : found) {
+                visible.add(id.longValue());
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Вытесняет блоки старше окна. Выполняется в потоке обслуживания.
+     */
+    private void evict() {
+        lock.writeLock().lock();
+        try {
+            if (readings != null) {
+                readings.evictBefore(nowMicros() - windowMicros);
+                rowCount = readings.rows();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean add(ColumnarReadings target, SensorData sensorData) {
+        return target.add(sensorData.getId(), sensorData.getSensor().getId(),
+                ColumnarReadings.toMicros(sensorData.getTimestamp()), sensorData.getPurpose());
+    }
+
+    private static SensorData toEntity(long id, long micros, String purpose, Sensor sensor) {
+        SensorData sensorData = new SensorData(ColumnarReadings.toLocalDateTime(micros), purpose, sensor);
+        sensorData.setId(id);
+        return sensorData;
+    }
+
+    private static long nowMicros() {
+        return ColumnarReadings.toMicros(LocalDateTime.now());
+    }
+}
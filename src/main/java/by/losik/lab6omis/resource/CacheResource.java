@@ -1,11 +1,15 @@
 package by.losik.lab6omis.resource;
 
+import by.losik.lab6omis.service.cache.AdaptiveCacheSizer;
 import by.losik.lab6omis.service.cache.CacheMonitorService;
+import by.losik.lab6omis.service.cache.CacheWarmupService;
+import by.losik.lab6omis.service.uniqueness.UniquenessFilterService;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 import java.util.Map;
 
 @Path("api/cache")
@@ -15,6 +19,15 @@ public class CacheResource {
     @Inject
     private CacheMonitorService cacheMonitorService;
 
+    @Inject
+    private UniquenessFilterService uniquenessFilterService;
+
+    @Inject
+    private CacheWarmupService warmupService;
+
+    @Inject
+    private AdaptiveCacheSizer adaptiveCacheSizer;
+
     @GET
     @Path("/stats")
     public Response getCacheStatistics() {
@@ -22,10 +35,74 @@ public class CacheResource {
         return Response.ok(stats).build();
     }
 
+    @GET
+    @Path("/stats/queries")
+    public Response getQueryRegionStatistics() {
+        return Response.ok(cacheMonitorService.getQueryRegionStatistics()).build();
+    }
+
+    @GET
+    @Path("/stats/regions")
+    public Response getRegionStatistics() {
+        return Response.ok(cacheMonitorService.getRegionStatistics()).build();
+    }
+
+    @GET
+    @Path("/stats/uniqueness")
+    public Response getUniquenessFilterStatistics() {
+        return Response.ok(uniquenessFilterService.getStatistics()).build();
+    }
+
+    @POST
+    @Path("/uniqueness/rebuild")
+    public Response rebuildUniquenessFilters() {
+        uniquenessFilterService.rebuild();
+        return Response.ok(uniquenessFilterService.getStatistics()).build();
+    }
+
     @POST
     @Path("/clear")
-    public Response clearCache() {
-        cacheMonitorService.clearAllCaches();
-        return Response.ok("Cache cleared").build();
+    public Response clearCache(@QueryParam("rewarm") @DefaultValue("false") boolean rewarm) {
+        if (!rewarm) {
+            cacheMonitorService.clearAllCaches();
+            return Response.ok("Cache cleared").build();
+        }
+        return Response.ok(Map.of("rewarming", cacheMonitorService.clearAllCaches(true))).build();
+    }
+
+    @POST
+    @Path("/evict")
+    public Response evictRegions(@QueryParam("region") List<String> regions,
+                                 @QueryParam("rewarm") @DefaultValue("true") boolean rewarm) {
+        if (regions == null || regions.isEmpty()) {
+            throw new BadRequestException("Не указан ни один регион (параметр region)");
+        }
+        List<String> rewarming = cacheMonitorService.evictRegions(regions, rewarm);
+        return Response.ok(Map.of("evicted", regions, "rewarming", rewarming)).build();
+    }
+
+    @POST
+    @Path("/evict/entity/{entity}")
+    public Response evictEntity(@PathParam("entity") String entity,
+                                @QueryParam("id") Long id,
+                                @QueryParam("rewarm") @DefaultValue("true") boolean rewarm) {
+        try {
+            List<String> rewarming = cacheMonitorService.evictEntity(entity, id, rewarm);
+            return Response.ok(Map.of("evicted", entity, "rewarming", rewarming)).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/adaptive")
+    public Response getAdaptiveSizingStatus() {
+        return Response.ok(adaptiveCacheSizer.getStatus()).build();
+    }
+
+    @GET
+    @Path("/warmup")
+    public Response getWarmupStatus() {
+        return Response.ok(warmupService.getStatus()).build();
     }
 }
\ No newline at end of file
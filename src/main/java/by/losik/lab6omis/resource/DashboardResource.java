@@ -0,0 +1,87 @@
+package by.losik.lab6omis.resource;
+
+import by.losik.lab6omis.dto.DashboardSnapshot;
+import by.losik.lab6omis.service.dashboard.DashboardSnapshotService;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * REST ресурс показателей панели управления.
+ * Отдает текущий снимок показателей и поток их изменений (Server-Sent Events),
+ * по которому открытая страница панели обновляет счетчики без перезагрузки.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Path("api/dashboard")
+public class DashboardResource {
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    @Inject
+    private DashboardSnapshotService snapshotService;
+
+    /**
+     * Возвращает текущий снимок показателей.
+     *
+     * @return снимок показателей панели управления
+     */
+    @GET
+    @Path("/snapshot")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getSnapshot() {
+        return Response.ok(snapshotService.getSnapshot()).build();
+    }
+
+    /**
+     * Открывает поток изменений показателей.
+     * Первым событием ({@code snapshot}) передаются все показатели,
+     * далее ({@code delta}) - только изменившиеся.
+     *
+     * @param sink канал событий клиента
+     * @param sse фабрика событий
+     */
+    @GET
+    @Path("/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void events(@Context SseEventSink sink, @Context Sse sse) {
+        DashboardSnapshot current = snapshotService.getSnapshot();
+        sink.send(buildEvent(sse, "snapshot", current.diff(null)));
+
+        snapshotService.subscribe(new Consumer<>() {
+            @Override
+            public void accept(Map<String, Object> delta) {
+                if (sink.isClosed()) {
+                    throw new IllegalStateException("Канал событий закрыт");
+                }
+                sink.send(buildEvent(sse, "delta", delta)).whenComplete((result, error) -> {
+                    if (error != null) {
+                        snapshotService.unsubscribe(this);
+                        sink.close();
+                    }
+                });
+            }
+        });
+    }
+
+    private OutboundSseEvent buildEvent(Sse sse, String name, Map<String, Object> data) {
+        return sse.newEventBuilder()
+                .name(name)
+                .id(String.valueOf(data.get("version")))
+                .reconnectDelay(RECONNECT_DELAY_MS)
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(Map.class, data)
+                .build();
+    }
+}
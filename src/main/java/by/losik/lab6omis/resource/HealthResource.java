@@ -0,0 +1,50 @@
+package by.losik.lab6omis.resource;
+
+import by.losik.lab6omis.service.cache.CacheWarmupService;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * REST ресурс проверок состояния узла для балансировщика.
+ * Узел считается готовым к нагрузке после завершения начального прогрева кэша.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Path("api/health")
+@Produces(MediaType.APPLICATION_JSON)
+public class HealthResource {
+
+    @Inject
+    private CacheWarmupService warmupService;
+
+    /**
+     * Проверка жизнеспособности: приложение запущено и отвечает.
+     *
+     * @return 200 OK
+     */
+    @GET
+    @Path("/live")
+    public Response live() {
+        return Response.ok(Map.of("status", "UP")).build();
+    }
+
+    /**
+     * Проверка готовности: начальный прогрев кэша завершен.
+     *
+     * @return 200 OK с ходом прогрева или 503, если прогрев еще идет
+     */
+    @GET
+    @Path("/ready")
+    public Response ready() {
+        Map<String, Object> status = warmupService.getStatus();
+        Response.Status code = warmupService.isReady() ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE;
+        return Response.status(code).entity(status).build();
+    }
+}
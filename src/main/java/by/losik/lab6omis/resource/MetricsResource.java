@@ -0,0 +1,37 @@
+package by.losik.lab6omis.resource;
+
+import by.losik.lab6omis.metrics.MetricsRegistry;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+/**
+ * REST ресурс выгрузки метрик для Prometheus.
+ * Доступен по адресу {@code /api/metrics} (без повторного префикса api,
+ * как принято для адреса сбора метрик).
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@Path("metrics")
+public class MetricsResource {
+
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    /**
+     * Возвращает все метрики в текстовом формате Prometheus.
+     *
+     * @return выгрузка метрик
+     */
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response scrape() {
+        return Response.ok(metrics.scrape()).build();
+    }
+}
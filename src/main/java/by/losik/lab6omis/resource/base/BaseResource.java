@@ -1,6 +1,8 @@
 package by.losik.lab6omis.resource.base;
 
 import by.losik.lab6omis.dto.CountResponse;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.service.base.BaseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +40,8 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      * Создание новой сущности.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response create(@Valid T entity) {
         LOG.debug("Создание новой сущности через REST");
         T created = service.executeWithLogging(
@@ -56,11 +58,11 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      */
     @GET
     @Path("/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response getById(@PathParam("id") String idString) {
         LOG.debug("Получение сущности по ID: {}", idString);
         T entity = service.executeWithLogging(
-                String.format("Получение сущности по ID через REST: %s", idString),
+                "Получение сущности по ID через REST: %s", idString,
                 () -> {
                     ID id = convertToId(idString);
                     return getEntityById(id);
@@ -73,7 +75,8 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      * Получение всех сущностей.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @ConditionalGet
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response getAll() {
         LOG.debug("Получение всех сущностей через REST");
         List<T> entities = service.executeWithLogging(
@@ -87,14 +90,15 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      * Получение сущностей с пагинацией.
      */
     @GET
+    @ConditionalGet
     @Path("/page/{page}/size/{size}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response getAllPaginated(
             @PathParam("page") @DefaultValue("0") int page,
             @PathParam("size") @DefaultValue("20") int size) {
         LOG.debug("Получение сущностей с пагинацией: page={}, size={}", page, size);
         List<T> entities = service.executeWithLogging(
-                String.format("Получение сущностей с пагинацией через REST: page=%d, size=%d", page, size),
+                "Получение сущностей с пагинацией через REST: page=%d, size=%d", page, size,
                 () -> getEntitiesPaginated(page, size)
         );
         return Response.ok(entities).build();
@@ -105,12 +109,12 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      */
     @PUT
     @Path("/{id}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response update(@PathParam("id") String idString, @Valid T entity) {
         LOG.debug("Обновление сущности с ID: {}", idString);
         T updated = service.executeWithLogging(
-                String.format("Обновление сущности через REST, ID: %s", idString),
+                "Обновление сущности через REST, ID: %s", idString,
                 () -> {
                     ID id = convertToId(idString);
                     return updateEntity(id, entity);
@@ -124,11 +128,11 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      */
     @DELETE
     @Path("/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response delete(@PathParam("id") String idString) {
         LOG.debug("Удаление сущности с ID: {}", idString);
         service.executeVoidWithLogging(
-                String.format("Удаление сущности через REST, ID: %s", idString),
+                "Удаление сущности через REST, ID: %s", idString,
                 () -> {
                     ID id = convertToId(idString);
                     deleteEntity(id);
@@ -141,8 +145,9 @@ public abstract class BaseResource<T, ID, S extends BaseService<T, ID>> {
      * Получение общего количества.
      */
     @GET
+    @ConditionalGet
     @Path("/count")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
     public Response getCount() {
         LOG.debug("Получение общего количества сущностей через REST");
         long count = service.executeWithLogging(
@@ -4,6 +4,7 @@ import by.losik.lab6omis.dto.SmartAnalysisRequest;
 import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Request;
 import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.base.AnalysisStrategy;
 import by.losik.lab6omis.service.general.types.AnalysisCommand;
@@ -13,6 +14,9 @@ import by.losik.lab6omis.service.general.types.ResponseCommand;
 import by.losik.lab6omis.service.general.types.SolutionCommand;
 import by.losik.lab6omis.service.general.types.SolutionService;
 import by.losik.lab6omis.service.general.types.StatAnalysisStrategy;
+import by.losik.lab6omis.service.stats.AnalysisCalculations;
+import by.losik.lab6omis.service.stats.ComprehensiveStats;
+import by.losik.lab6omis.service.stats.ComprehensiveStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +38,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -46,8 +49,8 @@ import java.util.stream.Collectors;
  * @version 1.0
  */
 @Path("api/analysis")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class AnalysisResource extends BaseResource<Request, Long, RequestService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AnalysisResource.class);
@@ -70,6 +73,14 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
     @Inject
     private ResponseCommand responseCommand;
 
+    @Inject
+    private ComprehensiveStatsService statsService;
+
+    @Inject
+    public AnalysisResource(RequestService service) {
+        this.service = service;
+    }
+
     /**
      * Конвертация строки в Long ID для запросов.
      */
@@ -158,16 +169,17 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
         responseCommand.call();
 
         Map<String, Object> result = new HashMap<>();
+        ComprehensiveStats stats = statsService.getStats();
 
         // Анализ запросов
-        result.put("totalRequests", service.getTotalRequestsCount());
-        result.put("averageAccuracy", service.getAverageRecognitionAccuracy());
-        result.put("requestsByLanguage", service.getRequestsCountByLanguage());
+        result.put("totalRequests", stats.getTotalRequests());
+        result.put("averageAccuracy", stats.getAverageAccuracy());
+        result.put("requestsByLanguage", stats.getRequestsByLanguage());
 
         // Анализ решений
-        result.put("totalSolutions", solutionService.getTotalSolutionsCount());
-        result.put("averageMessageLength", solutionService.getAverageMessageLength());
-        result.put("solutionsByLanguage", solutionService.getSolutionsCountByLanguage());
+        result.put("totalSolutions", stats.getTotalSolutions());
+        result.put("averageMessageLength", stats.getAverageMessageLength());
+        result.put("solutionsByLanguage", stats.getSolutionsByLanguage());
 
         // Статистика
         result.put("analysisTimestamp", new Date());
@@ -212,7 +224,7 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
         statAnalysisStrategy.analyze(data);
 
         // Статистический анализ данных
-        Map<String, Object> stats = performStatisticalAnalysis(data);
+        Map<String, Object> stats = AnalysisCalculations.performStatisticalAnalysis(data);
 
         Map<String, Object> result = new HashMap<>();
         result.put("strategy", "StatAnalysisStrategy");
@@ -278,7 +290,8 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
         Double avgLength = solutionService.getAverageMessageLengthByLanguage(language);
 
         // Анализ эффективности
-        double effectivenessScore = calculateEffectivenessScore(requests, solutions, avgAccuracy, avgLength);
+        double effectivenessScore = AnalysisCalculations.calculateEffectivenessScore(
+                requests, solutions, avgAccuracy, avgLength);
 
         Map<String, Object> result = new HashMap<>();
         result.put("language", language);
@@ -287,7 +300,7 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
         result.put("averageAccuracy", avgAccuracy);
         result.put("averageMessageLength", avgLength);
         result.put("effectivenessScore", effectivenessScore);
-        result.put("rating", getEffectivenessRating(effectivenessScore));
+        result.put("rating", AnalysisCalculations.getEffectivenessRating(effectivenessScore));
 
         return Response.ok(result).build();
     }
@@ -349,11 +362,11 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
         List<Map<String, Object>> analysisResults = new ArrayList<>();
 
         for (Request request : requests) {
-            Map<String, Object> result = analyzeSingleRequest(request);
+            Map<String, Object> result = AnalysisCalculations.analyzeSingleRequest(request);
             analysisResults.add(result);
         }
 
-        Map<String, Object> aggregate = aggregateBatchResults(analysisResults);
+        Map<String, Object> aggregate = AnalysisCalculations.aggregateBatchResults(analysisResults);
 
         Map<String, Object> response = new HashMap<>();
         response.put("individualResults", analysisResults);
@@ -414,56 +427,6 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Object> performStatisticalAnalysis(List<String> data) {
-        Map<String, Object> stats = new HashMap<>();
-
-        stats.put("totalItems", data.size());
-        stats.put("nonEmptyItems", data.stream().filter(s -> s != null && !s.trim().isEmpty()).count());
-
-        if (!data.isEmpty()) {
-            double avgLength = data.stream()
-                    .filter(Objects::nonNull)
-                    .mapToInt(String::length)
-                    .average()
-                    .orElse(0.0);
-            stats.put("averageLength", avgLength);
-
-            stats.put("maxLength", data.stream()
-                    .filter(Objects::nonNull)
-                    .mapToInt(String::length)
-                    .max()
-                    .orElse(0));
-            stats.put("minLength", data.stream()
-                    .filter(Objects::nonNull)
-                    .mapToInt(String::length)
-                    .min()
-                    .orElse(0));
-        }
-
-        return stats;
-    }
-
-    private double calculateEffectivenessScore(List<Request> requests, List<Solution> solutions,
-                                               Double avgAccuracy, Double avgLength) {
-        if (requests.isEmpty() || solutions.isEmpty()) {
-            return 0.0;
-        }
-
-        double coverageScore = (double) solutions.size() / requests.size();
-        double accuracyScore = avgAccuracy != null ? avgAccuracy / 100.0 : 0.5;
-        double lengthScore = avgLength != null ? Math.min(avgLength / 500.0, 1.0) : 0.5;
-
-        return (coverageScore * 0.4 + accuracyScore * 0.3 + lengthScore * 0.3) * 100;
-    }
-
-    private String getEffectivenessRating(double score) {
-        if (score >= 80) return "EXCELLENT";
-        if (score >= 60) return "GOOD";
-        if (score >= 40) return "FAIR";
-        if (score >= 20) return "POOR";
-        return "VERY_POOR";
-    }
-
     private Map<String, Object> analyzeCorrelation(List<Request> requests) {
         Map<String, Object> correlation = new HashMap<>();
 
@@ -504,36 +467,6 @@ public class AnalysisResource extends BaseResource<Request, Long, RequestService
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Object> analyzeSingleRequest(Request request) {
-        Map<String, Object> result = new HashMap<>();
-
-        result.put("requestId", request.getId());
-        result.put("goal", request.getGoal());
-        result.put("language", request.getLanguage());
-        result.put("accuracy", request.getRecognitionAccuracy());
-        result.put("analysisStatus", "PROCESSED");
-        result.put("timestamp", new Date());
-
-        return result;
-    }
-
-    private Map<String, Object> aggregateBatchResults(List<Map<String, Object>> results) {
-        Map<String, Object> aggregate = new HashMap<>();
-
-        aggregate.put("totalRequests", results.size());
-        aggregate.put("successfulAnalysis", results.size()); // Все успешны в демо
-
-        Map<Language, Long> languageCount = results.stream()
-                .filter(r -> r.get("language") != null)
-                .collect(Collectors.groupingBy(
-                        r -> (Language) r.get("language"),
-                        Collectors.counting()
-                ));
-        aggregate.put("requestsByLanguage", languageCount);
-
-        return aggregate;
-    }
-
     private Map<String, Object> simulateTrendAnalysis(int days, Language language) {
         Map<String, Object> trends = new HashMap<>();
 
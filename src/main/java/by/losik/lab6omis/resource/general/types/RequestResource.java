@@ -16,10 +16,14 @@ import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Request;
 import by.losik.lab6omis.entities.general.types.SensorData;
 import by.losik.lab6omis.entities.general.types.Sound;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.general.types.RequestService;
 import by.losik.lab6omis.service.general.types.SensorDataService;
 import by.losik.lab6omis.service.general.types.SoundService;
+import by.losik.lab6omis.service.stats.ComprehensiveStats;
+import by.losik.lab6omis.service.stats.ComprehensiveStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,8 +62,8 @@ import java.util.stream.Collectors;
  * @version 1.0
  */
 @Path("/api/requests")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class RequestResource extends BaseResource<Request, Long, RequestService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(RequestResource.class);
@@ -70,6 +74,9 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
     @Inject
     private SensorDataService sensorDataService;
 
+    @Inject
+    private ComprehensiveStatsService statsService;
+
     @Inject
     public RequestResource(RequestService service) {
         this.service = service;
@@ -134,7 +141,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<Request> requests = service.executeWithLogging(
-                    String.format("Получение запросов по языку через REST: %s", language),
+                    "Получение запросов по языку через REST: %s", language,
                     () -> service.getByLanguage(language)
             );
             return Response.ok(new SearchResponse<>(requests)).build();
@@ -157,7 +164,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов с точностью выше: {}", minAccuracy);
 
         List<Request> requests = service.executeWithLogging(
-                String.format("Поиск запросов с точностью выше %.2f через REST", minAccuracy),
+                "Поиск запросов с точностью выше %.2f через REST", minAccuracy,
                 () -> service.getByRecognitionAccuracyGreaterThan(minAccuracy)
         );
         return Response.ok(new SearchResponse<>(requests)).build();
@@ -175,7 +182,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов с точностью от {} до {}", minAccuracy, maxAccuracy);
 
         List<Request> requests = service.executeWithLogging(
-                String.format("Поиск запросов с точностью от %.2f до %.2f через REST", minAccuracy, maxAccuracy),
+                "Поиск запросов с точностью от %.2f до %.2f через REST", minAccuracy, maxAccuracy,
                 () -> service.getByRecognitionAccuracyBetween(minAccuracy, maxAccuracy)
         );
         return Response.ok(new SearchResponse<>(requests)).build();
@@ -190,7 +197,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов по паттерну цели: {}", pattern);
 
         List<Request> requests = service.executeWithLogging(
-                String.format("Поиск запросов по паттерну цели через REST: '%s'", pattern),
+                "Поиск запросов по паттерну цели через REST: '%s'", pattern,
                 () -> service.getByGoalPattern(pattern)
         );
         return Response.ok(new SearchResponse<>(requests)).build();
@@ -207,7 +214,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<Request> requests = service.executeWithLogging(
-                    String.format("Получение запросов по языку с сортировкой по точности через REST: %s", language),
+                    "Получение запросов по языку с сортировкой по точности через REST: %s", language,
                     () -> service.getByLanguageOrderByAccuracyDesc(language)
             );
             return Response.ok(new SearchResponse<>(requests)).build();
@@ -225,6 +232,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
      * Рассчитывает среднюю точность распознавания всех запросов.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/average-accuracy")
     public Response getAverageRecognitionAccuracy() {
         LOG.debug("Расчет средней точности распознавания всех запросов");
@@ -240,6 +248,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
      * Рассчитывает среднюю точность распознавания по указанному языку.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/average-accuracy/language/{language}")
     public Response getAverageRecognitionAccuracyByLanguage(@PathParam("language") String languageStr) {
         LOG.debug("Расчет средней точности распознавания для языка: {}", languageStr);
@@ -247,7 +256,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             Double averageAccuracy = service.executeWithLogging(
-                    String.format("Расчет средней точности распознавания для языка через REST: %s", language),
+                    "Расчет средней точности распознавания для языка через REST: %s", language,
                     () -> service.getAverageRecognitionAccuracyByLanguage(language)
             );
             return Response.ok(new LanguageAverageAccuracyResponse(language, averageAccuracy)).build();
@@ -265,6 +274,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
      * Получает статистику количества запросов по языкам.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-language")
     public Response getRequestsCountByLanguage() {
         LOG.debug("Получение статистики количества запросов по языкам");
@@ -315,7 +325,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Проверка существования запроса с целью: {}", goal);
 
         boolean exists = service.executeWithLogging(
-                String.format("Проверка существования запроса с целью через REST: '%s'", goal),
+                "Проверка существования запроса с целью через REST: '%s'", goal,
                 () -> service.existsByGoal(goal)
         );
         return Response.ok(new ExistsResponse(exists)).build();
@@ -330,7 +340,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запроса по точной цели: {}", goal);
 
         Request request = service.executeWithLogging(
-                String.format("Поиск запроса по точной цели через REST: '%s'", goal),
+                "Поиск запроса по точной цели через REST: '%s'", goal,
                 () -> service.getByGoal(goal)
         );
         return Response.ok(request).build();
@@ -345,7 +355,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов по цели: {}", searchText);
 
         List<Request> requests = service.executeWithLogging(
-                String.format("Поиск запросов по цели через REST: '%s'", searchText),
+                "Поиск запросов по цели через REST: '%s'", searchText,
                 () -> service.searchByGoal(searchText)
         );
         return Response.ok(new SearchResponse<>(requests)).build();
@@ -362,7 +372,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             int deletedCount = service.executeWithLogging(
-                    String.format("Удаление всех запросов на языке через REST: %s", language),
+                    "Удаление всех запросов на языке через REST: %s", language,
                     () -> service.deleteByLanguage(language)
             );
             return Response.ok(new DeleteResponse(deletedCount)).build();
@@ -431,7 +441,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
 
         Long id = convertToId(idString);
         RequestWithSoundsResponse result = service.executeWithLogging(
-                String.format("Получение запроса с звуками через REST: %d", id),
+                "Получение запроса с звуками через REST: %d", id,
                 () -> {
                     Request request = service.getById(id);
                     // В этом примере предполагаем, что звуки связаны через цели/шаблоны
@@ -456,7 +466,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов с звуками по точности от {} до {}", minAccuracy, maxAccuracy);
 
         List<RequestWithSoundsResponse> result = service.executeWithLogging(
-                String.format("Поиск запросов с звуками по точности через REST: %.2f-%.2f", minAccuracy, maxAccuracy),
+                "Поиск запросов с звуками по точности через REST: %.2f-%.2f", minAccuracy, maxAccuracy,
                 () -> {
                     List<Request> requests = service.getByRecognitionAccuracyBetween(minAccuracy, maxAccuracy);
                     return requests.stream()
@@ -509,7 +519,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
 
         Long id = convertToId(idString);
         RequestWithSensorDataResponse result = service.executeWithLogging(
-                String.format("Получение запроса с данными сенсоров через REST: %d", id),
+                "Получение запроса с данными сенсоров через REST: %d", id,
                 () -> {
                     Request request = service.getById(id);
                     List<SensorData> sensorData = findRelatedSensorData(request);
@@ -532,8 +542,8 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         LOG.debug("Поиск запросов с данными сенсоров по точности от {} до {}", minAccuracy, maxAccuracy);
 
         List<RequestWithSensorDataResponse> result = service.executeWithLogging(
-                String.format("Поиск запросов с данными сенсоров по точности через REST: %.2f-%.2f",
-                        minAccuracy, maxAccuracy),
+                "Поиск запросов с данными сенсоров по точности через REST: %.2f-%.2f",
+                minAccuracy, maxAccuracy,
                 () -> {
                     List<Request> requests = service.getByRecognitionAccuracyBetween(minAccuracy, maxAccuracy);
                     return requests.stream()
@@ -560,7 +570,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
 
         Long id = convertToId(idString);
         RequestFullInfoResponse result = service.executeWithLogging(
-                String.format("Получение полной информации по запросу через REST: %d", id),
+                "Получение полной информации по запросу через REST: %d", id,
                 () -> {
                     Request request = service.getById(id);
                     List<Sound> sounds = findRelatedSounds(request);
@@ -612,6 +622,7 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
      * Получает статистику по всем сущностям.
      */
     @GET
+    @ConditionalGet({Request.class, Sound.class, SensorData.class})
     @Path("/stats/comprehensive")
     public Response getComprehensiveStats() {
         LOG.debug("Получение комплексной статистики");
@@ -619,21 +630,12 @@ public class RequestResource extends BaseResource<Request, Long, RequestService>
         ComprehensiveStatsResponse result = service.executeWithLogging(
                 "Получение комплексной статистики через REST",
                 () -> {
-                    long totalRequests = service.getTotalRequestsCount();
-                    long totalSounds = soundService.getTotalSoundsCount();
-                    long totalSensorData = sensorDataService.getTotalSensorDataCount();
-
-                    Double avgAccuracy = service.getAverageRecognitionAccuracy();
-                    Double avgFrequency = soundService.getAverageFrequency();
-
-                    Map<Language, Long> requestsByLanguage = service.getRequestsCountByLanguage();
-                    Map<String, Double> avgFrequencyByNoise = soundService.getAverageFrequencyByNoiseType();
-                    Map<Long, Long> dataCountBySensor = sensorDataService.getDataCountBySensor();
-
+                    ComprehensiveStats stats = statsService.getStats();
                     return new ComprehensiveStatsResponse(
-                            totalRequests, totalSounds, totalSensorData,
-                            avgAccuracy, avgFrequency,
-                            requestsByLanguage, avgFrequencyByNoise, dataCountBySensor
+                            stats.getTotalRequests(), stats.getTotalSounds(), stats.getTotalSensorData(),
+                            stats.getAverageAccuracy(), stats.getAverageFrequency(),
+                            stats.getRequestsByLanguage(), stats.getAverageFrequencyByNoise(),
+                            stats.getDataCountBySensor()
                     );
                 }
         );
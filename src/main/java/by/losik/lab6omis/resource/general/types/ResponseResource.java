@@ -14,6 +14,8 @@ import by.losik.lab6omis.dto.SyncResponse;
 import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.ResponseEntity;
 import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.general.types.ResponseService;
 import by.losik.lab6omis.service.general.types.SolutionService;
@@ -46,6 +48,8 @@ import java.util.Map;
  * REST ресурс для управления решениями (Solution) с поддержкой связанных ответов (ResponseEntity).
  * Предоставляет полный набор операций CRUD, поиска, фильтрации и статистики для решений,
  * а также интеграцию с ответами.
+ * Путь {@code /api/responses} отделен от {@code api/solutions} ресурса {@link SolutionResource}:
+ * при совпадающих путях Jersey отклоняет модель ресурсов и REST API не запускается.
  *
  * @see Solution
  * @see ResponseEntity
@@ -54,9 +58,9 @@ import java.util.Map;
  * @author Losik Yaroslav
  * @version 1.0
  */
-@Path("/api/solutions")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Path("/api/responses")
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class ResponseResource extends BaseResource<Solution, Long, SolutionService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResponseResource.class);
@@ -125,7 +129,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         Long id = convertToId(idString);
         SolutionWithResponse result = service.executeWithLogging(
-                String.format("Получение решения с ответом через REST: %d", id),
+                "Получение решения с ответом через REST: %d", id,
                 () -> {
                     Solution solution = service.getById(id);
                     ResponseEntity response = findMatchingResponse(solution);
@@ -173,7 +177,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         Long id = convertToId(idString);
         SolutionWithResponse result = service.executeWithLogging(
-                String.format("Обновление решения с ответом через REST: %d", id),
+                "Обновление решения с ответом через REST: %d", id,
                 () -> {
                     Solution updatedSolution = service.updateSolution(id, solution);
                     ResponseEntity existingResponse = findMatchingResponse(updatedSolution);
@@ -207,7 +211,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         Long id = convertToId(idString);
         DeleteWithResponseResponse result = service.executeWithLogging(
-                String.format("Удаление решения с ответом через REST: %d", id),
+                "Удаление решения с ответом через REST: %d", id,
                 () -> {
                     Solution solution = service.getById(id);
                     ResponseEntity response = findMatchingResponse(solution);
@@ -236,7 +240,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         Long id = convertToId(idString);
         SyncResponse result = service.executeWithLogging(
-                String.format("Синхронизация ответа с решением через REST: %d", id),
+                "Синхронизация ответа с решением через REST: %d", id,
                 () -> {
                     Solution solution = service.getById(id);
                     ResponseEntity existingResponse = findMatchingResponse(solution);
@@ -273,7 +277,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<Solution> solutions = service.executeWithLogging(
-                    String.format("Получение решений по языку через REST: %s", language),
+                    "Получение решений по языку через REST: %s", language,
                     () -> service.getByLanguage(language)
             );
             return Response.ok(new SearchResponse<>(solutions)).build();
@@ -302,8 +306,8 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<Solution> solutions = service.executeWithLogging(
-                    String.format("Получение решений по языку с пагинацией через REST: %s, page=%d, size=%d",
-                            language, page, size),
+                    "Получение решений по языку с пагинацией через REST: %s, page=%d, size=%d",
+                    language, page, size,
                     () -> service.getByLanguageWithPagination(language, page, size)
             );
             return Response.ok(new SearchResponse<>(solutions)).build();
@@ -326,7 +330,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений по сообщению: {}", searchText);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений по сообщению через REST: '%s'", searchText),
+                "Поиск решений по сообщению через REST: '%s'", searchText,
                 () -> service.searchByMessage(searchText)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -346,7 +350,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         List<String> keywords = Arrays.asList(keywordsStr.split(","));
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений по ключевым словам через REST: %s", keywords),
+                "Поиск решений по ключевым словам через REST: %s", keywords,
                 () -> service.searchByKeywords(keywords)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -364,7 +368,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений с длиной сообщения от {} до {} символов", minLength, maxLength);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений с длиной сообщения через REST: %d-%d", minLength, maxLength),
+                "Поиск решений с длиной сообщения через REST: %d-%d", minLength, maxLength,
                 () -> service.getByMessageLengthBetween(minLength, maxLength)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -379,7 +383,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений с сообщениями короче {} символов", maxLength);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений с короткими сообщениями через REST: < %d", maxLength),
+                "Поиск решений с короткими сообщениями через REST: < %d", maxLength,
                 () -> service.getShortMessages(maxLength)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -394,7 +398,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений с сообщениями длиннее {} символов", minLength);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений с длинными сообщениями через REST: > %d", minLength),
+                "Поиск решений с длинными сообщениями через REST: > %d", minLength,
                 () -> service.getLongMessages(minLength)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -409,7 +413,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений по префиксу сообщения: {}", prefix);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений по префиксу сообщения через REST: '%s'", prefix),
+                "Поиск решений по префиксу сообщения через REST: '%s'", prefix,
                 () -> service.getByMessageStartingWith(prefix)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -424,7 +428,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений по суффиксу сообщения: {}", suffix);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Поиск решений по суффиксу сообщения через REST: '%s'", suffix),
+                "Поиск решений по суффиксу сообщения через REST: '%s'", suffix,
                 () -> service.getByMessageEndingWith(suffix)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -440,7 +444,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
 
         List<Language> languages = parseLanguages(languagesStr);
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Получение решений по языкам через REST: %s", languages),
+                "Получение решений по языкам через REST: %s", languages,
                 () -> service.getByLanguages(languages)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -455,7 +459,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Получение решений с точной длиной сообщения: {} символов", exactLength);
 
         List<Solution> solutions = service.executeWithLogging(
-                String.format("Получение решений с точной длиной сообщения через REST: %d", exactLength),
+                "Получение решений с точной длиной сообщения через REST: %d", exactLength,
                 () -> service.getByMessageLength(exactLength)
         );
         return Response.ok(new SearchResponse<>(solutions)).build();
@@ -475,8 +479,8 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<Solution> solutions = service.executeWithLogging(
-                    String.format("Получение решений по языку с сортировкой через REST: %s, ascending=%s",
-                            language, ascending),
+                    "Получение решений по языку с сортировкой через REST: %s, ascending=%s",
+                    language, ascending,
                     () -> service.getByLanguageOrderByMessageLength(language, ascending)
             );
             return Response.ok(new SearchResponse<>(solutions)).build();
@@ -494,6 +498,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
      * Получает статистику количества решений по языкам.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-language")
     public Response getSolutionsCountByLanguage() {
         LOG.debug("Получение статистики количества решений по языкам");
@@ -509,6 +514,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
      * Рассчитывает среднюю длину сообщений всех решений.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/average-length")
     public Response getAverageMessageLength() {
         LOG.debug("Расчет средней длины сообщений всех решений");
@@ -524,6 +530,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
      * Рассчитывает среднюю длину сообщений по указанному языку.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/average-length/language/{language}")
     public Response getAverageMessageLengthByLanguage(@PathParam("language") String languageStr) {
         LOG.debug("Расчет средней длины сообщений для языка: {}", languageStr);
@@ -531,7 +538,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             Double averageLength = service.executeWithLogging(
-                    String.format("Расчет средней длины сообщений для языка через REST: %s", language),
+                    "Расчет средней длины сообщений для языка через REST: %s", language,
                     () -> service.getAverageMessageLengthByLanguage(language)
             );
             return Response.ok(new LanguageAverageLengthResponse(language, averageLength)).build();
@@ -584,7 +591,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Проверка существования решения с сообщением: {}", message);
 
         boolean exists = service.executeWithLogging(
-                String.format("Проверка существования решения с сообщением через REST: '%s'", message),
+                "Проверка существования решения с сообщением через REST: '%s'", message,
                 () -> service.existsByMessage(message)
         );
         return Response.ok(new ExistsResponse(exists)).build();
@@ -601,7 +608,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             Long count = service.executeWithLogging(
-                    String.format("Подсчет количества решений на языке через REST: %s", language),
+                    "Подсчет количества решений на языке через REST: %s", language,
                     () -> service.countByLanguage(language)
             );
             return Response.ok(new CountResponse(count != null ? count : 0L)).build();
@@ -641,7 +648,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             int deletedCount = service.executeWithLogging(
-                    String.format("Удаление всех решений на языке через REST: %s", language),
+                    "Удаление всех решений на языке через REST: %s", language,
                     () -> service.deleteByLanguage(language)
             );
             return Response.ok(new DeleteResponse(deletedCount)).build();
@@ -664,7 +671,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решения по точному сообщению: {}", message);
 
         Solution solution = service.executeWithLogging(
-                String.format("Поиск решения по точному сообщению через REST: '%s'", message),
+                "Поиск решения по точному сообщению через REST: '%s'", message,
                 () -> service.getByMessage(message)
                         .orElseThrow(() -> new NotFoundException(
                                 String.format("Решение с сообщением '%s' не найдено", message)
@@ -702,7 +709,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         try {
             Language language = Language.valueOf(languageStr.toUpperCase());
             List<SolutionWithResponse> result = service.executeWithLogging(
-                    String.format("Получение решений с ответами по языку через REST: %s", language),
+                    "Получение решений с ответами по языку через REST: %s", language,
                     () -> {
                         List<Solution> solutions = service.getByLanguage(language);
                         return mapSolutionsToResponseList(solutions);
@@ -728,7 +735,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
         LOG.debug("Поиск решений с ответами по сообщению: {}", searchText);
 
         List<SolutionWithResponse> result = service.executeWithLogging(
-                String.format("Поиск решений с ответами по сообщению через REST: '%s'", searchText),
+                "Поиск решений с ответами по сообщению через REST: '%s'", searchText,
                 () -> {
                     List<Solution> solutions = service.searchByMessage(searchText);
                     return mapSolutionsToResponseList(solutions);
@@ -741,6 +748,7 @@ public class ResponseResource extends BaseResource<Solution, Long, SolutionServi
      * Получает статистику по решениям и ответам.
      */
     @GET
+    @ConditionalGet({Solution.class, ResponseEntity.class})
     @Path("/stats/with-response")
     public Response getSolutionsWithResponsesStats() {
         LOG.debug("Получение статистики по решениям и ответам");
@@ -4,11 +4,19 @@ import by.losik.lab6omis.dto.DeleteResponse;
 import by.losik.lab6omis.dto.ExistsResponse;
 import by.losik.lab6omis.dto.IsNewResponse;
 import by.losik.lab6omis.dto.SearchResponse;
+import by.losik.lab6omis.dto.StreamingSearchResponse;
 import by.losik.lab6omis.entities.general.types.Sensor;
 import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.general.types.SensorDataService;
 import by.losik.lab6omis.service.general.types.SensorService;
+import by.losik.lab6omis.service.ingest.SensorDataIngestion;
+import by.losik.lab6omis.service.series.SeriesMode;
+import by.losik.lab6omis.service.stream.SensorReadingEvent;
+import by.losik.lab6omis.service.stream.SensorReadingHub;
+import by.losik.lab6omis.service.stream.SensorReadingListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,17 +27,25 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * REST ресурс для управления данными сенсоров (SensorData).
@@ -42,20 +58,103 @@ import java.util.Map;
  * @version 1.0
  */
 @Path("/api/sensor-data")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class SensorDataResource extends BaseResource<SensorData, Long, SensorDataService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SensorDataResource.class);
+    private static final long STREAM_RECONNECT_DELAY_MS = 3000;
+    private static final long STREAM_BUSY_RECONNECT_DELAY_MS = 30_000;
 
     @Inject
     private SensorService sensorService;
 
+    @Inject
+    private SensorDataIngestion ingestion;
+
+    @Inject
+    private SensorReadingHub readingHub;
+
     @Inject
     public SensorDataResource(SensorDataService service) {
         this.service = service;
     }
 
+    /**
+     * Создание данных сенсора.
+     * В асинхронном режиме ({@link SensorDataIngestion}) проверенное показание ставится
+     * в очередь записи или журнал на диске и возвращается 202 Accepted без тела;
+     * если очередь или журнал заполнены, возвращается 429 с заголовком Retry-After.
+     */
+    @Override
+    public Response create(SensorData entity) {
+        if (!ingestion.isEnabled()) {
+            return super.create(entity);
+        }
+        service.validateForIngestion(entity, ingestion.isSpooled());
+        if (ingestion.offer(entity)) {
+            return Response.accepted().build();
+        }
+        long retryAfter = ingestion.retryAfterSeconds();
+        LOG.debug("Очередь записи заполнена, повтор через {} с", retryAfter);
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                .entity(Map.of(
+                        "error", "Очередь записи заполнена",
+                        "retryAfterSeconds", retryAfter
+                ))
+                .build();
+    }
+
+    /**
+     * Открывает поток новых показаний (Server-Sent Events) вместо опроса
+     * {@code /newest} и {@code /latest-per-sensor}. Показания передаются по мере
+     * фиксации записи событиями {@code reading}; фильтры по сенсору и типу сенсора
+     * можно сочетать.
+     * <p>Браузерный EventSource при переподключении передает {@code Last-Event-ID},
+     * и пропущенные показания досылаются из окна повтора. Если это невозможно,
+     * приходит событие {@code reset}: клиенту следует перечитать данные через REST.
+     * Если клиент не успевает читать, при политике {@code drop} приходит событие
+     * {@code dropped} с числом потерянных показаний, при {@code coalesce} - только
+     * последнее показание каждого сенсора. Если подписчиков слишком много, приходит
+     * событие {@code unavailable} с увеличенной задержкой переподключения.</p>
+     *
+     * @param sensorId только показания этого сенсора (необязательно)
+     * @param type только показания сенсоров этого типа (необязательно)
+     * @param overflow политика медленного клиента: drop или coalesce
+     * @param lastEventId идентификатор последнего полученного события
+     * @param sink канал событий клиента
+     * @param sse фабрика событий
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(
+            @QueryParam("sensorId") Long sensorId,
+            @QueryParam("type") String type,
+            @QueryParam("overflow") String overflow,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+            @Context SseEventSink sink,
+            @Context Sse sse) {
+        SensorReadingHub.Overflow policy;
+        try {
+            policy = overflow == null ? readingHub.getDefaultOverflow() : SensorReadingHub.Overflow.parse(overflow);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        String sensorType = type == null || type.isBlank() ? null : type.trim();
+        if (!readingHub.subscribe(sensorId, sensorType, policy, lastEventId, new SseReadingListener(sink, sse))) {
+            LOG.warn("Достигнуто наибольшее число подписчиков потока показаний");
+            sink.send(sse.newEventBuilder()
+                    .name("unavailable")
+                    .reconnectDelay(STREAM_BUSY_RECONNECT_DELAY_MS)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Map.class, Map.of("error", "Достигнуто наибольшее число подписчиков потока показаний"))
+                    .build());
+            sink.close();
+        }
+    }
+
     @Override
     protected Long convertToId(String idString) {
         try {
@@ -109,16 +208,17 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return список данных указанного сенсора
      */
     @GET
+    @ConditionalGet
     @Path("/sensor/{sensorId}")
     public Response getBySensorId(@PathParam("sensorId") Long sensorId) {
         LOG.debug("Получение данных сенсора по ID сенсора: {}", sensorId);
 
-        List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Получение данных сенсора по ID сенсора через REST: %d", sensorId),
-                () -> service.getBySensorId(sensorId)
+        Stream<SensorData> sensorData = service.executeWithLogging(
+                "Получение данных сенсора по ID сенсора через REST: %d", sensorId,
+                () -> service.streamBySensorId(sensorId)
         );
 
-        return Response.ok(new SearchResponse<>(sensorData)).build();
+        return Response.ok(new StreamingSearchResponse<>(sensorData)).build();
     }
 
     /**
@@ -133,7 +233,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Получение данных сенсора по объекту сенсора: {}", sensorId);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -142,7 +242,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Получение данных сенсора по объекту сенсора через REST: %d", sensorId),
+                "Получение данных сенсора по объекту сенсора через REST: %d", sensorId,
                 () -> service.getBySensor(sensor)
         );
 
@@ -161,7 +261,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по назначению: {}", purpose);
 
         SensorData sensorData = service.executeWithLogging(
-                String.format("Поиск данных по назначению через REST: '%s'", purpose),
+                "Поиск данных по назначению через REST: '%s'", purpose,
                 () -> service.getByPurpose(purpose)
         );
 
@@ -180,7 +280,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по назначению: {}", searchText);
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных по назначению через REST: '%s'", searchText),
+                "Поиск данных по назначению через REST: '%s'", searchText,
                 () -> service.searchByPurpose(searchText)
         );
 
@@ -202,7 +302,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             LocalDateTime dateTime = LocalDateTime.parse(timestamp);
 
             List<SensorData> sensorData = service.executeWithLogging(
-                    String.format("Поиск данных по временной метке через REST: %s", dateTime),
+                    "Поиск данных по временной метке через REST: %s", dateTime,
                     () -> service.getByTimestamp(dateTime)
             );
 
@@ -224,6 +324,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return список данных за указанный период
      */
     @GET
+    @ConditionalGet
     @Path("/time-period")
     public Response getByTimestampBetween(
             @QueryParam("start") String startDate,
@@ -235,12 +336,12 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             LocalDateTime start = LocalDateTime.parse(startDate);
             LocalDateTime end = LocalDateTime.parse(endDate);
 
-            List<SensorData> sensorData = service.executeWithLogging(
-                    String.format("Поиск данных за период через REST: с %s по %s", start, end),
-                    () -> service.getByTimestampBetween(start, end)
+            Stream<SensorData> sensorData = service.executeWithLogging(
+                    "Поиск данных за период через REST: с %s по %s", start, end,
+                    () -> service.streamByTimestampBetween(start, end)
             );
 
-            return Response.ok(new SearchResponse<>(sensorData)).build();
+            return Response.ok(new StreamingSearchResponse<>(sensorData)).build();
 
         } catch (Exception e) {
             LOG.warn("Некорректный формат даты: start={}, end={}", startDate, endDate);
@@ -262,12 +363,12 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
     public Response getRecentData(@PathParam("days") Integer days) {
         LOG.debug("Получение данных за последние {} дней", days);
 
-        List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Получение данных за последние %d дней через REST", days),
-                () -> service.getRecentData(days)
+        Stream<SensorData> sensorData = service.executeWithLogging(
+                "Получение данных за последние %d дней через REST", days,
+                () -> service.streamRecentData(days)
         );
 
-        return Response.ok(new SearchResponse<>(sensorData)).build();
+        return Response.ok(new StreamingSearchResponse<>(sensorData)).build();
     }
 
     /**
@@ -292,7 +393,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             LocalDateTime end = LocalDateTime.parse(endDate);
 
             Sensor sensor = sensorService.executeWithLogging(
-                    String.format("Получение сенсора по ID: %d", sensorId),
+                    "Получение сенсора по ID: %d", sensorId,
                     () -> sensorService.getById(sensorId)
             );
 
@@ -301,8 +402,8 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             }
 
             List<SensorData> sensorData = service.executeWithLogging(
-                    String.format("Поиск данных сенсора за период через REST: сенсор ID=%d, период: с %s по %s",
-                            sensorId, start, end),
+                    "Поиск данных сенсора за период через REST: сенсор ID=%d, период: с %s по %s",
+                    sensorId, start, end,
                     () -> service.getBySensorAndTimestampBetween(sensor, start, end)
             );
 
@@ -318,6 +419,56 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
     }
 
+    /**
+     * Получает прореженный ряд показаний сенсора для графика: не больше
+     * {@code points} элементов вместо всех показаний периода.
+     * Режим {@code buckets} возвращает агрегаты по равным интервалам времени
+     * (число, первое и последнее показание), режим {@code lttb} - реальные
+     * показания, выбранные алгоритмом Largest-Triangle-Three-Buckets.
+     *
+     * @param sensorId ID сенсора
+     * @param from начало периода (ISO-8601, включительно)
+     * @param to конец периода (ISO-8601, не включительно; по умолчанию - текущий момент)
+     * @param points наибольшее число элементов ряда (3-10000)
+     * @param mode режим прореживания: lttb или buckets
+     * @return прореженный ряд
+     */
+    @GET
+    @ConditionalGet(requires = "to")
+    @Path("/sensor/{sensorId}/series")
+    public Response getSeries(
+            @PathParam("sensorId") Long sensorId,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("points") @DefaultValue("500") int points,
+            @QueryParam("mode") @DefaultValue("lttb") String mode) {
+
+        LOG.debug("Ряд показаний сенсора ID={}: с {} по {}, точек {}, режим {}", sensorId, from, to, points, mode);
+
+        LocalDateTime start;
+        LocalDateTime end;
+        SeriesMode seriesMode;
+        try {
+            if (from == null) {
+                throw new IllegalArgumentException("Не указано начало периода (from)");
+            }
+            start = LocalDateTime.parse(from);
+            end = to == null ? LocalDateTime.now() : LocalDateTime.parse(to);
+            seriesMode = SeriesMode.parse(mode);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new BadRequestException(
+                    String.format("Некорректные параметры ряда: %s. Ожидаются from/to в формате ISO-8601 и mode lttb или buckets",
+                            e.getMessage())
+            );
+        }
+
+        try {
+            return Response.ok(service.getSeries(sensorId, start, end, points, seriesMode)).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
     /**
      * Получает данные по назначению с сортировкой по времени (по возрастанию).
      *
@@ -330,7 +481,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по назначению '{}' с сортировкой по времени (возр.)", purpose);
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных по назначению с сортировкой (возр.) через REST: '%s'", purpose),
+                "Поиск данных по назначению с сортировкой (возр.) через REST: '%s'", purpose,
                 () -> service.getByPurposeOrderByTimestampAsc(purpose)
         );
 
@@ -349,7 +500,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по назначению '{}' с сортировкой по времени (убыв.)", purpose);
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных по назначению с сортировкой (убыв.) через REST: '%s'", purpose),
+                "Поиск данных по назначению с сортировкой (убыв.) через REST: '%s'", purpose,
                 () -> service.getByPurposeOrderByTimestampDesc(purpose)
         );
 
@@ -373,7 +524,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных сенсора ID={} с сортировкой по времени ({})", sensorId, order);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -382,8 +533,8 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных сенсора с сортировкой через REST: сенсор ID=%d, порядок=%s",
-                        sensorId, order),
+                "Поиск данных сенсора с сортировкой через REST: сенсор ID=%d, порядок=%s",
+                sensorId, order,
                 () -> service.getBySensorOrderByTimestamp(sensor, ascending)
         );
 
@@ -402,7 +553,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по префиксу назначения: '{}'", prefix);
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных по префиксу назначения через REST: '%s'", prefix),
+                "Поиск данных по префиксу назначения через REST: '%s'", prefix,
                 () -> service.getByPurposeStartingWith(prefix)
         );
 
@@ -421,7 +572,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Поиск данных по суффиксу назначения: '{}'", suffix);
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Поиск данных по суффиксу назначения через REST: '%s'", suffix),
+                "Поиск данных по суффиксу назначения через REST: '%s'", suffix,
                 () -> service.getByPurposeEndingWith(suffix)
         );
 
@@ -434,6 +585,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return карта, где ключ - ID сенсора, значение - количество данных
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-sensor")
     public Response getDataCountBySensor() {
         LOG.debug("Получение статистики данных по сенсорам");
@@ -458,7 +610,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Получение статистики данных по дням за последние {} дней", days);
 
         Map<String, Long> stats = service.executeWithLogging(
-                String.format("Получение статистики данных по дням через REST за последние %d дней", days),
+                "Получение статистики данных по дням через REST за последние %d дней", days,
                 () -> service.getDataCountByDay(days)
         );
 
@@ -471,6 +623,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return список последних данных по каждому сенсору
      */
     @GET
+    @ConditionalGet
     @Path("/latest-per-sensor")
     public Response getLatestDataForEachSensor() {
         LOG.debug("Получение последних данных для каждого сенсора");
@@ -489,6 +642,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return список данных с минимальной временной меткой
      */
     @GET
+    @ConditionalGet
     @Path("/oldest")
     public Response getOldestData() {
         LOG.debug("Получение самых старых данных сенсоров");
@@ -507,6 +661,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return список данных с максимальной временной меткой
      */
     @GET
+    @ConditionalGet
     @Path("/newest")
     public Response getNewestData() {
         LOG.debug("Получение самых новых данных сенсоров");
@@ -531,7 +686,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Проверка существования данных для сенсора ID: {}", sensorId);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -540,7 +695,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         boolean exists = service.executeWithLogging(
-                String.format("Проверка существования данных для сенсора через REST: %d", sensorId),
+                "Проверка существования данных для сенсора через REST: %d", sensorId,
                 () -> service.existsBySensor(sensor)
         );
 
@@ -559,7 +714,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Удаление всех данных для сенсора ID: {}", sensorId);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -568,7 +723,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         int deletedCount = service.executeWithLogging(
-                String.format("Удаление всех данных для сенсора через REST: %d", sensorId),
+                "Удаление всех данных для сенсора через REST: %d", sensorId,
                 () -> service.deleteBySensor(sensor)
         );
 
@@ -590,7 +745,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             LocalDateTime cutoff = LocalDateTime.parse(cutoffDate);
 
             int deletedCount = service.executeWithLogging(
-                    String.format("Удаление старых данных через REST до даты: %s", cutoff),
+                    "Удаление старых данных через REST до даты: %s", cutoff,
                     () -> service.deleteOldData(cutoff)
             );
 
@@ -622,7 +777,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Получение данных сенсора ID={} с пагинацией: page={}, size={}", sensorId, page, size);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -631,8 +786,8 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         List<SensorData> sensorData = service.executeWithLogging(
-                String.format("Получение данных сенсора с пагинацией через REST: сенсор ID=%d, page=%d, size=%d",
-                        sensorId, page, size),
+                "Получение данных сенсора с пагинацией через REST: сенсор ID=%d, page=%d, size=%d",
+                sensorId, page, size,
                 () -> service.getBySensorWithPagination(sensor, page, size)
         );
 
@@ -651,7 +806,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         LOG.debug("Подсчет количества данных для сенсора ID: {}", sensorId);
 
         Sensor sensor = sensorService.executeWithLogging(
-                String.format("Получение сенсора по ID: %d", sensorId),
+                "Получение сенсора по ID: %d", sensorId,
                 () -> sensorService.getById(sensorId)
         );
 
@@ -660,7 +815,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
         }
 
         Long count = service.executeWithLogging(
-                String.format("Подсчет количества данных для сенсора через REST: %d", sensorId),
+                "Подсчет количества данных для сенсора через REST: %d", sensorId,
                 () -> service.countBySensor(sensor)
         );
 
@@ -692,7 +847,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             List<Sensor> sensors = new java.util.ArrayList<>();
             for (Long sensorId : ids) {
                 Sensor sensor = sensorService.executeWithLogging(
-                        String.format("Получение сенсора по ID: %d", sensorId),
+                        "Получение сенсора по ID: %d", sensorId,
                         () -> sensorService.getById(sensorId)
                 );
 
@@ -706,7 +861,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             }
 
             List<SensorData> sensorData = service.executeWithLogging(
-                    String.format("Поиск данных по %d сенсорам через REST", sensors.size()),
+                    "Поиск данных по %d сенсорам через REST", sensors.size(),
                     () -> service.getBySensors(sensors)
             );
 
@@ -742,8 +897,8 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
             LocalDateTime end = LocalDateTime.parse(endDate);
 
             List<SensorData> sensorData = service.executeWithLogging(
-                    String.format("Комплексный поиск данных через REST: паттерн='%s', период: %s - %s",
-                            purposePattern, start, end),
+                    "Комплексный поиск данных через REST: паттерн='%s', период: %s - %s",
+                    purposePattern, start, end,
                     () -> service.getByPurposePatternAndTimeRange(purposePattern, start, end)
             );
 
@@ -764,6 +919,7 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
      * @return карта, где ключ - час (0-23), значение - количество данных
      */
     @GET
+    @ConditionalGet
     @Path("/stats/distribution-by-hour")
     public Response getDataDistributionByHour() {
         LOG.debug("Получение распределения данных по часам суток");
@@ -794,4 +950,67 @@ public class SensorDataResource extends BaseResource<SensorData, Long, SensorDat
 
         return Response.ok(new IsNewResponse(isNew)).build();
     }
+
+    /**
+     * Передает события {@link SensorReadingHub} в канал Server-Sent Events.
+     * Запись выполняется синхронно в потоке доставки подписки, поэтому
+     * медленный клиент заполняет только буфер своей подписки и не занимает
+     * потоки других подписчиков.
+     */
+    private static final class SseReadingListener implements SensorReadingListener {
+
+        private final SseEventSink sink;
+        private final Sse sse;
+
+        SseReadingListener(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        @Override
+        public void onReading(SensorReadingEvent event) {
+            send(sse.newEventBuilder()
+                    .name("reading")
+                    .id(event.getId())
+                    .reconnectDelay(STREAM_RECONNECT_DELAY_MS)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Map.class, event.toMap())
+                    .build());
+        }
+
+        @Override
+        public void onDropped(long count) {
+            send(sse.newEventBuilder()
+                    .name("dropped")
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Map.class, Map.of("count", count))
+                    .build());
+        }
+
+        @Override
+        public void onReset() {
+            send(sse.newEventBuilder()
+                    .name("reset")
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Map.class, Map.of("reason", "Пропущенные показания недоступны, перечитайте данные"))
+                    .build());
+        }
+
+        @Override
+        public void onHeartbeat() {
+            send(sse.newEventBuilder().comment("heartbeat").build());
+        }
+
+        @Override
+        public void onClose() {
+            sink.close();
+        }
+
+        private void send(OutboundSseEvent event) {
+            if (sink.isClosed()) {
+                throw new IllegalStateException("Канал событий закрыт");
+            }
+            sink.send(event).toCompletableFuture().join();
+        }
+    }
 }
\ No newline at end of file
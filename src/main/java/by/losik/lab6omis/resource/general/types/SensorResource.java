@@ -5,6 +5,9 @@ import by.losik.lab6omis.dto.ExistsResponse;
 import by.losik.lab6omis.dto.IsNewResponse;
 import by.losik.lab6omis.dto.SearchResponse;
 import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.general.types.SensorService;
 import org.slf4j.Logger;
@@ -39,8 +42,8 @@ import java.util.Map;
  * @version 1.0
  */
 @Path("/api/sensors")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SensorResource.class);
@@ -108,7 +111,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсора по имени: {}", name);
 
         Sensor sensor = service.executeWithLogging(
-                String.format("Поиск сенсора по имени через REST: '%s'", name),
+                "Поиск сенсора по имени через REST: '%s'", name,
                 () -> service.getByName(name)
         );
 
@@ -127,7 +130,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по имени: {}", searchText);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по имени через REST: '%s'", searchText),
+                "Поиск сенсоров по имени через REST: '%s'", searchText,
                 () -> service.searchByName(searchText)
         );
 
@@ -146,7 +149,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по типу: {}", type);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по типу через REST: '%s'", type),
+                "Поиск сенсоров по типу через REST: '%s'", type,
                 () -> service.getByType(type)
         );
 
@@ -165,7 +168,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по типу: {}", searchText);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по типу через REST: '%s'", searchText),
+                "Поиск сенсоров по типу через REST: '%s'", searchText,
                 () -> service.searchByType(searchText)
         );
 
@@ -184,7 +187,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по локации: {}", location);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по локации через REST: '%s'", location),
+                "Поиск сенсоров по локации через REST: '%s'", location,
                 () -> service.getByLocation(location)
         );
 
@@ -203,7 +206,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по статусу активности: {}", isActive);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по статусу активности через REST: %s", isActive),
+                "Поиск сенсоров по статусу активности через REST: %s", isActive,
                 () -> service.getByActiveStatus(isActive)
         );
 
@@ -258,7 +261,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по локации: {}", searchText);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по локации через REST: '%s'", searchText),
+                "Поиск сенсоров по локации через REST: '%s'", searchText,
                 () -> service.searchByLocation(searchText)
         );
 
@@ -281,7 +284,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по имени '{}' и типу '{}'", name, type);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по имени '%s' и типу '%s' через REST", name, type),
+                "Поиск сенсоров по имени '%s' и типу '%s' через REST", name, type,
                 () -> service.getByNameAndType(name, type)
         );
 
@@ -300,7 +303,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по типу '{}' с сортировкой по имени (возр.)", type);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по типу '%s' с сортировкой по имени (возр.) через REST", type),
+                "Поиск сенсоров по типу '%s' с сортировкой по имени (возр.) через REST", type,
                 () -> service.getByTypeOrderByNameAsc(type)
         );
 
@@ -319,7 +322,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по типу '{}' с сортировкой по имени (убыв.)", type);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по типу '%s' с сортировкой по имени (убыв.) через REST", type),
+                "Поиск сенсоров по типу '%s' с сортировкой по имени (убыв.) через REST", type,
                 () -> service.getByTypeOrderByNameDesc(type)
         );
 
@@ -338,7 +341,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по префиксу имени: '{}'", prefix);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по префиксу имени через REST: '%s'", prefix),
+                "Поиск сенсоров по префиксу имени через REST: '%s'", prefix,
                 () -> service.getByNameStartingWith(prefix)
         );
 
@@ -357,7 +360,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по суффиксу имени: '{}'", suffix);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по суффиксу имени через REST: '%s'", suffix),
+                "Поиск сенсоров по суффиксу имени через REST: '%s'", suffix,
                 () -> service.getByNameEndingWith(suffix)
         );
 
@@ -370,6 +373,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
      * @return карта [тип сенсора, количество]
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-type")
     public Response getSensorCountByType() {
         LOG.debug("Получение статистики сенсоров по типам");
@@ -388,6 +392,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
      * @return карта [локация, количество сенсоров]
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-location")
     public Response getSensorCountByLocation() {
         LOG.debug("Получение статистики сенсоров по локациям");
@@ -406,6 +411,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
      * @return карта [статус активности, количество]
      */
     @GET
+    @ConditionalGet
     @Path("/stats/count-by-active-status")
     public Response getSensorCountByActiveStatus() {
         LOG.debug("Получение статистики сенсоров по статусу активности");
@@ -430,7 +436,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Проверка существования сенсора с именем: {}", name);
 
         boolean exists = service.executeWithLogging(
-                String.format("Проверка существования сенсора с именем через REST: '%s'", name),
+                "Проверка существования сенсора с именем через REST: '%s'", name,
                 () -> service.existsByName(name)
         );
 
@@ -449,7 +455,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Удаление сенсоров типа: {}", type);
 
         int deletedCount = service.executeWithLogging(
-                String.format("Удаление сенсоров типа через REST: '%s'", type),
+                "Удаление сенсоров типа через REST: '%s'", type,
                 () -> service.deleteByType(type)
         );
 
@@ -468,7 +474,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Удаление сенсоров в локации: {}", location);
 
         int deletedCount = service.executeWithLogging(
-                String.format("Удаление сенсоров в локации через REST: '%s'", location),
+                "Удаление сенсоров в локации через REST: '%s'", location,
                 () -> service.deleteByLocation(location)
         );
 
@@ -493,7 +499,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Получение сенсоров типа '{}' с пагинацией: page={}, size={}", type, page, size);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Получение сенсоров типа '%s' с пагинацией через REST: page=%d, size=%d", type, page, size),
+                "Получение сенсоров типа '%s' с пагинацией через REST: page=%d, size=%d", type, page, size,
                 () -> service.getByTypeWithPagination(type, page, size)
         );
 
@@ -512,7 +518,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Получение количества сенсоров типа: {}", type);
 
         Long count = service.executeWithLogging(
-                String.format("Получение количества сенсоров типа через REST: '%s'", type),
+                "Получение количества сенсоров типа через REST: '%s'", type,
                 () -> service.countByType(type)
         );
 
@@ -541,7 +547,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
             }
 
             List<Sensor> sensors = service.executeWithLogging(
-                    String.format("Поиск сенсоров по типам через REST: %s", typeList),
+                    "Поиск сенсоров по типам через REST: %s", typeList,
                     () -> service.getByTypes(typeList)
             );
 
@@ -577,7 +583,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
             }
 
             List<Sensor> sensors = service.executeWithLogging(
-                    String.format("Поиск сенсоров по локациям через REST: %s", locationList),
+                    "Поиск сенсоров по локациям через REST: %s", locationList,
                     () -> service.getByLocations(locationList)
             );
 
@@ -625,7 +631,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Обновление активности сенсора ID={} на {}", sensorId, isActive);
 
         int updatedCount = service.executeWithLogging(
-                String.format("Обновление активности сенсора через REST: ID=%d, активность=%s", sensorId, isActive),
+                "Обновление активности сенсора через REST: ID=%d, активность=%s", sensorId, isActive,
                 () -> service.updateSensorActivity(sensorId, isActive)
         );
 
@@ -644,7 +650,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Активация всех сенсоров типа: {}", type);
 
         int updatedCount = service.executeWithLogging(
-                String.format("Активация сенсоров типа через REST: '%s'", type),
+                "Активация сенсоров типа через REST: '%s'", type,
                 () -> service.activateSensorsByType(type)
         );
 
@@ -663,7 +669,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Деактивация всех сенсоров типа: {}", type);
 
         int updatedCount = service.executeWithLogging(
-                String.format("Деактивация сенсоров типа через REST: '%s'", type),
+                "Деактивация сенсоров типа через REST: '%s'", type,
                 () -> service.deactivateSensorsByType(type)
         );
 
@@ -682,7 +688,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Поиск сенсоров по шаблону имени: '{}'", namePattern);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Поиск сенсоров по шаблону имени через REST: '%s'", namePattern),
+                "Поиск сенсоров по шаблону имени через REST: '%s'", namePattern,
                 () -> service.getByNamePattern(namePattern)
         );
 
@@ -695,6 +701,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
      * @return список массивов [сенсор, количество данных]
      */
     @GET
+    @ConditionalGet({Sensor.class, SensorData.class})
     @Path("/stats/with-data-count")
     public Response getSensorsWithDataCount() {
         LOG.debug("Получение сенсоров с количеством связанных данных");
@@ -737,7 +744,7 @@ public class SensorResource extends BaseResource<Sensor, Long, SensorService> {
         LOG.debug("Получение топ-{} сенсоров по количеству данных", limit);
 
         List<Sensor> sensors = service.executeWithLogging(
-                String.format("Получение топ-%d сенсоров по количеству данных через REST", limit),
+                "Получение топ-%d сенсоров по количеству данных через REST", limit,
                 () -> service.getTopSensorsByDataCount(limit)
         );
 
@@ -2,6 +2,8 @@ package by.losik.lab6omis.resource.general.types;
 
 import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.provider.BinaryMediaTypes;
+import by.losik.lab6omis.provider.ConditionalGet;
 import by.losik.lab6omis.resource.base.BaseResource;
 import by.losik.lab6omis.service.general.types.*;
 import org.slf4j.Logger;
@@ -24,8 +26,8 @@ import java.util.Optional;
  * @version 1.0
  */
 @Path("api/solutions")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE})
 public class SolutionResource extends BaseResource<Solution, Long, SolutionService> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SolutionResource.class);
@@ -138,6 +140,7 @@ public class SolutionResource extends BaseResource<Solution, Long, SolutionServi
      * Получение статистики по языкам.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/language")
     public Response getSolutionsCountByLanguage() {
         LOG.debug("Получение статистики решений по языкам");
@@ -149,6 +152,7 @@ public class SolutionResource extends BaseResource<Solution, Long, SolutionServi
      * Получение средней длины сообщений.
      */
     @GET
+    @ConditionalGet
     @Path("/stats/avg-length")
     public Response getAverageMessageLength() {
         LOG.debug("Получение средней длины сообщений");
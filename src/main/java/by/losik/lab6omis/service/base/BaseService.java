@@ -1,12 +1,17 @@
 package by.losik.lab6omis.service.base;
 
+import by.losik.lab6omis.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -14,6 +19,17 @@ import java.util.function.Supplier;
 /**
  * Базовый сервис с общими методами для работы с сущностями.
  * Предоставляет общие операции: логирование, обработка ошибок, валидация.
+ * Длительность каждой операции записывается в {@link MetricsRegistry#serviceOperations()}
+ * с меткой метода, вызвавшего {@code executeWithLogging}, и исходом операции.
+ *
+ * <p>Название операции передается постоянным шаблоном с аргументами
+ * ({@code executeWithLogging("Поиск по ID: %d", id, ...)}), а не готовой строкой:
+ * форматирование выполняется только для включенного уровня логирования или при ошибке.
+ * Ключ метки метрики - класс переданной лямбды: он свой у каждого места вызова,
+ * поэтому одинаковые шаблоны из разных методов получают разные метки. Вспомогательные
+ * методы этого класса ({@link #getEntityById}, {@link #ensureEntityExists},
+ * {@link #mapListWithLogging}, {@link #forEachWithLogging}) используют ключом класс
+ * лямбды вызывающего метода, а меткой - сам вызывающий метод сервиса.</p>
  *
  * @param <T> тип сущности
  * @param <ID> тип идентификатора сущности
@@ -22,69 +38,271 @@ public abstract class BaseService<T, ID> {
 
     protected final Logger LOG = LoggerFactory.getLogger(getClass());
 
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    private static final String OUTCOME_INVALID = "invalid";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String BASE_SERVICE = BaseService.class.getName();
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final List<String> EXECUTE_METHODS = List.of(
+            "execute", "executeVoid", "executeWithLogging", "executeVoidWithLogging", "recordOperation");
+    private static final int MAX_OPERATION_LABELS = 1024;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    private final Map<Class<?>, String> operationLabels = new ConcurrentHashMap<>();
+    private volatile String serviceName;
+
     /**
      * Выполняет операцию с логированием и обработкой ошибок.
      *
-     * @param operationName название операции для логирования
+     * @param operationName название операции для логирования (постоянная строка)
      * @param operation операция для выполнения
      * @param <R> тип возвращаемого значения
      * @return результат операции
      */
     public <R> R executeWithLogging(String operationName, Supplier<R> operation) {
-        LOG.debug("Начало выполнения операции: {}", operationName);
+        return execute(operationName, 0, null, null, null, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию с логированием и обработкой ошибок.
+     * Название операции формируется по шаблону {@link String#format} только тогда,
+     * когда оно действительно нужно: для включенного уровня логирования или при ошибке.
+     *
+     * @param template шаблон названия операции
+     * @param arg аргумент шаблона
+     * @param operation операция для выполнения
+     * @param <R> тип возвращаемого значения
+     * @return результат операции
+     */
+    public <R> R executeWithLogging(String template, Object arg, Supplier<R> operation) {
+        return execute(template, 1, arg, null, null, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию с логированием и обработкой ошибок (шаблон с двумя аргументами).
+     *
+     * @param template шаблон названия операции
+     * @param arg1 первый аргумент шаблона
+     * @param arg2 второй аргумент шаблона
+     * @param operation операция для выполнения
+     * @param <R> тип возвращаемого значения
+     * @return результат операции
+     * @see #executeWithLogging(String, Object, Supplier)
+     */
+    public <R> R executeWithLogging(String template, Object arg1, Object arg2, Supplier<R> operation) {
+        return execute(template, 2, arg1, arg2, null, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию с логированием и обработкой ошибок (шаблон с тремя аргументами).
+     *
+     * @param template шаблон названия операции
+     * @param arg1 первый аргумент шаблона
+     * @param arg2 второй аргумент шаблона
+     * @param arg3 третий аргумент шаблона
+     * @param operation операция для выполнения
+     * @param <R> тип возвращаемого значения
+     * @return результат операции
+     * @see #executeWithLogging(String, Object, Supplier)
+     */
+    public <R> R executeWithLogging(String template, Object arg1, Object arg2, Object arg3,
+                                    Supplier<R> operation) {
+        return execute(template, 3, arg1, arg2, arg3, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию без возвращаемого значения с логированием и обработкой ошибок.
+     *
+     * @param operationName название операции для логирования (постоянная строка)
+     * @param operation операция для выполнения
+     */
+    public void executeVoidWithLogging(String operationName, Runnable operation) {
+        executeVoid(operationName, 0, null, null, null, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию без возвращаемого значения с логированием и обработкой ошибок.
+     *
+     * @param template шаблон названия операции
+     * @param arg аргумент шаблона
+     * @param operation операция для выполнения
+     * @see #executeWithLogging(String, Object, Supplier)
+     */
+    public void executeVoidWithLogging(String template, Object arg, Runnable operation) {
+        executeVoid(template, 1, arg, null, null, operation, operation);
+    }
+
+    /**
+     * Выполняет операцию без возвращаемого значения с логированием и обработкой ошибок
+     * (шаблон с двумя аргументами).
+     *
+     * @param template шаблон названия операции
+     * @param arg1 первый аргумент шаблона
+     * @param arg2 второй аргумент шаблона
+     * @param operation операция для выполнения
+     * @see #executeWithLogging(String, Object, Supplier)
+     */
+    public void executeVoidWithLogging(String template, Object arg1, Object arg2, Runnable operation) {
+        executeVoid(template, 2, arg1, arg2, null, operation, operation);
+    }
+
+    private <R> R execute(String template, int argCount, Object arg1, Object arg2, Object arg3,
+                          Supplier<R> operation, Object callSite) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Начало выполнения операции: {}", render(template, argCount, arg1, arg2, arg3));
+        }
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
 
         try {
             R result = operation.get();
-            LOG.debug("Операция '{}' выполнена успешно", operationName);
+            outcome = OUTCOME_SUCCESS;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Операция '{}' выполнена успешно", render(template, argCount, arg1, arg2, arg3));
+            }
             return result;
 
         } catch (NotFoundException e) {
-            LOG.warn("Операция '{}' не выполнена: {}", operationName, e.getMessage());
+            outcome = OUTCOME_NOT_FOUND;
+            LOG.warn("Операция '{}' не выполнена: {}",
+                    render(template, argCount, arg1, arg2, arg3), e.getMessage());
             throw e;
 
         } catch (IllegalArgumentException e) {
-            LOG.warn("Некорректные параметры в операции '{}': {}", operationName, e.getMessage());
+            outcome = OUTCOME_INVALID;
+            LOG.warn("Некорректные параметры в операции '{}': {}",
+                    render(template, argCount, arg1, arg2, arg3), e.getMessage());
             throw e;
 
         } catch (Exception e) {
+            String operationName = render(template, argCount, arg1, arg2, arg3);
             LOG.error("Ошибка при выполнении операции '{}': {}", operationName, e.getMessage(), e);
             throw new RuntimeException(
                     String.format("Ошибка при выполнении операции '%s': %s", operationName, e.getMessage()),
                     e
             );
+        } finally {
+            recordOperation(callSite.getClass(), start, outcome);
         }
     }
 
-    /**
-     * Выполняет операцию без возвращаемого значения с логированием и обработкой ошибок.
-     *
-     * @param operationName название операции для логирования
-     * @param operation операция для выполнения
-     */
-    public void executeVoidWithLogging(String operationName, Runnable operation) {
-        LOG.debug("Начало выполнения операции: {}", operationName);
+    private void executeVoid(String template, int argCount, Object arg1, Object arg2, Object arg3,
+                             Runnable operation, Object callSite) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Начало выполнения операции: {}", render(template, argCount, arg1, arg2, arg3));
+        }
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
 
         try {
             operation.run();
-            LOG.debug("Операция '{}' выполнена успешно", operationName);
+            outcome = OUTCOME_SUCCESS;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Операция '{}' выполнена успешно", render(template, argCount, arg1, arg2, arg3));
+            }
 
         } catch (NotFoundException e) {
-            LOG.warn("Операция '{}' не выполнена: {}", operationName, e.getMessage());
+            outcome = OUTCOME_NOT_FOUND;
+            LOG.warn("Операция '{}' не выполнена: {}",
+                    render(template, argCount, arg1, arg2, arg3), e.getMessage());
             throw e;
 
         } catch (IllegalArgumentException e) {
-            LOG.warn("Некорректные параметры в операции '{}': {}", operationName, e.getMessage());
+            outcome = OUTCOME_INVALID;
+            LOG.warn("Некорректные параметры в операции '{}': {}",
+                    render(template, argCount, arg1, arg2, arg3), e.getMessage());
             throw e;
 
         } catch (Exception e) {
+            String operationName = render(template, argCount, arg1, arg2, arg3);
             LOG.error("Ошибка при выполнении операции '{}': {}", operationName, e.getMessage(), e);
             throw new RuntimeException(
                     String.format("Ошибка при выполнении операции '%s': %s", operationName, e.getMessage()),
                     e
             );
+        } finally {
+            recordOperation(callSite.getClass(), start, outcome);
+        }
+    }
+
+    /**
+     * Формирует название операции по шаблону.
+     * Без аргументов шаблон возвращается как есть (он может содержать символ %).
+     */
+    private static String render(String template, int argCount, Object arg1, Object arg2, Object arg3) {
+        switch (argCount) {
+            case 0:
+                return template;
+            case 1:
+                return String.format(template, arg1);
+            case 2:
+                return String.format(template, arg1, arg2);
+            default:
+                return String.format(template, arg1, arg2, arg3);
         }
     }
 
+    /**
+     * Записывает длительность операции в метрики.
+     * Метка операции - метод, вызвавший операцию (вспомогательные методы этого
+     * класса пропускаются); она определяется обходом стека один раз для места вызова
+     * и далее берется из кэша по классу лямбды, переданной из этого места
+     * (у каждого лямбда-выражения и ссылки на метод свой класс).
+     * Кэш ограничен {@value #MAX_OPERATION_LABELS} местами вызова: сверх этого
+     * стек обходится при каждом вызове.
+     *
+     * @param callSite класс лямбды, переданной из места вызова
+     * @param start значение {@link System#nanoTime()} в начале операции
+     * @param outcome исход операции
+     */
+    private void recordOperation(Class<?> callSite, long start, String outcome) {
+        if (metrics == null) {
+            return;
+        }
+        String operation = operationLabels.get(callSite);
+        if (operation == null) {
+            operation = STACK_WALKER.walk(frames -> frames
+                    .filter(frame -> !EXECUTE_METHODS.contains(frame.getMethodName())
+                            && !frame.getClassName().equals(BASE_SERVICE)
+                            && !frame.getClassName().contains("$Proxy$"))
+                    .findFirst()
+                    .map(this::operationName)
+                    .orElse("unknown"));
+            if (operationLabels.size() < MAX_OPERATION_LABELS) {
+                operationLabels.putIfAbsent(callSite, operation);
+            }
+        }
+        metrics.serviceOperations().labels(getServiceName(), operation, outcome).recordSince(start);
+    }
+
+    private String operationName(StackWalker.StackFrame frame) {
+        String method = frame.getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = end > 0 ? method.substring("lambda$".length(), end) : method;
+        }
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName.equals(getServiceName()) ? method : simpleName + "." + method;
+    }
+
+    private String getServiceName() {
+        String name = serviceName;
+        if (name == null) {
+            Class<?> type = getClass();
+            while (type.getSimpleName().contains("$") && type.getSuperclass() != null) {
+                type = type.getSuperclass();
+            }
+            name = type.getSimpleName();
+            serviceName = name;
+        }
+        return name;
+    }
+
     /**
      * Получает сущность по ID с обработкой Optional.
      *
@@ -95,12 +313,13 @@ public abstract class BaseService<T, ID> {
      * @throws NotFoundException если сущность не найдена
      */
     protected T getEntityById(ID id, Supplier<Optional<T>> findOperation, String entityName) {
-        return executeWithLogging(
-                String.format("Получение %s по ID: %s", entityName, id),
+        return execute(
+                "Получение %s по ID: %s", 2, entityName, id, null,
                 () -> findOperation.get()
                         .orElseThrow(() -> new NotFoundException(
                                 String.format("%s с ID %s не найден", entityName, id)
-                        ))
+                        )),
+                findOperation
         );
     }
 
@@ -113,15 +332,16 @@ public abstract class BaseService<T, ID> {
      * @throws NotFoundException если сущность не существует
      */
     protected void ensureEntityExists(ID id, Supplier<Boolean> existsOperation, String entityName) {
-        executeVoidWithLogging(
-                String.format("Проверка существования %s по ID: %s", entityName, id),
+        executeVoid(
+                "Проверка существования %s по ID: %s", 2, entityName, id, null,
                 () -> {
                     if (!existsOperation.get()) {
                         throw new NotFoundException(
                                 String.format("%s с ID %s не найден", entityName, id)
                         );
                     }
-                }
+                },
+                existsOperation
         );
     }
 
@@ -243,11 +463,12 @@ public abstract class BaseService<T, ID> {
             Function<S, R> mapper,
             String operationName) {
 
-        return executeWithLogging(
-                String.format("Преобразование списка: %s", operationName),
+        return execute(
+                "Преобразование списка: %s", 1, operationName, null, null,
                 () -> list.stream()
                         .map(mapper)
-                        .collect(java.util.stream.Collectors.toList())
+                        .collect(java.util.stream.Collectors.toList()),
+                mapper
         );
     }
 
@@ -264,9 +485,10 @@ public abstract class BaseService<T, ID> {
             Consumer<S> consumer,
             String operationName) {
 
-        executeVoidWithLogging(
-                String.format("Обработка списка: %s", operationName),
-                () -> list.forEach(consumer)
+        executeVoid(
+                "Обработка списка: %s", 1, operationName, null, null,
+                () -> list.forEach(consumer),
+                consumer
         );
     }
 
@@ -332,6 +554,41 @@ public abstract class BaseService<T, ID> {
         }
     }
 
+    /**
+     * Выполняет запись значения, уникальность которого обеспечивает индекс БД.
+     * Нарушение уникальности (параллельная запись того же значения после
+     * {@link #validateUnique}) сообщается так же, как и при проверке.
+     *
+     * @param operation операция записи
+     * @param fieldName название поля
+     * @param entityName название сущности
+     * @param <R> тип результата
+     * @return результат операции
+     * @throws IllegalArgumentException если значение не уникально
+     */
+    protected <R> R saveUnique(Supplier<R> operation, String fieldName, String entityName) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            if (isUniqueViolation(e)) {
+                throw new IllegalArgumentException(
+                        String.format("%s с таким %s уже существует", entityName, fieldName), e
+                );
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isUniqueViolation(Throwable error) {
+        for (Throwable cause = error; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof SQLException
+                    && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Валидирует параметры пагинации.
      *
@@ -0,0 +1,260 @@
+package by.losik.lab6omis.service.cache;
+
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивное распределение емкости кучи между регионами кэша.
+ * Суммарная емкость уровня heap (в записях) ограничена общим бюджетом;
+ * контроллер периодически переносит шаг емкости от региона с наименьшей
+ * отдачей к региону с наибольшей.
+ *
+ * <p>Отдача региона оценивается по кривой "емкость - доля попаданий в кучу":
+ * для каждого интервала запоминается пара (емкость, доля попаданий), и наклон
+ * этой кривой, умноженный на число обращений, показывает, сколько попаданий
+ * добавит одна запись. Пока точек с разной емкостью нет, отдачей считается
+ * число промахов кучи на запись при наличии вытеснений из кучи.</p>
+ *
+ * <p>Изменяется только уровень heap: Ehcache не позволяет менять размеры
+ * offheap и disk во время работы. Промах кучи при этом не является промахом
+ * региона - запись читается с нижнего уровня с десериализацией; в регионах только
+ * с уровнем heap (шаблон reference в ehcache.xml) промах кучи означает чтение из базы.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - включить контроллер (по умолчанию false)</li>
+ *   <li>{@value #BUDGET_ENTRIES} - общий бюджет записей кучи (по умолчанию - сумма исходных емкостей)</li>
+ *   <li>{@value #MIN_ENTRIES} - минимальная емкость региона (по умолчанию 100)</li>
+ *   <li>{@value #INTERVAL_SECONDS} - период пересчета в секундах (по умолчанию 60)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class AdaptiveCacheSizer {
+
+    public static final String ENABLED = "lab6omis.cache.adaptive.enabled";
+    public static final String BUDGET_ENTRIES = "lab6omis.cache.adaptive.budget.entries";
+    public static final String MIN_ENTRIES = "lab6omis.cache.adaptive.min.entries";
+    public static final String INTERVAL_SECONDS = "lab6omis.cache.adaptive.interval.seconds";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveCacheSizer.class);
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final double STEP_FRACTION = 0.05;
+    private static final double MIN_ADVANTAGE = 1.2;
+    private static final int SAMPLE_LIMIT = 8;
+
+    @Inject
+    private EhcacheRegions ehcacheRegions;
+
+    private final Map<String, RegionState> regions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "cache-adaptive-sizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean enabled;
+    private volatile long budget;
+    private volatile long minEntries;
+    private volatile String lastAdjustment = "нет";
+
+    /**
+     * Запускает контроллер при старте приложения, если он включен.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        enabled = Boolean.parseBoolean(System.getProperty(ENABLED, "false"));
+        if (!enabled) {
+            return;
+        }
+        minEntries = Long.getLong(MIN_ENTRIES, 100L);
+        long interval = Long.getLong(INTERVAL_SECONDS, 60L);
+        scheduler.scheduleWithFixedDelay(this::adjustQuietly, interval, interval, TimeUnit.SECONDS);
+        LOG.info("Адаптивное распределение кучи кэша запущено, интервал {} с", interval);
+    }
+
+    /**
+     * Останавливает контроллер.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Возвращает состояние контроллера.
+     *
+     * @return карта с бюджетом, последним изменением и оценками по регионам
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("budgetEntries", budget);
+        status.put("lastAdjustment", lastAdjustment);
+
+        Map<String, Object> byRegion = new LinkedHashMap<>();
+        regions.forEach((name, state) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("heapCapacity", state.capacity);
+            values.put("heapHitRatio", state.hitRatio);
+            values.put("gain", state.gain);
+            byRegion.put(name, values);
+        });
+        status.put("regions", byRegion);
+        return status;
+    }
+
+    private void adjustQuietly() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось перераспределить кучу кэша: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Обновляет оценки регионов и выполняет не более одного переноса емкости.
+     */
+    synchronized void adjust() {
+        long total = 0;
+        for (String name : ehcacheRegions.getRegionNames()) {
+            if (TIMESTAMPS_REGION.equals(name)) {
+                continue;
+            }
+            Optional<Long> capacity = ehcacheRegions.getHeapEntries(name);
+            Optional<TierStatistics> heap = ehcacheRegions.getStatistics(name)
+                    .map(CacheStatistics::getTierStatistics)
+                    .map(tiers -> tiers.get("OnHeap"));
+            if (capacity.isEmpty() || heap.isEmpty()) {
+                continue;
+            }
+            regions.computeIfAbsent(name, key -> new RegionState()).update(capacity.get(), heap.get());
+            total += capacity.get();
+        }
+        if (budget == 0) {
+            budget = Long.getLong(BUDGET_ENTRIES, total);
+        }
+
+        long step = Math.max(minEntries, (long) (budget * STEP_FRACTION));
+        Optional<Map.Entry<String, RegionState>> recipient = regions.entrySet().stream()
+                .filter(entry -> entry.getValue().wantsMore())
+                .max(Comparator.comparingDouble(entry -> entry.getValue().gain));
+        Optional<Map.Entry<String, RegionState>> donor = regions.entrySet().stream()
+                .filter(entry -> entry.getValue().capacity - step >= minEntries)
+                .filter(entry -> recipient.isEmpty() || !entry.getKey().equals(recipient.get().getKey()))
+                .min(Comparator.comparingDouble(entry -> entry.getValue().gain));
+
+        if (total > budget && donor.isPresent()) {
+            long shrink = Math.min(step, total - budget);
+            resize(donor.get(), -shrink, "превышен бюджет");
+            return;
+        }
+        if (recipient.isEmpty()) {
+            return;
+        }
+        if (total + step <= budget) {
+            resize(recipient.get(), step, "свободный бюджет");
+            return;
+        }
+        if (donor.isPresent()
+                && recipient.get().getValue().gain > donor.get().getValue().gain * MIN_ADVANTAGE) {
+            resize(donor.get(), -step, "перенос в " + recipient.get().getKey());
+            resize(recipient.get(), step, "перенос из " + donor.get().getKey());
+        }
+    }
+
+    private void resize(Map.Entry<String, RegionState> region, long delta, String reason) {
+        long target = region.getValue().capacity + delta;
+        if (ehcacheRegions.resizeHeap(region.getKey(), target)) {
+            lastAdjustment = String.format("%s: %d -> %d (%s)",
+                    region.getKey(), region.getValue().capacity, target, reason);
+            region.getValue().capacity = target;
+            LOG.info("Куча региона кэша изменена: {}", lastAdjustment);
+        }
+    }
+
+    /**
+     * Наблюдения по одному региону.
+     */
+    private static final class RegionState {
+        private final Deque<double[]> samples = new ArrayDeque<>();
+        private long lastHits;
+        private long lastMisses;
+        private long lastEvictions;
+        private volatile long capacity;
+        private volatile double hitRatio;
+        private volatile double gain;
+        private double slope;
+        private long evictions;
+
+        void update(long currentCapacity, TierStatistics heap) {
+            long hits = heap.getHits() - lastHits;
+            long misses = heap.getMisses() - lastMisses;
+            evictions = heap.getEvictions() - lastEvictions;
+            lastHits = heap.getHits();
+            lastMisses = heap.getMisses();
+            lastEvictions = heap.getEvictions();
+            capacity = currentCapacity;
+
+            long traffic = hits + misses;
+            if (traffic == 0) {
+                gain = 0.0;
+                return;
+            }
+            hitRatio = (double) hits / traffic;
+            samples.addLast(new double[]{currentCapacity, hitRatio});
+            if (samples.size() > SAMPLE_LIMIT) {
+                samples.removeFirst();
+            }
+
+            slope = slope();
+            if (!Double.isNaN(slope)) {
+                gain = Math.max(0.0, slope) * traffic;
+            } else {
+                gain = evictions > 0 ? (double) misses / Math.max(1, currentCapacity) : 0.0;
+            }
+        }
+
+        boolean wantsMore() {
+            return gain > 0.0 && (evictions > 0 || slope > 0.0);
+        }
+
+        /**
+         * Наклон прямой, приближающей точки (емкость, доля попаданий) методом наименьших квадратов.
+         *
+         * @return наклон или NaN, если все точки получены при одной емкости
+         */
+        private double slope() {
+            double meanX = samples.stream().mapToDouble(sample -> sample[0]).average().orElse(0.0);
+            double meanY = samples.stream().mapToDouble(sample -> sample[1]).average().orElse(0.0);
+            double covariance = 0.0;
+            double variance = 0.0;
+            for (double[] sample : samples) {
+                covariance += (sample[0] - meanX) * (sample[1] - meanY);
+                variance += (sample[0] - meanX) * (sample[0] - meanX);
+            }
+            return variance == 0.0 ? Double.NaN : covariance / variance;
+        }
+    }
+}
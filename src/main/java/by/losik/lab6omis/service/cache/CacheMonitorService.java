@@ -1,12 +1,23 @@
 package by.losik.lab6omis.service.cache;
 
+import by.losik.lab6omis.repository.base.QueryCacheRegions;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.hibernate.Cache;
 import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
 import org.hibernate.stat.Statistics;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Сервис для мониторинга и управления кэшами Hibernate.
@@ -22,6 +33,18 @@ public class CacheMonitorService {
     @Inject
     private EntityManagerFactory emf;
 
+    @Inject
+    private ResultCache resultCache;
+
+    @Inject
+    private QueryCacheRegions queryCacheRegions;
+
+    @Inject
+    private CacheWarmupService warmupService;
+
+    @Inject
+    private EhcacheRegions ehcacheRegions;
+
     /**
      * Возвращает статистику использования кэшей Hibernate.
      * Собирает данные о количестве попаданий, промахов и операций записи
@@ -39,6 +62,7 @@ public class CacheMonitorService {
      *           <li><b>entityFetchCount</b> - общее количество загрузок сущностей</li>
      *           <li><b>collectionFetchCount</b> - общее количество загрузок коллекций</li>
      *           <li><b>isStatisticsEnabled</b> - флаг, указывающий, включена ли статистика</li>
+     *           <li><b>resultCache</b> - статистика кэша результатов сервисов ({@link ResultCache})</li>
      *         </ul>
      */
     public Map<String, Object> getCacheStatistics() {
@@ -54,12 +78,145 @@ public class CacheMonitorService {
                 "queryCachePutCount", stats.getQueryCachePutCount(),
                 "entityFetchCount", stats.getEntityFetchCount(),
                 "collectionFetchCount", stats.getCollectionFetchCount(),
-                "isStatisticsEnabled", stats.isStatisticsEnabled()
+                "isStatisticsEnabled", stats.isStatisticsEnabled(),
+                "resultCache", resultCache.getStatistics()
         );
     }
 
     /**
-     * Очищает все кэши Hibernate второго уровня и кэши запросов.
+     * Возвращает статистику регионов кэша запросов по семействам запросов
+     * ({@link QueryCacheRegions}). Для каждого региона содержит:
+     * <ul>
+     *   <li><b>hitCount</b> - количество попаданий</li>
+     *   <li><b>missCount</b> - количество промахов (включая устаревшие результаты)</li>
+     *   <li><b>putCount</b> - количество записей результатов</li>
+     *   <li><b>invalidationCount</b> - количество сбросов из-за изменения таблицы</li>
+     *   <li><b>hitRatio</b> - доля попаданий среди обращений</li>
+     * </ul>
+     *
+     * @return карта [имя региона, показатели региона]
+     */
+    public Map<String, Map<String, Object>> getQueryRegionStatistics() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+
+        for (String region : QueryCacheRegions.ALL) {
+            CacheRegionStatistics regionStats = stats.getQueryRegionStatistics(region);
+            long hits = regionStats != null ? regionStats.getHitCount() : 0L;
+            long misses = regionStats != null ? regionStats.getMissCount() : 0L;
+            long puts = regionStats != null ? regionStats.getPutCount() : 0L;
+            long total = hits + misses;
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hitCount", hits);
+            values.put("missCount", misses);
+            values.put("putCount", puts);
+            values.put("invalidationCount", queryCacheRegions.getInvalidationCount(region));
+            values.put("hitRatio", total > 0 ? (double) hits / total : 0.0);
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает статистику каждого региона кэша второго уровня и кэша запросов.
+     * Для каждого региона содержит:
+     * <ul>
+     *   <li><b>hits</b>, <b>misses</b>, <b>puts</b>, <b>evictions</b>, <b>expirations</b> - счетчики кэша</li>
+     *   <li><b>elementCount</b> - число записей в регионе (на самом нижнем уровне)</li>
+     *   <li><b>heapEntries</b>, <b>heapCapacity</b> - записей в куче и емкость кучи</li>
+     *   <li><b>heapBytes</b> - занято в куче (только для кучи, ограниченной в байтах)</li>
+     *   <li><b>offHeapEntries</b>, <b>offHeapBytes</b> - записей и байт вне кучи</li>
+     *   <li><b>diskEntries</b>, <b>diskBytes</b> - записей и байт на диске (если уровень включен)</li>
+     * </ul>
+     * Если статистика уровней Ehcache недоступна, возвращаются счетчики Hibernate.
+     *
+     * @return карта [имя региона, показатели региона]
+     */
+    public Map<String, Map<String, Object>> getRegionStatistics() {
+        Statistics hibernateStats = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+
+        for (String region : ehcacheRegions.getRegionNames()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            Optional<CacheStatistics> ehcacheStats = ehcacheRegions.getStatistics(region);
+            if (ehcacheStats.isPresent()) {
+                CacheStatistics stats = ehcacheStats.get();
+                values.put("hits", stats.getCacheHits());
+                values.put("misses", stats.getCacheMisses());
+                values.put("puts", stats.getCachePuts());
+                values.put("evictions", stats.getCacheEvictions());
+                values.put("expirations", stats.getCacheExpirations());
+                putTierStatistics(values, stats.getTierStatistics());
+            } else {
+                CacheRegionStatistics stats = hibernateStats.getCacheRegionStatistics(region);
+                if (stats != null) {
+                    values.put("hits", stats.getHitCount());
+                    values.put("misses", stats.getMissCount());
+                    values.put("puts", stats.getPutCount());
+                    values.put("elementCount", stats.getElementCountInMemory());
+                }
+            }
+            ehcacheRegions.getHeapEntries(region).ifPresent(capacity -> values.put("heapCapacity", capacity));
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    private static void putTierStatistics(Map<String, Object> values, Map<String, TierStatistics> tiers) {
+        long elementCount = 0;
+        TierStatistics heap = tiers.get("OnHeap");
+        if (heap != null) {
+            values.put("heapEntries", heap.getMappings());
+            if (heap.getOccupiedByteSize() >= 0) {
+                values.put("heapBytes", heap.getOccupiedByteSize());
+            }
+            elementCount = heap.getMappings();
+        }
+        TierStatistics offHeap = tiers.get("OffHeap");
+        if (offHeap != null) {
+            values.put("offHeapEntries", offHeap.getMappings());
+            values.put("offHeapBytes", offHeap.getOccupiedByteSize());
+            elementCount = offHeap.getMappings();
+        }
+        TierStatistics disk = tiers.get("Disk");
+        if (disk != null) {
+            values.put("diskEntries", disk.getMappings());
+            values.put("diskBytes", disk.getOccupiedByteSize());
+            elementCount = disk.getMappings();
+        }
+        values.put("elementCount", elementCount);
+    }
+
+    /**
+     * Очищает кэшированные данные сущности: все экземпляры класса
+     * (вместе с естественными идентификаторами) или один экземпляр по идентификатору.
+     *
+     * @param entityName простое или полное имя класса сущности
+     * @param id идентификатор (null - все экземпляры)
+     * @param rewarm true - прогреть наборы, заполняющие регион сущности (только для всех экземпляров)
+     * @return имена запланированных наборов прогрева
+     * @throws IllegalArgumentException если сущность с таким именем не найдена
+     */
+    public List<String> evictEntity(String entityName, Long id, boolean rewarm) {
+        Class<?> entityClass = emf.getMetamodel().getEntities().stream()
+                .map(EntityType::getJavaType)
+                .filter(type -> type.getSimpleName().equals(entityName) || type.getName().equals(entityName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестная сущность: " + entityName));
+
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+        if (id != null) {
+            cache.evictEntityData(entityClass, id);
+            return List.of();
+        }
+        cache.evictEntityData(entityClass);
+        cache.evictNaturalIdData(entityClass);
+        return rewarm ? warmupService.rewarm(Set.of(entityClass.getName())) : List.of();
+    }
+
+    /**
+     * Очищает все кэши Hibernate второго уровня, кэши запросов и кэш результатов сервисов.
      * Используется для сброса кэшированных данных, например, при изменении
      * данных вручную или для освобождения памяти.
      *
@@ -68,5 +225,32 @@ public class CacheMonitorService {
     public void clearAllCaches() {
         SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
         sessionFactory.getCache().evictAll();
+        resultCache.clear();
+        queryCacheRegions.reset();
+    }
+
+    /**
+     * Очищает все кэши и при необходимости запускает их повторный прогрев.
+     *
+     * @param rewarm true - прогреть рабочие наборы заново ({@link CacheWarmupService})
+     * @return имена запланированных наборов прогрева
+     */
+    public List<String> clearAllCaches(boolean rewarm) {
+        clearAllCaches();
+        return rewarm ? warmupService.rewarmAll() : List.of();
+    }
+
+    /**
+     * Очищает отдельные регионы кэша второго уровня (сущностей, естественных
+     * идентификаторов или запросов), не затрагивая остальные.
+     *
+     * @param regions имена регионов
+     * @param rewarm true - прогреть наборы, заполняющие эти регионы
+     * @return имена запланированных наборов прогрева
+     */
+    public List<String> evictRegions(Collection<String> regions, boolean rewarm) {
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+        regions.forEach(cache::evictRegion);
+        return rewarm ? warmupService.rewarm(regions) : List.of();
     }
 }
\ No newline at end of file
@@ -0,0 +1,244 @@
+package by.losik.lab6omis.service.cache;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.repository.base.QueryCacheRegions;
+import by.losik.lab6omis.repository.general.types.SensorDataRepository;
+import by.losik.lab6omis.repository.general.types.SensorRepository;
+import by.losik.lab6omis.repository.general.types.SolutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Сервис прогрева кэша второго уровня.
+ * После запуска приложения в фоне загружает рабочие наборы данных,
+ * чтобы первые запросы не приходились на холодный кэш:
+ * <ul>
+ *   <li><b>sensors.active</b> - все активные сенсоры</li>
+ *   <li><b>sensor-data.recent</b> - показания за последние дни (не более заданного числа)</li>
+ *   <li><b>solutions.by-language</b> - решения по каждому языку</li>
+ * </ul>
+ * <p>Пока начальный прогрев не завершен, {@link #isReady()} возвращает false.
+ * После точечной очистки регионов наборы, заполняющие эти регионы,
+ * можно прогреть повторно ({@link #rewarm(Collection)}).</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - выполнять прогрев (по умолчанию true)</li>
+ *   <li>{@value #RECENT_DAYS} - глубина прогрева показаний в днях (по умолчанию 1)</li>
+ *   <li>{@value #RECENT_LIMIT} - не более стольких показаний (по умолчанию 50000)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class CacheWarmupService {
+
+    public static final String ENABLED = "lab6omis.warmup.enabled";
+    public static final String RECENT_DAYS = "lab6omis.warmup.sensor-data.days";
+    public static final String RECENT_LIMIT = "lab6omis.warmup.sensor-data.limit";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    @Inject
+    private SensorRepository sensorRepository;
+
+    @Inject
+    private SensorDataRepository sensorDataRepository;
+
+    @Inject
+    private SolutionRepository solutionRepository;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "cache-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<WarmupTask> tasks;
+    private volatile boolean ready;
+    private volatile long startedAt;
+    private volatile long completedAt;
+
+    @PostConstruct
+    void init() {
+        int recentDays = Integer.getInteger(RECENT_DAYS, 1);
+        long recentLimit = Long.getLong(RECENT_LIMIT, 50_000L);
+        tasks = List.of(
+                new WarmupTask("sensors.active",
+                        Set.of(Sensor.class.getName(), Sensor.class.getName() + "##NaturalId",
+                                QueryCacheRegions.SENSOR_BY_STATUS),
+                        () -> sensorRepository.findActiveSensors().size()),
+                new WarmupTask("sensor-data.recent",
+                        Set.of(SensorData.class.getName()),
+                        () -> {
+                            try (Stream<SensorData> data = sensorDataRepository.streamRecentData(recentDays)) {
+                                return data.limit(recentLimit).mapToLong(item -> 1L).sum();
+                            }
+                        }),
+                new WarmupTask("solutions.by-language",
+                        Set.of(Solution.class.getName(), QueryCacheRegions.SOLUTION_BY_LANGUAGE),
+                        () -> {
+                            long loaded = 0;
+                            for (Language language : Language.values()) {
+                                loaded += solutionRepository.findByLanguage(language).size();
+                            }
+                            return loaded;
+                        })
+        );
+    }
+
+    /**
+     * Запускает начальный прогрев при старте приложения.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED, "true"))) {
+            ready = true;
+            LOG.info("Прогрев кэша отключен ({}=false)", ENABLED);
+            return;
+        }
+        startedAt = System.currentTimeMillis();
+        executor.execute(() -> {
+            tasks.forEach(WarmupTask::run);
+            completedAt = System.currentTimeMillis();
+            ready = true;
+            LOG.info("Прогрев кэша завершен за {} мс", completedAt - startedAt);
+        });
+    }
+
+    /**
+     * Останавливает прогрев.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Проверяет, завершен ли начальный прогрев (успешно или с ошибками).
+     *
+     * @return true если узел готов принимать нагрузку
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Повторно прогревает наборы, заполняющие указанные регионы.
+     *
+     * @param regions имена очищенных регионов
+     * @return имена запланированных наборов
+     */
+    public List<String> rewarm(Collection<String> regions) {
+        List<WarmupTask> affected = tasks.stream()
+                .filter(task -> regions.stream().anyMatch(task.regions::contains))
+                .collect(Collectors.toList());
+        affected.forEach(task -> executor.execute(task::run));
+        return affected.stream().map(task -> task.name).collect(Collectors.toList());
+    }
+
+    /**
+     * Повторно прогревает все наборы.
+     *
+     * @return имена запланированных наборов
+     */
+    public List<String> rewarmAll() {
+        tasks.forEach(task -> executor.execute(task::run));
+        return tasks.stream().map(task -> task.name).collect(Collectors.toList());
+    }
+
+    /**
+     * Возвращает ход прогрева.
+     *
+     * @return карта с признаком готовности, временем и состоянием каждого набора
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("startedAt", startedAt);
+        status.put("completedAt", completedAt);
+
+        Map<String, Object> sets = new LinkedHashMap<>();
+        for (WarmupTask task : tasks) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("state", task.state);
+            values.put("entries", task.entries);
+            values.put("durationMs", task.durationMs);
+            values.put("runs", task.runs);
+            values.put("regions", task.regions);
+            if (task.error != null) {
+                values.put("error", task.error);
+            }
+            sets.put(task.name, values);
+        }
+        status.put("sets", sets);
+        return status;
+    }
+
+    /**
+     * Состояние набора прогрева.
+     */
+    enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * Рабочий набор: загрузка данных и регионы, которые она заполняет.
+     */
+    private static final class WarmupTask {
+        private final String name;
+        private final Set<String> regions;
+        private final LongSupplier loader;
+        private volatile State state = State.PENDING;
+        private volatile long entries;
+        private volatile long durationMs;
+        private volatile int runs;
+        private volatile String error;
+
+        WarmupTask(String name, Set<String> regions, LongSupplier loader) {
+            this.name = name;
+            this.regions = regions;
+            this.loader = loader;
+        }
+
+        void run() {
+            state = State.RUNNING;
+            long start = System.nanoTime();
+            try {
+                entries = loader.getAsLong();
+                error = null;
+                state = State.DONE;
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                state = State.FAILED;
+                LOG.warn("Прогрев набора {} завершился ошибкой: {}", name, e.getMessage());
+            } finally {
+                durationMs = (System.nanoTime() - start) / 1_000_000;
+                runs++;
+            }
+            LOG.debug("Набор {} прогрет: {} записей за {} мс", name, entries, durationMs);
+        }
+    }
+}
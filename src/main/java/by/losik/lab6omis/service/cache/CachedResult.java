@@ -0,0 +1,59 @@
+package by.losik.lab6omis.service.cache;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Кэширует результат метода сервиса.
+ * Ключом записи служат метод и его аргументы. Запись сбрасывается при изменении
+ * сущностей любого из классов {@link #tags()}.
+ *
+ * <p>Поведение записи по возрасту:</p>
+ * <ul>
+ *   <li>моложе {@link #ttlSeconds()} - возвращается без обращения к БД</li>
+ *   <li>старше, но в пределах еще {@link #staleSeconds()} - возвращается старое значение,
+ *       а пересчет запускается в фоне</li>
+ *   <li>старше или инвалидирована тегом - пересчитывается синхронно</li>
+ * </ul>
+ * <p>В любом случае параллельные вызовы ожидают один общий пересчет.
+ * Результат разделяется между вызывающими и не должен изменяться.</p>
+ *
+ * <p>Пример использования:</p>
+ * <pre>
+ * {@code
+ * @CachedResult(tags = Sensor.class)
+ * public Map<String, Long> getSensorCountByType() { ... }
+ * }
+ * </pre>
+ *
+ * @see CachedResultInterceptor
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResult {
+
+    /**
+     * @return классы сущностей, изменение которых инвалидирует результат
+     */
+    @Nonbinding
+    Class<?>[] tags() default {};
+
+    /**
+     * @return время свежести результата в секундах
+     */
+    @Nonbinding
+    long ttlSeconds() default 30;
+
+    /**
+     * @return время после истечения TTL, в течение которого отдается старое значение, в секундах
+     */
+    @Nonbinding
+    long staleSeconds() default 60;
+}
@@ -0,0 +1,55 @@
+package by.losik.lab6omis.service.cache;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Перехватчик методов, отмеченных {@link CachedResult}.
+ * Передает вызов в {@link ResultCache}; фоновый пересчет повторно вызывает
+ * метод через прокси, при этом перехватчик пропускает вызов к исходному методу.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@CachedResult
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class CachedResultInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private ResultCache resultCache;
+
+    @AroundInvoke
+    public Object cache(InvocationContext ctx) throws Exception {
+        if (ResultCache.isRefreshing()) {
+            return ctx.proceed();
+        }
+
+        Method method = ctx.getMethod();
+        CachedResult config = method.getAnnotation(CachedResult.class);
+        if (config == null) {
+            config = method.getDeclaringClass().getAnnotation(CachedResult.class);
+        }
+
+        Object target = ctx.getTarget();
+        Object[] params = ctx.getParameters();
+        return resultCache.get(method, params, config, ctx::proceed, () -> invoke(method, target, params));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] params) throws Exception {
+        try {
+            return method.invoke(target, params);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+}
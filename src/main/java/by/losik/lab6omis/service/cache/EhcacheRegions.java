@@ -0,0 +1,148 @@
+package by.losik.lab6omis.service.cache;
+
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Доступ к кэшам Ehcache 3, лежащим под регионами Hibernate.
+ * Имя региона совпадает с именем кэша JCache (префикс регионов не используется).
+ *
+ * <p>Статистика уровней (heap, offheap, disk) хранится во внутреннем сервисе
+ * статистики Ehcache, который JSR-107 обертка не публикует; он извлекается
+ * один раз через рефлексию. Если это не удалось, методы статистики возвращают
+ * пустой результат, а остальные операции продолжают работать.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class EhcacheRegions {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EhcacheRegions.class);
+
+    @Inject
+    private EntityManagerFactory emf;
+
+    private volatile StatisticsService statisticsService;
+    private volatile boolean statisticsResolved;
+
+    /**
+     * Возвращает имена всех регионов кэша второго уровня и кэша запросов.
+     *
+     * @return отсортированные имена регионов
+     */
+    public Set<String> getRegionNames() {
+        return new TreeSet<>(sessionFactory().getCache().getCacheRegionNames());
+    }
+
+    /**
+     * Возвращает накопленную статистику кэша региона.
+     *
+     * @param region имя региона
+     * @return статистика или пустое значение, если она недоступна
+     */
+    public Optional<CacheStatistics> getStatistics(String region) {
+        StatisticsService service = statisticsService();
+        if (service == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(service.getCacheStatistics(region));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Возвращает емкость уровня heap региона в записях.
+     *
+     * @param region имя региона
+     * @return емкость или пустое значение, если heap задан не в записях
+     */
+    public Optional<Long> getHeapEntries(String region) {
+        return ehcache(region).map(cache -> cache.getRuntimeConfiguration()
+                        .getResourcePools()
+                        .getPoolForResource(ResourceType.Core.HEAP))
+                .filter(pool -> pool.getUnit() == EntryUnit.ENTRIES)
+                .map(SizedResourcePool::getSize);
+    }
+
+    /**
+     * Изменяет емкость уровня heap региона во время работы.
+     * Остальные уровни (offheap, disk) Ehcache изменять не позволяет.
+     *
+     * @param region имя региона
+     * @param entries новая емкость в записях
+     * @return true если емкость изменена
+     */
+    public boolean resizeHeap(String region, long entries) {
+        Optional<org.ehcache.Cache<Object, Object>> cache = ehcache(region);
+        if (cache.isEmpty()) {
+            return false;
+        }
+        cache.get().getRuntimeConfiguration().updateResourcePools(
+                ResourcePoolsBuilder.newResourcePoolsBuilder().heap(entries, EntryUnit.ENTRIES).build());
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<org.ehcache.Cache<Object, Object>> ehcache(String region) {
+        Cache<Object, Object> cache = cacheManager().getCache(region);
+        return cache == null ? Optional.empty() : Optional.of(cache.unwrap(org.ehcache.Cache.class));
+    }
+
+    private StatisticsService statisticsService() {
+        if (!statisticsResolved) {
+            synchronized (this) {
+                if (!statisticsResolved) {
+                    statisticsService = resolveStatisticsService();
+                    statisticsResolved = true;
+                }
+            }
+        }
+        return statisticsService;
+    }
+
+    private StatisticsService resolveStatisticsService() {
+        CacheManager manager = cacheManager();
+        try {
+            Field field = manager.getClass().getDeclaredField("statisticsService");
+            field.setAccessible(true);
+            return (StatisticsService) field.get(manager);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Статистика уровней Ehcache недоступна: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CacheManager cacheManager() {
+        RegionFactory regionFactory = sessionFactory().getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            throw new IllegalStateException("Кэш второго уровня не использует JCache: " + regionFactory);
+        }
+        return ((JCacheRegionFactory) regionFactory).getCacheManager();
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return emf.unwrap(SessionFactoryImplementor.class);
+    }
+}
@@ -0,0 +1,331 @@
+package by.losik.lab6omis.service.cache;
+
+import by.losik.lab6omis.persistence.EntityChangeTags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище результатов методов, отмеченных {@link CachedResult}.
+ * Запись хранит значение, время вычисления и поколения тегов
+ * ({@link EntityChangeTags}) на момент начала вычисления.
+ *
+ * <p>Пересчет одного ключа выполняется не более чем одним потоком:
+ * остальные вызовы ожидают его результат. Фоновые пересчеты устаревших
+ * записей выполняются в отдельном пуле потоков.</p>
+ *
+ * <p>Раз в минуту удаляются записи, пережившие TTL и stale-период или
+ * инвалидированные тегами. Если записей больше {@value #MAX_ENTRIES}
+ * (по умолчанию 10000), дольше всех не запрашивавшиеся вытесняются
+ * до 90% лимита.</p>
+ *
+ * @see CachedResultInterceptor
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ResultCache {
+
+    public static final String MAX_ENTRIES = "lab6omis.result-cache.max-entries";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResultCache.class);
+    private static final int REFRESH_THREADS = 2;
+    private static final long SWEEP_SECONDS = 60;
+    private static final ThreadLocal<Boolean> REFRESHING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final Map<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<CacheKey, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final int maxEntries = Math.max(1, Integer.getInteger(MAX_ENTRIES, 10_000));
+
+    private final ScheduledExecutorService refreshExecutor = new ScheduledThreadPoolExecutor(REFRESH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "result-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        refreshExecutor.scheduleWithFixedDelay(this::sweep, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Проверяет, выполняется ли в текущем потоке фоновый пересчет.
+     *
+     * @return true если вызов должен пройти мимо кэша
+     */
+    static boolean isRefreshing() {
+        return REFRESHING.get();
+    }
+
+    /**
+     * Возвращает закэшированный результат метода или вычисляет его.
+     *
+     * @param method вызываемый метод
+     * @param params аргументы вызова
+     * @param config параметры кэширования
+     * @param loader вычисление в текущем вызове
+     * @param refresher повторный вызов метода для фонового пересчета
+     * @return результат метода
+     * @throws Exception если вычисление завершилось с ошибкой
+     */
+    Object get(Method method, Object[] params, CachedResult config,
+               Callable<Object> loader, Callable<Object> refresher) throws Exception {
+        CacheKey key = new CacheKey(method, params);
+        Class<?>[] tags = config.tags();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(config.ttlSeconds());
+        long staleMillis = TimeUnit.SECONDS.toMillis(config.staleSeconds());
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isCurrent()) {
+            long now = System.currentTimeMillis();
+            long age = now - entry.computedAt;
+            entry.lastAccess = now;
+            if (age < ttlMillis) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (age < ttlMillis + staleMillis) {
+                staleHits.incrementAndGet();
+                refreshAsync(key, tags, ttlMillis + staleMillis, refresher);
+                return entry.value;
+            }
+        }
+        return load(key, tags, ttlMillis + staleMillis, loader).value;
+    }
+
+    /**
+     * Инвалидирует все записи, зависящие от класса сущности.
+     *
+     * @param entityClass класс измененной сущности
+     */
+    public void invalidate(Class<?> entityClass) {
+        EntityChangeTags.invalidate(entityClass);
+    }
+
+    /**
+     * Удаляет все записи.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Возвращает статистику обращений.
+     *
+     * @return карта [показатель, значение]
+     */
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+                "entries", (long) entries.size(),
+                "hits", hits.get(),
+                "staleHits", staleHits.get(),
+                "misses", misses.get(),
+                "evictions", evictions.get()
+        );
+    }
+
+    /**
+     * Вычисляет значение синхронно. Если вычисление ключа уже идет, ожидает его;
+     * результат, инвалидированный за время ожидания, вычисляется заново.
+     */
+    private Entry load(CacheKey key, Class<?>[] tags, long lifetimeMillis, Callable<Object> loader) throws Exception {
+        CompletableFuture<Entry> own = new CompletableFuture<>();
+        CompletableFuture<Entry> running;
+        while ((running = inFlight.putIfAbsent(key, own)) != null) {
+            Entry entry = await(running);
+            if (entry.isCurrent()) {
+                return entry;
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            Entry entry = compute(key, tags, lifetimeMillis, loader);
+            own.complete(entry);
+            return entry;
+        } catch (Exception | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Запускает фоновый пересчет, если для ключа он еще не запущен.
+     */
+    private void refreshAsync(CacheKey key, Class<?>[] tags, long lifetimeMillis, Callable<Object> refresher) {
+        CompletableFuture<Entry> own = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, own) != null) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                REFRESHING.set(Boolean.TRUE);
+                try {
+                    own.complete(compute(key, tags, lifetimeMillis, refresher));
+                } catch (Throwable e) {
+                    LOG.warn("Фоновый пересчет {} завершился ошибкой: {}", key.method.getName(), e.getMessage());
+                    own.completeExceptionally(e);
+                } finally {
+                    REFRESHING.remove();
+                    inFlight.remove(key, own);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+        }
+    }
+
+    private Entry compute(CacheKey key, Class<?>[] tags, long lifetimeMillis, Callable<Object> loader)
+            throws Exception {
+        long[] generations = EntityChangeTags.generations(tags);
+        Object value = readOnly(key.method, loader.call());
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(value, now, now + lifetimeMillis, tags, generations);
+        entries.put(key, entry);
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+        return entry;
+    }
+
+    /**
+     * Удаляет записи, которые уже не могут быть выданы: пережившие TTL и stale-период
+     * или инвалидированные тегами.
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now || !entry.isCurrent());
+    }
+
+    /**
+     * Сокращает кэш до 90% лимита: сначала удаляет неактуальные записи, затем -
+     * дольше всех не запрашивавшиеся.
+     */
+    private synchronized void trim() {
+        sweep();
+        int excess = entries.size() - (maxEntries - maxEntries / 10);
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<CacheKey, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+        for (Map.Entry<CacheKey, Entry> candidate : candidates.subList(0, Math.min(excess, candidates.size()))) {
+            if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readOnly(Method method, Object value) {
+        if (value instanceof Map && method.getReturnType() == Map.class) {
+            return Collections.unmodifiableMap((Map<Object, Object>) value);
+        }
+        if (value instanceof List && method.getReturnType() == List.class) {
+            return Collections.unmodifiableList((List<Object>) value);
+        }
+        return value;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Ключ записи: метод и аргументы вызова.
+     */
+    private static final class CacheKey {
+        private final Method method;
+        private final List<Object> params;
+
+        CacheKey(Method method, Object[] params) {
+            this.method = method;
+            this.params = params == null ? List.of() : Arrays.asList(params.clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return method.equals(other.method) && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, params);
+        }
+    }
+
+    /**
+     * Закэшированное значение с временем вычисления и поколениями тегов.
+     */
+    private static final class Entry {
+        private final Object value;
+        private final long computedAt;
+        private final long expiresAt;
+        private final Class<?>[] tags;
+        private final long[] generations;
+        private volatile long lastAccess;
+
+        Entry(Object value, long computedAt, long expiresAt, Class<?>[] tags, long[] generations) {
+            this.value = value;
+            this.computedAt = computedAt;
+            this.expiresAt = expiresAt;
+            this.tags = tags;
+            this.generations = generations;
+            this.lastAccess = computedAt;
+        }
+
+        boolean isCurrent() {
+            return Arrays.equals(generations, EntityChangeTags.generations(tags));
+        }
+    }
+}
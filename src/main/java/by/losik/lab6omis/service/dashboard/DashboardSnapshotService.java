@@ -0,0 +1,226 @@
+package by.losik.lab6omis.service.dashboard;
+
+import by.losik.lab6omis.dto.DashboardSnapshot;
+import by.losik.lab6omis.entities.general.types.Request;
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.entities.general.types.Sound;
+import by.losik.lab6omis.persistence.TableWatermarkService;
+import by.losik.lab6omis.service.general.types.RequestService;
+import by.losik.lab6omis.service.general.types.SensorDataService;
+import by.losik.lab6omis.service.general.types.SensorService;
+import by.losik.lab6omis.service.general.types.SolutionService;
+import by.losik.lab6omis.service.general.types.SoundService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Сервис снимков показателей панели управления.
+ * Счетчики пересчитываются в фоне, а страницы и REST получают готовый
+ * неизменяемый {@link DashboardSnapshot} без запросов {@code COUNT(*)} на каждый просмотр.
+ *
+ * <p>Пересчет выполняется:</p>
+ * <ul>
+ *   <li>периодически, если изменился водяной знак таблиц ({@link TableWatermarkService}),
+ *       что учитывает изменения через REST API и напрямую в БД</li>
+ *   <li>сразу после изменений через веб-интерфейс ({@link #invalidate()})</li>
+ * </ul>
+ * <p>Подписчики ({@link #subscribe(Consumer)}) получают только изменившиеся показатели.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class DashboardSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DashboardSnapshotService.class);
+    private static final long POLL_INTERVAL_SECONDS = 5;
+    private static final List<Class<?>> TRACKED_ENTITIES =
+            List.of(Sensor.class, Solution.class, Request.class, Sound.class, SensorData.class);
+
+    @Inject
+    private SensorService sensorService;
+
+    @Inject
+    private SolutionService solutionService;
+
+    @Inject
+    private RequestService requestService;
+
+    @Inject
+    private SoundService soundService;
+
+    @Inject
+    private SensorDataService sensorDataService;
+
+    @Inject
+    private TableWatermarkService watermarkService;
+
+    private final Set<Consumer<Map<String, Object>>> subscribers = new CopyOnWriteArraySet<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "dashboard-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile DashboardSnapshot snapshot;
+    private volatile boolean dirty = true;
+    private volatile String watermark;
+
+    /**
+     * Запускает фоновое обновление снимка при старте приложения.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        scheduler.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        LOG.info("Фоновое обновление панели управления запущено, интервал {} с", POLL_INTERVAL_SECONDS);
+    }
+
+    /**
+     * Останавливает фоновое обновление.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        subscribers.clear();
+    }
+
+    /**
+     * Возвращает текущий снимок показателей.
+     * Снимок пересчитывается синхронно только если он еще не построен
+     * или был помечен устаревшим через {@link #invalidate()}.
+     *
+     * @return актуальный снимок
+     */
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot current = snapshot;
+        return current == null || dirty ? refreshIfStale() : current;
+    }
+
+    /**
+     * Помечает снимок устаревшим и планирует немедленный пересчет.
+     * Вызывается после изменения данных через веб-интерфейс.
+     */
+    public void invalidate() {
+        dirty = true;
+        scheduler.execute(this::refreshQuietly);
+    }
+
+    /**
+     * Подписывает получателя на изменения показателей.
+     *
+     * @param subscriber получатель изменившихся показателей
+     */
+    public void subscribe(Consumer<Map<String, Object>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Отписывает получателя от изменений показателей.
+     *
+     * @param subscriber ранее подписанный получатель
+     */
+    public void unsubscribe(Consumer<Map<String, Object>> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Периодическая проверка: пересчитывает снимок, если изменились данные.
+     */
+    private void poll() {
+        try {
+            if (dirty || snapshot == null || !Objects.equals(readWatermark(), watermark)) {
+                refresh();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось обновить снимок панели управления: {}", e.getMessage());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось обновить снимок панели управления: {}", e.getMessage());
+        }
+    }
+
+    private synchronized DashboardSnapshot refreshIfStale() {
+        return snapshot == null || dirty ? refresh() : snapshot;
+    }
+
+    /**
+     * Пересчитывает снимок и рассылает подписчикам изменившиеся показатели.
+     * Водяной знак читается до подсчета, поэтому изменения, произошедшие
+     * во время подсчета, будут учтены следующей проверкой.
+     *
+     * @return актуальный снимок
+     */
+    private synchronized DashboardSnapshot refresh() {
+        DashboardSnapshot previous = snapshot;
+        dirty = false;
+        watermark = readWatermark();
+        DashboardSnapshot next = new DashboardSnapshot(
+                previous == null ? 1 : previous.getVersion() + 1,
+                System.currentTimeMillis(),
+                sensorService.countAllSensors(),
+                solutionService.getTotalSolutionsCount(),
+                requestService.getTotalRequestsCount(),
+                soundService.getTotalSoundsCount(),
+                sensorDataService.getTotalSensorDataCount()
+        );
+
+        if (next.sameCounters(previous)) {
+            return previous;
+        }
+
+        snapshot = next;
+        LOG.debug("Снимок панели управления обновлен до версии {}", next.getVersion());
+        publish(next.diff(previous));
+        return next;
+    }
+
+    /**
+     * Читает водяной знак отслеживаемых таблиц.
+     * Недоступность водяного знака не мешает построению снимка: в этом случае
+     * пересчет выполняется только по {@link #invalidate()}.
+     *
+     * @return водяной знак или null
+     */
+    private String readWatermark() {
+        try {
+            return watermarkService.getWatermark(TRACKED_ENTITIES);
+        } catch (RuntimeException e) {
+            LOG.debug("Водяной знак таблиц недоступен: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(Map<String, Object> delta) {
+        for (Consumer<Map<String, Object>> subscriber : subscribers) {
+            try {
+                subscriber.accept(delta);
+            } catch (RuntimeException e) {
+                LOG.debug("Подписчик панели управления отключен: {}", e.getMessage());
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+}
@@ -23,6 +23,6 @@ public class MLStrategy implements AnalysisStrategy {
      */
     @Override
     public void analyze(List<String> data) {
-        LOG.info(String.format("%s был вызван!", getClass()));
+        LOG.info("{} был вызван!", getClass());
     }
 }
\ No newline at end of file
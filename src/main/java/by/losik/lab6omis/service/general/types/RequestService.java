@@ -4,6 +4,8 @@ import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Request;
 import by.losik.lab6omis.repository.general.types.RequestRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
+import by.losik.lab6omis.service.uniqueness.UniquenessFilterService;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -29,6 +31,9 @@ public class RequestService extends BaseService<Request, Long> {
     @Inject
     RequestRepository requestRepository;
 
+    @Inject
+    UniquenessFilterService uniquenessFilter;
+
     /**
      * Создает новый запрос в системе.
      *
@@ -38,15 +43,17 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public Request createRequest(@Valid Request request) {
         return executeWithLogging(
-                String.format("Создание нового запроса: цель='%s', язык=%s, точность=%.2f",
-                        request.getGoal(), request.getLanguage(), request.getRecognitionAccuracy()),
+                "Создание нового запроса: цель='%s', язык=%s, точность=%.2f",
+                request.getGoal(), request.getLanguage(), request.getRecognitionAccuracy(),
                 () -> {
                     validateRequest(request);
                     validateUnique(request.getGoal(),
-                            () -> requestRepository.existsByGoal(request.getGoal()),
+                            () -> uniquenessFilter.exists(UniquenessFilterService.REQUEST_GOAL,
+                                    request.getGoal(), requestRepository::existsByGoal),
                             "целью", "Запрос");
 
-                    return requestRepository.create(request);
+                    uniquenessFilter.add(UniquenessFilterService.REQUEST_GOAL, request.getGoal());
+                    return saveUnique(() -> requestRepository.create(request), "целью", "Запрос");
                 }
         );
     }
@@ -88,7 +95,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getAllRequests(int page, int size) {
         return executeWithLogging(
-                String.format("Получение запросов с пагинацией: page=%d, size=%d", page, size),
+                "Получение запросов с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return requestRepository.findAll(page, size);
@@ -107,14 +114,15 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public Request updateRequest(Long id, @Valid Request updatedRequest) {
         return executeWithLogging(
-                String.format("Обновление запроса с ID %d", id),
+                "Обновление запроса с ID %d", id,
                 () -> {
                     Request existingRequest = getById(id);
                     validateRequest(updatedRequest);
 
                     if (!existingRequest.getGoal().equals(updatedRequest.getGoal())) {
                         validateUnique(updatedRequest.getGoal(),
-                                () -> requestRepository.existsByGoal(updatedRequest.getGoal()),
+                                () -> uniquenessFilter.exists(UniquenessFilterService.REQUEST_GOAL,
+                                        updatedRequest.getGoal(), requestRepository::existsByGoal),
                                 "целью", "Запрос");
                     }
 
@@ -122,7 +130,8 @@ public class RequestService extends BaseService<Request, Long> {
                     existingRequest.setGoal(updatedRequest.getGoal());
                     existingRequest.setRecognitionAccuracy(updatedRequest.getRecognitionAccuracy());
 
-                    return requestRepository.save(existingRequest);
+                    uniquenessFilter.add(UniquenessFilterService.REQUEST_GOAL, existingRequest.getGoal());
+                    return saveUnique(() -> requestRepository.save(existingRequest), "целью", "Запрос");
                 }
         );
     }
@@ -135,7 +144,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public void deleteRequest(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление запроса ID %d", id),
+                "Удаление запроса ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> requestRepository.existsById(id),
@@ -153,7 +162,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Поиск запросов по языку: %s", language),
+                "Поиск запросов по языку: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return requestRepository.findByLanguage(language);
@@ -170,7 +179,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getByRecognitionAccuracyGreaterThan(Double minAccuracy) {
         return executeWithLogging(
-                String.format("Поиск запросов с точностью выше %.2f", minAccuracy),
+                "Поиск запросов с точностью выше %.2f", minAccuracy,
                 () -> {
                     validateRecognitionAccuracy(minAccuracy);
                     return requestRepository.findByRecognitionAccuracyGreaterThan(minAccuracy);
@@ -188,7 +197,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getByRecognitionAccuracyBetween(Double minAccuracy, Double maxAccuracy) {
         return executeWithLogging(
-                String.format("Поиск запросов с точностью от %.2f до %.2f", minAccuracy, maxAccuracy),
+                "Поиск запросов с точностью от %.2f до %.2f", minAccuracy, maxAccuracy,
                 () -> {
                     validateRecognitionAccuracy(minAccuracy);
                     validateRecognitionAccuracy(maxAccuracy);
@@ -213,7 +222,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getByGoalPattern(String goalPattern) {
         return executeWithLogging(
-                String.format("Поиск запросов по паттерну цели: '%s'", goalPattern),
+                "Поиск запросов по паттерну цели: '%s'", goalPattern,
                 () -> {
                     if (goalPattern == null || goalPattern.trim().isEmpty()) {
                         return List.of();
@@ -231,7 +240,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> getByLanguageOrderByAccuracyDesc(Language language) {
         return executeWithLogging(
-                String.format("Поиск запросов на языке %s с сортировкой по точности (убыв.)", language),
+                "Поиск запросов на языке %s с сортировкой по точности (убыв.)", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return requestRepository.findByLanguageOrderByAccuracyDesc(language);
@@ -244,6 +253,7 @@ public class RequestService extends BaseService<Request, Long> {
      *
      * @return средняя точность распознавания
      */
+    @CachedResult(tags = Request.class)
     public Double getAverageRecognitionAccuracy() {
         return executeWithLogging(
                 "Расчет средней точности распознавания",
@@ -262,7 +272,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public Double getAverageRecognitionAccuracyByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Расчет средней точности распознавания для языка: %s", language),
+                "Расчет средней точности распознавания для языка: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     Double avgAccuracy = requestRepository.getAverageRecognitionAccuracyByLanguage(language);
@@ -276,6 +286,7 @@ public class RequestService extends BaseService<Request, Long> {
      *
      * @return карта, где ключ - язык, значение - количество запросов
      */
+    @CachedResult(tags = Request.class)
     public Map<Language, Long> getRequestsCountByLanguage() {
         return executeWithLogging(
                 "Получение статистики запросов по языкам",
@@ -315,12 +326,13 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public boolean existsByGoal(String goal) {
         return executeWithLogging(
-                String.format("Проверка существования запроса с целью: '%s'", goal),
+                "Проверка существования запроса с целью: '%s'", goal,
                 () -> {
                     if (goal == null || goal.trim().isEmpty()) {
                         return false;
                     }
-                    return requestRepository.existsByGoal(goal.trim());
+                    return uniquenessFilter.exists(UniquenessFilterService.REQUEST_GOAL,
+                            goal.trim(), requestRepository::existsByGoal);
                 }
         );
     }
@@ -335,7 +347,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public Request getByGoal(String goal) {
         return executeWithLogging(
-                String.format("Поиск запроса по точной цели: '%s'", goal),
+                "Поиск запроса по точной цели: '%s'", goal,
                 () -> {
                     validateGoal(goal);
                     return requestRepository.findByGoal(goal.trim())
@@ -354,7 +366,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public List<Request> searchByGoal(String searchText) {
         return executeWithLogging(
-                String.format("Поиск запросов по цели: '%s'", searchText),
+                "Поиск запросов по цели: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -372,7 +384,7 @@ public class RequestService extends BaseService<Request, Long> {
      */
     public int deleteByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Удаление всех запросов на языке: %s", language),
+                "Удаление всех запросов на языке: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return requestRepository.deleteByLanguage(language);
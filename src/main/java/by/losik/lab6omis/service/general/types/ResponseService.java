@@ -4,6 +4,8 @@ import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.ResponseEntity;
 import by.losik.lab6omis.repository.general.types.ResponseRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
+import by.losik.lab6omis.service.uniqueness.UniquenessFilterService;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -29,6 +31,9 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
     @Inject
     ResponseRepository responseRepository;
 
+    @Inject
+    UniquenessFilterService uniquenessFilter;
+
     /**
      * Создает новый ответ в системе.
      *
@@ -38,15 +43,17 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public ResponseEntity createResponse(@Valid ResponseEntity responseEntity) {
         return executeWithLogging(
-                String.format("Создание нового ответа: язык=%s, длина сообщения=%d",
-                        responseEntity.getLanguage(), responseEntity.getMessage().length()),
+                "Создание нового ответа: язык=%s, длина сообщения=%d",
+                responseEntity.getLanguage(), responseEntity.getMessage().length(),
                 () -> {
                     validateResponse(responseEntity);
                     validateUnique(responseEntity.getMessage(),
-                            () -> responseRepository.existsByMessage(responseEntity.getMessage()),
+                            () -> uniquenessFilter.exists(UniquenessFilterService.RESPONSE_MESSAGE,
+                                    responseEntity.getMessage(), responseRepository::existsByMessage),
                             "сообщением", "Ответ");
 
-                    return responseRepository.create(responseEntity);
+                    uniquenessFilter.add(UniquenessFilterService.RESPONSE_MESSAGE, responseEntity.getMessage());
+                    return saveUnique(() -> responseRepository.create(responseEntity), "сообщением", "Ответ");
                 }
         );
     }
@@ -88,7 +95,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getAllResponses(int page, int size) {
         return executeWithLogging(
-                String.format("Получение ответов с пагинацией: page=%d, size=%d", page, size),
+                "Получение ответов с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return responseRepository.findAll(page, size);
@@ -107,21 +114,23 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public ResponseEntity updateResponse(Long id, @Valid ResponseEntity updatedResponseEntity) {
         return executeWithLogging(
-                String.format("Обновление ответа с ID %d", id),
+                "Обновление ответа с ID %d", id,
                 () -> {
                     ResponseEntity existingResponseEntity = getById(id);
                     validateResponse(updatedResponseEntity);
 
                     if (!existingResponseEntity.getMessage().equals(updatedResponseEntity.getMessage())) {
                         validateUnique(updatedResponseEntity.getMessage(),
-                                () -> responseRepository.existsByMessage(updatedResponseEntity.getMessage()),
+                                () -> uniquenessFilter.exists(UniquenessFilterService.RESPONSE_MESSAGE,
+                                        updatedResponseEntity.getMessage(), responseRepository::existsByMessage),
                                 "сообщением", "Ответ");
                     }
 
                     existingResponseEntity.setLanguage(updatedResponseEntity.getLanguage());
                     existingResponseEntity.setMessage(updatedResponseEntity.getMessage());
 
-                    return responseRepository.save(existingResponseEntity);
+                    uniquenessFilter.add(UniquenessFilterService.RESPONSE_MESSAGE, existingResponseEntity.getMessage());
+                    return saveUnique(() -> responseRepository.save(existingResponseEntity), "сообщением", "Ответ");
                 }
         );
     }
@@ -134,7 +143,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public void deleteResponse(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление ответа ID %d", id),
+                "Удаление ответа ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> responseRepository.existsById(id),
@@ -152,7 +161,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Поиск ответов по языку: %s", language),
+                "Поиск ответов по языку: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return responseRepository.findByLanguage(language);
@@ -170,7 +179,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public ResponseEntity getByMessage(String message) {
         return executeWithLogging(
-                String.format("Поиск ответа по точному сообщению: '%s'", message),
+                "Поиск ответа по точному сообщению: '%s'", message,
                 () -> {
                     validateMessage(message);
                     return responseRepository.findByMessage(message.trim())
@@ -189,7 +198,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> searchByMessage(String searchText) {
         return executeWithLogging(
-                String.format("Поиск ответов по сообщению: '%s'", searchText),
+                "Поиск ответов по сообщению: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -209,7 +218,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByMessageLengthBetween(int minLength, int maxLength) {
         return executeWithLogging(
-                String.format("Поиск ответов с длиной сообщения от %d до %d символов", minLength, maxLength),
+                "Поиск ответов с длиной сообщения от %d до %d символов", minLength, maxLength,
                 () -> {
                     if (minLength < 0 || maxLength < 0 || minLength > maxLength) {
                         throw new IllegalArgumentException(
@@ -230,7 +239,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getShortMessages(int maxLength) {
         return executeWithLogging(
-                String.format("Поиск ответов с сообщениями короче %d символов", maxLength),
+                "Поиск ответов с сообщениями короче %d символов", maxLength,
                 () -> {
                     validatePositive(maxLength, "Максимальная длина сообщения");
                     return responseRepository.findByShortMessage(maxLength);
@@ -247,7 +256,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getLongMessages(int minLength) {
         return executeWithLogging(
-                String.format("Поиск ответов с сообщениями длиннее %d символов", minLength),
+                "Поиск ответов с сообщениями длиннее %d символов", minLength,
                 () -> {
                     if (minLength < 0) {
                         throw new IllegalArgumentException("Минимальная длина не может быть отрицательной");
@@ -265,7 +274,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByLanguageOrderByMessageLengthAsc(Language language) {
         return executeWithLogging(
-                String.format("Поиск ответов на языке %s с сортировкой по длине (возр.)", language),
+                "Поиск ответов на языке %s с сортировкой по длине (возр.)", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return responseRepository.findByLanguageOrderByMessageLengthAsc(language);
@@ -281,7 +290,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByLanguageOrderByMessageLengthDesc(Language language) {
         return executeWithLogging(
-                String.format("Поиск ответов на языке %s с сортировкой по длине (убыв.)", language),
+                "Поиск ответов на языке %s с сортировкой по длине (убыв.)", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return responseRepository.findByLanguageOrderByMessageLengthDesc(language);
@@ -297,7 +306,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByMessageStartingWith(String prefix) {
         return executeWithLogging(
-                String.format("Поиск ответов по префиксу сообщения: '%s'", prefix),
+                "Поиск ответов по префиксу сообщения: '%s'", prefix,
                 () -> {
                     if (prefix == null || prefix.trim().isEmpty()) {
                         return List.of();
@@ -315,7 +324,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByMessageEndingWith(String suffix) {
         return executeWithLogging(
-                String.format("Поиск ответов по суффиксу сообщения: '%s'", suffix),
+                "Поиск ответов по суффиксу сообщения: '%s'", suffix,
                 () -> {
                     if (suffix == null || suffix.trim().isEmpty()) {
                         return List.of();
@@ -330,6 +339,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      *
      * @return карта, где ключ - язык, значение - количество ответов
      */
+    @CachedResult(tags = ResponseEntity.class)
     public Map<Language, Long> getResponsesCountByLanguage() {
         return executeWithLogging(
                 "Получение статистики ответов по языкам",
@@ -342,6 +352,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      *
      * @return средняя длина сообщений
      */
+    @CachedResult(tags = ResponseEntity.class)
     public Double getAverageMessageLength() {
         return executeWithLogging(
                 "Расчет средней длины сообщений",
@@ -360,7 +371,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public Double getAverageMessageLengthByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Расчет средней длины сообщений для языка: %s", language),
+                "Расчет средней длины сообщений для языка: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     Double avgLength = responseRepository.getAverageMessageLengthByLanguage(language);
@@ -401,12 +412,13 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public boolean existsByMessage(String message) {
         return executeWithLogging(
-                String.format("Проверка существования ответа с сообщением: '%s'", message),
+                "Проверка существования ответа с сообщением: '%s'", message,
                 () -> {
                     if (message == null || message.trim().isEmpty()) {
                         return false;
                     }
-                    return responseRepository.existsByMessage(message.trim());
+                    return uniquenessFilter.exists(UniquenessFilterService.RESPONSE_MESSAGE,
+                            message.trim(), responseRepository::existsByMessage);
                 }
         );
     }
@@ -419,7 +431,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public int deleteByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Удаление всех ответов на языке: %s", language),
+                "Удаление всех ответов на языке: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     return responseRepository.deleteByLanguage(language);
@@ -438,7 +450,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByLanguageWithPagination(Language language, int page, int size) {
         return executeWithLogging(
-                String.format("Поиск ответов на языке %s с пагинацией: page=%d, size=%d", language, page, size),
+                "Поиск ответов на языке %s с пагинацией: page=%d, size=%d", language, page, size,
                 () -> {
                     validateNotNull(language, "Язык");
                     validatePagination(page, size);
@@ -455,7 +467,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public Long countByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Подсчет количества ответов на языке: %s", language),
+                "Подсчет количества ответов на языке: %s", language,
                 () -> {
                     validateNotNull(language, "Язык");
                     Long count = responseRepository.countByLanguage(language);
@@ -472,7 +484,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByLanguages(List<Language> languages) {
         return executeWithLogging(
-                String.format("Поиск ответов по %d языкам", languages != null ? languages.size() : 0),
+                "Поиск ответов по %d языкам", languages != null ? languages.size() : 0,
                 () -> {
                     if (languages == null || languages.isEmpty()) {
                         return List.of();
@@ -491,7 +503,7 @@ public class ResponseService extends BaseService<ResponseEntity, Long> {
      */
     public List<ResponseEntity> getByMessageLength(int exactLength) {
         return executeWithLogging(
-                String.format("Поиск ответов с точной длиной сообщения: %d символов", exactLength),
+                "Поиск ответов с точной длиной сообщения: %d символов", exactLength,
                 () -> {
                     if (exactLength < 0) {
                         throw new IllegalArgumentException("Длина сообщения не может быть отрицательной");
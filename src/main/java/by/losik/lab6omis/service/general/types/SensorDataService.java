@@ -1,18 +1,31 @@
 package by.losik.lab6omis.service.general.types;
 
+import by.losik.lab6omis.dto.SensorSeriesResponse;
+import by.losik.lab6omis.dto.SeriesBucket;
+import by.losik.lab6omis.dto.SeriesPoint;
 import by.losik.lab6omis.entities.general.types.Sensor;
 import by.losik.lab6omis.entities.general.types.SensorData;
 import by.losik.lab6omis.repository.general.types.SensorDataRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
+import by.losik.lab6omis.service.series.LttbDownsampler;
+import by.losik.lab6omis.service.series.SeriesMode;
+import by.losik.lab6omis.service.stream.SensorReadingHub;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
 import javax.ws.rs.NotFoundException;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Сервис для управления данными сенсоров (SensorData).
@@ -27,11 +40,18 @@ import java.util.Map;
 @Transactional
 public class SensorDataService extends BaseService<SensorData, Long> {
 
+    private static final int MIN_SERIES_POINTS = 3;
+    private static final int MAX_SERIES_POINTS = 10_000;
+
     @Inject
     SensorDataRepository sensorDataRepository;
 
+    @Inject
+    SensorReadingHub readingHub;
+
     /**
      * Создает новые данные сенсора в системе.
+     * Сохраненные данные публикуются в поток новых показаний ({@link SensorReadingHub}).
      *
      * @param sensorData объект данных сенсора для создания (должен быть валидным)
      * @return сохраненный объект данных сенсора
@@ -39,15 +59,89 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public SensorData createSensorData(@Valid SensorData sensorData) {
         return executeWithLogging(
-                String.format("Создание данных сенсора: сенсор ID=%d, назначение='%s', время=%s",
-                        sensorData.getSensor().getId(), sensorData.getPurpose(), sensorData.getTimestamp()),
+                "Создание данных сенсора: сенсор ID=%d, назначение='%s', время=%s",
+                sensorData.getSensor().getId(), sensorData.getPurpose(), sensorData.getTimestamp(),
                 () -> {
                     validateSensorData(sensorData);
-                    return sensorDataRepository.create(sensorData);
+                    SensorData saved = sensorDataRepository.create(sensorData);
+                    readingHub.publish(List.of(saved));
+                    return saved;
                 }
         );
     }
 
+    /**
+     * Проверяет поля данных сенсора без обращения к базе данных.
+     * Используется приемом показаний, где сенсор уже найден по имени.
+     *
+     * @param sensorData объект данных сенсора
+     * @throws IllegalArgumentException если параметры данных некорректны
+     */
+    public void validateReading(SensorData sensorData) {
+        validateSensorData(sensorData);
+    }
+
+    /**
+     * Проверяет данные сенсора перед постановкой в очередь асинхронной записи.
+     * Помимо проверок {@link #createSensorData} убеждается, что сенсор существует:
+     * после ответа 202 ошибку внешнего ключа клиенту уже не сообщить.
+     *
+     * @param sensorData объект данных сенсора
+     * @param deferSensorCheck если база данных недоступна, принять показание без проверки
+     *                         сенсора (показание с несуществующим сенсором отбросится при записи)
+     * @throws IllegalArgumentException если параметры данных некорректны
+     * @throws NotFoundException если сенсор не найден
+     */
+    public void validateForIngestion(SensorData sensorData, boolean deferSensorCheck) {
+        validateReading(sensorData);
+        Long sensorId = sensorData.getSensor().getId();
+        validateNotNull(sensorId, "ID сенсора");
+        try {
+            ensureEntityExists(sensorId, () -> sensorDataRepository.sensorExists(sensorId), "Сенсор");
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (!deferSensorCheck) {
+                throw e;
+            }
+            LOG.debug("Проверка сенсора ID={} отложена до записи: {}", sensorId, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет пакет проверенных данных сенсоров одной транзакцией
+     * и публикует его в поток новых показаний.
+     *
+     * @param batch данные сенсоров, прошедшие {@link #validateForIngestion}
+     * @return сохраненные данные сенсоров
+     */
+    public List<SensorData> createSensorDataBatch(List<SensorData> batch) {
+        return executeWithLogging(
+                "Пакетное создание данных сенсоров: %d записей", batch.size(),
+                () -> {
+                    List<SensorData> saved = sensorDataRepository.createAll(batch);
+                    readingHub.publish(saved);
+                    return saved;
+                }
+        );
+    }
+
+    /**
+     * Проверяет, доступна ли база данных: отличает недоступность базы
+     * от ошибок в самих данных при неудачной записи пакета.
+     *
+     * @return true если база данных отвечает на запросы
+     */
+    public boolean isDatabaseAvailable() {
+        try {
+            sensorDataRepository.ping();
+            return true;
+        } catch (RuntimeException e) {
+            LOG.debug("База данных недоступна: {}", e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Получает данные сенсора по его идентификатору.
      *
@@ -85,7 +179,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getAllSensorData(int page, int size) {
         return executeWithLogging(
-                String.format("Получение данных сенсоров с пагинацией: page=%d, size=%d", page, size),
+                "Получение данных сенсоров с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return sensorDataRepository.findAll(page, size);
@@ -104,7 +198,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public SensorData updateSensorData(Long id, @Valid SensorData updatedSensorData) {
         return executeWithLogging(
-                String.format("Обновление данных сенсора ID %d", id),
+                "Обновление данных сенсора ID %d", id,
                 () -> {
                     SensorData existingSensorData = getById(id);
                     validateSensorData(updatedSensorData);
@@ -126,7 +220,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public void deleteSensorData(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление данных сенсора ID %d", id),
+                "Удаление данных сенсора ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> sensorDataRepository.existsById(id),
@@ -144,7 +238,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensor(Sensor sensor) {
         return executeWithLogging(
-                String.format("Поиск данных по сенсору ID: %d", sensor.getId()),
+                "Поиск данных по сенсору ID: %d", sensor.getId(),
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     return sensorDataRepository.findBySensor(sensor);
@@ -161,7 +255,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensorId(Long sensorId) {
         return executeWithLogging(
-                String.format("Поиск данных по ID сенсора: %d", sensorId),
+                "Поиск данных по ID сенсора: %d", sensorId,
                 () -> {
                     validatePositive(sensorId, "ID сенсора");
                     return sensorDataRepository.findBySensorId(sensorId);
@@ -169,6 +263,23 @@ public class SensorDataService extends BaseService<SensorData, Long> {
         );
     }
 
+    /**
+     * Потоково получает данные сенсора по ID сенсора без материализации списка.
+     *
+     * @param sensorId ID сенсора
+     * @return поток данных указанного сенсора (должен быть закрыт вызывающим кодом)
+     * @throws IllegalArgumentException если ID сенсора некорректен
+     */
+    public Stream<SensorData> streamBySensorId(Long sensorId) {
+        return executeWithLogging(
+                "Потоковый поиск данных по ID сенсора: %d", sensorId,
+                () -> {
+                    validatePositive(sensorId, "ID сенсора");
+                    return sensorDataRepository.streamBySensorId(sensorId);
+                }
+        );
+    }
+
     /**
      * Получает данные по назначению (точное совпадение).
      *
@@ -179,7 +290,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public SensorData getByPurpose(String purpose) {
         return executeWithLogging(
-                String.format("Поиск данных по назначению: '%s'", purpose),
+                "Поиск данных по назначению: '%s'", purpose,
                 () -> {
                     validatePurpose(purpose);
                     return sensorDataRepository.findByPurpose(purpose)
@@ -198,7 +309,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> searchByPurpose(String searchText) {
         return executeWithLogging(
-                String.format("Поиск данных по назначению: '%s'", searchText),
+                "Поиск данных по назначению: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -216,7 +327,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByTimestamp(LocalDateTime timestamp) {
         return executeWithLogging(
-                String.format("Поиск данных по временной метке: %s", timestamp),
+                "Поиск данных по временной метке: %s", timestamp,
                 () -> {
                     validateTimestamp(timestamp);
                     return sensorDataRepository.findByTimestamp(timestamp);
@@ -234,7 +345,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
         return executeWithLogging(
-                String.format("Поиск данных за период: с %s по %s", startDate, endDate),
+                "Поиск данных за период: с %s по %s", startDate, endDate,
                 () -> {
                     validateTimeRange(startDate, endDate);
                     return sensorDataRepository.findByTimestampBetween(startDate, endDate);
@@ -242,6 +353,24 @@ public class SensorDataService extends BaseService<SensorData, Long> {
         );
     }
 
+    /**
+     * Потоково получает данные сенсоров за определенный период времени.
+     *
+     * @param startDate начальная дата (включительно)
+     * @param endDate конечная дата (включительно)
+     * @return поток данных за указанный период (должен быть закрыт вызывающим кодом)
+     * @throws IllegalArgumentException если временной диапазон некорректен
+     */
+    public Stream<SensorData> streamByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return executeWithLogging(
+                "Потоковый поиск данных за период: с %s по %s", startDate, endDate,
+                () -> {
+                    validateTimeRange(startDate, endDate);
+                    return sensorDataRepository.streamByTimestampBetween(startDate, endDate);
+                }
+        );
+    }
+
     /**
      * Получает данные сенсоров за последние N дней.
      *
@@ -251,7 +380,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getRecentData(int days) {
         return executeWithLogging(
-                String.format("Получение данных за последние %d дней", days),
+                "Получение данных за последние %d дней", days,
                 () -> {
                     validatePositive(days, "Количество дней");
                     return sensorDataRepository.findRecentData(days);
@@ -259,6 +388,23 @@ public class SensorDataService extends BaseService<SensorData, Long> {
         );
     }
 
+    /**
+     * Потоково получает данные сенсоров за последние N дней.
+     *
+     * @param days количество дней
+     * @return поток данных за последние N дней (должен быть закрыт вызывающим кодом)
+     * @throws IllegalArgumentException если количество дней некорректно
+     */
+    public Stream<SensorData> streamRecentData(int days) {
+        return executeWithLogging(
+                "Потоковое получение данных за последние %d дней", days,
+                () -> {
+                    validatePositive(days, "Количество дней");
+                    return sensorDataRepository.streamRecentData(days);
+                }
+        );
+    }
+
     /**
      * Получает данные сенсора за определенный период.
      *
@@ -270,7 +416,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensorAndTimestampBetween(Sensor sensor, LocalDateTime startDate, LocalDateTime endDate) {
         return executeWithLogging(
-                String.format("Поиск данных сенсора ID=%d за период: с %s по %s", sensor.getId(), startDate, endDate),
+                "Поиск данных сенсора ID=%d за период: с %s по %s", sensor.getId(), startDate, endDate,
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     validateTimeRange(startDate, endDate);
@@ -279,6 +425,47 @@ public class SensorDataService extends BaseService<SensorData, Long> {
         );
     }
 
+    /**
+     * Строит прореженный ряд показаний сенсора за период для графика:
+     * не больше {@code points} элементов независимо от числа показаний.
+     * <ul>
+     *   <li>{@link SeriesMode#BUCKETS} - период делится на {@code points} равных интервалов,
+     *       число, первое и последнее показание каждого считает база данных</li>
+     *   <li>{@link SeriesMode#LTTB} - показания читаются курсором по возрастанию времени
+     *       и прореживаются {@link LttbDownsampler} за один проход; значением точки служит
+     *       интервал от предыдущего показания, поэтому пропуски и всплески сохраняются</li>
+     * </ul>
+     *
+     * @param sensorId ID сенсора
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @param points наибольшее число элементов ряда
+     * @param mode режим прореживания
+     * @return прореженный ряд
+     * @throws IllegalArgumentException если параметры некорректны
+     * @throws NotFoundException если сенсор не найден
+     */
+    public SensorSeriesResponse getSeries(Long sensorId, LocalDateTime from, LocalDateTime to,
+                                          int points, SeriesMode mode) {
+        return executeWithLogging(
+                "Построение ряда показаний сенсора ID=%d, точек: %d, режим: %s", sensorId, points, mode,
+                () -> {
+                    validateNotNull(sensorId, "ID сенсора");
+                    validateNotNull(from, "Начало периода");
+                    validateNotNull(to, "Конец периода");
+                    validateNotNull(mode, "Режим ряда");
+                    validateNumberRange(points, "Число точек", MIN_SERIES_POINTS, MAX_SERIES_POINTS);
+                    if (!from.isBefore(to)) {
+                        throw new IllegalArgumentException("Начало периода должно быть раньше конца");
+                    }
+                    ensureEntityExists(sensorId, () -> sensorDataRepository.sensorExists(sensorId), "Сенсор");
+                    return mode == SeriesMode.BUCKETS
+                            ? bucketSeries(sensorId, from, to, points)
+                            : lttbSeries(sensorId, from, to, points);
+                }
+        );
+    }
+
     /**
      * Получает данные по назначению с сортировкой по времени (по возрастанию).
      *
@@ -287,7 +474,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByPurposeOrderByTimestampAsc(String purpose) {
         return executeWithLogging(
-                String.format("Поиск данных по назначению '%s' с сортировкой по времени (возр.)", purpose),
+                "Поиск данных по назначению '%s' с сортировкой по времени (возр.)", purpose,
                 () -> {
                     validatePurpose(purpose);
                     return sensorDataRepository.findByPurposeOrderByTimestampAsc(purpose);
@@ -303,7 +490,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByPurposeOrderByTimestampDesc(String purpose) {
         return executeWithLogging(
-                String.format("Поиск данных по назначению '%s' с сортировкой по времени (убыв.)", purpose),
+                "Поиск данных по назначению '%s' с сортировкой по времени (убыв.)", purpose,
                 () -> {
                     validatePurpose(purpose);
                     return sensorDataRepository.findByPurposeOrderByTimestampDesc(purpose);
@@ -320,8 +507,8 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensorOrderByTimestamp(Sensor sensor, boolean ascending) {
         return executeWithLogging(
-                String.format("Поиск данных сенсора ID=%d с сортировкой по времени (%s)",
-                        sensor.getId(), ascending ? "возрастание" : "убывание"),
+                "Поиск данных сенсора ID=%d с сортировкой по времени (%s)",
+                sensor.getId(), ascending ? "возрастание" : "убывание",
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     return sensorDataRepository.findBySensorOrderByTimestamp(sensor, ascending);
@@ -337,7 +524,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByPurposeStartingWith(String prefix) {
         return executeWithLogging(
-                String.format("Поиск данных по префиксу назначения: '%s'", prefix),
+                "Поиск данных по префиксу назначения: '%s'", prefix,
                 () -> {
                     if (prefix == null || prefix.trim().isEmpty()) {
                         return List.of();
@@ -355,7 +542,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByPurposeEndingWith(String suffix) {
         return executeWithLogging(
-                String.format("Поиск данных по суффиксу назначения: '%s'", suffix),
+                "Поиск данных по суффиксу назначения: '%s'", suffix,
                 () -> {
                     if (suffix == null || suffix.trim().isEmpty()) {
                         return List.of();
@@ -370,6 +557,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      *
      * @return карта, где ключ - ID сенсора, значение - количество данных
      */
+    @CachedResult(tags = {SensorData.class, Sensor.class})
     public Map<Long, Long> getDataCountBySensor() {
         return executeWithLogging(
                 "Получение статистики данных по сенсорам",
@@ -386,7 +574,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public Map<String, Long> getDataCountByDay(int days) {
         return executeWithLogging(
-                String.format("Получение статистики данных по дням за последние %d дней", days),
+                "Получение статистики данных по дням за последние %d дней", days,
                 () -> {
                     validatePositive(days, "Количество дней");
                     return sensorDataRepository.getDataCountByDay(days);
@@ -438,7 +626,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public boolean existsBySensor(Sensor sensor) {
         return executeWithLogging(
-                String.format("Проверка существования данных для сенсора ID: %d", sensor.getId()),
+                "Проверка существования данных для сенсора ID: %d", sensor.getId(),
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     return sensorDataRepository.existsBySensor(sensor);
@@ -454,7 +642,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public int deleteBySensor(Sensor sensor) {
         return executeWithLogging(
-                String.format("Удаление всех данных для сенсора ID: %d", sensor.getId()),
+                "Удаление всех данных для сенсора ID: %d", sensor.getId(),
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     return sensorDataRepository.deleteBySensor(sensor);
@@ -471,7 +659,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public int deleteOldData(LocalDateTime cutoffDate) {
         return executeWithLogging(
-                String.format("Удаление старых данных до даты: %s", cutoffDate),
+                "Удаление старых данных до даты: %s", cutoffDate,
                 () -> {
                     validateTimestamp(cutoffDate);
                     return sensorDataRepository.deleteOldData(cutoffDate);
@@ -490,7 +678,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensorWithPagination(Sensor sensor, int page, int size) {
         return executeWithLogging(
-                String.format("Поиск данных сенсора ID=%d с пагинацией: page=%d, size=%d", sensor.getId(), page, size),
+                "Поиск данных сенсора ID=%d с пагинацией: page=%d, size=%d", sensor.getId(), page, size,
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     validatePagination(page, size);
@@ -507,7 +695,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public Long countBySensor(Sensor sensor) {
         return executeWithLogging(
-                String.format("Подсчет количества данных для сенсора ID: %d", sensor.getId()),
+                "Подсчет количества данных для сенсора ID: %d", sensor.getId(),
                 () -> {
                     validateNotNull(sensor, "Сенсор");
                     Long count = sensorDataRepository.countBySensor(sensor);
@@ -524,7 +712,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getBySensors(List<Sensor> sensors) {
         return executeWithLogging(
-                String.format("Поиск данных по %d сенсорам", sensors.size()),
+                "Поиск данных по %d сенсорам", sensors.size(),
                 () -> {
                     if (sensors.isEmpty()) {
                         return List.of();
@@ -545,7 +733,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      */
     public List<SensorData> getByPurposePatternAndTimeRange(String purposePattern, LocalDateTime startDate, LocalDateTime endDate) {
         return executeWithLogging(
-                String.format("Поиск данных по паттерну '%s' за период: с %s по %s", purposePattern, startDate, endDate),
+                "Поиск данных по паттерну '%s' за период: с %s по %s", purposePattern, startDate, endDate,
                 () -> {
                     if (purposePattern == null || purposePattern.trim().isEmpty()) {
                         return List.of();
@@ -561,6 +749,7 @@ public class SensorDataService extends BaseService<SensorData, Long> {
      *
      * @return карта, где ключ - час (0-23), значение - количество данных
      */
+    @CachedResult(tags = SensorData.class)
     public Map<Integer, Long> getDataDistributionByHour() {
         return executeWithLogging(
                 "Получение распределения данных по часам суток",
@@ -631,6 +820,59 @@ public class SensorDataService extends BaseService<SensorData, Long> {
         }
     }
 
+    /**
+     * Строит ряд из интервалов равной длины с крайними показаниями каждого интервала.
+     */
+    private SensorSeriesResponse bucketSeries(Long sensorId, LocalDateTime from, LocalDateTime to, int points) {
+        long rangeMillis = Duration.between(from, to).toMillis();
+        long bucketMillis = Math.max(1, (rangeMillis + points - 1) / points);
+        List<SeriesBucket> buckets = new ArrayList<>();
+        long readings = 0;
+        for (Object[] row : sensorDataRepository.aggregateBySensorInBuckets(sensorId, from, to, bucketMillis)) {
+            long count = ((Number) row[1]).longValue();
+            readings += count;
+            buckets.add(new SeriesBucket(
+                    from.plus(((Number) row[0]).longValue() * bucketMillis, ChronoUnit.MILLIS).toString(),
+                    count,
+                    new SeriesPoint(((Number) row[2]).longValue(), toLocalDateTime(row[3]).toString(), (String) row[4], null),
+                    new SeriesPoint(((Number) row[5]).longValue(), toLocalDateTime(row[6]).toString(), (String) row[7], null)
+            ));
+        }
+        return new SensorSeriesResponse(sensorId, SeriesMode.BUCKETS.label(), from.toString(), to.toString(),
+                points, readings, bucketMillis, buckets);
+    }
+
+    /**
+     * Строит ряд из показаний, отобранных алгоритмом LTTB за один проход по периоду.
+     */
+    private SensorSeriesResponse lttbSeries(Long sensorId, LocalDateTime from, LocalDateTime to, int points) {
+        long[] readings = new long[1];
+        List<SeriesPoint> samples = sensorDataRepository.scanBySensorAndTimestampRange(sensorId, from, to,
+                (count, rows) -> {
+                    readings[0] = count;
+                    LttbDownsampler<SeriesPoint> downsampler = new LttbDownsampler<>(count, points);
+                    long[] previousMillis = {Long.MIN_VALUE};
+                    rows.forEach(row -> {
+                        LocalDateTime timestamp = (LocalDateTime) row[1];
+                        long millis = timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+                        long interval = previousMillis[0] == Long.MIN_VALUE ? 0 : millis - previousMillis[0];
+                        previousMillis[0] = millis;
+                        downsampler.add(millis, interval, new SeriesPoint(
+                                (Long) row[0], timestamp.toString(), (String) row[2], interval));
+                    });
+                    return downsampler.finish();
+                });
+        return new SensorSeriesResponse(sensorId, SeriesMode.LTTB.label(), from.toString(), to.toString(),
+                points, readings[0], null, samples);
+    }
+
+    /**
+     * Приводит временную метку из результата нативного запроса к {@link LocalDateTime}.
+     */
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+
     /**
      * Валидирует временной диапазон.
      *
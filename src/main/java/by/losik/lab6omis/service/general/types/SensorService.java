@@ -3,6 +3,8 @@ package by.losik.lab6omis.service.general.types;
 import by.losik.lab6omis.entities.general.types.Sensor;
 import by.losik.lab6omis.repository.general.types.SensorRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
+import by.losik.lab6omis.service.uniqueness.UniquenessFilterService;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -28,6 +30,9 @@ public class SensorService extends BaseService<Sensor, Long> {
     @Inject
     SensorRepository sensorRepository;
 
+    @Inject
+    UniquenessFilterService uniquenessFilter;
+
     /**
      * Создает новый сенсор.
      *
@@ -37,18 +42,20 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public Sensor createSensor(@Valid Sensor sensor) {
         return executeWithLogging(
-                String.format("Создание сенсора: имя='%s', тип='%s'", sensor.getName(), sensor.getType()),
+                "Создание сенсора: имя='%s', тип='%s'", sensor.getName(), sensor.getType(),
                 () -> {
                     validateSensor(sensor);
                     validateUnique(sensor.getName(),
-                            () -> sensorRepository.existsByName(sensor.getName()),
+                            () -> uniquenessFilter.exists(UniquenessFilterService.SENSOR_NAME,
+                                    sensor.getName(), sensorRepository::existsByName),
                             "именем", "Сенсор");
 
                     if (sensor.getIsActive() == null) {
                         sensor.setIsActive(true);
                     }
 
-                    return sensorRepository.create(sensor);
+                    uniquenessFilter.add(UniquenessFilterService.SENSOR_NAME, sensor.getName());
+                    return saveUnique(() -> sensorRepository.create(sensor), "именем", "Сенсор");
                 }
         );
     }
@@ -90,7 +97,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getAllSensors(int page, int size) {
         return executeWithLogging(
-                String.format("Получение сенсоров с пагинацией: page=%d, size=%d", page, size),
+                "Получение сенсоров с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return sensorRepository.findAll(page, size);
@@ -109,14 +116,15 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public Sensor updateSensor(Long id, @Valid Sensor updatedSensor) {
         return executeWithLogging(
-                String.format("Обновление сенсора ID %d", id),
+                "Обновление сенсора ID %d", id,
                 () -> {
                     Sensor existingSensor = getById(id);
                     validateSensor(updatedSensor);
 
                     if (!existingSensor.getName().equals(updatedSensor.getName())) {
                         validateUnique(updatedSensor.getName(),
-                                () -> sensorRepository.existsByName(updatedSensor.getName()),
+                                () -> uniquenessFilter.exists(UniquenessFilterService.SENSOR_NAME,
+                                        updatedSensor.getName(), sensorRepository::existsByName),
                                 "именем", "Сенсор");
                     }
 
@@ -125,7 +133,8 @@ public class SensorService extends BaseService<Sensor, Long> {
                     existingSensor.setLocation(updatedSensor.getLocation());
                     existingSensor.setIsActive(updatedSensor.getIsActive());
 
-                    return sensorRepository.save(existingSensor);
+                    uniquenessFilter.add(UniquenessFilterService.SENSOR_NAME, existingSensor.getName());
+                    return saveUnique(() -> sensorRepository.save(existingSensor), "именем", "Сенсор");
                 }
         );
     }
@@ -138,7 +147,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public void deleteSensor(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление сенсора ID %d", id),
+                "Удаление сенсора ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> sensorRepository.existsById(id),
@@ -158,7 +167,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public Sensor getByName(String name) {
         return executeWithLogging(
-                String.format("Поиск сенсора по имени: '%s'", name),
+                "Поиск сенсора по имени: '%s'", name,
                 () -> {
                     validateStringLength(name, "Имя сенсора", 2, 100);
                     return sensorRepository.findByName(name.trim())
@@ -177,7 +186,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> searchByName(String searchText) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по имени: '%s'", searchText),
+                "Поиск сенсоров по имени: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -195,7 +204,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByType(String type) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типу: '%s'", type),
+                "Поиск сенсоров по типу: '%s'", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return List.of();
@@ -213,7 +222,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> searchByType(String searchText) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типу: '%s'", searchText),
+                "Поиск сенсоров по типу: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -231,7 +240,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByLocation(String location) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по локации: '%s'", location),
+                "Поиск сенсоров по локации: '%s'", location,
                 () -> {
                     if (location == null || location.trim().isEmpty()) {
                         return List.of();
@@ -249,7 +258,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByActiveStatus(Boolean isActive) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по статусу активности: %s", isActive),
+                "Поиск сенсоров по статусу активности: %s", isActive,
                 () -> sensorRepository.findByActiveStatus(isActive)
         );
     }
@@ -286,7 +295,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> searchByLocation(String searchText) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по локации: '%s'", searchText),
+                "Поиск сенсоров по локации: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -305,7 +314,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByNameAndType(String name, String type) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по имени '%s' и типу '%s'", name, type),
+                "Поиск сенсоров по имени '%s' и типу '%s'", name, type,
                 () -> {
                     if (name == null || name.trim().isEmpty() || type == null || type.trim().isEmpty()) {
                         return List.of();
@@ -323,7 +332,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByTypeOrderByNameAsc(String type) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типу '%s' с сортировкой по имени (возр.)", type),
+                "Поиск сенсоров по типу '%s' с сортировкой по имени (возр.)", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return List.of();
@@ -341,7 +350,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByTypeOrderByNameDesc(String type) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типу '%s' с сортировкой по имени (убыв.)", type),
+                "Поиск сенсоров по типу '%s' с сортировкой по имени (убыв.)", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return List.of();
@@ -359,7 +368,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByNameStartingWith(String prefix) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по префиксу имени: '%s'", prefix),
+                "Поиск сенсоров по префиксу имени: '%s'", prefix,
                 () -> {
                     if (prefix == null || prefix.trim().isEmpty()) {
                         return List.of();
@@ -377,7 +386,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByNameEndingWith(String suffix) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по суффиксу имени: '%s'", suffix),
+                "Поиск сенсоров по суффиксу имени: '%s'", suffix,
                 () -> {
                     if (suffix == null || suffix.trim().isEmpty()) {
                         return List.of();
@@ -392,6 +401,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      *
      * @return карта [тип сенсора, количество]
      */
+    @CachedResult(tags = Sensor.class)
     public Map<String, Long> getSensorCountByType() {
         return executeWithLogging(
                 "Получение статистики сенсоров по типам",
@@ -431,8 +441,9 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public boolean existsByName(String name) {
         return executeWithLogging(
-                String.format("Проверка существования сенсора с именем: '%s'", name),
-                () -> sensorRepository.existsByName(name)
+                "Проверка существования сенсора с именем: '%s'", name,
+                () -> uniquenessFilter.exists(UniquenessFilterService.SENSOR_NAME,
+                        name, sensorRepository::existsByName)
         );
     }
 
@@ -444,7 +455,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public int deleteByType(String type) {
         return executeWithLogging(
-                String.format("Удаление сенсоров типа: '%s'", type),
+                "Удаление сенсоров типа: '%s'", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return 0;
@@ -462,7 +473,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public int deleteByLocation(String location) {
         return executeWithLogging(
-                String.format("Удаление сенсоров в локации: '%s'", location),
+                "Удаление сенсоров в локации: '%s'", location,
                 () -> {
                     if (location == null || location.trim().isEmpty()) {
                         return 0;
@@ -483,7 +494,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByTypeWithPagination(String type, int page, int size) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типу '%s' с пагинацией: page=%d, size=%d", type, page, size),
+                "Поиск сенсоров по типу '%s' с пагинацией: page=%d, size=%d", type, page, size,
                 () -> {
                     validatePagination(page, size);
                     if (type == null || type.trim().isEmpty()) {
@@ -502,7 +513,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public Long countByType(String type) {
         return executeWithLogging(
-                String.format("Получение количества сенсоров типа: '%s'", type),
+                "Получение количества сенсоров типа: '%s'", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return 0L;
@@ -520,7 +531,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByTypes(List<String> types) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по типам: %s", types),
+                "Поиск сенсоров по типам: %s", types,
                 () -> {
                     List<String> cleanedTypes = cleanStringList(types);
                     if (cleanedTypes.isEmpty()) {
@@ -539,7 +550,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByLocations(List<String> locations) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по локациям: %s", locations),
+                "Поиск сенсоров по локациям: %s", locations,
                 () -> {
                     List<String> cleanedLocations = cleanStringList(locations);
                     if (cleanedLocations.isEmpty()) {
@@ -572,7 +583,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public int updateSensorActivity(Long sensorId, Boolean isActive) {
         return executeWithLogging(
-                String.format("Обновление активности сенсора ID %d на %s", sensorId, isActive),
+                "Обновление активности сенсора ID %d на %s", sensorId, isActive,
                 () -> {
                     ensureEntityExists(sensorId,
                             () -> sensorRepository.existsById(sensorId),
@@ -590,7 +601,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public int activateSensorsByType(String type) {
         return executeWithLogging(
-                String.format("Активация всех сенсоров типа: '%s'", type),
+                "Активация всех сенсоров типа: '%s'", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return 0;
@@ -608,7 +619,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public int deactivateSensorsByType(String type) {
         return executeWithLogging(
-                String.format("Деактивация всех сенсоров типа: '%s'", type),
+                "Деактивация всех сенсоров типа: '%s'", type,
                 () -> {
                     if (type == null || type.trim().isEmpty()) {
                         return 0;
@@ -626,7 +637,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getByNamePattern(String namePattern) {
         return executeWithLogging(
-                String.format("Поиск сенсоров по шаблону имени: '%s'", namePattern),
+                "Поиск сенсоров по шаблону имени: '%s'", namePattern,
                 () -> {
                     if (namePattern == null || namePattern.trim().isEmpty()) {
                         return List.of();
@@ -669,7 +680,7 @@ public class SensorService extends BaseService<Sensor, Long> {
      */
     public List<Sensor> getTopSensorsByDataCount(int limit) {
         return executeWithLogging(
-                String.format("Получение топ-%d сенсоров по количеству данных", limit),
+                "Получение топ-%d сенсоров по количеству данных", limit,
                 () -> {
                     if (limit <= 0) {
                         throw new IllegalArgumentException("Лимит должен быть положительным числом");
@@ -19,7 +19,7 @@ public class SolutionCommand implements Command {
      */
     @Override
     public void call() {
-        LOG.info(String.format("%s был вызван!", getClass()));
+        LOG.info("{} был вызван!", getClass());
     }
 
     /**
@@ -27,6 +27,6 @@ public class SolutionCommand implements Command {
      */
     @Override
     public void cancel() {
-        LOG.info(String.format("%s был отменен!", getClass()));
+        LOG.info("{} был отменен!", getClass());
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Solution;
 import by.losik.lab6omis.repository.general.types.SolutionRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
+import by.losik.lab6omis.service.uniqueness.UniquenessFilterService;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -31,6 +33,9 @@ public class SolutionService extends BaseService<Solution, Long> {
     @Inject
     SolutionRepository solutionRepository;
 
+    @Inject
+    UniquenessFilterService uniquenessFilter;
+
     /**
      * Создает новое решение в системе.
      *
@@ -41,15 +46,17 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public Solution createSolution(@Valid Solution solution) {
         return executeWithLogging(
-                String.format("Создание решения: язык='%s', длина сообщения=%d",
-                        solution.getLanguage(), solution.getMessage().length()),
+                "Создание решения: язык='%s', длина сообщения=%d",
+                solution.getLanguage(), solution.getMessage().length(),
                 () -> {
                     validateSolution(solution);
                     validateUnique(solution.getMessage(),
-                            () -> solutionRepository.existsByMessage(solution.getMessage()),
+                            () -> uniquenessFilter.exists(UniquenessFilterService.SOLUTION_MESSAGE,
+                                    solution.getMessage(), solutionRepository::existsByMessage),
                             "сообщением", "Решение");
 
-                    return solutionRepository.create(solution);
+                    uniquenessFilter.add(UniquenessFilterService.SOLUTION_MESSAGE, solution.getMessage());
+                    return saveUnique(() -> solutionRepository.create(solution), "сообщением", "Решение");
                 }
         );
     }
@@ -91,7 +98,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getAllSolutions(int page, int size) {
         return executeWithLogging(
-                String.format("Получение решений с пагинацией: page=%d, size=%d", page, size),
+                "Получение решений с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return solutionRepository.findAll(page, size);
@@ -110,21 +117,23 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public Solution updateSolution(Long id, @Valid Solution updatedSolution) {
         return executeWithLogging(
-                String.format("Обновление решения ID %d", id),
+                "Обновление решения ID %d", id,
                 () -> {
                     Solution existingSolution = getById(id);
                     validateSolution(updatedSolution);
 
                     if (!existingSolution.getMessage().equals(updatedSolution.getMessage())) {
                         validateUnique(updatedSolution.getMessage(),
-                                () -> solutionRepository.existsByMessage(updatedSolution.getMessage()),
+                                () -> uniquenessFilter.exists(UniquenessFilterService.SOLUTION_MESSAGE,
+                                        updatedSolution.getMessage(), solutionRepository::existsByMessage),
                                 "сообщением", "Решение");
                     }
 
                     existingSolution.setLanguage(updatedSolution.getLanguage());
                     existingSolution.setMessage(updatedSolution.getMessage());
 
-                    return solutionRepository.save(existingSolution);
+                    uniquenessFilter.add(UniquenessFilterService.SOLUTION_MESSAGE, existingSolution.getMessage());
+                    return saveUnique(() -> solutionRepository.save(existingSolution), "сообщением", "Решение");
                 }
         );
     }
@@ -137,7 +146,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public void deleteSolution(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление решения ID %d", id),
+                "Удаление решения ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> solutionRepository.existsById(id),
@@ -155,7 +164,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Поиск решений по языку: %s", language),
+                "Поиск решений по языку: %s", language,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     return solutionRepository.findByLanguage(language);
@@ -174,7 +183,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByLanguageWithPagination(Language language, int page, int size) {
         return executeWithLogging(
-                String.format("Поиск решений на языке %s с пагинацией: page=%d, size=%d", language, page, size),
+                "Поиск решений на языке %s с пагинацией: page=%d, size=%d", language, page, size,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     validatePagination(page, size);
@@ -191,7 +200,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> searchByMessage(String searchText) {
         return executeWithLogging(
-                String.format("Поиск решений по сообщению: '%s'", searchText),
+                "Поиск решений по сообщению: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -210,7 +219,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> searchByKeywords(List<String> keywords) {
         return executeWithLogging(
-                String.format("Поиск решений по ключевым словам: %s", keywords),
+                "Поиск решений по ключевым словам: %s", keywords,
                 () -> {
                     List<String> cleanedKeywords = cleanStringList(keywords);
                     if (cleanedKeywords.isEmpty()) {
@@ -231,7 +240,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByMessageLengthBetween(int minLength, int maxLength) {
         return executeWithLogging(
-                String.format("Поиск решений с длиной сообщения от %d до %d символов", minLength, maxLength),
+                "Поиск решений с длиной сообщения от %d до %d символов", minLength, maxLength,
                 () -> {
                     if (minLength < 0 || maxLength < 0 || minLength > maxLength) {
                         throw new IllegalArgumentException("Некорректные параметры длины сообщения");
@@ -250,7 +259,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getShortMessages(int maxLength) {
         return executeWithLogging(
-                String.format("Поиск решений с сообщениями короче %d символов", maxLength),
+                "Поиск решений с сообщениями короче %d символов", maxLength,
                 () -> {
                     if (maxLength <= 0) {
                         throw new IllegalArgumentException("Максимальная длина должна быть положительной");
@@ -269,7 +278,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getLongMessages(int minLength) {
         return executeWithLogging(
-                String.format("Поиск решений с сообщениями длиннее %d символов", minLength),
+                "Поиск решений с сообщениями длиннее %d символов", minLength,
                 () -> {
                     if (minLength < 0) {
                         throw new IllegalArgumentException("Минимальная длина не может быть отрицательной");
@@ -284,6 +293,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      *
      * @return карта, где ключ - язык, значение - количество решений
      */
+    @CachedResult(tags = Solution.class)
     public Map<Language, Long> getSolutionsCountByLanguage() {
         return executeWithLogging(
                 "Получение статистики решений по языкам",
@@ -296,6 +306,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      *
      * @return средняя длина сообщений
      */
+    @CachedResult(tags = Solution.class)
     public Double getAverageMessageLength() {
         return executeWithLogging(
                 "Расчет средней длины сообщений решений",
@@ -314,7 +325,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public Double getAverageMessageLengthByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Расчет средней длины сообщений для языка: %s", language),
+                "Расчет средней длины сообщений для языка: %s", language,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     Double avgLength = solutionRepository.getAverageMessageLengthByLanguage(language);
@@ -355,12 +366,13 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public boolean existsByMessage(String message) {
         return executeWithLogging(
-                String.format("Проверка существования решения с сообщением: '%s'", message),
+                "Проверка существования решения с сообщением: '%s'", message,
                 () -> {
                     if (message == null || message.trim().isEmpty()) {
                         return false;
                     }
-                    return solutionRepository.existsByMessage(message.trim());
+                    return uniquenessFilter.exists(UniquenessFilterService.SOLUTION_MESSAGE,
+                            message.trim(), solutionRepository::existsByMessage);
                 }
         );
     }
@@ -373,7 +385,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public Optional<Solution> getByMessage(String message) {
         return executeWithLogging(
-                String.format("Поиск решения по точному сообщению: '%s'", message),
+                "Поиск решения по точному сообщению: '%s'", message,
                 () -> {
                     if (message == null || message.trim().isEmpty()) {
                         return Optional.empty();
@@ -391,7 +403,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public int deleteByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Удаление всех решений на языке: %s", language),
+                "Удаление всех решений на языке: %s", language,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     return solutionRepository.deleteByLanguage(language);
@@ -419,7 +431,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public Long countByLanguage(Language language) {
         return executeWithLogging(
-                String.format("Подсчет количества решений на языке: %s", language),
+                "Подсчет количества решений на языке: %s", language,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     Long count = solutionRepository.countByLanguage(language);
@@ -436,7 +448,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByMessageStartingWith(String prefix) {
         return executeWithLogging(
-                String.format("Поиск решений по префиксу сообщения: '%s'", prefix),
+                "Поиск решений по префиксу сообщения: '%s'", prefix,
                 () -> {
                     if (prefix == null || prefix.trim().isEmpty()) {
                         return List.of();
@@ -454,7 +466,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByMessageEndingWith(String suffix) {
         return executeWithLogging(
-                String.format("Поиск решений по суффиксу сообщения: '%s'", suffix),
+                "Поиск решений по суффиксу сообщения: '%s'", suffix,
                 () -> {
                     if (suffix == null || suffix.trim().isEmpty()) {
                         return List.of();
@@ -473,7 +485,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByLanguages(List<Language> languages) {
         return executeWithLogging(
-                String.format("Поиск решений по языкам: %s", languages),
+                "Поиск решений по языкам: %s", languages,
                 () -> {
                     if (languages == null || languages.isEmpty()) {
                         throw new IllegalArgumentException("Список языков не может быть пустым");
@@ -492,7 +504,7 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByMessageLength(int exactLength) {
         return executeWithLogging(
-                String.format("Поиск решений с длиной сообщения: %d символов", exactLength),
+                "Поиск решений с длиной сообщения: %d символов", exactLength,
                 () -> {
                     if (exactLength < 0) {
                         throw new IllegalArgumentException("Длина сообщения не может быть отрицательной");
@@ -511,8 +523,8 @@ public class SolutionService extends BaseService<Solution, Long> {
      */
     public List<Solution> getByLanguageOrderByMessageLength(Language language, boolean ascending) {
         return executeWithLogging(
-                String.format("Поиск решений по языку %s с сортировкой по длине сообщения (ascending=%s)",
-                        language, ascending),
+                "Поиск решений по языку %s с сортировкой по длине сообщения (ascending=%s)",
+                language, ascending,
                 () -> {
                     validateNotNull(language, "Язык решения");
                     return solutionRepository.findByLanguageOrderByMessageLength(language, ascending);
@@ -3,6 +3,7 @@ package by.losik.lab6omis.service.general.types;
 import by.losik.lab6omis.entities.general.types.Sound;
 import by.losik.lab6omis.repository.general.types.SoundRepository;
 import by.losik.lab6omis.service.base.BaseService;
+import by.losik.lab6omis.service.cache.CachedResult;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -42,8 +43,8 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public Sound createSound(@Valid Sound sound) {
         return executeWithLogging(
-                String.format("Создание звука: тип шума='%s', частота=%d Гц",
-                        sound.getNoise(), sound.getFrequency()),
+                "Создание звука: тип шума='%s', частота=%d Гц",
+                sound.getNoise(), sound.getFrequency(),
                 () -> {
                     validateSound(sound);
                     validateUnique(sound.getNoise(),
@@ -92,7 +93,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getAllSounds(int page, int size) {
         return executeWithLogging(
-                String.format("Получение звуков с пагинацией: page=%d, size=%d", page, size),
+                "Получение звуков с пагинацией: page=%d, size=%d", page, size,
                 () -> {
                     validatePagination(page, size);
                     return soundRepository.findAll(page, size);
@@ -112,7 +113,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public Sound updateSound(Long id, @Valid Sound updatedSound) {
         return executeWithLogging(
-                String.format("Обновление звука ID %d", id),
+                "Обновление звука ID %d", id,
                 () -> {
                     Sound existingSound = getById(id);
                     validateSound(updatedSound);
@@ -139,7 +140,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public void deleteSound(Long id) {
         executeVoidWithLogging(
-                String.format("Удаление звука ID %d", id),
+                "Удаление звука ID %d", id,
                 () -> {
                     ensureEntityExists(id,
                             () -> soundRepository.existsById(id),
@@ -157,7 +158,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> searchByNoise(String searchText) {
         return executeWithLogging(
-                String.format("Поиск звуков по типу шума: '%s'", searchText),
+                "Поиск звуков по типу шума: '%s'", searchText,
                 () -> {
                     if (searchText == null || searchText.trim().isEmpty()) {
                         return List.of();
@@ -177,7 +178,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByFrequencyBetween(Integer minFrequency, Integer maxFrequency) {
         return executeWithLogging(
-                String.format("Поиск звуков с частотой от %d до %d Гц", minFrequency, maxFrequency),
+                "Поиск звуков с частотой от %d до %d Гц", minFrequency, maxFrequency,
                 () -> {
                     validateFrequencyRange(minFrequency, maxFrequency);
                     return soundRepository.findByFrequencyBetween(minFrequency, maxFrequency);
@@ -194,7 +195,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getLowFrequencySounds(Integer maxFrequency) {
         return executeWithLogging(
-                String.format("Поиск звуков с частотой ниже %d Гц", maxFrequency),
+                "Поиск звуков с частотой ниже %d Гц", maxFrequency,
                 () -> {
                     validateFrequencyValue(maxFrequency);
                     return soundRepository.findByLowFrequency(maxFrequency);
@@ -211,7 +212,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getHighFrequencySounds(Integer minFrequency) {
         return executeWithLogging(
-                String.format("Поиск звуков с частотой выше %d Гц", minFrequency),
+                "Поиск звуков с частотой выше %d Гц", minFrequency,
                 () -> {
                     validateFrequencyValue(minFrequency);
                     return soundRepository.findByHighFrequency(minFrequency);
@@ -227,7 +228,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public Optional<Sound> getByNoise(String noise) {
         return executeWithLogging(
-                String.format("Поиск звука по точному типу шума: '%s'", noise),
+                "Поиск звука по точному типу шума: '%s'", noise,
                 () -> {
                     if (noise == null || noise.trim().isEmpty()) {
                         return Optional.empty();
@@ -246,7 +247,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByFrequency(Integer frequency) {
         return executeWithLogging(
-                String.format("Поиск звуков с частотой %d Гц", frequency),
+                "Поиск звуков с частотой %d Гц", frequency,
                 () -> {
                     validateFrequencyValue(frequency);
                     return soundRepository.findByFrequency(frequency);
@@ -259,6 +260,7 @@ public class SoundService extends BaseService<Sound, Long> {
      *
      * @return карта, где ключ - тип шума, значение - средняя частота
      */
+    @CachedResult(tags = Sound.class)
     public Map<String, Double> getAverageFrequencyByNoiseType() {
         return executeWithLogging(
                 "Получение статистики средних частот по типам шума",
@@ -271,6 +273,7 @@ public class SoundService extends BaseService<Sound, Long> {
      *
      * @return средняя частота (Гц)
      */
+    @CachedResult(tags = Sound.class)
     public Double getAverageFrequency() {
         return executeWithLogging(
                 "Расчет средней частоты всех звуков",
@@ -313,7 +316,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public boolean existsByNoise(String noise) {
         return executeWithLogging(
-                String.format("Проверка существования звука с типом шума: '%s'", noise),
+                "Проверка существования звука с типом шума: '%s'", noise,
                 () -> {
                     if (noise == null || noise.trim().isEmpty()) {
                         return false;
@@ -332,7 +335,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public int deleteByFrequency(Integer frequency) {
         return executeWithLogging(
-                String.format("Удаление всех звуков с частотой %d Гц", frequency),
+                "Удаление всех звуков с частотой %d Гц", frequency,
                 () -> {
                     validateFrequencyValue(frequency);
                     return soundRepository.deleteByFrequency(frequency);
@@ -361,7 +364,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public Long countByFrequency(Integer frequency) {
         return executeWithLogging(
-                String.format("Подсчет количества звуков с частотой %d Гц", frequency),
+                "Подсчет количества звуков с частотой %d Гц", frequency,
                 () -> {
                     validateFrequencyValue(frequency);
                     Long count = soundRepository.countByFrequency(frequency);
@@ -379,7 +382,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public Map<String, Long> getSoundCountByFrequencyRange(int rangeSize) {
         return executeWithLogging(
-                String.format("Получение статистики звуков по частотным диапазонам, размер диапазона: %d", rangeSize),
+                "Получение статистики звуков по частотным диапазонам, размер диапазона: %d", rangeSize,
                 () -> {
                     if (rangeSize <= 0) {
                         throw new IllegalArgumentException("Размер диапазона должен быть положительным");
@@ -398,7 +401,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByNoiseOrderByFrequency(String noise, boolean ascending) {
         return executeWithLogging(
-                String.format("Поиск звуков по типу шума '%s' с сортировкой по частоте (ascending=%s)", noise, ascending),
+                "Поиск звуков по типу шума '%s' с сортировкой по частоте (ascending=%s)", noise, ascending,
                 () -> {
                     if (noise == null || noise.trim().isEmpty()) {
                         return List.of();
@@ -418,7 +421,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByNoiseStartingWith(String prefix) {
         return executeWithLogging(
-                String.format("Поиск звуков по префиксу типа шума: '%s'", prefix),
+                "Поиск звуков по префиксу типа шума: '%s'", prefix,
                 () -> {
                     if (prefix == null || prefix.trim().isEmpty()) {
                         return List.of();
@@ -436,7 +439,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByNoiseEndingWith(String suffix) {
         return executeWithLogging(
-                String.format("Поиск звуков по суффиксу типа шума: '%s'", suffix),
+                "Поиск звуков по суффиксу типа шума: '%s'", suffix,
                 () -> {
                     if (suffix == null || suffix.trim().isEmpty()) {
                         return List.of();
@@ -455,7 +458,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByNoises(List<String> noises) {
         return executeWithLogging(
-                String.format("Поиск звуков по типам шума: %s", noises),
+                "Поиск звуков по типам шума: %s", noises,
                 () -> {
                     List<String> cleanedNoises = cleanStringList(noises);
                     if (cleanedNoises.isEmpty()) {
@@ -475,7 +478,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByFrequencyRanges(List<int[]> frequencyRanges) {
         return executeWithLogging(
-                String.format("Поиск звуков по %d частотным диапазонам", frequencyRanges != null ? frequencyRanges.size() : 0),
+                "Поиск звуков по %d частотным диапазонам", frequencyRanges != null ? frequencyRanges.size() : 0,
                 () -> {
                     if (frequencyRanges == null || frequencyRanges.isEmpty()) {
                         throw new IllegalArgumentException("Список диапазонов частот не может быть пустым");
@@ -505,7 +508,7 @@ public class SoundService extends BaseService<Sound, Long> {
      */
     public List<Sound> getByFrequencyWithPagination(Integer frequency, int page, int size) {
         return executeWithLogging(
-                String.format("Поиск звуков с частотой %d Гц с пагинацией: page=%d, size=%d", frequency, page, size),
+                "Поиск звуков с частотой %d Гц с пагинацией: page=%d, size=%d", frequency, page, size,
                 () -> {
                     validateFrequencyValue(frequency);
                     validatePagination(page, size);
@@ -0,0 +1,116 @@
+package by.losik.lab6omis.service.ingest;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ограниченная очередь без блокировок для асинхронной записи.
+ * Элементы хранятся в {@link ConcurrentLinkedQueue}, емкость соблюдается
+ * атомарным счетчиком: постановка в полную очередь сразу возвращает false,
+ * не ожидая освобождения места. Ожидающие элементы потребители паркуются
+ * и будятся производителем при постановке.
+ *
+ * @param <T> тип элемента
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class IngestQueue<T> {
+
+    private final Queue<T> items = new ConcurrentLinkedQueue<>();
+    private final Queue<Thread> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    IngestQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Ставит элемент в очередь, если есть место.
+     *
+     * @param item элемент
+     * @return false если очередь заполнена
+     */
+    boolean offer(T item) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        items.offer(item);
+        Thread consumer = waiting.poll();
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Извлекает элемент, ожидая его не дольше заданного времени.
+     * Может вернуть null раньше срока при ложном пробуждении.
+     *
+     * @param timeoutNanos наибольшее время ожидания, нс
+     * @return элемент или null
+     */
+    T poll(long timeoutNanos) {
+        T item = items.poll();
+        if (item == null && timeoutNanos > 0) {
+            Thread current = Thread.currentThread();
+            waiting.offer(current);
+            // повторная проверка: элемент мог появиться до регистрации ожидания
+            item = items.poll();
+            if (item == null) {
+                LockSupport.parkNanos(this, timeoutNanos);
+                item = items.poll();
+            }
+            waiting.remove(current);
+        }
+        if (item != null) {
+            size.decrementAndGet();
+        }
+        return item;
+    }
+
+    /**
+     * Переносит готовые элементы в список без ожидания.
+     *
+     * @param target список-приемник
+     * @param max наибольшее число элементов
+     * @return число перенесенных элементов
+     */
+    int drainTo(List<T> target, int max) {
+        int drained = 0;
+        T item;
+        while (drained < max && (item = items.poll()) != null) {
+            target.add(item);
+            drained++;
+        }
+        size.addAndGet(-drained);
+        return drained;
+    }
+
+    /**
+     * Будит всех ожидающих потребителей (при остановке).
+     */
+    void wakeAll() {
+        for (Thread consumer : waiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * @return число элементов в очереди
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return емкость очереди
+     */
+    int capacity() {
+        return capacity;
+    }
+}
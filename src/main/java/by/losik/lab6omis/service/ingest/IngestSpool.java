@@ -0,0 +1,474 @@
+package by.losik.lab6omis.service.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал принятых показаний только на дозапись, отображенный в память.
+ * Журнал состоит из сегментов фиксированного размера {@code spool-<номер>.seg};
+ * запись в сегменте - длина, CRC32 и данные. Положение в журнале - одно число:
+ * номер сегмента, умноженный на размер сегмента, плюс смещение.
+ *
+ * <p>Читатель (один поток) получает записи после зафиксированной позиции
+ * и после сохранения их в базу данных сдвигает ее {@link #commit}; позиция
+ * сохраняется в файле {@code checkpoint}, полностью прочитанные сегменты удаляются.
+ * При открытии журнал просматривается от сохраненной позиции до первой
+ * поврежденной или пустой записи последнего сегмента, поэтому принятые, но не
+ * записанные показания переживают перезапуск. Доставка - не менее одного раза:
+ * при сбое между фиксацией в базе и сохранением позиции пакет повторится.</p>
+ *
+ * <p>Политика сброса на диск ({@link Fsync}): {@code ALWAYS} - запись подтверждается
+ * после {@link MappedByteBuffer#force()}, одновременные записи сбрасываются одним
+ * вызовом; {@code INTERVAL} - фоновый сброс с заданным периодом (переживает падение
+ * процесса, но не ОС); {@code NEVER} - сброс на усмотрение ОС.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class IngestSpool implements Closeable {
+
+    /**
+     * Политика сброса записей на диск.
+     */
+    enum Fsync {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    /**
+     * Прочитанные записи и позиция сразу после последней из них.
+     */
+    static final class Batch {
+        private final List<byte[]> records;
+        private final long end;
+        private final long start;
+        private final long[] ends;
+
+        private Batch(List<byte[]> records, long end, long start, long[] ends) {
+            this.records = records;
+            this.end = end;
+            this.start = start;
+            this.ends = ends;
+        }
+
+        List<byte[]> getRecords() {
+            return records;
+        }
+
+        long getEnd() {
+            return end;
+        }
+
+        /**
+         * @param count число первых записей пакета
+         * @return пакет из первых {@code count} записей (для фиксации части пакета)
+         */
+        Batch prefix(int count) {
+            if (count == records.size()) {
+                return this;
+            }
+            return new Batch(records.subList(0, count), count == 0 ? start : ends[count - 1], start, ends);
+        }
+    }
+
+    static final String SEGMENT_PREFIX = "spool-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestSpool.class);
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final Fsync fsync;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    /** Позиция следующей записи; изменяется под appendLock. */
+    private volatile long writePosition;
+    /** Позиция первой записи, еще не сохраненной в базу данных. */
+    private volatile long committedPosition;
+    /** Позиция, до которой записи сброшены на диск; под syncLock. */
+    private long syncedPosition;
+    private volatile Thread waitingReader;
+    private volatile boolean closed;
+    private Thread syncThread;
+
+    /**
+     * Открывает журнал, восстанавливая позиции по файлам каталога.
+     *
+     * @param directory каталог журнала
+     * @param segmentBytes размер сегмента, байт (не больше 2 ГБ)
+     * @param maxBytes наибольший объем непрочитанных записей, байт
+     * @param fsync политика сброса на диск
+     * @param syncIntervalMillis период сброса для {@link Fsync#INTERVAL}
+     * @throws IOException если каталог или сегменты недоступны
+     */
+    IngestSpool(Path directory, long segmentBytes, long maxBytes, Fsync fsync, long syncIntervalMillis)
+            throws IOException {
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Недопустимый размер сегмента журнала: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        committedPosition = readCheckpoint();
+        writePosition = recover();
+        syncedPosition = writePosition;
+        if (fsync == Fsync.INTERVAL) {
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, syncIntervalMillis));
+            syncThread = new Thread(() -> syncLoop(intervalNanos), "ingest-spool-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        }
+    }
+
+    /**
+     * Дописывает запись в журнал. Для {@link Fsync#ALWAYS} возвращается после сброса на диск.
+     *
+     * @param payload данные записи
+     * @return false если непрочитанные записи заняли весь допустимый объем
+     * @throws IllegalArgumentException если запись не помещается в сегмент
+     */
+    boolean append(byte[] payload) {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException("Запись журнала больше сегмента: " + size + " байт");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        long end;
+        synchronized (appendLock) {
+            long position = writePosition;
+            long index = position / segmentBytes;
+            if (position - index * segmentBytes + size > segmentBytes) {
+                if (fsync != Fsync.NEVER) {
+                    segment(index).force();
+                }
+                index++;
+                position = index * segmentBytes;
+            }
+            if (position + size - committedPosition > maxBytes) {
+                return false;
+            }
+            MappedByteBuffer buffer = segment(index);
+            int offset = (int) (position - index * segmentBytes);
+            ByteBuffer target = buffer.duplicate();
+            target.position(offset + HEADER_BYTES);
+            target.put(payload);
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.putInt(offset, payload.length);
+            end = position + size;
+            writePosition = end;
+            pendingRecords.incrementAndGet();
+        }
+        Thread reader = waitingReader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+        if (fsync == Fsync.ALWAYS) {
+            sync(end);
+        }
+        return true;
+    }
+
+    /**
+     * Читает записи после зафиксированной позиции.
+     *
+     * @param max наибольшее число записей
+     * @return записи (возможно, пустой список)
+     */
+    Batch read(int max) {
+        List<byte[]> records = new ArrayList<>(Math.min(max, 1024));
+        long[] ends = new long[Math.min(max, 1024)];
+        long start = committedPosition;
+        long position = start;
+        long limit = writePosition;
+        while (records.size() < max && position < limit) {
+            long index = position / segmentBytes;
+            int offset = (int) (position - index * segmentBytes);
+            MappedByteBuffer buffer = segment(index);
+            byte[] payload = readRecord(buffer, offset);
+            if (payload == null) {
+                // конец сегмента: запись не поместилась и продолжена в следующем
+                long next = (index + 1) * segmentBytes;
+                if (next > limit) {
+                    LOG.error("Журнал приема: поврежденная запись в {} по смещению {}",
+                            segmentPath(index).getFileName(), offset);
+                    break;
+                }
+                position = next;
+                continue;
+            }
+            position += HEADER_BYTES + payload.length;
+            if (records.size() == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[records.size()] = position;
+            records.add(payload);
+        }
+        return new Batch(records, position, start, ends);
+    }
+
+    /**
+     * Ждет записей после позиции, но не дольше заданного времени.
+     *
+     * @param position позиция, до которой записи уже прочитаны
+     * @param timeoutNanos наибольшее время ожидания, нс
+     */
+    void awaitData(long position, long timeoutNanos) {
+        if (writePosition > position || closed) {
+            return;
+        }
+        waitingReader = Thread.currentThread();
+        if (writePosition <= position) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        waitingReader = null;
+    }
+
+    /**
+     * Фиксирует сохранение прочитанных записей в базе данных: сохраняет позицию
+     * и удаляет полностью прочитанные сегменты.
+     *
+     * @param batch сохраненные записи
+     * @throws IOException если позицию не удалось сохранить
+     */
+    void commit(Batch batch) throws IOException {
+        long previous = committedPosition;
+        writeCheckpoint(batch.getEnd());
+        committedPosition = batch.getEnd();
+        pendingRecords.addAndGet(-batch.getRecords().size());
+        for (long index = previous / segmentBytes; index < batch.getEnd() / segmentBytes; index++) {
+            segments.remove(index);
+            Files.deleteIfExists(segmentPath(index));
+        }
+    }
+
+    /**
+     * @return наибольший объем непрочитанных записей, байт
+     */
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return каталог журнала
+     */
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return число записей, еще не сохраненных в базу данных
+     */
+    long getPendingRecords() {
+        return pendingRecords.get();
+    }
+
+    /**
+     * @return объем журнала после зафиксированной позиции, байт
+     */
+    long getPendingBytes() {
+        return writePosition - committedPosition;
+    }
+
+    /**
+     * Останавливает фоновый сброс и сбрасывает записи на диск.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (syncThread != null) {
+            LockSupport.unpark(syncThread);
+            try {
+                syncThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Thread reader = waitingReader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+        if (fsync != Fsync.NEVER) {
+            sync(writePosition);
+        }
+        // отображения освобождает сборщик мусора: явного unmap в Java 11 нет
+        segments.clear();
+    }
+
+    /**
+     * Сбрасывает на диск записи до позиции; одновременные вызовы объединяются.
+     */
+    private void sync(long position) {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+            long target = writePosition;
+            // предыдущие сегменты сброшены при переходе к следующему
+            MappedByteBuffer buffer = segments.get((target - 1) / segmentBytes);
+            if (buffer != null) {
+                buffer.force();
+            }
+            syncedPosition = target;
+        }
+    }
+
+    private void syncLoop(long intervalNanos) {
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                sync(writePosition);
+            } catch (RuntimeException e) {
+                LOG.error("Не удалось сбросить журнал приема на диск", e);
+            }
+        }
+    }
+
+    /**
+     * Просматривает сегменты от сохраненной позиции и находит конец записанных данных.
+     * Хвост последнего сегмента после него обнуляется, чтобы остатки оборванной
+     * записи не были приняты за данные.
+     */
+    private long recover() throws IOException {
+        long first = committedPosition / segmentBytes;
+        List<Long> indexes = new ArrayList<>();
+        for (long index : existingSegments()) {
+            if (index < first) {
+                Files.delete(segmentPath(index));
+            } else {
+                indexes.add(index);
+            }
+        }
+        long position = committedPosition;
+        long records = 0;
+        for (int i = 0; i < indexes.size(); i++) {
+            long index = indexes.get(i);
+            if (position < index * segmentBytes) {
+                LOG.warn("Журнал приема: нет сегментов перед {}", segmentPath(index).getFileName());
+                position = index * segmentBytes;
+            }
+            MappedByteBuffer buffer = segment(index);
+            byte[] payload;
+            while ((payload = readRecord(buffer, (int) (position - index * segmentBytes))) != null) {
+                position += HEADER_BYTES + payload.length;
+                records++;
+            }
+            if (i < indexes.size() - 1) {
+                position = (index + 1) * segmentBytes;
+            } else {
+                for (int offset = (int) (position - index * segmentBytes); offset < segmentBytes; offset++) {
+                    // запись только ненулевых байтов не выделяет место под пустые страницы
+                    if (buffer.get(offset) != 0) {
+                        buffer.put(offset, (byte) 0);
+                    }
+                }
+            }
+        }
+        pendingRecords.set(records);
+        if (records > 0) {
+            LOG.info("Журнал приема {}: к записи в базу данных {} показаний", directory, records);
+        }
+        return position;
+    }
+
+    /**
+     * Читает запись по смещению в сегменте.
+     *
+     * @return данные записи или null, если записи нет или она повреждена
+     */
+    private byte[] readRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > segmentBytes) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + (long) length > segmentBytes) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + HEADER_BYTES);
+        source.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? payload : null;
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments.computeIfAbsent(index, key -> {
+            try (FileChannel channel = FileChannel.open(segmentPath(key),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось открыть сегмент журнала " + key, e);
+            }
+        });
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    /**
+     * Сохраняет позицию через временный файл и атомарное переименование.
+     */
+    private void writeCheckpoint(long position) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position));
+            if (fsync != Fsync.NEVER) {
+                channel.force(false);
+            }
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
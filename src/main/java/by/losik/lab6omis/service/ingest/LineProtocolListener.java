@@ -0,0 +1,486 @@
+package by.losik.lab6omis.service.ingest;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.metrics.Counter;
+import by.losik.lab6omis.metrics.MetricFamily;
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.service.general.types.SensorDataService;
+import by.losik.lab6omis.service.general.types.SensorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Прием показаний сенсоров по TCP в текстовом строчном протоколе.
+ * Шлюз держит постоянное соединение и пишет по строке на показание:
+ *
+ * <pre>
+ * sensor_name,purpose timestamp
+ * boiler-7,температура подачи 2025-03-01T12:00:00
+ * boiler-7,температура подачи 1740830400000
+ * </pre>
+ *
+ * <p>Имя сенсора - до первой запятой, метка времени - после последнего пробела
+ * (ISO-8601 без зоны или миллисекунды от эпохи в зоне сервера), назначение - между ними.
+ * Ответов протокол не предусматривает. Имена сенсоров разрешаются через
+ * {@link SensorNameCache}; показания передаются в {@link SensorDataIngestion} - тот же
+ * пакетный писатель, что и у {@code POST /api/api/sensor-data}, поэтому прием по TCP
+ * работает только в асинхронном режиме.</p>
+ *
+ * <p>Все соединения обслуживает один поток на {@link Selector}. Когда очередь записи
+ * заполнена или база данных не отвечает на поиск сенсора, чтение соединения
+ * приостанавливается и непрочитанные данные остаются в буфере сокета, так что шлюз
+ * получает обратное давление через управление потоком TCP, а показания не теряются.
+ * Строки с ошибками разбора, неизвестным сенсором или некорректными полями
+ * отбрасываются и учитываются в {@value #LINES} по адресу шлюза; при закрытии
+ * соединения в журнал пишется его пропускная способность.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ENABLED} - запустить прием по TCP (по умолчанию false)</li>
+ *   <li>{@value #HOST} - адрес прослушивания (по умолчанию 127.0.0.1)</li>
+ *   <li>{@value #PORT} - порт (по умолчанию 8094)</li>
+ *   <li>{@value #MAX_LINE_BYTES} - наибольшая длина строки, байт (по умолчанию 4096)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LineProtocolListener {
+
+    public static final String ENABLED = "lab6omis.ingest.tcp.enabled";
+    public static final String HOST = "lab6omis.ingest.tcp.host";
+    public static final String PORT = "lab6omis.ingest.tcp.port";
+    public static final String MAX_LINE_BYTES = "lab6omis.ingest.tcp.max-line-bytes";
+
+    public static final String CONNECTIONS = "lab6omis_ingest_tcp_connections";
+    public static final String LINES = "lab6omis_ingest_tcp_lines";
+    public static final String BYTES = "lab6omis_ingest_tcp_bytes";
+
+    private static final Logger LOG = LoggerFactory.getLogger(LineProtocolListener.class);
+    private static final long SELECT_TIMEOUT_MILLIS = 1_000;
+    private static final long MIN_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Сколько ошибок разбора одного соединения записывать в журнал. */
+    private static final int LOGGED_ERRORS_PER_CONNECTION = 10;
+
+    /**
+     * Исход обработки строки.
+     */
+    private enum Outcome {
+        ACCEPTED, PARSE_ERROR, UNKNOWN_SENSOR, INVALID, RETRY;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Inject
+    private SensorDataIngestion ingestion;
+
+    @Inject
+    private SensorDataService sensorDataService;
+
+    @Inject
+    private SensorService sensorService;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    private SensorNameCache sensors;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean running;
+    private int maxLineBytes;
+    private final List<Connection> paused = new ArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private MetricFamily<Counter> lines;
+    private MetricFamily<Counter> bytes;
+
+    /**
+     * Запускает прием при старте приложения, если он включен.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (!Boolean.getBoolean(ENABLED)) {
+            return;
+        }
+        if (!ingestion.isEnabled()) {
+            LOG.warn("Прием показаний по TCP требует {}=true и не запущен", SensorDataIngestion.ASYNC);
+            return;
+        }
+        maxLineBytes = Math.max(64, Integer.getInteger(MAX_LINE_BYTES, 4096));
+        sensors = new SensorNameCache(sensorService);
+        lines = metrics.counter(LINES, "Строки, принятые по TCP", "peer", "outcome");
+        bytes = metrics.counter(BYTES, "Байты, принятые по TCP", "peer");
+        metrics.gauge(CONNECTIONS, "Открытые TCP-соединения приема").labels().bind(connections::get);
+        InetSocketAddress address = new InetSocketAddress(
+                System.getProperty(HOST, "127.0.0.1"), Integer.getInteger(PORT, 8094));
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            LOG.error("Не удалось открыть порт приема показаний {}", address, e);
+            closeQuietly();
+            return;
+        }
+        running = true;
+        thread = new Thread(this::selectLoop, "ingest-tcp");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Прием показаний по TCP на {}", getAddress());
+    }
+
+    /**
+     * Останавливает прием и закрывает соединения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return адрес, на котором принимаются соединения, или null, если прием не запущен
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return server != null && server.isOpen() ? (InetSocketAddress) server.getLocalAddress() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void selectLoop() {
+        while (running) {
+            try {
+                selector.select(paused.isEmpty() ? SELECT_TIMEOUT_MILLIS
+                        : TimeUnit.NANOSECONDS.toMillis(MIN_PAUSE_NANOS));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Connection) key.attachment());
+                    }
+                }
+                resumePaused();
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Сбой приема показаний по TCP", e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                close((Connection) key.attachment());
+            }
+        }
+        closeQuietly();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel, maxLineBytes);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.incrementAndGet();
+        LOG.debug("Соединение приема {} открыто", connection.remote);
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.buffer);
+        } catch (IOException e) {
+            LOG.debug("Соединение приема {} прервано: {}", connection.remote, e.getMessage());
+            close(connection);
+            return;
+        }
+        if (read > 0) {
+            connection.bytes += read;
+            bytes.labels(connection.peer).add(read);
+        }
+        connection.closing = read < 0;
+        if (process(connection)) {
+            connection.pauseNanos = 0;
+            if (connection.closing) {
+                close(connection);
+            }
+        } else {
+            pause(connection);
+        }
+    }
+
+    /**
+     * Обрабатывает буфер соединения; после конца потока дописывает перевод строки,
+     * чтобы не потерять последнюю строку без него.
+     *
+     * @return false если обработка остановлена до повтора строки
+     */
+    private boolean process(Connection connection) {
+        if (!drain(connection)) {
+            return false;
+        }
+        if (connection.closing && connection.buffer.position() > 0) {
+            connection.buffer.put((byte) '\n');
+            return drain(connection);
+        }
+        return true;
+    }
+
+    /**
+     * Обрабатывает полные строки из буфера соединения.
+     * Буфер на входе и выходе в режиме записи; необработанный остаток сдвигается в начало.
+     *
+     * @return false если обработка остановлена до повтора строки
+     */
+    private boolean drain(Connection connection) {
+        ByteBuffer buffer = connection.buffer;
+        buffer.flip();
+        byte[] data = buffer.array();
+        int lineStart = buffer.position();
+        boolean completed = true;
+        for (int i = lineStart; i < buffer.limit(); i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            if (connection.discarding) {
+                connection.discarding = false;
+            } else if (handle(connection, data, lineStart, i) == Outcome.RETRY) {
+                completed = false;
+                break;
+            }
+            lineStart = i + 1;
+        }
+        buffer.position(lineStart);
+        buffer.compact();
+        if (completed && !buffer.hasRemaining()) {
+            // строка не поместилась в буфер: отбрасывается до следующего перевода строки
+            count(connection, Outcome.PARSE_ERROR, "строка длиннее " + maxLineBytes + " байт", null);
+            connection.discarding = true;
+            buffer.clear();
+        }
+        return completed;
+    }
+
+    private Outcome handle(Connection connection, byte[] data, int from, int to) {
+        int end = to > from && data[to - 1] == '\r' ? to - 1 : to;
+        if (end == from) {
+            return Outcome.ACCEPTED;
+        }
+        String line = new String(data, from, end - from, StandardCharsets.UTF_8);
+        Outcome outcome = handle(line);
+        if (outcome == Outcome.RETRY) {
+            return outcome;
+        }
+        count(connection, outcome, describe(outcome), line);
+        return outcome;
+    }
+
+    private Outcome handle(String line) {
+        int comma = line.indexOf(',');
+        int space = line.lastIndexOf(' ');
+        if (comma <= 0 || space <= comma) {
+            return Outcome.PARSE_ERROR;
+        }
+        LocalDateTime timestamp = parseTimestamp(line.substring(space + 1));
+        if (timestamp == null) {
+            return Outcome.PARSE_ERROR;
+        }
+        if (!ingestion.hasCapacity()) {
+            return Outcome.RETRY;
+        }
+        Long sensorId;
+        try {
+            sensorId = sensors.resolve(line.substring(0, comma));
+        } catch (RuntimeException e) {
+            LOG.debug("Поиск сенсора не выполнен, чтение приостановлено: {}", e.getMessage());
+            return Outcome.RETRY;
+        }
+        if (sensorId == null) {
+            return Outcome.UNKNOWN_SENSOR;
+        }
+        Sensor sensor = new Sensor();
+        sensor.setId(sensorId);
+        SensorData sensorData;
+        try {
+            sensorData = new SensorData(timestamp, line.substring(comma + 1, space), sensor);
+            sensorDataService.validateReading(sensorData);
+        } catch (IllegalArgumentException e) {
+            return Outcome.INVALID;
+        }
+        return ingestion.offer(sensorData) ? Outcome.ACCEPTED : Outcome.RETRY;
+    }
+
+    private static LocalDateTime parseTimestamp(String text) {
+        try {
+            if (!text.isEmpty() && text.chars().allMatch(Character::isDigit)) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(text)), ZoneId.systemDefault());
+            }
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void count(Connection connection, Outcome outcome, String reason, String line) {
+        lines.labels(connection.peer, outcome.label()).increment();
+        connection.lines++;
+        if (outcome == Outcome.ACCEPTED) {
+            return;
+        }
+        connection.errors++;
+        if (connection.errors <= LOGGED_ERRORS_PER_CONNECTION) {
+            LOG.warn("Соединение приема {}, строка {}: {}{}", connection.remote, connection.lines, reason,
+                    line != null ? ": " + line : "");
+        }
+    }
+
+    private static String describe(Outcome outcome) {
+        switch (outcome) {
+            case PARSE_ERROR:
+                return "ожидается 'sensor_name,purpose timestamp'";
+            case UNKNOWN_SENSOR:
+                return "сенсор не найден";
+            case INVALID:
+                return "некорректные данные показания";
+            default:
+                return "";
+        }
+    }
+
+    private void pause(Connection connection) {
+        if (connection.key.isValid()) {
+            connection.key.interestOps(0);
+        }
+        connection.pauseNanos = connection.pauseNanos == 0 ? MIN_PAUSE_NANOS
+                : Math.min(MAX_PAUSE_NANOS, connection.pauseNanos * 2);
+        connection.resumeAt = System.nanoTime() + connection.pauseNanos;
+        paused.add(connection);
+    }
+
+    /**
+     * Повторяет обработку приостановленных соединений, у которых истекла пауза.
+     */
+    private void resumePaused() {
+        if (paused.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Connection> due = new ArrayList<>();
+        paused.removeIf(connection -> connection.resumeAt - now <= 0 && due.add(connection));
+        for (Connection connection : due) {
+            if (!process(connection)) {
+                pause(connection);
+                continue;
+            }
+            connection.pauseNanos = 0;
+            if (connection.closing) {
+                close(connection);
+            } else if (connection.key.isValid()) {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            LOG.debug("Ошибка закрытия соединения приема {}", connection.remote, e);
+        }
+        paused.remove(connection);
+        connections.decrementAndGet();
+        double seconds = Math.max(1e-3, (System.nanoTime() - connection.openedNanos) / 1e9);
+        LOG.info("Соединение приема {} закрыто: строк {}, ошибок {}, {} с, {} строк/с, {} КБ/с",
+                connection.remote, connection.lines, connection.errors, String.format(Locale.ROOT, "%.1f", seconds),
+                String.format(Locale.ROOT, "%.0f", connection.lines / seconds),
+                String.format(Locale.ROOT, "%.1f", connection.bytes / 1024.0 / seconds));
+    }
+
+    private void closeQuietly() {
+        try {
+            if (server != null) {
+                server.close();
+            }
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            LOG.debug("Ошибка закрытия порта приема", e);
+        }
+    }
+
+    /**
+     * Состояние соединения: буфер с неполной строкой и счетчики.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer;
+        private final String remote;
+        private final String peer;
+        private final long openedNanos = System.nanoTime();
+        private SelectionKey key;
+        private long lines;
+        private long errors;
+        private long bytes;
+        private boolean discarding;
+        private boolean closing;
+        private long pauseNanos;
+        private long resumeAt;
+
+        private Connection(SocketChannel channel, int maxLineBytes) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(maxLineBytes + 1);
+            InetSocketAddress address = (InetSocketAddress) channel.getRemoteAddress();
+            this.remote = address.getAddress().getHostAddress() + ":" + address.getPort();
+            this.peer = address.getAddress().getHostAddress();
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package by.losik.lab6omis.service.ingest;
+
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.metrics.Counter;
+import by.losik.lab6omis.metrics.Gauge;
+import by.losik.lab6omis.metrics.LatencyHistogram;
+import by.losik.lab6omis.metrics.MetricFamily;
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.service.general.types.SensorDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись данных сенсоров с групповой фиксацией.
+ * В этом режиме ресурс проверяет показание, ставит его в ограниченную очередь
+ * без блокировок и сразу отвечает 202 Accepted. Пул писателей забирает показания
+ * пакетами до {@value #BATCH_SIZE} строк или до истечения {@value #MAX_DELAY_MS}
+ * с момента первого показания пакета и сохраняет пакет одной транзакцией,
+ * так что одна фиксация (и один сброс журнала базы данных) приходится на весь пакет.
+ * Если пакет не удалось зафиксировать, а база данных доступна, его показания
+ * сохраняются по одному, чтобы одна ошибочная строка не теряла остальные;
+ * если база недоступна, пакет повторяется с нарастающей паузой.
+ *
+ * <p>С журналом ({@value #SPOOL}) показание перед ответом 202 дописывается в
+ * отображенный в память журнал {@link IngestSpool} вместо очереди в памяти.
+ * Один поток переносит записи журнала в базу данных по порядку и сдвигает
+ * сохраненную позицию после фиксации, поэтому принятые показания не теряются,
+ * пока база данных недоступна, и записываются после перезапуска приложения.</p>
+ *
+ * <p>Когда очередь или журнал заполнены, {@link #offer} возвращает false, и ресурс
+ * отвечает 429 с оценкой {@link #retryAfterSeconds()} - временем, за которое
+ * писатели разберут накопленное при наблюдаемой скорости фиксации.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #ASYNC} - включить асинхронный режим (по умолчанию false)</li>
+ *   <li>{@value #QUEUE_CAPACITY} - емкость очереди (по умолчанию 10000)</li>
+ *   <li>{@value #BATCH_SIZE} - наибольший размер пакета (по умолчанию 500)</li>
+ *   <li>{@value #MAX_DELAY_MS} - наибольшее ожидание добора пакета, мс (по умолчанию 50)</li>
+ *   <li>{@value #WRITERS} - число потоков-писателей (по умолчанию 2, с журналом - всегда 1)</li>
+ *   <li>{@value #SPOOL} - принимать показания через журнал на диске (по умолчанию false)</li>
+ *   <li>{@value #SPOOL_DIR} - каталог журнала (по умолчанию java.io.tmpdir/lab6omis-spool)</li>
+ *   <li>{@value #SPOOL_SEGMENT_MB} - размер сегмента журнала, МБ (по умолчанию 64)</li>
+ *   <li>{@value #SPOOL_MAX_MB} - наибольший объем незаписанных показаний, МБ (по умолчанию 1024)</li>
+ *   <li>{@value #SPOOL_FSYNC} - сброс журнала на диск: always, interval или never (по умолчанию interval)</li>
+ *   <li>{@value #SPOOL_FSYNC_INTERVAL_MS} - период сброса для interval, мс (по умолчанию 100)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class SensorDataIngestion {
+
+    public static final String ASYNC = "lab6omis.ingest.async";
+    public static final String QUEUE_CAPACITY = "lab6omis.ingest.queue-capacity";
+    public static final String BATCH_SIZE = "lab6omis.ingest.batch-size";
+    public static final String MAX_DELAY_MS = "lab6omis.ingest.max-delay-ms";
+    public static final String WRITERS = "lab6omis.ingest.writers";
+    public static final String SPOOL = "lab6omis.ingest.spool";
+    public static final String SPOOL_DIR = "lab6omis.ingest.spool.dir";
+    public static final String SPOOL_SEGMENT_MB = "lab6omis.ingest.spool.segment-mb";
+    public static final String SPOOL_MAX_MB = "lab6omis.ingest.spool.max-mb";
+    public static final String SPOOL_FSYNC = "lab6omis.ingest.spool.fsync";
+    public static final String SPOOL_FSYNC_INTERVAL_MS = "lab6omis.ingest.spool.fsync-interval-ms";
+
+    public static final String QUEUE_DEPTH = "lab6omis_ingest_queue_depth";
+    public static final String LAST_BATCH_SIZE = "lab6omis_ingest_batch_size";
+    public static final String BATCHES = "lab6omis_ingest_batches";
+    public static final String ROWS = "lab6omis_ingest_rows";
+    public static final String REJECTED = "lab6omis_ingest_rejected";
+    public static final String COMMIT_SECONDS = "lab6omis_ingest_commit_seconds";
+    public static final String LAG_SECONDS = "lab6omis_ingest_lag_seconds";
+    public static final String SPOOL_BYTES = "lab6omis_ingest_spool_bytes";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensorDataIngestion.class);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SHUTDOWN_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MIN_RETRY_PAUSE_MILLIS = 100;
+    private static final long MAX_RETRY_PAUSE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_RETRY_AFTER_SECONDS = 60;
+    private static final int RESUME_FILL_PERCENT = 90;
+    /** Вес нового пакета в скользящей оценке скорости фиксации. */
+    private static final double RATE_WEIGHT = 0.2;
+
+    @Inject
+    private SensorDataService service;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    private boolean enabled;
+    private int batchSize;
+    private long maxDelayNanos;
+    private IngestQueue<SensorDataRecord> queue;
+    private IngestSpool spool;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+    /** Строк в секунду на одного писателя, 0 - еще не измерено. */
+    private volatile double rowsPerSecond;
+
+    private Gauge lastBatchSize;
+    private MetricFamily<Counter> batches;
+    private MetricFamily<Counter> rows;
+    private Counter rejected;
+    private MetricFamily<LatencyHistogram> commitSeconds;
+    private LatencyHistogram lag;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.getBoolean(ASYNC);
+        batchSize = Math.max(1, Integer.getInteger(BATCH_SIZE, 500));
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Long.getLong(MAX_DELAY_MS, 50)));
+        queue = new IngestQueue<>(Math.max(1, Integer.getInteger(QUEUE_CAPACITY, 10_000)));
+        if (!enabled) {
+            return;
+        }
+        if (Boolean.getBoolean(SPOOL)) {
+            spool = openSpool();
+        }
+        lastBatchSize = metrics.gauge(LAST_BATCH_SIZE, "Размер последнего зафиксированного пакета").labels();
+        batches = metrics.counter(BATCHES, "Пакеты асинхронной записи", "outcome");
+        rows = metrics.counter(ROWS, "Показания асинхронной записи", "outcome");
+        rejected = metrics.counter(REJECTED, "Показания, отклоненные из-за заполненной очереди").labels();
+        commitSeconds = metrics.summary(COMMIT_SECONDS, "Длительность фиксации пакета", "outcome");
+        lag = metrics.summary(LAG_SECONDS, "Время от приема показания до фиксации").labels();
+        Gauge depth = metrics.gauge(QUEUE_DEPTH, "Принятые показания, ожидающие записи").labels();
+        if (spool != null) {
+            depth.bind(spool::getPendingRecords);
+            metrics.gauge(SPOOL_BYTES, "Объем журнала приема после сохраненной позиции").labels()
+                    .bind(spool::getPendingBytes);
+        } else {
+            depth.bind(queue::size);
+        }
+
+        running = true;
+        int count = spool != null ? 1 : Math.max(1, Integer.getInteger(WRITERS, 2));
+        for (int i = 0; i < count; i++) {
+            Thread writer = new Thread(spool != null ? this::replayLoop : this::writeLoop, "ingest-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        LOG.info("Асинхронная запись данных сенсоров включена: {}, пакет {}, ожидание {} мс, писателей {}",
+                spool != null ? "журнал " + spool.getDirectory() : "очередь " + queue.capacity(),
+                batchSize, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos), count);
+    }
+
+    /**
+     * Создает бин при старте приложения, чтобы записать показания,
+     * оставшиеся в журнале с прошлого запуска, не дожидаясь первого запроса.
+     *
+     * @param event событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (spool != null && spool.getPendingRecords() > 0) {
+            LOG.info("Запись показаний из журнала приема: {}", spool.getPendingRecords());
+        }
+    }
+
+    /**
+     * Останавливает писателей. Без журнала перед этим дожидается записи уже принятых
+     * показаний; с журналом они останутся в нем до следующего запуска.
+     * Показания, которые без журнала не удалось записать до остановки, учитываются
+     * в {@value #ROWS} с исходом dropped.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        queue.wakeAll();
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (spool != null) {
+            spool.close();
+        } else {
+            List<SensorDataRecord> remaining = new ArrayList<>();
+            queue.drainTo(remaining, Integer.MAX_VALUE);
+            drop(remaining);
+        }
+    }
+
+    /**
+     * @return true если включен асинхронный режим записи
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true если показания принимаются через журнал на диске
+     */
+    public boolean isSpooled() {
+        return spool != null;
+    }
+
+    /**
+     * Принимает проверенное показание к записи. С журналом возвращается после
+     * дозаписи в журнал (для политики always - после сброса на диск).
+     *
+     * @param sensorData показание, прошедшее {@link SensorDataService#validateForIngestion(SensorData, boolean)}
+     * @return false если очередь или журнал заполнены или запись останавливается
+     */
+    public boolean offer(SensorData sensorData) {
+        SensorDataRecord record = new SensorDataRecord(sensorData, System.currentTimeMillis());
+        boolean accepted = running && (spool != null ? spool.append(record.encode()) : queue.offer(record));
+        if (!accepted) {
+            rejected.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Проверяет, заполнены ли очередь или журнал меньше чем на {@value #RESUME_FILL_PERCENT}%.
+     * Источники, приостановившие чтение после отказа, возобновляют его по этому признаку,
+     * чтобы не повторять заведомо отклоняемые попытки.
+     *
+     * @return true если есть место для новых показаний
+     */
+    public boolean hasCapacity() {
+        if (spool != null) {
+            return spool.getPendingBytes() * 100 < spool.getMaxBytes() * RESUME_FILL_PERCENT;
+        }
+        return (long) queue.size() * 100 < (long) queue.capacity() * RESUME_FILL_PERCENT;
+    }
+
+    /**
+     * Оценивает, через сколько секунд появится место для новых показаний.
+     *
+     * @return значение заголовка Retry-After, от 1 до {@value #MAX_RETRY_AFTER_SECONDS}
+     */
+    public long retryAfterSeconds() {
+        double rate = rowsPerSecond * writers.size();
+        if (rate <= 0) {
+            return 1;
+        }
+        long pending = spool != null ? spool.getPendingRecords() : queue.size();
+        long seconds = (long) Math.ceil(pending / rate);
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+    }
+
+    private IngestSpool openSpool() {
+        Path directory = Paths.get(System.getProperty(SPOOL_DIR,
+                Paths.get(System.getProperty("java.io.tmpdir"), "lab6omis-spool").toString()));
+        IngestSpool.Fsync fsync = IngestSpool.Fsync.valueOf(
+                System.getProperty(SPOOL_FSYNC, "interval").toUpperCase(Locale.ROOT));
+        try {
+            return new IngestSpool(directory,
+                    Long.getLong(SPOOL_SEGMENT_MB, 64) * 1024 * 1024,
+                    Long.getLong(SPOOL_MAX_MB, 1024) * 1024 * 1024,
+                    fsync, Long.getLong(SPOOL_FSYNC_INTERVAL_MS, 100));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал приема " + directory, e);
+        }
+    }
+
+    private void writeLoop() {
+        List<SensorDataRecord> batch = new ArrayList<>(batchSize);
+        while (running || queue.size() > 0) {
+            SensorDataRecord first = queue.poll(IDLE_POLL_NANOS);
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            fill(batch, System.nanoTime() + maxDelayNanos);
+            long pause = MIN_RETRY_PAUSE_MILLIS;
+            // записанные и отклоненные показания убираются, остаток повторяется
+            batch.subList(0, commit(batch)).clear();
+            while (!batch.isEmpty() && running) {
+                pause = pauseBeforeRetry(pause);
+                batch.subList(0, commit(batch)).clear();
+            }
+            if (!batch.isEmpty()) {
+                // Остановка при недоступной базе данных: остаток очереди тоже не записать
+                queue.drainTo(batch, Integer.MAX_VALUE);
+                drop(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Учитывает принятые показания, которые не будут записаны.
+     */
+    private void drop(List<SensorDataRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        rows.labels("dropped").add(records.size());
+        LOG.error("Асинхронная запись остановлена, потеряно принятых показаний: {}", records.size());
+    }
+
+    /**
+     * Добирает пакет до {@link #batchSize} или до срока; при остановке не ждет.
+     */
+    private void fill(List<SensorDataRecord> batch, long deadline) {
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            SensorDataRecord next = queue.poll(remaining);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Переносит записи журнала в базу данных по порядку. Позиция журнала сдвигается
+     * только после фиксации и только за обработанные записи; пока база данных
+     * недоступна, необработанный остаток пакета повторяется.
+     */
+    private void replayLoop() {
+        long pause = MIN_RETRY_PAUSE_MILLIS;
+        while (running) {
+            IngestSpool.Batch batch = spool.read(batchSize);
+            if (batch.getRecords().isEmpty()) {
+                spool.awaitData(batch.getEnd(), IDLE_POLL_NANOS);
+                continue;
+            }
+            if (batch.getRecords().size() < batchSize && maxDelayNanos > 0) {
+                LockSupport.parkNanos(this, maxDelayNanos);
+                batch = spool.read(batchSize);
+            }
+            List<SensorDataRecord> records = new ArrayList<>(batch.getRecords().size());
+            int[] sources = decode(batch.getRecords(), records);
+            try {
+                int handled = commit(records);
+                if (handled == records.size()) {
+                    spool.commit(batch);
+                    pause = MIN_RETRY_PAUSE_MILLIS;
+                } else {
+                    if (sources[handled] > 0) {
+                        spool.commit(batch.prefix(sources[handled]));
+                    }
+                    if (running) {
+                        pause = pauseBeforeRetry(pause);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Сбой переноса журнала приема в базу данных", e);
+                pause = pauseBeforeRetry(pause);
+            }
+        }
+    }
+
+    /**
+     * Разбирает записи журнала; поврежденные записи пропускаются.
+     *
+     * @return номер записи журнала для каждого разобранного показания
+     */
+    private int[] decode(List<byte[]> payloads, List<SensorDataRecord> records) {
+        int[] sources = new int[payloads.size()];
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                records.add(SensorDataRecord.decode(payloads.get(i)));
+                sources[records.size() - 1] = i;
+            } catch (RuntimeException e) {
+                rows.labels("failed").increment();
+                LOG.error("Запись журнала приема пропущена: {}", e.getMessage());
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Сохраняет пакет.
+     *
+     * @return число первых показаний пакета, которые записаны или отклонены;
+     *         меньше размера пакета, если база данных недоступна и остаток нужно повторить
+     */
+    private int commit(List<SensorDataRecord> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<SensorData> entities = new ArrayList<>(batch.size());
+        for (SensorDataRecord record : batch) {
+            entities.add(record.getSensorData());
+        }
+        long start = System.nanoTime();
+        try {
+            service.createSensorDataBatch(entities);
+            commitSeconds.labels("committed").recordSince(start);
+            batches.labels("committed").increment();
+            rows.labels("committed").add(batch.size());
+            recordLag(batch);
+        } catch (RuntimeException e) {
+            commitSeconds.labels("failed").recordSince(start);
+            // идентификаторы, присвоенные в откаченной транзакции, недействительны
+            entities.forEach(entity -> entity.setId(null));
+            if (!service.isDatabaseAvailable()) {
+                batches.labels("unavailable").increment();
+                LOG.warn("База данных недоступна, пакет из {} показаний будет повторен", batch.size());
+                return 0;
+            }
+            batches.labels("failed").increment();
+            LOG.warn("Пакет из {} показаний не зафиксирован, запись по одному: {}", batch.size(), e.getMessage());
+            int handled = commitIndividually(batch);
+            if (handled < batch.size()) {
+                return handled;
+            }
+        }
+        lastBatchSize.set(batch.size());
+        double observed = batch.size() / Math.max(1e-6, (System.nanoTime() - start) / 1e9);
+        double previous = rowsPerSecond;
+        rowsPerSecond = previous == 0 ? observed : previous + RATE_WEIGHT * (observed - previous);
+        return batch.size();
+    }
+
+    /**
+     * Записывает показания по одному. Показание, отклоненное при доступной базе данных
+     * (нарушение ограничений), учитывается как failed; если база данных стала
+     * недоступна, запись прекращается и остаток не учитывается.
+     *
+     * @return число первых показаний, которые записаны или отклонены
+     */
+    private int commitIndividually(List<SensorDataRecord> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            SensorDataRecord record = batch.get(i);
+            SensorData sensorData = record.getSensorData();
+            try {
+                service.createSensorData(sensorData);
+                rows.labels("committed").increment();
+                recordLag(List.of(record));
+            } catch (RuntimeException e) {
+                sensorData.setId(null);
+                if (!service.isDatabaseAvailable()) {
+                    batches.labels("unavailable").increment();
+                    LOG.warn("База данных недоступна, {} показаний будут повторены", batch.size() - i);
+                    return i;
+                }
+                rows.labels("failed").increment();
+                LOG.error("Показание сенсора ID={} не записано: {}", sensorData.getSensor().getId(), e.getMessage());
+            }
+        }
+        return batch.size();
+    }
+
+    private void recordLag(List<SensorDataRecord> committed) {
+        long now = System.currentTimeMillis();
+        for (SensorDataRecord record : committed) {
+            lag.record(TimeUnit.MILLISECONDS.toNanos(Math.max(0, now - record.getAcceptedMillis())));
+        }
+    }
+
+    private long pauseBeforeRetry(long pause) {
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(pause));
+        return Math.min(MAX_RETRY_PAUSE_MILLIS, pause * 2);
+    }
+}
@@ -0,0 +1,97 @@
+package by.losik.lab6omis.service.ingest;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Принятое показание сенсора, ожидающее записи в базу данных, вместе
+ * с моментом приема. Для журнала {@link IngestSpool} кодируется в компактную
+ * двоичную запись: версия формата, момент приема, ID сенсора, временная метка
+ * и назначение.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class SensorDataRecord {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final SensorData sensorData;
+    private final long acceptedMillis;
+
+    SensorDataRecord(SensorData sensorData, long acceptedMillis) {
+        this.sensorData = sensorData;
+        this.acceptedMillis = acceptedMillis;
+    }
+
+    /**
+     * @return показание сенсора
+     */
+    SensorData getSensorData() {
+        return sensorData;
+    }
+
+    /**
+     * @return момент приема, миллисекунды от эпохи
+     */
+    long getAcceptedMillis() {
+        return acceptedMillis;
+    }
+
+    /**
+     * Кодирует запись для журнала.
+     *
+     * @return двоичное представление
+     */
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + sensorData.getPurpose().length() * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(acceptedMillis);
+            out.writeLong(sensorData.getSensor().getId());
+            LocalDateTime timestamp = sensorData.getTimestamp();
+            out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(timestamp.getNano());
+            out.writeUTF(sensorData.getPurpose());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Восстанавливает запись из журнала.
+     *
+     * @param payload двоичное представление
+     * @return запись с новым (не сохраненным) показанием
+     * @throws IllegalArgumentException если формат записи не поддерживается
+     */
+    static SensorDataRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неизвестная версия записи журнала: " + version);
+            }
+            long acceptedMillis = in.readLong();
+            Sensor sensor = new Sensor();
+            sensor.setId(in.readLong());
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            SensorData sensorData = new SensorData();
+            sensorData.setSensor(sensor);
+            sensorData.setTimestamp(timestamp);
+            sensorData.setPurpose(in.readUTF());
+            return new SensorDataRecord(sensorData, acceptedMillis);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Поврежденная запись журнала", e);
+        }
+    }
+}
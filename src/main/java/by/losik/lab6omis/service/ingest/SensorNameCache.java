@@ -0,0 +1,61 @@
+package by.losik.lab6omis.service.ingest;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.persistence.EntityChangeTags;
+import by.losik.lab6omis.service.general.types.SensorService;
+
+import javax.ws.rs.NotFoundException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш соответствия имен сенсоров их идентификаторам для приема показаний по имени.
+ * Запоминаются и найденные, и отсутствующие имена, поэтому поток строк с неизвестным
+ * сенсором не обращается к базе данных на каждой строке. Кэш целиком сбрасывается,
+ * когда меняется поколение тега {@link Sensor} ({@link EntityChangeTags}): после
+ * создания, переименования или удаления сенсора.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class SensorNameCache {
+
+    private static final Long MISSING = -1L;
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final SensorService sensorService;
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private volatile long generation = EntityChangeTags.generation(Sensor.class);
+
+    SensorNameCache(SensorService sensorService) {
+        this.sensorService = sensorService;
+    }
+
+    /**
+     * Находит идентификатор сенсора по имени.
+     *
+     * @param name имя сенсора
+     * @return идентификатор или null, если сенсора с таким именем нет
+     */
+    Long resolve(String name) {
+        long current = EntityChangeTags.generation(Sensor.class);
+        if (current != generation || ids.size() > MAX_ENTRIES) {
+            ids.clear();
+            generation = current;
+        }
+        Long id = ids.get(name);
+        if (id == null) {
+            id = lookup(name);
+            ids.put(name, id);
+        }
+        return MISSING.equals(id) ? null : id;
+    }
+
+    private Long lookup(String name) {
+        try {
+            return sensorService.getByName(name).getId();
+        } catch (NotFoundException | IllegalArgumentException e) {
+            return MISSING;
+        }
+    }
+}
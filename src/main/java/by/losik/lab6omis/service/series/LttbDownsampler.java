@@ -0,0 +1,201 @@
+package by.losik.lab6omis.service.series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Прореживание ряда алгоритмом Largest-Triangle-Three-Buckets за один проход.
+ * Точки передаются по возрастанию x по одной; первая и последняя точки сохраняются,
+ * остальные делятся на {@code threshold - 2} интервала равной численности (границы
+ * совпадают с исходной формулировкой алгоритма), и из каждого
+ * выбирается точка, образующая наибольший треугольник с выбранной точкой предыдущего
+ * интервала и средней точкой следующего.
+ *
+ * <p>Выбор в интервале возможен только когда следующий интервал прочитан целиком,
+ * поэтому в памяти одновременно находятся лишь два интервала - около
+ * {@code 2 * expected / threshold} точек - и уже выбранные точки, а не весь ряд.
+ * Если точек пришло больше ожидаемого, лишние попадают в последний интервал.</p>
+ *
+ * @param <P> данные точки, возвращаемые в результате
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class LttbDownsampler<P> {
+
+    private final int threshold;
+    private final boolean passThrough;
+    private final double bucketSize;
+    private final List<P> selected = new ArrayList<>();
+
+    private long index;
+    private double selectedX;
+    private double selectedY;
+    private int bucket;
+    private long bucketEnd;
+    private int pendingIndex;
+    private Bucket<P> pending = new Bucket<>();
+    private Bucket<P> next = new Bucket<>();
+
+    /**
+     * Создает прореживание.
+     *
+     * @param expected ожидаемое число точек
+     * @param threshold наибольшее число точек результата, не меньше 3
+     */
+    public LttbDownsampler(long expected, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Число точек LTTB должно быть не меньше 3");
+        }
+        this.threshold = threshold;
+        this.passThrough = expected <= threshold;
+        this.bucketSize = passThrough ? 1 : (double) (expected - 2) / (threshold - 2);
+        this.bucketEnd = (long) Math.floor(bucketSize) + 1;
+    }
+
+    /**
+     * Добавляет очередную точку ряда.
+     *
+     * @param x координата, не убывающая от точки к точке
+     * @param y значение
+     * @param payload данные точки
+     */
+    public void add(double x, double y, P payload) {
+        long position = index++;
+        if (passThrough || position == 0) {
+            if (position == 0) {
+                selectedX = x;
+                selectedY = y;
+            }
+            if (selected.size() < threshold) {
+                selected.add(payload);
+            }
+            return;
+        }
+        while (bucket < threshold - 3 && position >= bucketEnd) {
+            bucket++;
+            bucketEnd = (long) Math.floor((bucket + 1) * bucketSize) + 1;
+        }
+        if (bucket > pendingIndex + 1) {
+            if (next.size() > 0) {
+                selectFrom(pending, next.averageX(), next.averageY());
+            } else {
+                selectFrom(pending, x, y);
+            }
+            Bucket<P> reused = pending;
+            pending = next;
+            next = reused;
+            next.clear();
+            pendingIndex++;
+        }
+        (bucket == pendingIndex ? pending : next).add(x, y, payload);
+    }
+
+    /**
+     * Завершает проход: выбирает точки последних интервалов и добавляет последнюю точку.
+     *
+     * @return выбранные точки по возрастанию x, не больше {@code threshold}
+     */
+    public List<P> finish() {
+        if (passThrough || index < 2) {
+            return selected;
+        }
+        Bucket<P> tail = next.size() > 0 ? next : pending;
+        double lastX = tail.lastX();
+        double lastY = tail.lastY();
+        P last = tail.removeLast();
+
+        if (pending.size() > 0) {
+            if (next.size() > 0) {
+                selectFrom(pending, next.averageX(), next.averageY());
+            } else {
+                selectFrom(pending, lastX, lastY);
+            }
+        }
+        if (next.size() > 0) {
+            selectFrom(next, lastX, lastY);
+        }
+        selected.add(last);
+        return selected;
+    }
+
+    /**
+     * Выбирает в интервале точку с наибольшей площадью треугольника
+     * (выбранная точка, кандидат, опорная точка следующего интервала).
+     */
+    private void selectFrom(Bucket<P> bucket, double nextX, double nextY) {
+        if (bucket.size() == 0) {
+            return;
+        }
+        int best = 0;
+        double bestArea = -1;
+        for (int i = 0; i < bucket.size(); i++) {
+            double area = Math.abs((selectedX - nextX) * (bucket.y[i] - selectedY)
+                    - (selectedX - bucket.x[i]) * (nextY - selectedY));
+            if (area > bestArea) {
+                bestArea = area;
+                best = i;
+            }
+        }
+        selectedX = bucket.x[best];
+        selectedY = bucket.y[best];
+        selected.add(bucket.payloads.get(best));
+    }
+
+    /**
+     * Точки одного интервала; массивы переиспользуются между интервалами.
+     */
+    private static final class Bucket<P> {
+        private double[] x = new double[16];
+        private double[] y = new double[16];
+        private final List<P> payloads = new ArrayList<>();
+        private double sumX;
+        private double sumY;
+
+        void add(double pointX, double pointY, P payload) {
+            int size = payloads.size();
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+            }
+            x[size] = pointX;
+            y[size] = pointY;
+            payloads.add(payload);
+            sumX += pointX;
+            sumY += pointY;
+        }
+
+        P removeLast() {
+            int last = payloads.size() - 1;
+            sumX -= x[last];
+            sumY -= y[last];
+            return payloads.remove(last);
+        }
+
+        int size() {
+            return payloads.size();
+        }
+
+        double lastX() {
+            return x[payloads.size() - 1];
+        }
+
+        double lastY() {
+            return y[payloads.size() - 1];
+        }
+
+        double averageX() {
+            return sumX / payloads.size();
+        }
+
+        double averageY() {
+            return sumY / payloads.size();
+        }
+
+        void clear() {
+            payloads.clear();
+            sumX = 0;
+            sumY = 0;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package by.losik.lab6omis.service.series;
+
+import java.util.Locale;
+
+/**
+ * Режим прореживания временного ряда показаний.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public enum SeriesMode {
+    /** Агрегаты по равным интервалам времени, вычисляемые в SQL. */
+    BUCKETS,
+    /** Выбор реальных показаний алгоритмом {@link LttbDownsampler} за один проход курсора. */
+    LTTB;
+
+    /**
+     * Разбирает название режима.
+     *
+     * @param value buckets или lttb
+     * @return режим
+     * @throws IllegalArgumentException если режим неизвестен
+     */
+    public static SeriesMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    String.format("Неизвестный режим ряда '%s': ожидается buckets или lttb", value));
+        }
+    }
+
+    /**
+     * @return название режима в запросах и ответах
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
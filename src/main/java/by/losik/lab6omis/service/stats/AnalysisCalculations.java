@@ -0,0 +1,139 @@
+package by.losik.lab6omis.service.stats;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+import by.losik.lab6omis.entities.general.types.Request;
+import by.losik.lab6omis.entities.general.types.Solution;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Вычисления анализа запросов и решений, не зависящие от сервисов:
+ * статистика строк, оценка эффективности и пакетный анализ запросов.
+ * Используются ресурсом анализа.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class AnalysisCalculations {
+
+    private AnalysisCalculations() {
+    }
+
+    /**
+     * Считает количество элементов, непустых элементов и длины строк (среднюю, максимальную, минимальную).
+     *
+     * @param data анализируемые строки (элементы могут быть null)
+     * @return показатели по ключам totalItems, nonEmptyItems, averageLength, maxLength, minLength
+     */
+    public static Map<String, Object> performStatisticalAnalysis(List<String> data) {
+        Map<String, Object> stats = new HashMap<>();
+
+        stats.put("totalItems", data.size());
+        stats.put("nonEmptyItems", data.stream().filter(s -> s != null && !s.trim().isEmpty()).count());
+
+        if (!data.isEmpty()) {
+            double avgLength = data.stream()
+                    .filter(Objects::nonNull)
+                    .mapToInt(String::length)
+                    .average()
+                    .orElse(0.0);
+            stats.put("averageLength", avgLength);
+
+            stats.put("maxLength", data.stream()
+                    .filter(Objects::nonNull)
+                    .mapToInt(String::length)
+                    .max()
+                    .orElse(0));
+            stats.put("minLength", data.stream()
+                    .filter(Objects::nonNull)
+                    .mapToInt(String::length)
+                    .min()
+                    .orElse(0));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Оценивает эффективность решений по покрытию запросов, точности распознавания и длине решений.
+     *
+     * @param requests запросы
+     * @param solutions решения
+     * @param avgAccuracy средняя точность распознавания (null - нейтральная оценка)
+     * @param avgLength средняя длина решений (null - нейтральная оценка)
+     * @return оценка в процентах, 0 при пустых запросах или решениях
+     */
+    public static double calculateEffectivenessScore(List<Request> requests, List<Solution> solutions,
+                                                     Double avgAccuracy, Double avgLength) {
+        if (requests.isEmpty() || solutions.isEmpty()) {
+            return 0.0;
+        }
+
+        double coverageScore = (double) solutions.size() / requests.size();
+        double accuracyScore = avgAccuracy != null ? avgAccuracy / 100.0 : 0.5;
+        double lengthScore = avgLength != null ? Math.min(avgLength / 500.0, 1.0) : 0.5;
+
+        return (coverageScore * 0.4 + accuracyScore * 0.3 + lengthScore * 0.3) * 100;
+    }
+
+    /**
+     * Переводит оценку эффективности в рейтинг.
+     *
+     * @param score оценка в процентах
+     * @return EXCELLENT, GOOD, FAIR, POOR или VERY_POOR
+     */
+    public static String getEffectivenessRating(double score) {
+        if (score >= 80) return "EXCELLENT";
+        if (score >= 60) return "GOOD";
+        if (score >= 40) return "FAIR";
+        if (score >= 20) return "POOR";
+        return "VERY_POOR";
+    }
+
+    /**
+     * Формирует результат анализа одного запроса.
+     *
+     * @param request запрос
+     * @return поля запроса, статус анализа и время обработки
+     */
+    public static Map<String, Object> analyzeSingleRequest(Request request) {
+        Map<String, Object> result = new HashMap<>();
+
+        result.put("requestId", request.getId());
+        result.put("goal", request.getGoal());
+        result.put("language", request.getLanguage());
+        result.put("accuracy", request.getRecognitionAccuracy());
+        result.put("analysisStatus", "PROCESSED");
+        result.put("timestamp", new Date());
+
+        return result;
+    }
+
+    /**
+     * Сводит результаты пакетного анализа: общее количество и количество запросов по языкам.
+     *
+     * @param results результаты {@link #analyzeSingleRequest(Request)}
+     * @return сводные показатели пакета
+     */
+    public static Map<String, Object> aggregateBatchResults(List<Map<String, Object>> results) {
+        Map<String, Object> aggregate = new HashMap<>();
+
+        aggregate.put("totalRequests", results.size());
+        aggregate.put("successfulAnalysis", results.size()); // Все успешны в демо
+
+        Map<Language, Long> languageCount = results.stream()
+                .filter(r -> r.get("language") != null)
+                .collect(Collectors.groupingBy(
+                        r -> (Language) r.get("language"),
+                        Collectors.counting()
+                ));
+        aggregate.put("requestsByLanguage", languageCount);
+
+        return aggregate;
+    }
+}
@@ -0,0 +1,146 @@
+package by.losik.lab6omis.service.stats;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+
+import java.util.Map;
+
+/**
+ * Неизменяемый набор сводных показателей по запросам, решениям, звукам и данным сенсоров.
+ * Все показатели получены в одном снимке базы данных и согласованы между собой.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class ComprehensiveStats {
+    private final long capturedAt;
+    private final long totalRequests;
+    private final double averageAccuracy;
+    private final Map<Language, Long> requestsByLanguage;
+    private final long totalSolutions;
+    private final double averageMessageLength;
+    private final Map<Language, Long> solutionsByLanguage;
+    private final long totalSounds;
+    private final double averageFrequency;
+    private final Map<String, Double> averageFrequencyByNoise;
+    private final long totalSensorData;
+    private final Map<Long, Long> dataCountBySensor;
+
+    /**
+     * Создает набор показателей.
+     *
+     * @param capturedAt время получения (мс с начала эпохи)
+     * @param totalRequests количество запросов
+     * @param averageAccuracy средняя точность распознавания
+     * @param requestsByLanguage количество запросов по языкам
+     * @param totalSolutions количество решений
+     * @param averageMessageLength средняя длина сообщений решений
+     * @param solutionsByLanguage количество решений по языкам
+     * @param totalSounds количество звуков
+     * @param averageFrequency средняя частота звуков
+     * @param averageFrequencyByNoise средняя частота по типам шума
+     * @param totalSensorData количество показаний сенсоров
+     * @param dataCountBySensor количество показаний по сенсорам
+     */
+    public ComprehensiveStats(long capturedAt,
+                              long totalRequests, double averageAccuracy, Map<Language, Long> requestsByLanguage,
+                              long totalSolutions, double averageMessageLength, Map<Language, Long> solutionsByLanguage,
+                              long totalSounds, double averageFrequency, Map<String, Double> averageFrequencyByNoise,
+                              long totalSensorData, Map<Long, Long> dataCountBySensor) {
+        this.capturedAt = capturedAt;
+        this.totalRequests = totalRequests;
+        this.averageAccuracy = averageAccuracy;
+        this.requestsByLanguage = Map.copyOf(requestsByLanguage);
+        this.totalSolutions = totalSolutions;
+        this.averageMessageLength = averageMessageLength;
+        this.solutionsByLanguage = Map.copyOf(solutionsByLanguage);
+        this.totalSounds = totalSounds;
+        this.averageFrequency = averageFrequency;
+        this.averageFrequencyByNoise = Map.copyOf(averageFrequencyByNoise);
+        this.totalSensorData = totalSensorData;
+        this.dataCountBySensor = Map.copyOf(dataCountBySensor);
+    }
+
+    /**
+     * @return время получения показателей (мс с начала эпохи)
+     */
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    /**
+     * @return количество запросов
+     */
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    /**
+     * @return средняя точность распознавания (0.0 при отсутствии запросов)
+     */
+    public double getAverageAccuracy() {
+        return averageAccuracy;
+    }
+
+    /**
+     * @return количество запросов по языкам
+     */
+    public Map<Language, Long> getRequestsByLanguage() {
+        return requestsByLanguage;
+    }
+
+    /**
+     * @return количество решений
+     */
+    public long getTotalSolutions() {
+        return totalSolutions;
+    }
+
+    /**
+     * @return средняя длина сообщений решений (0.0 при отсутствии решений)
+     */
+    public double getAverageMessageLength() {
+        return averageMessageLength;
+    }
+
+    /**
+     * @return количество решений по языкам
+     */
+    public Map<Language, Long> getSolutionsByLanguage() {
+        return solutionsByLanguage;
+    }
+
+    /**
+     * @return количество звуков
+     */
+    public long getTotalSounds() {
+        return totalSounds;
+    }
+
+    /**
+     * @return средняя частота звуков (0.0 при отсутствии звуков)
+     */
+    public double getAverageFrequency() {
+        return averageFrequency;
+    }
+
+    /**
+     * @return средняя частота по типам шума
+     */
+    public Map<String, Double> getAverageFrequencyByNoise() {
+        return averageFrequencyByNoise;
+    }
+
+    /**
+     * @return количество показаний сенсоров
+     */
+    public long getTotalSensorData() {
+        return totalSensorData;
+    }
+
+    /**
+     * @return количество показаний по идентификаторам сенсоров
+     */
+    public Map<Long, Long> getDataCountBySensor() {
+        return dataCountBySensor;
+    }
+}
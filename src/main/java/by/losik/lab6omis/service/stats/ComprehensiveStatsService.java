@@ -0,0 +1,184 @@
+package by.losik.lab6omis.service.stats;
+
+import by.losik.lab6omis.entities.general.enums.Language;
+import by.losik.lab6omis.entities.general.types.Request;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.entities.general.types.Solution;
+import by.losik.lab6omis.entities.general.types.Sound;
+import by.losik.lab6omis.persistence.TableWatermarkService;
+import by.losik.lab6omis.persistence.TransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Сервис сводной статистики для комплексных эндпоинтов.
+ * Вместо отдельного запроса на каждый показатель выполняет по одному запросу
+ * на таблицу: итог и разбивка по группам вычисляются за один проход через
+ * {@code GROUPING SETS ((), (...))}. Все запросы выполняются в одном снимке
+ * REPEATABLE READ ({@link TransactionManager#executeInSnapshot}), поэтому
+ * показатели согласованы между собой.
+ *
+ * <p>Результат кэшируется на {@value #TTL_MILLIS} мс и сбрасывается раньше,
+ * если изменился водяной знак таблиц ({@link TableWatermarkService}).
+ * Благодаря этому ответ согласован с ETag условных GET-запросов.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ComprehensiveStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ComprehensiveStatsService.class);
+    private static final long TTL_MILLIS = 10_000;
+    private static final List<Class<?>> SOURCE_ENTITIES =
+            List.of(Request.class, Solution.class, Sound.class, SensorData.class);
+
+    private static final String REQUESTS_SQL =
+            "SELECT GROUPING(language), language, COUNT(*), AVG(recognition_accuracy) " +
+            "FROM lab6omis.requests GROUP BY GROUPING SETS ((), (language))";
+
+    private static final String SOLUTIONS_SQL =
+            "SELECT GROUPING(language), language, COUNT(*), AVG(LENGTH(message)) " +
+            "FROM lab6omis.solutions GROUP BY GROUPING SETS ((), (language))";
+
+    private static final String SOUNDS_SQL =
+            "SELECT GROUPING(noise), noise, COUNT(*), AVG(frequency) " +
+            "FROM lab6omis.sounds GROUP BY GROUPING SETS ((), (noise))";
+
+    private static final String SENSOR_DATA_SQL =
+            "SELECT GROUPING(sensor_id), sensor_id, COUNT(*), CAST(NULL AS NUMERIC) " +
+            "FROM lab6omis.sensor_data GROUP BY GROUPING SETS ((), (sensor_id))";
+
+    @Inject
+    private TransactionManager txManager;
+
+    @Inject
+    private TableWatermarkService watermarkService;
+
+    private volatile CachedStats cached;
+
+    /**
+     * Возвращает сводную статистику.
+     *
+     * @return согласованный набор показателей
+     * @throws javax.persistence.PersistenceException если запрос завершился с ошибкой
+     */
+    public ComprehensiveStats getStats() {
+        String watermark = watermarkService.getWatermark(SOURCE_ENTITIES);
+        CachedStats current = cached;
+        if (current != null && current.isValid(watermark)) {
+            return current.stats;
+        }
+        return reload(watermark);
+    }
+
+    /**
+     * Пересчитывает статистику; параллельные вызовы ожидают один пересчет.
+     *
+     * @param watermark водяной знак таблиц, прочитанный до пересчета
+     * @return актуальный набор показателей
+     */
+    private synchronized ComprehensiveStats reload(String watermark) {
+        CachedStats current = cached;
+        if (current != null && current.isValid(watermark)) {
+            return current.stats;
+        }
+
+        long start = System.nanoTime();
+        ComprehensiveStats stats = txManager.executeInSnapshot(this::collect);
+        cached = new CachedStats(stats, watermark);
+        LOG.debug("Сводная статистика пересчитана за {} мс", (System.nanoTime() - start) / 1_000_000);
+        return stats;
+    }
+
+    /**
+     * Выполняет по одному агрегирующему запросу на каждую таблицу.
+     *
+     * @param em EntityManager транзакции-снимка
+     * @return набор показателей
+     */
+    private ComprehensiveStats collect(EntityManager em) {
+        Aggregate<Language> requests = aggregate(em, REQUESTS_SQL, key -> Language.valueOf(key.toString()));
+        Aggregate<Language> solutions = aggregate(em, SOLUTIONS_SQL, key -> Language.valueOf(key.toString()));
+        Aggregate<String> sounds = aggregate(em, SOUNDS_SQL, Object::toString);
+        Aggregate<Long> sensorData = aggregate(em, SENSOR_DATA_SQL, key -> ((Number) key).longValue());
+
+        return new ComprehensiveStats(
+                System.currentTimeMillis(),
+                requests.total, requests.average, requests.counts,
+                solutions.total, solutions.average, solutions.counts,
+                sounds.total, sounds.average, sounds.averages,
+                sensorData.total, sensorData.counts
+        );
+    }
+
+    /**
+     * Выполняет запрос вида {@code SELECT GROUPING(k), k, COUNT(*), AVG(...)}
+     * и разделяет строку итога и строки групп.
+     *
+     * @param em EntityManager
+     * @param sql агрегирующий запрос
+     * @param keyMapper преобразование ключа группы
+     * @param <K> тип ключа группы
+     * @return итоговые и групповые значения
+     */
+    @SuppressWarnings("unchecked")
+    private <K> Aggregate<K> aggregate(EntityManager em, String sql, Function<Object, K> keyMapper) {
+        Aggregate<K> result = new Aggregate<>();
+        List<Object[]> rows = em.createNativeQuery(sql).getResultList();
+        for (Object[] row : rows) {
+            boolean totalRow = ((Number) row[0]).intValue() == 1;
+            long count = ((Number) row[2]).longValue();
+            double average = row[3] != null ? ((Number) row[3]).doubleValue() : 0.0;
+
+            if (totalRow) {
+                result.total = count;
+                result.average = average;
+            } else {
+                K key = keyMapper.apply(row[1]);
+                result.counts.put(key, count);
+                result.averages.put(key, average);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Итог и разбивка по группам одного агрегирующего запроса.
+     *
+     * @param <K> тип ключа группы
+     */
+    private static final class Aggregate<K> {
+        private long total;
+        private double average;
+        private final Map<K, Long> counts = new HashMap<>();
+        private final Map<K, Double> averages = new HashMap<>();
+    }
+
+    /**
+     * Закэшированный результат с водяным знаком, при котором он был получен.
+     */
+    private static final class CachedStats {
+        private final ComprehensiveStats stats;
+        private final String watermark;
+
+        CachedStats(ComprehensiveStats stats, String watermark) {
+            this.stats = stats;
+            this.watermark = watermark;
+        }
+
+        boolean isValid(String currentWatermark) {
+            return System.currentTimeMillis() - stats.getCapturedAt() < TTL_MILLIS
+                    && Objects.equals(watermark, currentWatermark);
+        }
+    }
+}
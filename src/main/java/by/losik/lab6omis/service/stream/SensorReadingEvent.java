@@ -0,0 +1,76 @@
+package by.losik.lab6omis.service.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Событие потока новых показаний: сохраненное показание сенсора с номером
+ * в потоке. Неизменяемо и разделяется между окном повтора и буферами подписчиков.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public final class SensorReadingEvent {
+
+    private final String id;
+    private final long sequence;
+    private final Long readingId;
+    private final Long sensorId;
+    private final String sensorType;
+    private final String timestamp;
+    private final String purpose;
+
+    SensorReadingEvent(String id, long sequence, Long readingId, Long sensorId,
+                       String sensorType, String timestamp, String purpose) {
+        this.id = id;
+        this.sequence = sequence;
+        this.readingId = readingId;
+        this.sensorId = sensorId;
+        this.sensorType = sensorType;
+        this.timestamp = timestamp;
+        this.purpose = purpose;
+    }
+
+    /**
+     * @return идентификатор события для {@code Last-Event-ID}
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return порядковый номер события в потоке
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return ID сенсора
+     */
+    public Long getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * @return тип сенсора или null, если сенсор не найден
+     */
+    public String getSensorType() {
+        return sensorType;
+    }
+
+    /**
+     * Возвращает данные события для передачи клиенту.
+     *
+     * @return поля показания
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", readingId);
+        data.put("sensorId", sensorId);
+        data.put("sensorType", sensorType);
+        data.put("timestamp", timestamp);
+        data.put("purpose", purpose);
+        return data;
+    }
+}
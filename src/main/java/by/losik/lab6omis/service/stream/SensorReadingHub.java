@@ -0,0 +1,335 @@
+package by.losik.lab6omis.service.stream;
+
+import by.losik.lab6omis.entities.general.types.Sensor;
+import by.losik.lab6omis.entities.general.types.SensorData;
+import by.losik.lab6omis.metrics.Counter;
+import by.losik.lab6omis.metrics.MetricFamily;
+import by.losik.lab6omis.metrics.MetricsRegistry;
+import by.losik.lab6omis.persistence.EntityChangeTags;
+import by.losik.lab6omis.service.general.types.SensorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.NotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Концентратор потока новых показаний сенсоров внутри процесса.
+ * {@link by.losik.lab6omis.service.general.types.SensorDataService} публикует
+ * показания после фиксации транзакции (и при синхронной записи, и пакетами
+ * асинхронного приема), а концентратор раздает их подписчикам - потокам
+ * Server-Sent Events панели мониторинга - без опроса базы данных.
+ *
+ * <p>Каждый подписчик получает только показания своего сенсора и/или типа сенсора
+ * через собственный ограниченный буфер ({@link SensorReadingSubscription}), поэтому
+ * медленный клиент не задерживает ни запись показаний, ни других подписчиков.
+ * Получатель вызывается в потоке доставки своей подписки: потоки берутся из
+ * расширяемого пула и освобождаются после прохода, поэтому блокирующая запись
+ * медленному клиенту занимает только его поток, а не общий поток рассылки.
+ * Последние события хранятся в кольцевом окне повтора: клиент, переподключившийся
+ * с {@code Last-Event-ID}, получает пропущенные показания; если событие уже вытеснено
+ * из окна или выдано до перезапуска сервера, клиенту сообщается о сбросе потока.</p>
+ *
+ * <p>Свойства:</p>
+ * <ul>
+ *   <li>{@value #REPLAY_SIZE} - размер окна повтора, событий (по умолчанию 4096)</li>
+ *   <li>{@value #BUFFER_SIZE} - размер буфера подписчика, событий (по умолчанию 1024,
+ *       больше пакета асинхронной записи)</li>
+ *   <li>{@value #OVERFLOW} - политика переполнения по умолчанию: coalesce или drop
+ *       (по умолчанию coalesce)</li>
+ *   <li>{@value #MAX_SUBSCRIBERS} - наибольшее число подписчиков (по умолчанию 256)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class SensorReadingHub {
+
+    public static final String REPLAY_SIZE = "lab6omis.stream.replay-size";
+    public static final String BUFFER_SIZE = "lab6omis.stream.buffer-size";
+    public static final String OVERFLOW = "lab6omis.stream.overflow";
+    public static final String MAX_SUBSCRIBERS = "lab6omis.stream.max-subscribers";
+
+    public static final String SUBSCRIBERS = "lab6omis_stream_subscribers";
+    public static final String EVENTS = "lab6omis_stream_events";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensorReadingHub.class);
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final int MAX_CACHED_SENSORS = 100_000;
+    /** Отметка сенсора, которого нет в базе данных. */
+    private static final String NO_TYPE = "";
+
+    /**
+     * Политика переполнения буфера медленного подписчика.
+     */
+    public enum Overflow {
+        /** Отбрасывать самые старые события и сообщать число потерь. */
+        DROP,
+        /** Заменять ожидающее событие того же сенсора новым. */
+        COALESCE;
+
+        /**
+         * Разбирает название политики.
+         *
+         * @param value drop или coalesce
+         * @return политика
+         * @throws IllegalArgumentException если политика неизвестна
+         */
+        public static Overflow parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        String.format("Неизвестная политика переполнения '%s': ожидается drop или coalesce", value));
+            }
+        }
+    }
+
+    @Inject
+    private SensorService sensorService;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    /** Отличает идентификаторы событий разных запусков сервера. */
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final List<SensorReadingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<Long, String> sensorTypes = new ConcurrentHashMap<>();
+    private volatile long sensorGeneration = EntityChangeTags.generation(Sensor.class);
+
+    private SensorReadingEvent[] replay;
+    private long nextSequence = 1;
+    private int bufferSize;
+    private int maxSubscribers;
+    private Overflow defaultOverflow;
+    private ScheduledExecutorService heartbeats;
+    private ExecutorService delivery;
+    private Counter delivered;
+    private Counter dropped;
+    private Counter coalesced;
+
+    @PostConstruct
+    void init() {
+        replay = new SensorReadingEvent[Math.max(1, Integer.getInteger(REPLAY_SIZE, 4096))];
+        bufferSize = Math.max(1, Integer.getInteger(BUFFER_SIZE, 1024));
+        maxSubscribers = Math.max(1, Integer.getInteger(MAX_SUBSCRIBERS, 256));
+        defaultOverflow = Overflow.parse(System.getProperty(OVERFLOW, "coalesce"));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threads = task -> {
+            Thread thread = new Thread(task, "sensor-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Одновременно у подписки не больше одного прохода доставки, поэтому потоков
+        // не больше, чем подписчиков с ожидающими событиями; простаивающие завершаются
+        delivery = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threads);
+        heartbeats = Executors.newSingleThreadScheduledExecutor(threads);
+        long idleNanos = TimeUnit.SECONDS.toNanos(HEARTBEAT_SECONDS);
+        heartbeats.scheduleWithFixedDelay(() -> {
+            for (SensorReadingSubscription subscription : subscriptions) {
+                subscription.heartbeatIfIdle(idleNanos);
+            }
+        }, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+
+        MetricFamily<Counter> events = metrics.counter(EVENTS, "События потока показаний по исходу", "outcome");
+        delivered = events.labels("delivered");
+        dropped = events.labels("dropped");
+        coalesced = events.labels("coalesced");
+        metrics.gauge(SUBSCRIBERS, "Подписчики потока показаний").labels().bind(subscriberCount::get);
+    }
+
+    /**
+     * Останавливает рассылку и закрывает все подписки.
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        delivery.shutdownNow();
+        for (SensorReadingSubscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * @return политика переполнения по умолчанию ({@value #OVERFLOW})
+     */
+    public Overflow getDefaultOverflow() {
+        return defaultOverflow;
+    }
+
+    /**
+     * Публикует сохраненные показания. Вызывается после фиксации транзакции;
+     * ошибки публикации не влияют на результат записи.
+     *
+     * @param saved сохраненные показания с присвоенными идентификаторами
+     */
+    public void publish(List<SensorData> saved) {
+        if (saved.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> types = new ArrayList<>(saved.size());
+            for (SensorData sensorData : saved) {
+                types.add(sensorType(sensorData.getSensor() != null ? sensorData.getSensor().getId() : null));
+            }
+            synchronized (this) {
+                for (int i = 0; i < saved.size(); i++) {
+                    SensorData sensorData = saved.get(i);
+                    long sequence = nextSequence++;
+                    SensorReadingEvent event = new SensorReadingEvent(
+                            bootId + "-" + sequence, sequence, sensorData.getId(),
+                            sensorData.getSensor() != null ? sensorData.getSensor().getId() : null,
+                            types.get(i),
+                            sensorData.getTimestamp() != null ? sensorData.getTimestamp().toString() : null,
+                            sensorData.getPurpose());
+                    replay[(int) (sequence % replay.length)] = event;
+                    for (SensorReadingSubscription subscription : subscriptions) {
+                        if (subscription.matches(event)) {
+                            subscription.offer(event);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось опубликовать {} показаний в поток: {}", saved.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Подписывает получателя на новые показания.
+     * Если передан {@code lastEventId} из окна повтора, сначала передаются
+     * пропущенные после него показания, затем - новые, без пропусков и повторов.
+     *
+     * @param sensorId только показания этого сенсора или null
+     * @param sensorType только показания сенсоров этого типа или null
+     * @param overflow политика переполнения буфера
+     * @param lastEventId идентификатор последнего полученного события или null
+     * @param listener получатель
+     * @return false если достигнуто наибольшее число подписчиков ({@value #MAX_SUBSCRIBERS})
+     */
+    public boolean subscribe(Long sensorId, String sensorType, Overflow overflow,
+                             String lastEventId, SensorReadingListener listener) {
+        SensorReadingSubscription subscription = new SensorReadingSubscription(
+                this, sensorId, sensorType, overflow, bufferSize, listener, delivery);
+        synchronized (this) {
+            if (subscriptions.size() >= maxSubscribers) {
+                return false;
+            }
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replaySince(lastEventId.trim(), subscription);
+            }
+            subscriptions.add(subscription);
+            subscriberCount.set(subscriptions.size());
+        }
+        LOG.debug("Подписка на показания: сенсор {}, тип {}, политика {}, Last-Event-ID {}",
+                sensorId, sensorType, overflow, lastEventId);
+        return true;
+    }
+
+    void remove(SensorReadingSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscriberCount.set(subscriptions.size());
+    }
+
+    void countDelivered(int count) {
+        delivered.add(count);
+    }
+
+    void countDropped() {
+        dropped.increment();
+    }
+
+    void countCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * Передает подписке события окна повтора после {@code lastEventId}
+     * или отмечает сброс потока, если продолжить с этого события нельзя.
+     * Вызывается под блокировкой концентратора.
+     */
+    private void replaySince(String lastEventId, SensorReadingSubscription subscription) {
+        long last = parseSequence(lastEventId);
+        long oldest = Math.max(1, nextSequence - replay.length);
+        if (last < oldest - 1 || last >= nextSequence) {
+            subscription.signalReset();
+            return;
+        }
+        List<SensorReadingEvent> missed = new ArrayList<>();
+        for (long sequence = last + 1; sequence < nextSequence; sequence++) {
+            SensorReadingEvent event = replay[(int) (sequence % replay.length)];
+            if (subscription.matches(event)) {
+                missed.add(event);
+            }
+        }
+        subscription.replay(missed);
+    }
+
+    /**
+     * @return порядковый номер события этого запуска или -1
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(bootId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Находит тип сенсора через кэш, сбрасываемый по поколению тега {@link Sensor}.
+     * Сенсоры читаются из кэша второго уровня Hibernate, поэтому промах обычно
+     * не доходит до базы данных.
+     *
+     * @return тип сенсора или null, если сенсор не найден или база недоступна
+     */
+    private String sensorType(Long sensorId) {
+        if (sensorId == null) {
+            return null;
+        }
+        long generation = EntityChangeTags.generation(Sensor.class);
+        if (generation != sensorGeneration || sensorTypes.size() > MAX_CACHED_SENSORS) {
+            sensorTypes.clear();
+            sensorGeneration = generation;
+        }
+        String type = sensorTypes.get(sensorId);
+        if (type == null) {
+            try {
+                type = Objects.requireNonNullElse(sensorService.getById(sensorId).getType(), NO_TYPE);
+            } catch (NotFoundException | IllegalArgumentException e) {
+                type = NO_TYPE;
+            } catch (RuntimeException e) {
+                LOG.debug("Тип сенсора {} недоступен: {}", sensorId, e.getMessage());
+                return null;
+            }
+            sensorTypes.put(sensorId, type);
+        }
+        return NO_TYPE.equals(type) ? null : type;
+    }
+}
@@ -0,0 +1,45 @@
+package by.losik.lab6omis.service.stream;
+
+/**
+ * Получатель потока новых показаний.
+ * Методы вызываются по очереди в потоке доставки подписки {@link SensorReadingHub}
+ * и могут блокироваться на записи клиенту; исключение из любого метода
+ * отписывает получателя.
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+public interface SensorReadingListener {
+
+    /**
+     * Передает новое показание.
+     *
+     * @param event событие показания
+     */
+    void onReading(SensorReadingEvent event);
+
+    /**
+     * Сообщает, что показания были отброшены из-за переполнения буфера получателя.
+     *
+     * @param count число отброшенных показаний
+     */
+    void onDropped(long count);
+
+    /**
+     * Сообщает, что продолжить поток с {@code Last-Event-ID} нельзя: событие уже
+     * вытеснено из окна повтора или выдано до перезапуска сервера.
+     * Клиенту следует перечитать актуальные данные через REST.
+     */
+    void onReset();
+
+    /**
+     * Вызывается, если получателю давно ничего не передавалось.
+     * Позволяет обнаружить закрытое соединение и удерживает его через прокси.
+     */
+    void onHeartbeat();
+
+    /**
+     * Вызывается один раз после отписки получателя.
+     */
+    void onClose();
+}
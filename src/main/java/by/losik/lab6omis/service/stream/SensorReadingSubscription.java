@@ -0,0 +1,237 @@
+package by.losik.lab6omis.service.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Подписка на поток новых показаний с собственным ограниченным буфером.
+ * Концентратор кладет события в буфер не блокируясь, а рассылка выполняется
+ * задачей в пуле доставки концентратора; одновременно для подписки запланировано
+ * не более одной такой задачи, поэтому получатель вызывается строго по очереди,
+ * а его блокирующая запись занимает только поток этой задачи.
+ *
+ * <p>Если получатель не успевает и буфер заполнен, применяется политика подписки:
+ * {@link SensorReadingHub.Overflow#DROP} отбрасывает самое старое событие
+ * и сообщает получателю число потерь, {@link SensorReadingHub.Overflow#COALESCE}
+ * заменяет ожидающее событие того же сенсора новым (получатель видит последнее
+ * значение каждого сенсора), а если такого нет - тоже отбрасывает самое старое.</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class SensorReadingSubscription {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensorReadingSubscription.class);
+
+    private final SensorReadingHub hub;
+    private final Long sensorId;
+    private final String sensorType;
+    private final SensorReadingHub.Overflow overflow;
+    private final int capacity;
+    private final SensorReadingListener listener;
+    private final Executor executor;
+
+    private final ArrayDeque<SensorReadingEvent> buffer = new ArrayDeque<>();
+    private List<SensorReadingEvent> backlog = List.of();
+    private long dropped;
+    private boolean reset;
+    private boolean heartbeat;
+    private boolean scheduled;
+    private boolean closed;
+    private volatile long lastDeliveryNanos = System.nanoTime();
+
+    SensorReadingSubscription(SensorReadingHub hub, Long sensorId, String sensorType,
+                              SensorReadingHub.Overflow overflow, int capacity,
+                              SensorReadingListener listener, Executor executor) {
+        this.hub = hub;
+        this.sensorId = sensorId;
+        this.sensorType = sensorType;
+        this.overflow = overflow;
+        this.capacity = capacity;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    /**
+     * Проверяет, подходит ли событие под фильтр подписки.
+     *
+     * @param event событие показания
+     * @return true если событие нужно передать получателю
+     */
+    boolean matches(SensorReadingEvent event) {
+        return (sensorId == null || sensorId.equals(event.getSensorId()))
+                && (sensorType == null || sensorType.equals(event.getSensorType()));
+    }
+
+    /**
+     * Ставит событие в буфер, применяя политику переполнения.
+     *
+     * @param event событие показания
+     */
+    synchronized void offer(SensorReadingEvent event) {
+        if (closed) {
+            return;
+        }
+        if (buffer.size() >= capacity) {
+            if (overflow == SensorReadingHub.Overflow.COALESCE && removePending(event.getSensorId())) {
+                hub.countCoalesced();
+            } else {
+                buffer.pollFirst();
+                dropped++;
+                hub.countDropped();
+            }
+        }
+        buffer.addLast(event);
+        schedule();
+    }
+
+    /**
+     * Задает пропущенные клиентом события из окна повтора. Они передаются раньше
+     * событий буфера и не вытесняются политикой переполнения: их число уже
+     * ограничено размером окна.
+     *
+     * @param events события после {@code Last-Event-ID}, подходящие под фильтр
+     */
+    synchronized void replay(List<SensorReadingEvent> events) {
+        if (closed || events.isEmpty()) {
+            return;
+        }
+        backlog = events;
+        schedule();
+    }
+
+    /**
+     * Отмечает, что продолжить поток с переданного клиентом события нельзя.
+     */
+    synchronized void signalReset() {
+        reset = true;
+        schedule();
+    }
+
+    /**
+     * Запрашивает проверку соединения, если получателю давно ничего не передавалось.
+     *
+     * @param idleNanos интервал бездействия
+     */
+    void heartbeatIfIdle(long idleNanos) {
+        if (System.nanoTime() - lastDeliveryNanos < idleNanos) {
+            return;
+        }
+        synchronized (this) {
+            heartbeat = true;
+            schedule();
+        }
+    }
+
+    /**
+     * Отписывает получателя. Повторные вызовы ничего не делают.
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            backlog = List.of();
+        }
+        hub.remove(this);
+        try {
+            listener.onClose();
+        } catch (RuntimeException e) {
+            LOG.debug("Ошибка закрытия подписки на показания: {}", e.getMessage());
+        }
+    }
+
+    private boolean removePending(Long pendingSensorId) {
+        Iterator<SensorReadingEvent> pending = buffer.iterator();
+        while (pending.hasNext()) {
+            if (Objects.equals(pending.next().getSensorId(), pendingSensorId)) {
+                pending.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasWork() {
+        return !backlog.isEmpty() || !buffer.isEmpty() || dropped > 0 || reset || heartbeat;
+    }
+
+    private void schedule() {
+        if (scheduled || closed) {
+            return;
+        }
+        scheduled = true;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            scheduled = false;
+            closed = true;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Передает получателю накопленное в буфере. За один проход передается то, что
+     * было в буфере на его начало; если за это время пришли новые события,
+     * проход планируется заново, освобождая поток пула между проходами.
+     */
+    private void drain() {
+        List<SensorReadingEvent> events;
+        long droppedNow;
+        boolean resetNow;
+        boolean heartbeatNow;
+        synchronized (this) {
+            if (closed) {
+                scheduled = false;
+                return;
+            }
+            events = new ArrayList<>(backlog.size() + buffer.size());
+            events.addAll(backlog);
+            events.addAll(buffer);
+            backlog = List.of();
+            buffer.clear();
+            droppedNow = dropped;
+            dropped = 0;
+            resetNow = reset;
+            reset = false;
+            heartbeatNow = heartbeat;
+            heartbeat = false;
+        }
+        try {
+            if (resetNow) {
+                listener.onReset();
+            }
+            if (droppedNow > 0) {
+                listener.onDropped(droppedNow);
+            }
+            for (SensorReadingEvent event : events) {
+                listener.onReading(event);
+            }
+            if (heartbeatNow && events.isEmpty()) {
+                listener.onHeartbeat();
+            }
+            lastDeliveryNanos = System.nanoTime();
+            hub.countDelivered(events.size());
+        } catch (RuntimeException e) {
+            LOG.debug("Получатель показаний отключен: {}", e.getMessage());
+            close();
+            return;
+        }
+        synchronized (this) {
+            scheduled = false;
+            if (hasWork()) {
+                schedule();
+            }
+        }
+    }
+}
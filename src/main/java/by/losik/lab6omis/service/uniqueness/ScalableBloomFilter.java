@@ -0,0 +1,245 @@
+package by.losik.lab6omis.service.uniqueness;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Масштабируемый фильтр Блума для строковых значений.
+ * Состоит из последовательности обычных фильтров (срезов): когда текущий срез
+ * заполнен до расчетной емкости, добавляется новый, вдвое большей емкости
+ * и с вдвое меньшей долей ложных срабатываний. Поэтому итоговая доля
+ * ложных срабатываний не превышает заданную при любом числе значений.
+ *
+ * <p>Проверка выполняется без блокировок; добавление синхронизировано.
+ * Если очередной срез превысил бы лимит памяти, фильтр переходит в состояние
+ * насыщения и на любую проверку отвечает "возможно есть".</p>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+final class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    private static final double LN2 = Math.log(2);
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private volatile Slice[] slices;
+    private volatile boolean saturated;
+    private volatile long size;
+
+    /**
+     * Создает фильтр.
+     *
+     * @param initialCapacity емкость первого среза
+     * @param falsePositiveRate допустимая доля ложных срабатываний (0..1)
+     * @param maxBytes лимит памяти битовых массивов
+     */
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate, long maxBytes) {
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("Доля ложных срабатываний должна быть в интервале (0, 1)");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        long capacity = Math.max(1, initialCapacity);
+        double sliceRate = falsePositiveRate * (1 - TIGHTENING_RATIO);
+        if (Slice.bitsFor(capacity, sliceRate) / 8 > maxBytes) {
+            this.slices = new Slice[0];
+            this.saturated = true;
+        } else {
+            this.slices = new Slice[]{new Slice(capacity, sliceRate)};
+        }
+    }
+
+    /**
+     * Проверяет, могло ли значение быть добавлено.
+     *
+     * @param value значение
+     * @return false - значения точно нет; true - значение возможно есть
+     */
+    boolean mightContain(String value) {
+        if (saturated) {
+            return true;
+        }
+        long h1 = hash(value);
+        long h2 = mix(h1) | 1L;
+        for (Slice slice : slices) {
+            if (slice.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Добавляет значение.
+     *
+     * @param value значение
+     */
+    synchronized void put(String value) {
+        if (saturated) {
+            return;
+        }
+        long h1 = hash(value);
+        long h2 = mix(h1) | 1L;
+        Slice[] current = slices;
+        for (Slice slice : current) {
+            if (slice.mightContain(h1, h2)) {
+                return;
+            }
+        }
+
+        Slice last = current[current.length - 1];
+        if (last.count >= last.capacity) {
+            long nextCapacity = last.capacity * GROWTH_FACTOR;
+            double nextRate = last.falsePositiveRate * TIGHTENING_RATIO;
+            if (getMemoryBytes() + Slice.bitsFor(nextCapacity, nextRate) / 8 > maxBytes) {
+                saturated = true;
+                return;
+            }
+            Slice next = new Slice(nextCapacity, nextRate);
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = next;
+            slices = current;
+            last = next;
+        }
+        last.put(h1, h2);
+        size++;
+    }
+
+    /**
+     * @return количество добавленных различных значений (оценка снизу)
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return количество срезов
+     */
+    int sliceCount() {
+        return slices.length;
+    }
+
+    /**
+     * @return заданная доля ложных срабатываний
+     */
+    double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * @return true если фильтр исчерпал лимит памяти и не отсекает проверки
+     */
+    boolean isSaturated() {
+        return saturated;
+    }
+
+    /**
+     * @return объем памяти битовых массивов в байтах
+     */
+    long getMemoryBytes() {
+        long bytes = 0;
+        for (Slice slice : slices) {
+            bytes += slice.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Оценивает текущую долю ложных срабатываний по заполненности срезов.
+     *
+     * @return оценка доли ложных срабатываний
+     */
+    double estimateFalsePositiveRate() {
+        if (saturated) {
+            return 1.0;
+        }
+        double allNegative = 1.0;
+        for (Slice slice : slices) {
+            allNegative *= 1.0 - Math.pow(slice.fillRatio(), slice.hashCount);
+        }
+        return 1.0 - allNegative;
+    }
+
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Обычный фильтр Блума фиксированной емкости.
+     */
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray words;
+        private long count;
+
+        Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.bitCount = bitsFor(capacity, falsePositiveRate);
+            int wordCount = (int) (bitCount / 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        /**
+         * Рассчитывает размер битового массива (кратный 64) для емкости и доли ложных срабатываний.
+         */
+        static long bitsFor(long capacity, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            return Math.max(1, (bits + 63) / 64) * 64L;
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                words.getAndUpdate(index, word -> word | mask);
+            }
+            count++;
+        }
+
+        long bytes() {
+            return bitCount / 8;
+        }
+
+        double fillRatio() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return (double) set / bitCount;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package by.losik.lab6omis.service.uniqueness;
+
+import by.losik.lab6omis.persistence.TransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Сервис фильтров Блума для проверок уникальности при создании и обновлении.
+ * Для каждого уникального столбца держит в памяти {@link ScalableBloomFilter},
+ * заполняемый при запуске приложения и дополняемый при записи.
+ * Если фильтр отвечает "значения точно нет", обращение к БД не выполняется;
+ * только возможные совпадения проверяются запросом {@code SELECT 1 ... LIMIT 1}.
+ *
+ * <p>Сервисы учитывают значение до вставки, поэтому фильтр не отстает от БД.
+ * Окончательную проверку выполняет уникальный индекс БД: гонку двух параллельных
+ * записей одного значения фильтр не исключает.</p>
+ *
+ * <p>Удаленные значения из фильтра не исключаются: они лишь приводят к лишней
+ * проверке в БД. Значения, записанные в обход сервисов (например, напрямую в БД),
+ * фильтр не видит до {@link #rebuild()}.</p>
+ *
+ * <p>Настройки (системные свойства):</p>
+ * <ul>
+ *   <li>{@value #FALSE_POSITIVE_RATE} - допустимая доля ложных срабатываний (по умолчанию 0.01)</li>
+ *   <li>{@value #INITIAL_CAPACITY} - минимальная емкость первого среза (по умолчанию 1024)</li>
+ *   <li>{@value #MAX_MEMORY_MB} - лимит памяти одного фильтра, МБ (по умолчанию 16)</li>
+ * </ul>
+ *
+ * @author Losik Yaroslav
+ * @version 1.0
+ */
+@ApplicationScoped
+public class UniquenessFilterService {
+
+    public static final String REQUEST_GOAL = "request.goal";
+    public static final String RESPONSE_MESSAGE = "response.message";
+    public static final String SOLUTION_MESSAGE = "solution.message";
+    public static final String SENSOR_NAME = "sensor.name";
+
+    public static final String FALSE_POSITIVE_RATE = "lab6omis.uniqueness.fpp";
+    public static final String INITIAL_CAPACITY = "lab6omis.uniqueness.initial.capacity";
+    public static final String MAX_MEMORY_MB = "lab6omis.uniqueness.max.mb";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UniquenessFilterService.class);
+    private static final int FETCH_SIZE = 1000;
+    private static final int CAPACITY_HEADROOM = 2;
+
+    private static final List<String> FILTERS = List.of(REQUEST_GOAL, RESPONSE_MESSAGE, SOLUTION_MESSAGE, SENSOR_NAME);
+
+    /**
+     * Таблица и столбец, по которым строится каждый фильтр.
+     */
+    private static final Map<String, List<String>> SOURCES = Map.of(
+            REQUEST_GOAL, List.of("lab6omis.requests", "goal"),
+            RESPONSE_MESSAGE, List.of("lab6omis.response", "message"),
+            SOLUTION_MESSAGE, List.of("lab6omis.solutions", "message"),
+            SENSOR_NAME, List.of("lab6omis.sensors", "name")
+    );
+
+    @Inject
+    private TransactionManager txManager;
+
+    private final Map<String, FilterState> filters = new ConcurrentHashMap<>();
+
+    /**
+     * Строит фильтры при запуске приложения.
+     *
+     * @param init событие инициализации контекста приложения
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        rebuild();
+    }
+
+    /**
+     * Проверяет, существует ли значение.
+     *
+     * @param filter имя фильтра (например, {@link #REQUEST_GOAL})
+     * @param value проверяемое значение
+     * @param databaseCheck проверка в БД для возможных совпадений
+     * @return true если значение существует
+     */
+    public boolean exists(String filter, String value, Predicate<String> databaseCheck) {
+        FilterState state = filters.get(filter);
+        if (state == null || !state.ready || value == null) {
+            return databaseCheck.test(value);
+        }
+
+        state.checks.incrementAndGet();
+        if (!state.filter.mightContain(value)) {
+            state.definiteMisses.incrementAndGet();
+            return false;
+        }
+
+        boolean exists = databaseCheck.test(value);
+        if (!exists) {
+            state.falsePositives.incrementAndGet();
+        }
+        return exists;
+    }
+
+    /**
+     * Учитывает значение, которое будет записано. Вызывается до вставки,
+     * чтобы значение не выпало из фильтра, строящегося параллельно.
+     *
+     * @param filter имя фильтра
+     * @param value записываемое значение
+     */
+    public void add(String filter, String value) {
+        if (value == null) {
+            return;
+        }
+        FilterState state = filters.get(filter);
+        if (state != null) {
+            state.put(value);
+        }
+    }
+
+    /**
+     * Перестраивает все фильтры по текущему содержимому БД.
+     * На время построения проверки по фильтру выполняются старым фильтром
+     * (или напрямую в БД, если его нет), а новые записи попадают в оба фильтра.
+     * Строящийся фильтр начинает принимать записи до просмотра таблицы.
+     */
+    public void rebuild() {
+        FILTERS.forEach(this::rebuild);
+    }
+
+    /**
+     * Возвращает статистику фильтров.
+     *
+     * @return карта [имя фильтра, показатели]
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : FILTERS) {
+            FilterState state = filters.get(name);
+            if (state == null || !state.ready) {
+                continue;
+            }
+            ScalableBloomFilter filter = state.filter;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("entries", filter.size());
+            values.put("slices", filter.sliceCount());
+            values.put("memoryBytes", filter.getMemoryBytes());
+            values.put("configuredFalsePositiveRate", filter.getFalsePositiveRate());
+            values.put("estimatedFalsePositiveRate", filter.estimateFalsePositiveRate());
+            values.put("saturated", filter.isSaturated());
+            values.put("checks", state.checks.get());
+            values.put("definiteMisses", state.definiteMisses.get());
+            values.put("falsePositives", state.falsePositives.get());
+            result.put(name, values);
+        }
+        return result;
+    }
+
+    private void rebuild(String name) {
+        String table = SOURCES.get(name).get(0);
+        String column = SOURCES.get(name).get(1);
+        FilterState previous = filters.get(name);
+        FilterState building = null;
+
+        try {
+            long rows = txManager.executeQuery(em -> ((Number) em
+                    .createNativeQuery("SELECT COUNT(*) FROM " + table)
+                    .getSingleResult()).longValue());
+            long capacity = Math.max(getLong(INITIAL_CAPACITY, 1024), rows * CAPACITY_HEADROOM);
+            ScalableBloomFilter next = new ScalableBloomFilter(
+                    capacity,
+                    getDouble(FALSE_POSITIVE_RATE, 0.01),
+                    getLong(MAX_MEMORY_MB, 16) * 1024 * 1024
+            );
+
+            building = new FilterState(next);
+            if (previous != null) {
+                previous.mirrorTo(building);
+            } else {
+                filters.put(name, building);
+            }
+
+            long start = System.nanoTime();
+            try (Stream<?> values = txManager.streamQuery(em -> em
+                    .createNativeQuery("SELECT " + column + " FROM " + table)
+                    .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                    .setHint("org.hibernate.readOnly", true)
+                    .getResultStream())) {
+                values.forEach(value -> {
+                    if (value != null) {
+                        next.put(value.toString());
+                    }
+                });
+            }
+
+            if (previous != null) {
+                building.copyCounters(previous);
+            }
+            building.ready = true;
+            filters.put(name, building);
+            LOG.info("Фильтр уникальности {} построен: {} значений, {} КБ, {} мс",
+                    name, next.size(), next.getMemoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            if (previous != null) {
+                previous.mirrorTo(null);
+            } else if (building != null) {
+                filters.remove(name, building);
+            }
+            LOG.warn("Не удалось построить фильтр уникальности {}, проверки выполняются в БД: {}",
+                    name, e.getMessage());
+        }
+    }
+
+    private static long getLong(String property, long defaultValue) {
+        String value = System.getProperty(property);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    private static double getDouble(String property, double defaultValue) {
+        String value = System.getProperty(property);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /**
+     * Фильтр столбца со счетчиками проверок. Пока фильтр строится ({@code ready == false}),
+     * он принимает записи, но проверки по нему не выполняются.
+     */
+    private static final class FilterState {
+        private final ScalableBloomFilter filter;
+        private final AtomicLong checks = new AtomicLong();
+        private final AtomicLong definiteMisses = new AtomicLong();
+        private final AtomicLong falsePositives = new AtomicLong();
+        private volatile FilterState mirror;
+        private volatile boolean ready;
+
+        FilterState(ScalableBloomFilter filter) {
+            this.filter = filter;
+        }
+
+        synchronized void put(String value) {
+            filter.put(value);
+            if (mirror != null) {
+                mirror.filter.put(value);
+            }
+        }
+
+        synchronized void mirrorTo(FilterState target) {
+            mirror = target;
+        }
+
+        void copyCounters(FilterState other) {
+            checks.addAndGet(other.checks.get());
+            definiteMisses.addAndGet(other.definiteMisses.get());
+            falsePositives.addAndGet(other.falsePositives.get());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package by.losik.lab6omis.servlet;
 
+import by.losik.lab6omis.dto.DashboardSnapshot;
 import by.losik.lab6omis.entities.general.enums.Language;
 import by.losik.lab6omis.entities.general.types.Solution;
 import by.losik.lab6omis.entities.general.types.Sensor;
 import by.losik.lab6omis.entities.general.types.Sound;
+import by.losik.lab6omis.service.dashboard.DashboardSnapshotService;
 import by.losik.lab6omis.service.general.types.AnalysisCommand;
 import by.losik.lab6omis.service.general.types.RequestService;
 import by.losik.lab6omis.service.general.types.SensorService;
@@ -39,6 +41,7 @@ import java.util.Arrays;
 public class ViewServlet extends HttpServlet {
 
     private static final Logger LOG = LoggerFactory.getLogger(ViewServlet.class);
+    private static final String TEMPLATE_CACHE_PARAM = "lab6omis.templates.cacheable";
 
     private TemplateEngine templateEngine;
     private JavaxServletWebApplication application;
@@ -58,6 +61,9 @@ public class ViewServlet extends HttpServlet {
     @Inject
     private RequestService requestService;
 
+    @Inject
+    private DashboardSnapshotService snapshotService;
+
     /**
      * Инициализирует сервлет, настраивая шаблонизатор Thymeleaf.
      * Создает резолвер шаблонов с указанием папки, кодировки и других параметров.
@@ -74,12 +80,26 @@ public class ViewServlet extends HttpServlet {
         templateResolver.setPrefix("/WEB-INF/views/");
         templateResolver.setSuffix(".html");
         templateResolver.setCharacterEncoding("UTF-8");
-        templateResolver.setCacheable(false);
+        templateResolver.setCacheable(isTemplateCacheEnabled(servletContext));
 
         this.templateEngine = new TemplateEngine();
         this.templateEngine.setTemplateResolver(templateResolver);
 
-        LOG.info("Thymeleaf инициализирован");
+        LOG.info("Thymeleaf инициализирован, кэширование шаблонов: {}", templateResolver.isCacheable());
+    }
+
+    /**
+     * Определяет, кэшировать ли разобранные шаблоны.
+     * Кэш включен по умолчанию (рабочий режим) и отключается параметром контекста
+     * {@value #TEMPLATE_CACHE_PARAM} = false, чтобы при разработке правки шаблонов
+     * применялись без перезапуска.
+     *
+     * @param servletContext контекст сервлета
+     * @return true если шаблоны нужно кэшировать
+     */
+    private boolean isTemplateCacheEnabled(ServletContext servletContext) {
+        String value = servletContext.getInitParameter(TEMPLATE_CACHE_PARAM);
+        return value == null || Boolean.parseBoolean(value.trim());
     }
 
     /**
@@ -129,7 +149,7 @@ public class ViewServlet extends HttpServlet {
                 return;
             }
 
-            LOG.debug("Processing template: " + template);
+            LOG.debug("Processing template: {}", template);
             templateEngine.process(template, ctx, resp.getWriter());
 
         } catch (Exception e) {
@@ -179,12 +199,15 @@ public class ViewServlet extends HttpServlet {
 
             if (path.startsWith("/sensors")) {
                 sensorService.deleteSensor(id);
+                snapshotService.invalidate();
                 resp.sendRedirect(contextPath + "/sensors?success=Сенсор удален");
             } else if (path.startsWith("/sounds")) {
                 soundService.deleteSound(id);
+                snapshotService.invalidate();
                 resp.sendRedirect(contextPath + "/sounds?success=Звук удален");
             } else if (path.startsWith("/solutions")) {
                 solutionService.deleteSolution(id);
+                snapshotService.invalidate();
                 resp.sendRedirect(contextPath + "/solutions?success=Решение удалено");
             }
 
@@ -217,10 +240,11 @@ public class ViewServlet extends HttpServlet {
      * @return имя шаблона для главной страницы
      */
     private String handleHome(WebContext ctx) {
+        DashboardSnapshot snapshot = snapshotService.getSnapshot();
         ctx.setVariable("title", "Панель управления");
-        ctx.setVariable("totalSensors", sensorService.countAllSensors());
-        ctx.setVariable("totalSolutions", solutionService.getTotalSolutionsCount());
-        ctx.setVariable("totalRequests", requestService.getTotalRequestsCount());
+        ctx.setVariable("totalSensors", snapshot.getTotalSensors());
+        ctx.setVariable("totalSolutions", snapshot.getTotalSolutions());
+        ctx.setVariable("totalRequests", snapshot.getTotalRequests());
         return "dashboard";
     }
 
@@ -243,7 +267,7 @@ public class ViewServlet extends HttpServlet {
             int size = sizeParam != null ? Integer.parseInt(sizeParam) : 20;
 
             ctx.setVariable("sensors", sensorService.getAllSensors(page, size));
-            ctx.setVariable("totalItems", sensorService.countAllSensors());
+            ctx.setVariable("totalItems", snapshotService.getSnapshot().getTotalSensors());
             ctx.setVariable("currentPage", page);
             ctx.setVariable("pageSize", size);
 
@@ -292,7 +316,7 @@ public class ViewServlet extends HttpServlet {
             int size = sizeParam != null ? Integer.parseInt(sizeParam) : 10;
 
             ctx.setVariable("solutions", solutionService.getAllSolutions(page, size));
-            ctx.setVariable("totalItems", solutionService.getTotalSolutionsCount());
+            ctx.setVariable("totalItems", snapshotService.getSnapshot().getTotalSolutions());
             ctx.setVariable("currentPage", page);
             ctx.setVariable("pageSize", size);
 
@@ -321,7 +345,7 @@ public class ViewServlet extends HttpServlet {
      */
     private String handleAnalysis(WebContext ctx) {
         ctx.setVariable("title", "Панель анализа");
-        ctx.setVariable("totalSolutions", solutionService.getTotalSolutionsCount());
+        ctx.setVariable("totalSolutions", snapshotService.getSnapshot().getTotalSolutions());
         ctx.setVariable("isAnalysisRunning", false);
         return "analysis/dashboard";
     }
@@ -367,7 +391,7 @@ public class ViewServlet extends HttpServlet {
             int size = sizeParam != null ? Integer.parseInt(sizeParam) : 20;
 
             ctx.setVariable("sounds", soundService.getAllSounds(page, size));
-            ctx.setVariable("totalItems", soundService.getTotalSoundsCount());
+            ctx.setVariable("totalItems", snapshotService.getSnapshot().getTotalSounds());
             ctx.setVariable("currentPage", page);
             ctx.setVariable("pageSize", size);
 
@@ -479,6 +503,7 @@ public class ViewServlet extends HttpServlet {
                 sensor.setIsActive(isActive);
 
                 sensorService.createSensor(sensor);
+                snapshotService.invalidate();
                 resp.sendRedirect(contextPath + "/sensors?success=Сенсор успешно создан");
 
             } else if ("edit".equals(operation)) {
@@ -544,6 +569,7 @@ public class ViewServlet extends HttpServlet {
                     sound.setFrequency(frequency);
 
                     Sound createdSound = soundService.createSound(sound);
+                    snapshotService.invalidate();
                     LOG.info("Создан звук с ID: {}", createdSound.getId());
                     resp.sendRedirect(contextPath + "/sounds?success=Звук успешно создан");
 
@@ -605,6 +631,7 @@ public class ViewServlet extends HttpServlet {
                 solution.setMessage(message.trim());
 
                 solutionService.createSolution(solution);
+                snapshotService.invalidate();
                 resp.sendRedirect(contextPath + "/solutions?success=Решение успешно создано");
             } else {
                 resp.sendRedirect(contextPath + "/solutions?error=Некорректный запрос");
@@ -28,6 +28,9 @@ CREATE TABLE IF NOT EXISTS lab6omis.requests (
 CREATE INDEX IF NOT EXISTS idx_requests_language ON lab6omis.requests(language);
 CREATE INDEX IF NOT EXISTS idx_requests_accuracy ON lab6omis.requests(recognition_accuracy);
 CREATE INDEX IF NOT EXISTS idx_requests_created_date ON lab6omis.requests(created_date);
+CREATE INDEX IF NOT EXISTS idx_requests_goal_hash ON lab6omis.requests USING hash (goal);
+-- Уникальность длинных текстов обеспечивается по md5: сам текст может превысить предел размера ключа B-tree.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_requests_goal_unique ON lab6omis.requests (md5(goal));
 
 COMMENT ON TABLE lab6omis.requests IS 'Таблица запросов пользователей';
 COMMENT ON COLUMN lab6omis.requests.language IS 'Язык запроса';
@@ -50,6 +53,8 @@ CREATE TABLE IF NOT EXISTS lab6omis.response (
 CREATE INDEX IF NOT EXISTS idx_responses_language ON lab6omis.response(language);
 CREATE INDEX IF NOT EXISTS idx_responses_created_date ON lab6omis.response(created_date);
 CREATE INDEX IF NOT EXISTS idx_responses_message_length ON lab6omis.response(LENGTH(message));
+CREATE INDEX IF NOT EXISTS idx_responses_message_hash ON lab6omis.response USING hash (message);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_responses_message_unique ON lab6omis.response (md5(message));
 
 COMMENT ON TABLE lab6omis.response IS 'Таблица ответов системы';
 COMMENT ON COLUMN lab6omis.response.message IS 'Сообщение ответа';
@@ -69,6 +74,8 @@ CREATE TABLE IF NOT EXISTS lab6omis.solutions (
 
 CREATE INDEX IF NOT EXISTS idx_solutions_language ON lab6omis.solutions(language);
 CREATE INDEX IF NOT EXISTS idx_solutions_created_date ON lab6omis.solutions(created_date);
+CREATE INDEX IF NOT EXISTS idx_solutions_message_hash ON lab6omis.solutions USING hash (message);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_solutions_message_unique ON lab6omis.solutions (md5(message));
 
 COMMENT ON TABLE lab6omis.solutions IS 'Таблица решений';
 COMMENT ON COLUMN lab6omis.solutions.message IS 'Сообщение решения';
@@ -151,6 +158,8 @@ CREATE INDEX IF NOT EXISTS idx_sensor_data_purpose ON lab6omis.sensor_data(purpo
 CREATE INDEX IF NOT EXISTS idx_sensor_data_created_date ON lab6omis.sensor_data(created_date);
 CREATE INDEX IF NOT EXISTS idx_sensor_data_timestamp_sensor
     ON lab6omis.sensor_data(timestamp, sensor_id);
+CREATE INDEX IF NOT EXISTS idx_sensor_data_sensor_timestamp
+    ON lab6omis.sensor_data(sensor_id, timestamp);
 
 COMMENT ON TABLE lab6omis.sensor_data IS 'Таблица данных сенсоров';
 COMMENT ON COLUMN lab6omis.sensor_data.timestamp IS 'Временная метка данных';
@@ -195,6 +204,61 @@ CREATE TRIGGER trg_update_sensor_data_modified_date
     FOR EACH ROW
 EXECUTE FUNCTION lab6omis.update_modified_date();
 
+-- Счетчик изменений таблиц для водяных знаков ETag: меняется в той же транзакции,
+-- что и данные, поэтому новое значение видно ровно вместе с изменением.
+-- Строка счетчика заблокирована до конца транзакции, поэтому слот выбирается по номеру
+-- транзакции (txid % 64): одновременные транзакции получают соседние номера и не делят
+-- строку, пока их не больше 64, а это заметно больше пула соединений (pool_size=10).
+CREATE TABLE IF NOT EXISTS lab6omis.table_changes (
+    table_name VARCHAR(63) NOT NULL,
+    slot SMALLINT NOT NULL,
+    changes BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (table_name, slot)
+);
+
+COMMENT ON TABLE lab6omis.table_changes IS 'Счетчики изменений таблиц';
+
+CREATE OR REPLACE FUNCTION lab6omis.count_table_change()
+    RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO lab6omis.table_changes AS t (table_name, slot, changes)
+    VALUES (TG_TABLE_NAME, txid_current() % 64, 1)
+    ON CONFLICT (table_name, slot) DO UPDATE SET changes = t.changes + 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_count_requests_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.requests
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
+CREATE TRIGGER trg_count_response_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.response
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
+CREATE TRIGGER trg_count_solutions_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.solutions
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
+CREATE TRIGGER trg_count_sounds_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.sounds
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
+CREATE TRIGGER trg_count_sensors_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.sensors
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
+CREATE TRIGGER trg_count_sensor_data_changes
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lab6omis.sensor_data
+    FOR EACH STATEMENT
+EXECUTE FUNCTION lab6omis.count_table_change();
+
 CREATE OR REPLACE VIEW lab6omis.active_sensors_with_data AS
 SELECT
     s.id,